@@ -0,0 +1,123 @@
+#!/usr/bin/env bash
+#
+# Measures time to first response of the default jar against the fast-start
+# build (Spring AOT, AppCDS archive and lazy framework beans).
+#
+# Build both first with:
+#   mvn package -DskipTests && mvn -Pfast-start package -DskipTests
+#
+# Usage: scripts/startup-benchmark.sh [runs]
+#
+# For each run the script records, in milliseconds from launching the JVM:
+#   started    - Spring's own "Started VarApplication" time
+#   liveness   - first 200 from GET /actuator/health/liveness
+#   first_var  - first trade VaR response, including login
+# Medians are printed per mode, and every run is appended to
+# target/startup-benchmark.csv so results can be tracked across commits.
+# JAVA_OPTS is passed to both modes; PORT (default 9101) must be free.
+
+set -euo pipefail
+
+RUNS="${1:-5}"
+PORT="${PORT:-9101}"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+TARGET="$ROOT/target"
+FAT_JAR="$(ls "$TARGET"/var-calculation-*.jar 2>/dev/null | head -1 || true)"
+FAST_DIR="$TARGET/fast-start"
+CSV="$TARGET/startup-benchmark.csv"
+BASE="http://localhost:$PORT"
+TRADE='{"tradeId":"BENCH","historicalPnL":[-1500.0,2300.0,-800.0,1200.0,400.0,-300.0],"confidenceLevel":0.95}'
+
+if [[ -z "$FAT_JAR" || ! -f "$FAST_DIR/var-calculation.jsa" ]]; then
+    echo "Build first with: mvn package -DskipTests && mvn -Pfast-start package -DskipTests" >&2
+    exit 1
+fi
+
+WORK="$(mktemp -d)"
+PID=""
+cleanup() {
+    if [[ -n "$PID" ]]; then
+        kill "$PID" 2>/dev/null || true
+        wait "$PID" 2>/dev/null || true
+    fi
+    rm -rf "$WORK"
+}
+trap cleanup EXIT
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+# Runs one mode and prints "started liveness first_var"
+measure() {
+    local dir="$1"; shift
+    local log="$WORK/app.log"
+    local start liveness first_var started token
+
+    rm -rf "$WORK/data"
+    start=$(now_ms)
+    (cd "$dir" && exec env VAR_CACHE_DIR="$WORK/data" "$JAVA" ${JAVA_OPTS:-} "$@" \
+        --server.port="$PORT" --spring.jpa.show-sql=false > "$log" 2>&1) &
+    PID=$!
+
+    until curl -sf -o /dev/null "$BASE/actuator/health/liveness"; do
+        if ! kill -0 "$PID" 2>/dev/null; then
+            echo "Application exited; see its log:" >&2
+            tail -20 "$log" >&2
+            exit 1
+        fi
+        sleep 0.02
+    done
+    liveness=$(( $(now_ms) - start ))
+
+    token=$(curl -sf -X POST "$BASE/api/v1/auth/login" -H 'Content-Type: application/json' \
+        -d '{"username":"user","password":"user123"}' | sed -E 's/.*"token":"([^"]+)".*/\1/')
+    curl -sf -o /dev/null -X POST "$BASE/api/v1/var/trade" -H 'Content-Type: application/json' \
+        -H "Authorization: Bearer $token" -d "$TRADE"
+    first_var=$(( $(now_ms) - start ))
+
+    # "Started VarApplication in 2.345 seconds (process running for 2.789)"
+    started=$(sed -nE 's/.*Started VarApplication in [0-9.]+ seconds \(process running for ([0-9.]+)\).*/\1/p' "$log" \
+        | awk '{ printf "%d", $1 * 1000 }')
+
+    kill "$PID"
+    wait "$PID" 2>/dev/null || true
+    PID=""
+    echo "$started $liveness $first_var"
+}
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'
+}
+
+[[ -f "$CSV" ]] || echo "timestamp,commit,mode,run,started_ms,liveness_ms,first_var_ms" > "$CSV"
+COMMIT="$(git -C "$ROOT" rev-parse --short HEAD 2>/dev/null || echo unknown)"
+TIMESTAMP="$(date -u +%Y-%m-%dT%H:%M:%SZ)"
+
+printf "%-12s %4s %12s %12s %12s\n" mode run started_ms liveness_ms first_var_ms
+for mode in default fast-start; do
+    : > "$WORK/$mode"
+    for run in $(seq 1 "$RUNS"); do
+        if [[ "$mode" == default ]]; then
+            result=$(measure "$TARGET" -jar "$FAT_JAR")
+        else
+            result=$(measure "$FAST_DIR" -XX:SharedArchiveFile=var-calculation.jsa -Xlog:cds=off \
+                -Dspring.aot.enabled=true -Dspring.profiles.active=fast-start -jar var-calculation.jar)
+        fi
+        read -r started liveness first_var <<< "$result"
+        printf "%-12s %4d %12s %12s %12s\n" "$mode" "$run" "$started" "$liveness" "$first_var"
+        echo "$TIMESTAMP,$COMMIT,$mode,$run,$started,$liveness,$first_var" >> "$CSV"
+        echo "$result" >> "$WORK/$mode"
+    done
+done
+
+echo
+printf "%-12s %12s %12s %12s\n" median started_ms liveness_ms first_var_ms
+for mode in default fast-start; do
+    printf "%-12s %12s %12s %12s\n" "$mode" \
+        "$(cut -d' ' -f1 "$WORK/$mode" | median)" \
+        "$(cut -d' ' -f2 "$WORK/$mode" | median)" \
+        "$(cut -d' ' -f3 "$WORK/$mode" | median)"
+done
+echo "Runs appended to $CSV"
@@ -0,0 +1,25 @@
+package com.var.calculation.actuator;
+
+import com.var.calculation.service.AdmissionControlService;
+import com.var.calculation.service.AdmissionControlService.AdmissionStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes the adaptive admission limit, cost in flight per user and rejection
+ * counts at {@code /actuator/admission}.
+ */
+@Component
+@Endpoint(id = "admission")
+@RequiredArgsConstructor
+public class AdmissionEndpoint {
+    
+    private final AdmissionControlService admissionControl;
+    
+    @ReadOperation
+    public AdmissionStatus admission() {
+        return admissionControl.getStatus();
+    }
+}
@@ -0,0 +1,97 @@
+package com.var.calculation.actuator;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.var.calculation.config.VarCalculationProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Exposes per-cache size, estimated weight, hit rate and evictions at
+ * {@code /actuator/varcaches}.
+ */
+@Component
+@Endpoint(id = "varcaches")
+@RequiredArgsConstructor
+public class CacheStatisticsEndpoint {
+    
+    private final CacheManager cacheManager;
+    private final VarCalculationProperties properties;
+    
+    @ReadOperation
+    public CacheReport caches() {
+        var caches = new LinkedHashMap<String, CacheStatistics>();
+        long totalWeight = 0;
+        
+        for (String name : cacheManager.getCacheNames()) {
+            if (cacheManager.getCache(name) instanceof CaffeineCache caffeineCache) {
+                var statistics = statistics(caffeineCache.getNativeCache());
+                caches.put(name, statistics);
+                if (statistics.weightedSize() != null) {
+                    totalWeight += statistics.weightedSize();
+                }
+            }
+        }
+        
+        return new CacheReport(properties.getCache().getHeapBudget().toBytes(), totalWeight, caches);
+    }
+    
+    private CacheStatistics statistics(Cache<Object, Object> cache) {
+        var stats = cache.stats();
+        var eviction = cache.policy().eviction();
+        
+        Long weightedSize = eviction.flatMap(e -> e.weightedSize().stream().boxed().findFirst()).orElse(null);
+        Long maximum = eviction.map(e -> e.getMaximum()).orElse(null);
+        
+        return new CacheStatistics(
+            cache.estimatedSize(),
+            weightedSize,
+            maximum,
+            eviction.map(e -> e.isWeighted()).orElse(false),
+            stats.hitCount(),
+            stats.missCount(),
+            stats.hitRate(),
+            stats.evictionCount(),
+            stats.evictionWeight()
+        );
+    }
+    
+    /**
+     * @param heapBudgetBytes Configured heap budget shared by weight-bounded caches
+     * @param totalWeightBytes Current estimated weight of all weight-bounded caches
+     * @param caches Statistics per cache
+     */
+    public record CacheReport(
+        long heapBudgetBytes,
+        long totalWeightBytes,
+        Map<String, CacheStatistics> caches
+    ) {}
+    
+    /**
+     * @param size Estimated number of entries
+     * @param weightedSize Estimated bytes held, for weight-bounded caches
+     * @param maximum Maximum entries or bytes, depending on how the cache is bounded
+     * @param weighted Whether the cache is bounded by weight
+     * @param hitCount Number of cache hits
+     * @param missCount Number of cache misses
+     * @param hitRate Ratio of hits to requests
+     * @param evictionCount Number of entries evicted
+     * @param evictionWeight Total weight of evicted entries
+     */
+    public record CacheStatistics(
+        long size,
+        Long weightedSize,
+        Long maximum,
+        boolean weighted,
+        long hitCount,
+        long missCount,
+        double hitRate,
+        long evictionCount,
+        long evictionWeight
+    ) {}
+}
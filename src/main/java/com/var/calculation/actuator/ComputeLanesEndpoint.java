@@ -0,0 +1,26 @@
+package com.var.calculation.actuator;
+
+import com.var.calculation.service.ComputeLaneService;
+import com.var.calculation.service.ComputeLaneService.LaneStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import java.util.List;
+
+/**
+ * Exposes threads, active and queued calculations per priority lane at
+ * {@code /actuator/lanes}.
+ */
+@Component
+@Endpoint(id = "lanes")
+@RequiredArgsConstructor
+public class ComputeLanesEndpoint {
+    
+    private final ComputeLaneService laneService;
+    
+    @ReadOperation
+    public List<LaneStatus> lanes() {
+        return laneService.getStatus();
+    }
+}
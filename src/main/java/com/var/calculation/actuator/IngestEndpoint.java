@@ -0,0 +1,25 @@
+package com.var.calculation.actuator;
+
+import com.var.calculation.service.IngestPipelineService;
+import com.var.calculation.service.IngestPipelineService.IngestStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes file-drop ingestion queue depths, counts and recent files at
+ * {@code /actuator/ingest}.
+ */
+@Component
+@Endpoint(id = "ingest")
+@RequiredArgsConstructor
+public class IngestEndpoint {
+    
+    private final IngestPipelineService ingestService;
+    
+    @ReadOperation
+    public IngestStatus ingest() {
+        return ingestService.getStatus();
+    }
+}
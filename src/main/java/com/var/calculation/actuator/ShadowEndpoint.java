@@ -0,0 +1,25 @@
+package com.var.calculation.actuator;
+
+import com.var.calculation.service.ShadowComparisonService;
+import com.var.calculation.service.ShadowComparisonService.ShadowStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes shadow comparison counts, mismatches and the candidate engine's
+ * speedup at {@code /actuator/shadow}.
+ */
+@Component
+@Endpoint(id = "shadow")
+@RequiredArgsConstructor
+public class ShadowEndpoint {
+    
+    private final ShadowComparisonService shadowService;
+    
+    @ReadOperation
+    public ShadowStatus shadow() {
+        return shadowService.getStatus();
+    }
+}
@@ -0,0 +1,34 @@
+package com.var.calculation.actuator;
+
+import com.var.calculation.service.WarmupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports {@code warmup} as OUT_OF_SERVICE while the startup warm-up is
+ * running. It is part of the readiness group, so
+ * {@code /actuator/health/readiness} stays down until warm-up is over.
+ */
+@Component
+@RequiredArgsConstructor
+public class WarmupHealthIndicator implements HealthIndicator {
+    
+    private final WarmupService warmupService;
+    
+    @Override
+    public Health health() {
+        var status = warmupService.getStatus();
+        var health = (status.ready() ? Health.up() : Health.outOfService())
+            .withDetail("state", status.state())
+            .withDetail("requests", status.requests())
+            .withDetail("elapsedMillis", status.elapsedMillis())
+            .withDetail("budgetMillis", status.budgetMillis())
+            .withDetail("shapes", status.shapes());
+        if (status.error() != null) {
+            health.withDetail("error", status.error());
+        }
+        return health.build();
+    }
+}
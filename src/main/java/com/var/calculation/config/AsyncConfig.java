@@ -5,14 +5,37 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.core.task.support.TaskExecutorAdapter;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableAsync
 public class AsyncConfig {
     
+    public static final String AUDIT_EXECUTOR = "auditExecutor";
+    
     @Bean(name = "taskExecutor")
     public AsyncTaskExecutor taskExecutor() {
         return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
     }
+    
+    /**
+     * Writes audit records, whose tasks hold the request and response until
+     * their payloads are encoded. The queue is bounded so a burst cannot pile
+     * them up on the heap; once it is full the request thread writes its own
+     * record rather than dropping it.
+     */
+    @Bean(name = AUDIT_EXECUTOR)
+    public ThreadPoolTaskExecutor auditExecutor(VarCalculationProperties properties) {
+        var audit = properties.getAudit();
+        var executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(audit.getCaptureThreads());
+        executor.setMaxPoolSize(audit.getCaptureThreads());
+        executor.setQueueCapacity(audit.getCaptureQueueCapacity());
+        executor.setThreadNamePrefix("audit-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
 }
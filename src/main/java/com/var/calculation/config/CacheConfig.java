@@ -1,28 +1,212 @@
 package com.var.calculation.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import java.util.concurrent.TimeUnit;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.unit.DataSize;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
+/**
+ * Caffeine caches configured per cache from {@code var.calculation.cache.specs}.
+ * 
+ * Every cache is bounded by estimated bytes, and together they must fit within
+ * {@code var.calculation.cache.heap-budget}; if the configured weights exceed
+ * the budget every cache is scaled down proportionally. Refreshes and cache
+ * maintenance run on a dedicated pool rather than the common fork-join pool.
+ * Caches marked persistent get a local-disk second tier (see {@link TieredCache}).
+ */
+@Slf4j
 @Configuration
 @EnableCaching
 public class CacheConfig {
     
+    public static final String TRADE_VAR_CACHE = "tradeVarCache";
+    public static final String PORTFOLIO_VAR_CACHE = "portfolioVarCache";
+    public static final String PORTFOLIO_VECTOR_CACHE = "portfolioVectorCache";
+    public static final String CACHE_REFRESH_EXECUTOR = "cacheRefreshExecutor";
+    
+    private static final List<String> CACHE_NAMES = List.of(TRADE_VAR_CACHE, PORTFOLIO_VAR_CACHE, PORTFOLIO_VECTOR_CACHE);
+    
     @Bean
-    public CacheManager cacheManager() {
-        var cacheManager = new CaffeineCacheManager("tradeVarCache", "portfolioVarCache");
-        cacheManager.setCaffeine(caffeineCacheBuilder());
+    public CacheManager cacheManager(VarCalculationProperties properties, ObjectProvider<CacheReloader> reloaders,
+                                     ObjectMapper objectMapper, @Qualifier(CACHE_REFRESH_EXECUTOR) Executor executor) {
+        return cacheManager(properties, reloaders, objectMapper, Ticker.systemTicker(), Clock.systemUTC(), executor);
+    }
+    
+    /**
+     * Reloads entries due for refresh, so recomputing a cached VaR does not
+     * take threads from the common pool that parallel streams share. Refreshes
+     * of one key are never queued twice; once the queue is full the reading
+     * thread refreshes the entry itself.
+     */
+    @Bean(name = CACHE_REFRESH_EXECUTOR)
+    public ThreadPoolTaskExecutor cacheRefreshExecutor(VarCalculationProperties properties) {
+        var settings = properties.getCache();
+        var executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(settings.getRefreshThreads());
+        executor.setMaxPoolSize(settings.getRefreshThreads());
+        executor.setQueueCapacity(settings.getRefreshQueueCapacity());
+        executor.setThreadNamePrefix("cache-refresh-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+    
+    /**
+     * Builds the caches against the given time sources and refresh executor, so
+     * tests can drive expiry and refresh deterministically. The ticker drives
+     * in-memory expiry; the clock timestamps entries snapshot to disk.
+     */
+    TieredCaffeineCacheManager cacheManager(VarCalculationProperties properties, ObjectProvider<CacheReloader> reloaders,
+                                            ObjectMapper objectMapper, Ticker ticker, Clock clock, Executor executor) {
+        var settings = properties.getCache();
+        var cacheManager = new TieredCaffeineCacheManager(
+            new PersistentCacheStore(settings.getDiskPath()), objectMapper, settings.getSnapshotEntries(), clock);
+        cacheManager.setCacheNames(List.of());
+        
+        var specs = resolveSpecs(settings);
+        double scale = budgetScale(specs, settings.getHeapBudget().toBytes());
+        
+        specs.forEach((name, spec) -> {
+            var cache = buildCache(name, spec, scale, reloaders, ticker, executor);
+            if (spec.isPersistent()) {
+                cacheManager.registerPersistentCache(name, cache, spec.getExpireAfterWrite());
+            } else {
+                cacheManager.registerCustomCache(name, cache);
+            }
+        });
         return cacheManager;
     }
     
-    private Caffeine<Object, Object> caffeineCacheBuilder() {
-        return Caffeine.newBuilder()
-                .expireAfterWrite(60, TimeUnit.MINUTES)
-                .maximumSize(1000)
-                .recordStats();
+    /**
+     * Known caches fall back to a 16MB, 60-minute policy when not configured.
+     */
+    private Map<String, VarCalculationProperties.CacheSpec> resolveSpecs(VarCalculationProperties.Cache settings) {
+        var specs = new LinkedHashMap<String, VarCalculationProperties.CacheSpec>();
+        for (String name : CACHE_NAMES) {
+            specs.put(name, settings.getSpecs().getOrDefault(name, defaultSpec()));
+        }
+        specs.putAll(settings.getSpecs());
+        return specs;
+    }
+    
+    private VarCalculationProperties.CacheSpec defaultSpec() {
+        var spec = new VarCalculationProperties.CacheSpec();
+        spec.setMaximumWeight(DataSize.ofMegabytes(16));
+        spec.setExpireAfterWrite(Duration.ofMinutes(60));
+        return spec;
+    }
+    
+    /**
+     * A cache bounded only by entry count could hold entries of any size, so
+     * every cache must have a maximum weight to be counted in the budget.
+     */
+    private double budgetScale(Map<String, VarCalculationProperties.CacheSpec> specs, long budgetBytes) {
+        specs.forEach((name, spec) -> {
+            if (spec.getMaximumWeight() == null) {
+                throw new IllegalArgumentException("var.calculation.cache.specs." + name 
+                    + ".maximum-weight must be set so the cache counts against the heap budget");
+            }
+        });
+        long totalWeight = specs.values().stream()
+            .mapToLong(spec -> spec.getMaximumWeight().toBytes())
+            .sum();
+        
+        if (totalWeight <= budgetBytes) {
+            return 1.0;
+        }
+        
+        log.warn("Configured cache weights ({} bytes) exceed heap budget ({} bytes); scaling caches down", 
+            totalWeight, budgetBytes);
+        return (double) budgetBytes / totalWeight;
+    }
+    
+    private Cache<Object, Object> buildCache(String name, VarCalculationProperties.CacheSpec spec, double scale,
+                                             ObjectProvider<CacheReloader> reloaders, Ticker ticker, Executor executor) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats().ticker(ticker).executor(executor)
+            .maximumWeight((long) (spec.getMaximumWeight().toBytes() * scale))
+            .weigher(new CacheEntryWeigher());
+        
+        if (spec.isPersistent() && spec.getExpireAfterWrite() != null && spec.getExpireAfterAccess() == null) {
+            // Per-entry expiry, so entries promoted from disk keep their original write time
+            builder = builder.expireAfter(expireAfterWrite(spec.getExpireAfterWrite()));
+        } else {
+            if (spec.getExpireAfterWrite() != null) {
+                builder = builder.expireAfterWrite(spec.getExpireAfterWrite());
+            }
+            if (spec.getExpireAfterAccess() != null) {
+                builder = builder.expireAfterAccess(spec.getExpireAfterAccess());
+            }
+        }
+        
+        if (spec.getRefreshAfterWrite() != null) {
+            return builder
+                .refreshAfterWrite(spec.getRefreshAfterWrite())
+                .build(reloadingLoader(name, reloaders));
+        }
+        return builder.build();
+    }
+    
+    /**
+     * Expires entries a fixed time after they are created or updated, like
+     * expire-after-write, while still allowing a different time per entry.
+     */
+    static Expiry<Object, Object> expireAfterWrite(Duration expireAfterWrite) {
+        long nanos = expireAfterWrite.toNanos();
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(Object key, Object value, long currentTime) {
+                return nanos;
+            }
+            
+            @Override
+            public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+                return nanos;
+            }
+            
+            @Override
+            public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+    
+    /**
+     * Misses are computed by the caller as usual; only refreshes go through the
+     * reloader registered for the cache, looked up lazily to avoid a dependency
+     * cycle with the services it recomputes.
+     */
+    private CacheLoader<Object, Object> reloadingLoader(String name, ObjectProvider<CacheReloader> reloaders) {
+        return new CacheLoader<>() {
+            @Override
+            public Object load(Object key) {
+                return null;
+            }
+            
+            @Override
+            public Object reload(Object key, Object oldValue) {
+                return reloaders.orderedStream()
+                    .filter(reloader -> reloader.cacheName().equals(name))
+                    .findFirst()
+                    .map(reloader -> reloader.reload(key))
+                    .orElse(null);
+            }
+        };
     }
 }
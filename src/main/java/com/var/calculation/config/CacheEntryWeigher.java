@@ -0,0 +1,33 @@
+package com.var.calculation.config;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.var.calculation.model.dto.VarResponse;
+import com.var.calculation.service.PortfolioVectorCache;
+import java.util.Collection;
+
+/**
+ * Estimates the retained heap size of a cache entry in bytes, so caches can be
+ * bounded by memory instead of entry count. Estimates assume a 64-bit JVM with
+ * compressed oops and are deliberately conservative.
+ */
+public class CacheEntryWeigher implements Weigher<Object, Object> {
+    
+    @Override
+    public int weigh(Object key, Object value) {
+        return (int) Math.min(Integer.MAX_VALUE, estimate(key) + estimate(value));
+    }
+    
+    static long estimate(Object value) {
+        return switch (value) {
+            case null -> 0;
+            case String s -> 40 + 2L * s.length();
+            case double[] vector -> 16 + 8L * vector.length;
+            case PortfolioVectorCache.PortfolioVector vector -> 
+                32 + estimate(vector.fingerprint()) + estimate(vector.portfolioPnL());
+            case VarResponse response -> 200 + estimate(response.id()) + estimate(response.calculationMethod());
+            case Collection<?> collection -> 
+                collection.stream().mapToLong(CacheEntryWeigher::estimate).sum() + 16L + 4L * collection.size();
+            default -> 256;
+        };
+    }
+}
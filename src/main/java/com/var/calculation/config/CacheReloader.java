@@ -0,0 +1,16 @@
+package com.var.calculation.config;
+
+/**
+ * Recomputes cache entries in the background for caches configured with
+ * refresh-after-write. Without a reloader such caches drop entries when
+ * they become due for refresh, and the next request recomputes them.
+ */
+public interface CacheReloader {
+    
+    String cacheName();
+    
+    /**
+     * @return the fresh value for the key, or null to drop the entry
+     */
+    Object reload(Object key);
+}
@@ -8,12 +8,15 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
+import java.util.UUID;
+
 @Component
 @RequiredArgsConstructor
 public class DataInitializer implements CommandLineRunner {
     
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final VarCalculationProperties properties;
     
     @Override
     public void run(String... args) {
@@ -38,5 +41,36 @@ public class DataInitializer implements CommandLineRunner {
             System.out.println("  USER: username=user");
             System.out.println("  ADMIN: username=admin");
         }
+        
+        var warmup = properties.getWarmup();
+        if (warmup.isEnabled()) {
+            createWarmupUser(warmup.getUsername());
+        }
+    }
+    
+    /**
+     * Creates the account warm-up requests are made as, unless it exists.
+     * Requests of that user are kept out of the audit trail, so startup fails
+     * rather than silently dropping the audit of a real account of that name.
+     */
+    private void createWarmupUser(String username) {
+        var existing = userRepository.findByUsername(username);
+        if (existing.isPresent()) {
+            if (!existing.get().isWarmup()) {
+                throw new IllegalStateException("var.calculation.warmup.username '" + username 
+                    + "' belongs to an existing account that was not created for warm-up; choose another name");
+            }
+            return;
+        }
+        
+        // Warm-up tokens are issued directly, so nobody needs to know the password
+        userRepository.save(User.builder()
+                .username(username)
+                .password(passwordEncoder.encode(UUID.randomUUID().toString()))
+                .role(UserRole.USER)
+                .enabled(true)
+                .warmup(true)
+                .build());
+        System.out.println("✓ Warm-up user created: username=" + username);
     }
 }
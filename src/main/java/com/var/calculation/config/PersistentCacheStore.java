@@ -0,0 +1,65 @@
+package com.var.calculation.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Local-disk second cache tier backed by an H2 MVStore file, with one map per cache.
+ * 
+ * If the file cannot be opened (for example because another instance holds its
+ * lock) the store stays closed and caches run memory-only.
+ */
+@Slf4j
+public class PersistentCacheStore implements AutoCloseable {
+    
+    private final MVStore store;
+    
+    public PersistentCacheStore(String path) {
+        this.store = open(path);
+    }
+    
+    private static MVStore open(String path) {
+        if (path == null || path.isBlank()) {
+            return null;
+        }
+        
+        try {
+            var file = Path.of(path).toAbsolutePath();
+            Files.createDirectories(file.getParent());
+            var store = new MVStore.Builder()
+                .fileName(file.toString())
+                .compress()
+                .open();
+            log.info("Opened persistent cache store at {}", file);
+            return store;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Persistent cache store unavailable at {}, caching in memory only", path, e);
+            return null;
+        }
+    }
+    
+    public boolean isOpen() {
+        return store != null && !store.isClosed();
+    }
+    
+    public MVMap<String, String> map(String cacheName) {
+        return store.openMap(cacheName);
+    }
+    
+    public void commit() {
+        if (isOpen()) {
+            store.commit();
+        }
+    }
+    
+    @Override
+    public void close() {
+        if (isOpen()) {
+            store.close();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.var.calculation.config;
 
 import com.var.calculation.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -33,11 +34,15 @@ public class SecurityConfig {
         return http
             .csrf(AbstractHttpConfigurer::disable)
             .authorizeHttpRequests(auth -> auth
+                // Calculations complete asynchronously; the request was authorized before dispatch
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers("/", "/index.html", "/*.css", "/*.js", "/*.xls", "/*.xlsx", "/static/**").permitAll()
-                .requestMatchers("/actuator/**").permitAll()
+                .requestMatchers("/actuator/health", "/actuator/health/**", "/actuator/info").permitAll()
+                // Operational endpoints list users, file names and served results
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 .requestMatchers("/api/v1/auth/**", "/h2-console/**", "/swagger-ui/**", "/swagger-ui.html", "/v3/api-docs/**", "/api-docs/**").permitAll()
-                .requestMatchers("/api/v1/audit/**").hasRole("ADMIN")
-                .requestMatchers("/api/v1/var/**").hasRole("USER")
+                .requestMatchers("/api/v1/audit/**", "/api/v1/admin/**").hasRole("ADMIN")
+                .requestMatchers("/api/v1/var/**", "/api/v1/jobs/**").hasRole("USER")
                 .anyRequest().authenticated()
             )
             .sessionManagement(session -> session
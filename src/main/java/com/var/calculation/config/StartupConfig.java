@@ -0,0 +1,61 @@
+package com.var.calculation.config;
+
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+
+/**
+ * Keeps the service's own beans, and so everything they depend on, eager
+ * when the fast-start profile turns on lazy initialization. Only framework
+ * beans nothing here uses are deferred, so scheduled work, file ingestion and
+ * the startup warm-up still begin at startup and errors in them still fail it.
+ */
+@Configuration
+public class StartupConfig {
+    
+    static final String REQUEST_TRANSFORMER = "mvcHandlerMappingIntrospectorRequestTransformer";
+    
+    @Bean
+    static LazyInitializationExcludeFilter applicationBeansEager() {
+        return (beanName, definition, beanType) ->
+            beanType != null && beanType.getPackageName().startsWith("com.var.calculation");
+    }
+    
+    @Bean
+    static AotRequestTransformerRemover aotRequestTransformerRemover() {
+        return new AotRequestTransformerRemover();
+    }
+    
+    /**
+     * Spring Security 6.2.1 registers the request transformer from a registry
+     * post-processor that also ran during the AOT build, so with AOT artifacts
+     * the generated definition is already present and registering it again
+     * fails. Running first, this drops the generated definition, rather than
+     * allowing bean definition overriding for the whole context. Remove once
+     * on Spring Security 6.2.2 or later.
+     */
+    static class AotRequestTransformerRemover implements BeanDefinitionRegistryPostProcessor, PriorityOrdered {
+        
+        @Override
+        public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry) {
+            if (AotDetector.useGeneratedArtifacts() && registry.containsBeanDefinition(REQUEST_TRANSFORMER)) {
+                registry.removeBeanDefinition(REQUEST_TRANSFORMER);
+            }
+        }
+        
+        @Override
+        public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        }
+        
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
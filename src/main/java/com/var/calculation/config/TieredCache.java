@@ -0,0 +1,186 @@
+package com.var.calculation.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.var.calculation.model.dto.VarResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.h2.mvstore.MVMap;
+import org.springframework.cache.caffeine.CaffeineCache;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caffeine cache with a local-disk second tier.
+ * 
+ * Entries are only written to disk by {@link #snapshot(int)}, normally at
+ * shutdown, so the request path never pays for disk writes. After a restart an
+ * in-memory miss falls through to the snapshot, and a hit is promoted back into
+ * memory with the time it has left, when the cache expires entries variably.
+ * Snapshot entries older than the cache's expire-after-write are discarded.
+ * 
+ * Only the value types in {@link #SNAPSHOT_TYPES} are written, under a short
+ * type tag, so a tampered snapshot cannot make the cache load arbitrary classes.
+ */
+@Slf4j
+public class TieredCache extends CaffeineCache {
+    
+    private static final char SEPARATOR = '\n';
+    
+    /**
+     * Value types that may be snapshot, by the tag stored with them on disk.
+     */
+    static final Map<String, Class<?>> SNAPSHOT_TYPES = Map.of("VarResponse", VarResponse.class);
+    
+    private final MVMap<String, String> diskMap;
+    private final Duration expireAfterWrite;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    
+    public TieredCache(String name, Cache<Object, Object> cache, boolean allowNullValues,
+                       MVMap<String, String> diskMap, Duration expireAfterWrite, ObjectMapper objectMapper, Clock clock) {
+        super(name, cache, allowNullValues);
+        this.diskMap = diskMap;
+        this.expireAfterWrite = expireAfterWrite;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+    }
+    
+    @Override
+    protected Object lookup(Object key) {
+        var value = super.lookup(key);
+        if (value != null || !(key instanceof String diskKey) || diskMap.isClosed()) {
+            return value;
+        }
+        
+        var stored = diskMap.get(diskKey);
+        if (stored == null) {
+            return null;
+        }
+        
+        var restored = decode(diskKey, stored);
+        if (restored != null) {
+            promote(key, restored.value(), restored.writtenAt());
+        }
+        return restored != null ? restored.value() : null;
+    }
+    
+    private void promote(Object key, Object value, long writtenAt) {
+        var varExpiration = getNativeCache().policy().expireVariably();
+        if (varExpiration.isPresent() && expireAfterWrite != null) {
+            long remaining = expireAfterWrite.toMillis() - (clock.millis() - writtenAt);
+            varExpiration.get().put(key, value, Math.max(remaining, 1), TimeUnit.MILLISECONDS);
+        } else {
+            getNativeCache().put(key, value);
+        }
+    }
+    
+    @Override
+    public void evict(Object key) {
+        super.evict(key);
+        if (key instanceof String diskKey && !diskMap.isClosed()) {
+            diskMap.remove(diskKey);
+        }
+    }
+    
+    @Override
+    public void clear() {
+        super.clear();
+        if (!diskMap.isClosed()) {
+            diskMap.clear();
+        }
+    }
+    
+    /**
+     * Replaces the disk tier with the hottest in-memory entries.
+     * 
+     * @param maxEntries Maximum number of entries to write
+     * @return Number of entries written
+     */
+    public int snapshot(int maxEntries) {
+        var nativeCache = getNativeCache();
+        Map<Object, Object> hottest = nativeCache.policy().eviction()
+            .map(eviction -> eviction.hottest(maxEntries))
+            .orElseGet(nativeCache::asMap);
+        
+        long now = clock.millis();
+        
+        diskMap.clear();
+        int written = 0;
+        for (var entry : hottest.entrySet()) {
+            if (written >= maxEntries || !(entry.getKey() instanceof String key)) {
+                continue;
+            }
+            
+            var encoded = encode(entry.getValue(), now - ageOf(key));
+            if (encoded != null) {
+                diskMap.put(key, encoded);
+                written++;
+            }
+        }
+        return written;
+    }
+    
+    /**
+     * Milliseconds since the entry was written, or since it was first written
+     * before its last promotion from disk.
+     */
+    private long ageOf(String key) {
+        var policy = getNativeCache().policy();
+        var varExpiration = policy.expireVariably();
+        if (varExpiration.isPresent() && expireAfterWrite != null) {
+            var remaining = varExpiration.get().getExpiresAfter(key, TimeUnit.MILLISECONDS);
+            return remaining.isPresent() ? Math.max(0, expireAfterWrite.toMillis() - remaining.getAsLong()) : 0;
+        }
+        return policy.expireAfterWrite()
+            .map(fixed -> fixed.ageOf(key, TimeUnit.MILLISECONDS).orElse(0L))
+            .orElse(0L);
+    }
+    
+    private String encode(Object value, long writtenAt) {
+        var tag = SNAPSHOT_TYPES.entrySet().stream()
+            .filter(type -> type.getValue() == value.getClass())
+            .map(Map.Entry::getKey)
+            .findFirst();
+        if (tag.isEmpty()) {
+            log.debug("Skipping entry of type {} in cache {}", value.getClass().getName(), getName());
+            return null;
+        }
+        
+        try {
+            return writtenAt + String.valueOf(SEPARATOR) + tag.get() + SEPARATOR 
+                + objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            log.debug("Skipping unserializable entry in cache {}", getName(), e);
+            return null;
+        }
+    }
+    
+    private Restored decode(String key, String stored) {
+        try {
+            int first = stored.indexOf(SEPARATOR);
+            int second = stored.indexOf(SEPARATOR, first + 1);
+            long writtenAt = Long.parseLong(stored.substring(0, first));
+            
+            if (expireAfterWrite != null 
+                    && clock.millis() - writtenAt >= expireAfterWrite.toMillis()) {
+                diskMap.remove(key);
+                return null;
+            }
+            
+            var type = SNAPSHOT_TYPES.get(stored.substring(first + 1, second));
+            if (type == null) {
+                throw new IllegalArgumentException("Unknown snapshot type " + stored.substring(first + 1, second));
+            }
+            return new Restored(objectMapper.readValue(stored.substring(second + 1), type), writtenAt);
+        } catch (Exception e) {
+            log.debug("Discarding unreadable snapshot entry {} in cache {}", key, getName(), e);
+            diskMap.remove(key);
+            return null;
+        }
+    }
+    
+    private record Restored(Object value, long writtenAt) {}
+}
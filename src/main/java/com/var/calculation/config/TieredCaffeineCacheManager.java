@@ -0,0 +1,68 @@
+package com.var.calculation.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Caffeine cache manager that backs selected caches with a {@link PersistentCacheStore}
+ * and snapshots their hottest entries to it on shutdown.
+ */
+@Slf4j
+public class TieredCaffeineCacheManager extends CaffeineCacheManager implements DisposableBean {
+    
+    private final PersistentCacheStore store;
+    private final ObjectMapper objectMapper;
+    private final int snapshotEntries;
+    private final Clock clock;
+    private final Map<String, Duration> persistentCaches = new HashMap<>();
+    
+    public TieredCaffeineCacheManager(PersistentCacheStore store, ObjectMapper objectMapper, int snapshotEntries,
+                                      Clock clock) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.snapshotEntries = snapshotEntries;
+        this.clock = clock;
+    }
+    
+    /**
+     * Registers a cache whose entries survive restarts via the disk tier.
+     */
+    public void registerPersistentCache(String name, Cache<Object, Object> cache, Duration expireAfterWrite) {
+        if (store.isOpen()) {
+            persistentCaches.put(name, expireAfterWrite);
+        }
+        registerCustomCache(name, cache);
+    }
+    
+    @Override
+    protected org.springframework.cache.Cache adaptCaffeineCache(String name, Cache<Object, Object> cache) {
+        if (persistentCaches.containsKey(name)) {
+            return new TieredCache(name, cache, isAllowNullValues(), store.map(name), 
+                persistentCaches.get(name), objectMapper, clock);
+        }
+        return super.adaptCaffeineCache(name, cache);
+    }
+    
+    @Override
+    public void destroy() {
+        if (!store.isOpen()) {
+            return;
+        }
+        
+        for (String name : getCacheNames()) {
+            if (getCache(name) instanceof TieredCache tieredCache) {
+                int written = tieredCache.snapshot(snapshotEntries);
+                log.info("Snapshot {} entries of cache {} to disk", written, name);
+            }
+        }
+        store.commit();
+        store.close();
+    }
+}
@@ -2,6 +2,18 @@ package com.var.calculation.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalTime;
+import com.var.calculation.model.enums.MissingDataPolicy;
+import com.var.calculation.model.enums.ResultFormat;
+import com.var.calculation.model.enums.UserRole;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Configuration properties for VaR calculation.
@@ -11,6 +23,36 @@ import org.springframework.stereotype.Component;
 public class VarCalculationProperties {
     
     private int minDataPoints = 5;
+    
+    private int backtestWindowSize = 250;
+    
+    private int stressedWindowSize = 250;
+    
+    private final Cache cache = new Cache();
+    
+    private final Precompute precompute = new Precompute();
+    
+    private final Admission admission = new Admission();
+    
+    private final Lanes lanes = new Lanes();
+    
+    private final Sketch sketch = new Sketch();
+    
+    private final Alignment alignment = new Alignment();
+    
+    private final Ingest ingest = new Ingest();
+    
+    private final Jobs jobs = new Jobs();
+    
+    private final Audit audit = new Audit();
+    
+    private final Shadow shadow = new Shadow();
+    
+    private final Warmup warmup = new Warmup();
+    
+    private final Jfr jfr = new Jfr();
+    
+    private final Latency latency = new Latency();
 
     public int getMinDataPoints() {
         return minDataPoints;
@@ -19,4 +61,1033 @@ public class VarCalculationProperties {
     public void setMinDataPoints(int minDataPoints) {
         this.minDataPoints = minDataPoints;
     }
+
+    public int getBacktestWindowSize() {
+        return backtestWindowSize;
+    }
+
+    public void setBacktestWindowSize(int backtestWindowSize) {
+        this.backtestWindowSize = backtestWindowSize;
+    }
+
+    public int getStressedWindowSize() {
+        return stressedWindowSize;
+    }
+
+    public void setStressedWindowSize(int stressedWindowSize) {
+        this.stressedWindowSize = stressedWindowSize;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Precompute getPrecompute() {
+        return precompute;
+    }
+
+    public Admission getAdmission() {
+        return admission;
+    }
+
+    public Lanes getLanes() {
+        return lanes;
+    }
+
+    public Sketch getSketch() {
+        return sketch;
+    }
+
+    public Alignment getAlignment() {
+        return alignment;
+    }
+
+    public Ingest getIngest() {
+        return ingest;
+    }
+
+    public Jobs getJobs() {
+        return jobs;
+    }
+
+    public Audit getAudit() {
+        return audit;
+    }
+
+    public Shadow getShadow() {
+        return shadow;
+    }
+
+    public Warmup getWarmup() {
+        return warmup;
+    }
+
+    public Jfr getJfr() {
+        return jfr;
+    }
+
+    public Latency getLatency() {
+        return latency;
+    }
+    
+    /**
+     * Cache settings shared by all caches plus per-cache overrides.
+     */
+    public static class Cache {
+        
+        private DataSize heapBudget = DataSize.ofMegabytes(256);
+        
+        private String diskPath;
+        
+        private int snapshotEntries = 10_000;
+        
+        private Map<String, CacheSpec> specs = new LinkedHashMap<>();
+        
+        private int refreshThreads = 2;
+        
+        private int refreshQueueCapacity = 1000;
+
+        public DataSize getHeapBudget() {
+            return heapBudget;
+        }
+
+        public void setHeapBudget(DataSize heapBudget) {
+            this.heapBudget = heapBudget;
+        }
+
+        public String getDiskPath() {
+            return diskPath;
+        }
+
+        public void setDiskPath(String diskPath) {
+            this.diskPath = diskPath;
+        }
+
+        public int getSnapshotEntries() {
+            return snapshotEntries;
+        }
+
+        public void setSnapshotEntries(int snapshotEntries) {
+            this.snapshotEntries = snapshotEntries;
+        }
+
+        public Map<String, CacheSpec> getSpecs() {
+            return specs;
+        }
+
+        public void setSpecs(Map<String, CacheSpec> specs) {
+            this.specs = specs;
+        }
+
+        public int getRefreshThreads() {
+            return refreshThreads;
+        }
+
+        public void setRefreshThreads(int refreshThreads) {
+            this.refreshThreads = refreshThreads;
+        }
+
+        public int getRefreshQueueCapacity() {
+            return refreshQueueCapacity;
+        }
+
+        public void setRefreshQueueCapacity(int refreshQueueCapacity) {
+            this.refreshQueueCapacity = refreshQueueCapacity;
+        }
+    }
+    
+    /**
+     * Eviction and expiry policy for a single cache. maximumWeight (estimated
+     * bytes) is required, so every cache counts towards the heap budget.
+     * Persistent caches are snapshot to diskPath on shutdown and warm-started
+     * from it.
+     */
+    public static class CacheSpec {
+        
+        private DataSize maximumWeight;
+        
+        private Duration expireAfterWrite;
+        
+        private Duration expireAfterAccess;
+        
+        private Duration refreshAfterWrite;
+        
+        private boolean persistent;
+
+        public DataSize getMaximumWeight() {
+            return maximumWeight;
+        }
+
+        public void setMaximumWeight(DataSize maximumWeight) {
+            this.maximumWeight = maximumWeight;
+        }
+
+        public Duration getExpireAfterWrite() {
+            return expireAfterWrite;
+        }
+
+        public void setExpireAfterWrite(Duration expireAfterWrite) {
+            this.expireAfterWrite = expireAfterWrite;
+        }
+
+        public Duration getExpireAfterAccess() {
+            return expireAfterAccess;
+        }
+
+        public void setExpireAfterAccess(Duration expireAfterAccess) {
+            this.expireAfterAccess = expireAfterAccess;
+        }
+
+        public Duration getRefreshAfterWrite() {
+            return refreshAfterWrite;
+        }
+
+        public void setRefreshAfterWrite(Duration refreshAfterWrite) {
+            this.refreshAfterWrite = refreshAfterWrite;
+        }
+
+        public boolean isPersistent() {
+            return persistent;
+        }
+
+        public void setPersistent(boolean persistent) {
+            this.persistent = persistent;
+        }
+    }
+    
+    /**
+     * Scheduled precomputation of registered portfolios. Runs are skipped
+     * outside the [windowStart, windowEnd) time window when one is set; the
+     * window may wrap past midnight.
+     */
+    public static class Precompute {
+        
+        private boolean enabled = true;
+        
+        private String cron = "0 0 * * * *";
+        
+        private int concurrency = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        
+        private int maxRegistered = 1000;
+        
+        private LocalTime windowStart;
+        
+        private LocalTime windowEnd;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getCron() {
+            return cron;
+        }
+
+        public void setCron(String cron) {
+            this.cron = cron;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public int getMaxRegistered() {
+            return maxRegistered;
+        }
+
+        public void setMaxRegistered(int maxRegistered) {
+            this.maxRegistered = maxRegistered;
+        }
+
+        public LocalTime getWindowStart() {
+            return windowStart;
+        }
+
+        public void setWindowStart(LocalTime windowStart) {
+            this.windowStart = windowStart;
+        }
+
+        public LocalTime getWindowEnd() {
+            return windowEnd;
+        }
+
+        public void setWindowEnd(LocalTime windowEnd) {
+            this.windowEnd = windowEnd;
+        }
+    }
+    
+    /**
+     * Admission control for calculation requests. Limits are in cost units,
+     * where a request costs its number of trades x data points. The global
+     * limit adapts between minLimit and maxLimit based on observed latency.
+     */
+    public static class Admission {
+        
+        private boolean enabled = true;
+        
+        private long initialLimit = 5_000_000;
+        
+        private long minLimit = 100_000;
+        
+        private long maxLimit = 100_000_000;
+        
+        private double userShare = 0.5;
+        
+        private double latencyTolerance = 2.0;
+        
+        private double smoothing = 0.2;
+        
+        private Duration retryAfter = Duration.ofSeconds(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(long initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public long getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(long minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public long getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(long maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public double getUserShare() {
+            return userShare;
+        }
+
+        public void setUserShare(double userShare) {
+            this.userShare = userShare;
+        }
+
+        public double getLatencyTolerance() {
+            return latencyTolerance;
+        }
+
+        public void setLatencyTolerance(double latencyTolerance) {
+            this.latencyTolerance = latencyTolerance;
+        }
+
+        public double getSmoothing() {
+            return smoothing;
+        }
+
+        public void setSmoothing(double smoothing) {
+            this.smoothing = smoothing;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+
+        public void setRetryAfter(Duration retryAfter) {
+            this.retryAfter = retryAfter;
+        }
+    }
+    
+    /**
+     * Priority lanes for calculation requests. Each lane runs on its own pool
+     * sized as a share of the available cores. Requests costing more than
+     * interactiveMaxCost, or made by a user with one of bulkRoles, always run
+     * in the bulk lane. Work larger than fanOutPoints is split into subtasks,
+     * and every request runs under a deadline of defaultTimeout unless the
+     * client asks for another, capped at maxTimeout.
+     */
+    public static class Lanes {
+        
+        private double interactiveCoreShare = 0.5;
+        
+        private double bulkCoreShare = 0.5;
+        
+        private long interactiveMaxCost = 50_000;
+        
+        private Set<UserRole> bulkRoles = EnumSet.noneOf(UserRole.class);
+        
+        private long fanOutPoints = 250_000;
+        
+        private Duration defaultTimeout = Duration.ofSeconds(30);
+        
+        private Duration maxTimeout = Duration.ofMinutes(5);
+        
+        private Map<String, Duration> endpointTimeouts = new LinkedHashMap<>();
+
+        public double getInteractiveCoreShare() {
+            return interactiveCoreShare;
+        }
+
+        public void setInteractiveCoreShare(double interactiveCoreShare) {
+            this.interactiveCoreShare = interactiveCoreShare;
+        }
+
+        public double getBulkCoreShare() {
+            return bulkCoreShare;
+        }
+
+        public void setBulkCoreShare(double bulkCoreShare) {
+            this.bulkCoreShare = bulkCoreShare;
+        }
+
+        public long getInteractiveMaxCost() {
+            return interactiveMaxCost;
+        }
+
+        public void setInteractiveMaxCost(long interactiveMaxCost) {
+            this.interactiveMaxCost = interactiveMaxCost;
+        }
+
+        public Set<UserRole> getBulkRoles() {
+            return bulkRoles;
+        }
+
+        public void setBulkRoles(Set<UserRole> bulkRoles) {
+            this.bulkRoles = bulkRoles;
+        }
+
+        public long getFanOutPoints() {
+            return fanOutPoints;
+        }
+
+        public void setFanOutPoints(long fanOutPoints) {
+            this.fanOutPoints = fanOutPoints;
+        }
+
+        public Duration getDefaultTimeout() {
+            return defaultTimeout;
+        }
+
+        public void setDefaultTimeout(Duration defaultTimeout) {
+            this.defaultTimeout = defaultTimeout;
+        }
+
+        public Duration getMaxTimeout() {
+            return maxTimeout;
+        }
+
+        public void setMaxTimeout(Duration maxTimeout) {
+            this.maxTimeout = maxTimeout;
+        }
+
+        public Map<String, Duration> getEndpointTimeouts() {
+            return endpointTimeouts;
+        }
+
+        public void setEndpointTimeouts(Map<String, Duration> endpointTimeouts) {
+            this.endpointTimeouts = endpointTimeouts;
+        }
+    }
+    
+    /**
+     * Streaming quantile sketches. Higher compression keeps more centroids,
+     * trading memory (roughly 2 x compression centroids per sketch) for accuracy.
+     */
+    public static class Sketch {
+        
+        private double compression = 200;
+        
+        private int maxSketches = 10_000;
+        
+        private DataSize maxImportSize = DataSize.ofKilobytes(256);
+
+        public double getCompression() {
+            return compression;
+        }
+
+        public void setCompression(double compression) {
+            this.compression = compression;
+        }
+
+        public int getMaxSketches() {
+            return maxSketches;
+        }
+
+        public void setMaxSketches(int maxSketches) {
+            this.maxSketches = maxSketches;
+        }
+
+        public DataSize getMaxImportSize() {
+            return maxImportSize;
+        }
+
+        public void setMaxImportSize(DataSize maxImportSize) {
+            this.maxImportSize = maxImportSize;
+        }
+    }
+    
+    /**
+     * Alignment of trades that carry dates or offsets. missingData decides
+     * what happens on a period where only some of the trades have P&L: it is
+     * dropped (INTERSECT), the missing P&L counts as zero (ZERO_FILL), or the
+     * calculation fails (REJECT).
+     */
+    public static class Alignment {
+        
+        private MissingDataPolicy missingData = MissingDataPolicy.INTERSECT;
+
+        public MissingDataPolicy getMissingData() {
+            return missingData;
+        }
+
+        public void setMissingData(MissingDataPolicy missingData) {
+            this.missingData = missingData;
+        }
+    }
+    
+    /**
+     * File-drop ingestion. When enabled, files matching pattern in inbox are
+     * picked up once their size has stopped changing between two polls,
+     * processed, and moved to archive; results and manifest.jsonl go to
+     * output, and files that fail go to quarantine. Results are written as
+     * CSV or ARROW according to format. queueCapacity bounds the files
+     * waiting between each pair of pipeline stages.
+     */
+    public static class Ingest {
+        
+        private boolean enabled = false;
+        
+        private Path inbox = Path.of("data/inbox");
+        
+        private Path output = Path.of("data/output");
+        
+        private Path archive = Path.of("data/archive");
+        
+        private Path quarantine = Path.of("data/quarantine");
+        
+        private String pattern = "*.csv";
+        
+        private ResultFormat format = ResultFormat.CSV;
+        
+        private Duration pollInterval = Duration.ofSeconds(5);
+        
+        private int queueCapacity = 2;
+        
+        private List<Double> confidenceLevels = List.of(0.95, 0.99);
+        
+        private Duration timeout = Duration.ofMinutes(30);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Path getInbox() {
+            return inbox;
+        }
+
+        public void setInbox(Path inbox) {
+            this.inbox = inbox;
+        }
+
+        public Path getOutput() {
+            return output;
+        }
+
+        public void setOutput(Path output) {
+            this.output = output;
+        }
+
+        public Path getArchive() {
+            return archive;
+        }
+
+        public void setArchive(Path archive) {
+            this.archive = archive;
+        }
+
+        public Path getQuarantine() {
+            return quarantine;
+        }
+
+        public void setQuarantine(Path quarantine) {
+            this.quarantine = quarantine;
+        }
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public void setPattern(String pattern) {
+            this.pattern = pattern;
+        }
+
+        public ResultFormat getFormat() {
+            return format;
+        }
+
+        public void setFormat(ResultFormat format) {
+            this.format = format;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public List<Double> getConfidenceLevels() {
+            return confidenceLevels;
+        }
+
+        public void setConfidenceLevels(List<Double> confidenceLevels) {
+            this.confidenceLevels = confidenceLevels;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+    
+    /**
+     * Batch jobs. Result files are kept in directory for the most recent
+     * retained jobs; at most maxActive jobs may be queued or running at once,
+     * and each must finish within timeout.
+     */
+    public static class Jobs {
+        
+        private Path directory = Path.of("data/jobs");
+        
+        private int retained = 100;
+        
+        private int maxActive = 4;
+        
+        private Duration timeout = Duration.ofMinutes(30);
+
+        public Path getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(Path directory) {
+            this.directory = directory;
+        }
+
+        public int getRetained() {
+            return retained;
+        }
+
+        public void setRetained(int retained) {
+            this.retained = retained;
+        }
+
+        public int getMaxActive() {
+            return maxActive;
+        }
+
+        public void setMaxActive(int maxActive) {
+            this.maxActive = maxActive;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+    
+    /**
+     * Audit payload capture. Request and response bodies are stored
+     * compressed, with floating-point arrays of at least minSeriesLength
+     * values encoded as numeric series; payloads still larger than
+     * maxPayloadSize after compression are not stored. Records are written
+     * by captureThreads threads with at most captureQueueCapacity waiting;
+     * beyond that the request thread writes its own record.
+     * 
+     * Retention runs on retentionCron: closed hours are rolled up into hourly
+     * per-user, per-endpoint aggregates, raw records older than rawRetention
+     * are deleted in batches of purgeBatchSize once rolled up, and rollups
+     * older than rollupRetention are deleted.
+     */
+    public static class Audit {
+        
+        private boolean capturePayloads = true;
+        
+        private int minSeriesLength = 8;
+        
+        private DataSize maxPayloadSize = DataSize.ofMegabytes(16);
+        
+        private int captureThreads = 2;
+        
+        private int captureQueueCapacity = 1000;
+        
+        private boolean retentionEnabled = true;
+        
+        private String retentionCron = "0 5 * * * *";
+        
+        private Duration rawRetention = Duration.ofDays(7);
+        
+        private Duration rollupRetention = Duration.ofDays(400);
+        
+        private int purgeBatchSize = 1000;
+
+        public boolean isCapturePayloads() {
+            return capturePayloads;
+        }
+
+        public void setCapturePayloads(boolean capturePayloads) {
+            this.capturePayloads = capturePayloads;
+        }
+
+        public int getMinSeriesLength() {
+            return minSeriesLength;
+        }
+
+        public void setMinSeriesLength(int minSeriesLength) {
+            this.minSeriesLength = minSeriesLength;
+        }
+
+        public DataSize getMaxPayloadSize() {
+            return maxPayloadSize;
+        }
+
+        public void setMaxPayloadSize(DataSize maxPayloadSize) {
+            this.maxPayloadSize = maxPayloadSize;
+        }
+
+        public int getCaptureThreads() {
+            return captureThreads;
+        }
+
+        public void setCaptureThreads(int captureThreads) {
+            this.captureThreads = captureThreads;
+        }
+
+        public int getCaptureQueueCapacity() {
+            return captureQueueCapacity;
+        }
+
+        public void setCaptureQueueCapacity(int captureQueueCapacity) {
+            this.captureQueueCapacity = captureQueueCapacity;
+        }
+
+        public boolean isRetentionEnabled() {
+            return retentionEnabled;
+        }
+
+        public void setRetentionEnabled(boolean retentionEnabled) {
+            this.retentionEnabled = retentionEnabled;
+        }
+
+        public String getRetentionCron() {
+            return retentionCron;
+        }
+
+        public void setRetentionCron(String retentionCron) {
+            this.retentionCron = retentionCron;
+        }
+
+        public Duration getRawRetention() {
+            return rawRetention;
+        }
+
+        public void setRawRetention(Duration rawRetention) {
+            this.rawRetention = rawRetention;
+        }
+
+        public Duration getRollupRetention() {
+            return rollupRetention;
+        }
+
+        public void setRollupRetention(Duration rollupRetention) {
+            this.rollupRetention = rollupRetention;
+        }
+
+        public int getPurgeBatchSize() {
+            return purgeBatchSize;
+        }
+
+        public void setPurgeBatchSize(int purgeBatchSize) {
+            this.purgeBatchSize = purgeBatchSize;
+        }
+    }
+    
+    /**
+     * Shadow comparison of a candidate VaR engine. A sampleRate fraction of
+     * live requests is recomputed with the candidate off the request thread,
+     * with at most queueCapacity waiting; results differing from production
+     * by more than tolerance, relative to max(1, |VaR|), are mismatches.
+     */
+    public static class Shadow {
+        
+        private boolean enabled = false;
+        
+        private String candidate = "QUICKSELECT";
+        
+        private double sampleRate = 0.01;
+        
+        private double tolerance = 1e-9;
+        
+        private int queueCapacity = 64;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getCandidate() {
+            return candidate;
+        }
+
+        public void setCandidate(String candidate) {
+            this.candidate = candidate;
+        }
+
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+
+        public double getTolerance() {
+            return tolerance;
+        }
+
+        public void setTolerance(double tolerance) {
+            this.tolerance = tolerance;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+    
+    /**
+     * Startup JIT warm-up. Up to iterations rounds of synthetic trade and
+     * portfolio requests, one of each per size in dataPoints with
+     * portfolioTrades trades per portfolio, are posted to this instance as
+     * username before it reports ready, or for at most budget. username is a
+     * dedicated account, created at startup if missing, whose requests are not
+     * audited.
+     */
+    public static class Warmup {
+        
+        private boolean enabled = false;
+        
+        private String username = "warmup";
+        
+        private Duration budget = Duration.ofSeconds(60);
+        
+        private int iterations = 300;
+        
+        private List<Integer> dataPoints = List.of(250, 1000);
+        
+        private int portfolioTrades = 10;
+        
+        private double confidenceLevel = 0.99;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public Duration getBudget() {
+            return budget;
+        }
+
+        public void setBudget(Duration budget) {
+            this.budget = budget;
+        }
+
+        public int getIterations() {
+            return iterations;
+        }
+
+        public void setIterations(int iterations) {
+            this.iterations = iterations;
+        }
+
+        public List<Integer> getDataPoints() {
+            return dataPoints;
+        }
+
+        public void setDataPoints(List<Integer> dataPoints) {
+            this.dataPoints = dataPoints;
+        }
+
+        public int getPortfolioTrades() {
+            return portfolioTrades;
+        }
+
+        public void setPortfolioTrades(int portfolioTrades) {
+            this.portfolioTrades = portfolioTrades;
+        }
+
+        public double getConfidenceLevel() {
+            return confidenceLevel;
+        }
+
+        public void setConfidenceLevel(double confidenceLevel) {
+            this.confidenceLevel = confidenceLevel;
+        }
+    }
+    
+    /**
+     * Flight Recorder recordings started from the admin API, or continuously
+     * from startup with startOnStartup. Recordings use the named JDK settings,
+     * default or profile, keep at most maxAge and maxSize of events, and are
+     * dumped to files in directory.
+     */
+    public static class Jfr {
+        
+        private boolean startOnStartup = false;
+        
+        private String settings = "default";
+        
+        private Duration maxAge = Duration.ofHours(1);
+        
+        private DataSize maxSize = DataSize.ofMegabytes(256);
+        
+        private Path directory = Path.of("data/jfr");
+
+        public boolean isStartOnStartup() {
+            return startOnStartup;
+        }
+
+        public void setStartOnStartup(boolean startOnStartup) {
+            this.startOnStartup = startOnStartup;
+        }
+
+        public String getSettings() {
+            return settings;
+        }
+
+        public void setSettings(String settings) {
+            this.settings = settings;
+        }
+
+        public Duration getMaxAge() {
+            return maxAge;
+        }
+
+        public void setMaxAge(Duration maxAge) {
+            this.maxAge = maxAge;
+        }
+
+        public DataSize getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(DataSize maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Path getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(Path directory) {
+            this.directory = directory;
+        }
+    }
+    
+    /**
+     * Rolling latency analytics of audited requests. Latencies are kept in one
+     * histogram per endpoint, user and slot of length resolution for
+     * retention; queries cover windows of up to retention, defaultWindow when
+     * none is given. At most maxSeries endpoint and user pairs are tracked.
+     */
+    public static class Latency {
+        
+        private Duration resolution = Duration.ofMinutes(1);
+        
+        private Duration retention = Duration.ofHours(1);
+        
+        private Duration defaultWindow = Duration.ofMinutes(15);
+        
+        private int maxSeries = 1000;
+
+        public Duration getResolution() {
+            return resolution;
+        }
+
+        public void setResolution(Duration resolution) {
+            this.resolution = resolution;
+        }
+
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+
+        public Duration getDefaultWindow() {
+            return defaultWindow;
+        }
+
+        public void setDefaultWindow(Duration defaultWindow) {
+            this.defaultWindow = defaultWindow;
+        }
+
+        public int getMaxSeries() {
+            return maxSeries;
+        }
+
+        public void setMaxSeries(int maxSeries) {
+            this.maxSeries = maxSeries;
+        }
+    }
 }
@@ -1,15 +1,27 @@
 package com.var.calculation.controller;
 
-import com.var.calculation.model.entity.AuditRecord;
+import com.var.calculation.config.VarCalculationProperties;
+import com.var.calculation.model.dto.AuditReplay;
+import com.var.calculation.model.enums.LatencyGrouping;
+import com.var.calculation.repository.AuditRecordRepository.AuditEntry;
+import com.var.calculation.service.AuditRetentionService;
+import com.var.calculation.service.AuditRetentionService.AuditSummary;
+import com.var.calculation.service.AuditRetentionService.RetentionRun;
 import com.var.calculation.service.AuditService;
+import com.var.calculation.service.LatencyAnalyticsService;
+import com.var.calculation.service.LatencyAnalyticsService.LatencyReport;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
-import java.util.List;
+import java.time.Duration;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/api/v1/audit")
@@ -19,11 +31,67 @@ import java.util.List;
 public class AuditController {
     
     private final AuditService auditService;
+    private final LatencyAnalyticsService latencyAnalytics;
+    private final AuditRetentionService retentionService;
+    private final VarCalculationProperties properties;
     
     @GetMapping("/history")
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Get audit history (ADMIN only)")
-    public ResponseEntity<List<AuditRecord>> getAuditHistory() {
-        return ResponseEntity.ok(auditService.getAuditHistory());
+    @Operation(summary = "Get a page of audit history, newest first, without payloads (ADMIN only)")
+    public ResponseEntity<Page<AuditEntry>> getAuditHistory(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) Boolean success) {
+        return ResponseEntity.ok(auditService.getAuditHistory(username, success, page, size));
+    }
+    
+    @GetMapping("/{auditId}/replay")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Decode the captured request and response of an audit record (ADMIN only)")
+    public ResponseEntity<AuditReplay> replay(@PathVariable Long auditId) {
+        return ResponseEntity.ok(auditService.replay(auditId));
+    }
+    
+    @GetMapping("/latency")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Latency percentiles and error rates over a recent window (ADMIN only)")
+    public ResponseEntity<LatencyReport> getLatency(
+            @RequestParam(required = false) String window,
+            @RequestParam(defaultValue = "ENDPOINT") LatencyGrouping groupBy,
+            @RequestParam(required = false) String endpoint,
+            @RequestParam(required = false) String user) {
+        var duration = window != null
+            ? parseWindow(window)
+            : properties.getLatency().getDefaultWindow();
+        return ResponseEntity.ok(latencyAnalytics.report(duration, groupBy, endpoint, user));
+    }
+    
+    @GetMapping("/summary")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Request counts, error rates and latency percentiles over a time range (ADMIN only)")
+    public ResponseEntity<AuditSummary> getSummary(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "ENDPOINT") LatencyGrouping groupBy,
+            @RequestParam(required = false) String endpoint,
+            @RequestParam(required = false) String user) {
+        return ResponseEntity.ok(retentionService.summarize(
+            from, to != null ? to : LocalDateTime.now(), groupBy, endpoint, user));
+    }
+    
+    @PostMapping("/retention/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Roll up closed hours and purge expired audit data now (ADMIN only)")
+    public ResponseEntity<RetentionRun> runRetention() {
+        return ResponseEntity.ok(retentionService.run());
+    }
+    
+    private static Duration parseWindow(String window) {
+        try {
+            return DurationStyle.detectAndParse(window);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid window '" + window + "', expected e.g. 15m or PT15M");
+        }
     }
 }
@@ -1,7 +1,9 @@
 package com.var.calculation.controller;
 
+import com.var.calculation.exception.InvalidTokenException;
 import com.var.calculation.model.dto.AuthRequest;
 import com.var.calculation.model.dto.AuthResponse;
+import com.var.calculation.model.dto.RefreshRequest;
 import com.var.calculation.security.JwtTokenProvider;
 import com.var.calculation.security.UserPrincipal;
 import io.swagger.v3.oas.annotations.Operation;
@@ -11,11 +13,14 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
 
 /**
  * Authentication controller for user login and JWT token generation.
- * Provides endpoint for obtaining JWT tokens for API access.
+ * Provides endpoints for obtaining JWT tokens for API access and for
+ * renewing them with a refresh token, which skips the password check.
  */
 @RestController
 @RequestMapping("/api/v1/auth")
@@ -25,15 +30,16 @@ public class AuthController {
     
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider tokenProvider;
+    private final UserDetailsService userDetailsService;
     
     /**
-     * Authenticates user and returns JWT token.
+     * Authenticates user and returns JWT tokens.
      * 
      * @param request Authentication credentials (username and password)
-     * @return AuthResponse containing JWT token, role, and expiration time
+     * @return AuthResponse containing access and refresh tokens, role, and expiration times
      */
     @PostMapping("/login")
-    @Operation(summary = "User login", description = "Authenticate user and receive JWT token")
+    @Operation(summary = "User login", description = "Authenticate user and receive JWT access and refresh tokens")
     public ResponseEntity<AuthResponse> login(@Valid @RequestBody AuthRequest request) {
         var authentication = authenticationManager.authenticate(
             new UsernamePasswordAuthenticationToken(
@@ -42,11 +48,49 @@ public class AuthController {
             )
         );
         
-        var token = tokenProvider.generateToken(authentication);
-        var userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        return ResponseEntity.ok(issueTokens((UserPrincipal) authentication.getPrincipal()));
+    }
+    
+    /**
+     * Exchanges a refresh token for a new access token and a new refresh
+     * token. The user's current role is read again, but the password is not
+     * checked, so this is much cheaper than logging in.
+     * 
+     * @param request Refresh token; it is revoked by this call
+     * @return AuthResponse containing the new tokens
+     */
+    @PostMapping("/refresh")
+    @Operation(summary = "Refresh tokens", description = "Exchange a refresh token for new access and refresh tokens")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshRequest request) {
+        var username = tokenProvider.consumeRefreshToken(request.refreshToken());
         
-        return ResponseEntity.ok(
-            new AuthResponse(token, userPrincipal.getRole(), 86400L)
+        UserPrincipal user;
+        try {
+            user = (UserPrincipal) userDetailsService.loadUserByUsername(username);
+        } catch (UsernameNotFoundException e) {
+            throw new InvalidTokenException("User of refresh token no longer exists");
+        }
+        return ResponseEntity.ok(issueTokens(user));
+    }
+    
+    /**
+     * Revokes a refresh token, e.g. on logout. Access tokens already issued
+     * stay valid until they expire.
+     */
+    @PostMapping("/revoke")
+    @Operation(summary = "Revoke refresh token", description = "Revoke a refresh token so it can no longer be used")
+    public ResponseEntity<Void> revoke(@Valid @RequestBody RefreshRequest request) {
+        tokenProvider.revokeRefreshToken(request.refreshToken());
+        return ResponseEntity.noContent().build();
+    }
+    
+    private AuthResponse issueTokens(UserPrincipal user) {
+        return new AuthResponse(
+            tokenProvider.generateToken(user),
+            user.getRole(),
+            tokenProvider.getExpirationSeconds(),
+            tokenProvider.generateRefreshToken(user.getUsername()),
+            tokenProvider.getRefreshExpirationSeconds()
         );
     }
 }
@@ -0,0 +1,61 @@
+package com.var.calculation.controller;
+
+import com.var.calculation.model.dto.BatchJob;
+import com.var.calculation.model.dto.BatchVarRequest;
+import com.var.calculation.service.BatchJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/jobs")
+@RequiredArgsConstructor
+@Tag(name = "Batch Jobs", description = "Batch VaR jobs with columnar result files")
+@SecurityRequirement(name = "Bearer Authentication")
+public class BatchJobController {
+    
+    private final BatchJobService jobService;
+    
+    @PostMapping("/var")
+    @Operation(summary = "Submit a batch of portfolios; results are written to an Arrow IPC file")
+    public ResponseEntity<BatchJob> submit(
+            @Valid @RequestBody BatchVarRequest request,
+            Authentication authentication) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(jobService.submit(request, authentication.getName()));
+    }
+    
+    @GetMapping
+    @Operation(summary = "List the caller's jobs, or all batch and file-drop jobs for ADMIN, newest first")
+    public ResponseEntity<List<BatchJob>> getJobs(Authentication authentication) {
+        return ResponseEntity.ok(jobService.getJobs(authentication));
+    }
+    
+    @GetMapping("/{jobId}")
+    @Operation(summary = "Get the status of a job")
+    public ResponseEntity<BatchJob> getJob(@PathVariable String jobId, Authentication authentication) {
+        return ResponseEntity.ok(jobService.get(jobId, authentication));
+    }
+    
+    @GetMapping("/{jobId}/results")
+    @Operation(summary = "Download the result file of a completed job")
+    public ResponseEntity<Resource> getResults(@PathVariable String jobId, Authentication authentication) {
+        var results = jobService.results(jobId, authentication);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(results.contentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(results.fileName()).build().toString())
+            .body(new FileSystemResource(results.file()));
+    }
+}
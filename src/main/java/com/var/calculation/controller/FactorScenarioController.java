@@ -0,0 +1,46 @@
+package com.var.calculation.controller;
+
+import com.var.calculation.model.dto.FactorScenarioSetInfo;
+import com.var.calculation.model.dto.FactorScenarioSetRequest;
+import com.var.calculation.service.FactorScenarioService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/factor-scenarios")
+@RequiredArgsConstructor
+@Tag(name = "Factor Scenarios", description = "Historical factor returns for factor-based VaR")
+@SecurityRequirement(name = "Bearer Authentication")
+public class FactorScenarioController {
+    
+    private final FactorScenarioService factorScenarios;
+    
+    @PutMapping("/{setId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Store or replace a factor scenario set (ADMIN only)")
+    public ResponseEntity<FactorScenarioSetInfo> store(@PathVariable String setId,
+                                                       @Valid @RequestBody FactorScenarioSetRequest request) {
+        return ResponseEntity.ok(factorScenarios.store(setId, request));
+    }
+    
+    @GetMapping
+    @Operation(summary = "List stored factor scenario sets")
+    public ResponseEntity<List<FactorScenarioSetInfo>> getScenarioSets() {
+        return ResponseEntity.ok(factorScenarios.getScenarioSets());
+    }
+    
+    @DeleteMapping("/{setId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Delete a factor scenario set (ADMIN only)")
+    public ResponseEntity<Void> delete(@PathVariable String setId) {
+        factorScenarios.delete(setId);
+        return ResponseEntity.noContent().build();
+    }
+}
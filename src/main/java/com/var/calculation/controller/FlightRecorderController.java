@@ -0,0 +1,50 @@
+package com.var.calculation.controller;
+
+import com.var.calculation.service.FlightRecorderService;
+import com.var.calculation.service.FlightRecorderService.RecordingDump;
+import com.var.calculation.service.FlightRecorderService.RecordingStatus;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/admin/jfr")
+@RequiredArgsConstructor
+@Tag(name = "Flight Recorder", description = "JDK Flight Recorder recordings of calculations (ADMIN only)")
+@SecurityRequirement(name = "Bearer Authentication")
+public class FlightRecorderController {
+    
+    private final FlightRecorderService recorderService;
+    
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get the state of the flight recording (ADMIN only)")
+    public ResponseEntity<RecordingStatus> getStatus() {
+        return ResponseEntity.ok(recorderService.getStatus());
+    }
+    
+    @PostMapping("/start")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Start a flight recording with default or profile settings (ADMIN only)")
+    public ResponseEntity<RecordingStatus> start(@RequestParam(required = false) String settings) {
+        return ResponseEntity.ok(recorderService.start(settings));
+    }
+    
+    @PostMapping("/dump")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Write the events recorded so far to a local file and keep recording (ADMIN only)")
+    public ResponseEntity<RecordingDump> dump() {
+        return ResponseEntity.ok(recorderService.dump());
+    }
+    
+    @PostMapping("/stop")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Stop the flight recording and write it to a local file (ADMIN only)")
+    public ResponseEntity<RecordingDump> stop() {
+        return ResponseEntity.ok(recorderService.stop());
+    }
+}
@@ -0,0 +1,46 @@
+package com.var.calculation.controller;
+
+import com.var.calculation.model.dto.PortfolioVarRequest;
+import com.var.calculation.model.dto.RegisteredPortfolio;
+import com.var.calculation.service.PortfolioPrecomputeService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/var/registered-portfolios")
+@RequiredArgsConstructor
+@Tag(name = "Portfolio Precomputation", description = "Register portfolios for scheduled VaR precomputation")
+@SecurityRequirement(name = "Bearer Authentication")
+public class PortfolioRegistrationController {
+    
+    private final PortfolioPrecomputeService precomputeService;
+    
+    @PostMapping
+    @Operation(summary = "Register a portfolio for scheduled precomputation")
+    public ResponseEntity<RegisteredPortfolio> register(@Valid @RequestBody PortfolioVarRequest request,
+                                                        Authentication authentication) {
+        return ResponseEntity.ok(precomputeService.register(request, authentication.getName()));
+    }
+    
+    @GetMapping
+    @Operation(summary = "List the caller's registered portfolios")
+    public ResponseEntity<List<RegisteredPortfolio>> getRegisteredPortfolios(Authentication authentication) {
+        return ResponseEntity.ok(precomputeService.getRegisteredPortfolios(authentication.getName()));
+    }
+    
+    @DeleteMapping("/{portfolioId}")
+    @Operation(summary = "Unregister a portfolio, at every confidence level unless one is given")
+    public ResponseEntity<Void> unregister(@PathVariable String portfolioId,
+                                           @RequestParam(required = false) Double confidenceLevel,
+                                           Authentication authentication) {
+        precomputeService.unregister(portfolioId, confidenceLevel, authentication.getName());
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,28 @@
+package com.var.calculation.controller;
+
+import com.var.calculation.service.ShadowComparisonService.ReplayReport;
+import com.var.calculation.service.ShadowReplayService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/admin/shadow")
+@RequiredArgsConstructor
+@Tag(name = "Shadow Comparison", description = "Candidate VaR engine comparison (ADMIN only)")
+@SecurityRequirement(name = "Bearer Authentication")
+public class ShadowController {
+    
+    private final ShadowReplayService replayService;
+    
+    @PostMapping("/replay")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Replay recent captured requests through the production and candidate engines (ADMIN only)")
+    public ResponseEntity<ReplayReport> replay(@RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(replayService.replay(limit));
+    }
+}
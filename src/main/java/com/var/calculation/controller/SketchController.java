@@ -0,0 +1,83 @@
+package com.var.calculation.controller;
+
+import com.var.calculation.model.dto.SketchMergeRequest;
+import com.var.calculation.model.dto.SketchSummary;
+import com.var.calculation.model.dto.SketchVarResponse;
+import com.var.calculation.service.QuantileSketchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import java.io.InputStream;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/var/sketches")
+@RequiredArgsConstructor
+@Tag(name = "Quantile Sketches", description = "Approximate VaR from streamed, mergeable P&L sketches")
+@SecurityRequirement(name = "Bearer Authentication")
+public class SketchController {
+    
+    private final QuantileSketchService sketchService;
+    
+    @PostMapping(value = "/{sketchId}/points", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Stream a JSON array of P&L points into a sketch")
+    public ResponseEntity<SketchSummary> ingestJson(@PathVariable String sketchId, InputStream body,
+                                                    Authentication authentication) {
+        return ResponseEntity.ok(sketchService.ingestJson(sketchId, body, authentication.getName()));
+    }
+    
+    @PostMapping(value = "/{sketchId}/points", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @Operation(summary = "Stream big-endian float64 P&L points into a sketch")
+    public ResponseEntity<SketchSummary> ingestBinary(@PathVariable String sketchId, InputStream body,
+                                                      Authentication authentication) {
+        return ResponseEntity.ok(sketchService.ingestBinary(sketchId, body, authentication.getName()));
+    }
+    
+    @GetMapping("/{sketchId}/var")
+    @Operation(summary = "Approximate VaR and expected shortfall from a sketch")
+    public ResponseEntity<SketchVarResponse> calculateVaR(
+            @PathVariable String sketchId,
+            @RequestParam double confidenceLevel,
+            Authentication authentication) {
+        return ResponseEntity.ok(sketchService.calculateVaR(sketchId, confidenceLevel, authentication.getName()));
+    }
+    
+    @PostMapping("/merge")
+    @Operation(summary = "Merge sketches into a target sketch")
+    public ResponseEntity<SketchSummary> merge(@Valid @RequestBody SketchMergeRequest request,
+                                               Authentication authentication) {
+        return ResponseEntity.ok(sketchService.merge(request, authentication.getName()));
+    }
+    
+    @GetMapping(value = "/{sketchId}/export", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @Operation(summary = "Export a sketch for merging on another node")
+    public ResponseEntity<byte[]> export(@PathVariable String sketchId, Authentication authentication) {
+        return ResponseEntity.ok(sketchService.export(sketchId, authentication.getName()));
+    }
+    
+    @PostMapping(value = "/{sketchId}/import", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @Operation(summary = "Merge a sketch exported by another node into a sketch")
+    public ResponseEntity<SketchSummary> importSketch(@PathVariable String sketchId, InputStream body,
+                                                      Authentication authentication) {
+        return ResponseEntity.ok(sketchService.importSketch(sketchId, body, authentication.getName()));
+    }
+    
+    @GetMapping
+    @Operation(summary = "List sketches")
+    public ResponseEntity<List<SketchSummary>> getSketches(Authentication authentication) {
+        return ResponseEntity.ok(sketchService.getSketches(authentication.getName()));
+    }
+    
+    @DeleteMapping("/{sketchId}")
+    @Operation(summary = "Delete a sketch")
+    public ResponseEntity<Void> delete(@PathVariable String sketchId, Authentication authentication) {
+        sketchService.delete(sketchId, authentication.getName());
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,15 +1,28 @@
 package com.var.calculation.controller;
 
 import com.var.calculation.model.dto.*;
+import com.var.calculation.exception.DeadlineExceededException;
+import com.var.calculation.model.enums.PriorityLane;
+import com.var.calculation.service.AdmissionControlService;
+import com.var.calculation.service.CalculationEvent;
+import com.var.calculation.service.ComputeLaneService;
+import com.var.calculation.service.DiversificationEncoder;
+import com.var.calculation.service.FactorScenarioService;
 import com.var.calculation.service.VarCalculationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.DeferredResult;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/v1/var")
@@ -18,21 +31,153 @@ import org.springframework.web.bind.annotation.*;
 @SecurityRequirement(name = "Bearer Authentication")
 public class VarController {
     
+    /**
+     * Optional request header with the calculation deadline in milliseconds.
+     */
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+    
     private final VarCalculationService varService;
+    private final AdmissionControlService admission;
+    private final ComputeLaneService lanes;
+    private final FactorScenarioService factorScenarios;
     
     @PostMapping("/trade")
     @Operation(summary = "Calculate VaR for a single trade")
-    public ResponseEntity<VarResponse> calculateTradeVaR(
+    public DeferredResult<ResponseEntity<VarResponse>> calculateTradeVaR(
             @Valid @RequestBody TradeVarRequest request,
+            @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMillis,
             Authentication authentication) {
-        return ResponseEntity.ok(varService.calculateTradeVaR(request, authentication.getName()));
+        return admitted(authentication, PriorityLane.INTERACTIVE, request.cost(), timeoutMillis,
+            () -> varService.calculateTradeVaR(request, authentication.getName()));
     }
     
     @PostMapping("/portfolio")
     @Operation(summary = "Calculate VaR for a portfolio")
-    public ResponseEntity<VarResponse> calculatePortfolioVaR(
+    public DeferredResult<ResponseEntity<VarResponse>> calculatePortfolioVaR(
             @Valid @RequestBody PortfolioVarRequest request,
+            @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMillis,
+            Authentication authentication) {
+        return admitted(authentication, PriorityLane.INTERACTIVE, request.cost(), timeoutMillis,
+            () -> varService.calculatePortfolioVaR(request, authentication.getName()));
+    }
+    
+    @PostMapping(value = "/portfolio/diversification", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Report standalone VaRs, diversification benefit and trade correlations for a portfolio")
+    public DeferredResult<ResponseEntity<DiversificationResponse>> calculateDiversification(
+            @Valid @RequestBody DiversificationRequest request,
+            @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMillis,
+            Authentication authentication) {
+        return admitted(authentication, PriorityLane.BULK, request.cost(), timeoutMillis,
+            () -> varService.calculateDiversification(request, authentication.getName()));
+    }
+    
+    @PostMapping(value = "/portfolio/diversification", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @Operation(summary = "Diversification report with the full correlation matrix in compact binary format")
+    public DeferredResult<ResponseEntity<byte[]>> calculateDiversificationBinary(
+            @Valid @RequestBody DiversificationRequest request,
+            @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMillis,
+            Authentication authentication) {
+        if (request.topK() != null) {
+            throw new IllegalArgumentException("Binary format requires the full correlation matrix; omit topK");
+        }
+        return admitted(authentication, PriorityLane.BULK, request.cost(), timeoutMillis,
+            () -> DiversificationEncoder.encode(varService.calculateDiversification(request, authentication.getName())));
+    }
+    
+    @PostMapping("/factor")
+    @Operation(summary = "Calculate portfolio VaR from factor sensitivities against stored factor scenarios")
+    public DeferredResult<ResponseEntity<VarResponse>> calculateFactorVaR(
+            @Valid @RequestBody FactorVarRequest request,
+            @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMillis,
+            Authentication authentication) {
+        var scenarios = factorScenarios.get(request.scenarioSetId());
+        long cost = (long) request.trades().size() * scenarios.scenarioCount();
+        return admitted(authentication, PriorityLane.INTERACTIVE, cost, timeoutMillis,
+            () -> varService.calculateFactorVaR(request, authentication.getName()));
+    }
+    
+    @PostMapping("/backtest")
+    @Operation(summary = "Backtest rolling VaR against realized P&L")
+    public DeferredResult<ResponseEntity<BacktestResponse>> backtest(
+            @Valid @RequestBody BacktestRequest request,
+            @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMillis,
             Authentication authentication) {
-        return ResponseEntity.ok(varService.calculatePortfolioVaR(request, authentication.getName()));
+        return admitted(authentication, PriorityLane.BULK, request.cost(), timeoutMillis,
+            () -> varService.backtest(request, authentication.getName()));
+    }
+    
+    @PostMapping("/stressed")
+    @Operation(summary = "Find the stressed VaR window for one or more portfolios")
+    public DeferredResult<ResponseEntity<StressedVarResponse>> calculateStressedVaR(
+            @Valid @RequestBody StressedVarRequest request,
+            @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMillis,
+            Authentication authentication) {
+        return admitted(authentication, PriorityLane.BULK, request.cost(), timeoutMillis,
+            () -> varService.calculateStressedVaR(request, authentication.getName()));
+    }
+    
+    @PostMapping("/horizon")
+    @Operation(summary = "Calculate VaR over multi-day holding periods")
+    public DeferredResult<ResponseEntity<HorizonVarResponse>> calculateHorizonVaR(
+            @Valid @RequestBody HorizonVarRequest request,
+            @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMillis,
+            Authentication authentication) {
+        return admitted(authentication, PriorityLane.INTERACTIVE, request.cost(), timeoutMillis,
+            () -> varService.calculateHorizonVaR(request, authentication.getName()));
+    }
+    
+    @PostMapping("/portfolio/what-if")
+    @Operation(summary = "Calculate portfolio VaR after adding or removing trades")
+    public DeferredResult<ResponseEntity<WhatIfResponse>> calculateWhatIfVaR(
+            @Valid @RequestBody WhatIfRequest request,
+            @RequestHeader(value = TIMEOUT_HEADER, required = false) Long timeoutMillis,
+            Authentication authentication) {
+        return admitted(authentication, PriorityLane.INTERACTIVE, request.cost(), timeoutMillis,
+            () -> varService.calculateWhatIfVaR(request, authentication.getName()));
+    }
+    
+    /**
+     * Admits a calculation, runs it on its priority lane under the request
+     * deadline and completes the response asynchronously. A request that times
+     * out or whose client disconnects is answered straight away and cancels the
+     * calculation, which stops at its next checkpoint, or before it starts if
+     * still queued. The admission permit is only released once the lane task
+     * has finished, so admitted cost never undercounts work still running.
+     */
+    private <T> DeferredResult<ResponseEntity<T>> admitted(Authentication authentication, PriorityLane endpointLane,
+                                                           long cost, Long timeoutMillis, Supplier<T> calculation) {
+        var endpoint = currentEndpoint();
+        var lane = lanes.classify(endpointLane, cost, authentication);
+        var scope = lanes.openScope(endpoint, timeoutMillis);
+        var permit = admission.acquire(authentication.getName(), cost);
+        var event = CalculationEvent.admitted(endpoint, authentication.getName(), lane, cost);
+        
+        var result = new DeferredResult<ResponseEntity<T>>(scope.remainingMillis());
+        result.onTimeout(() -> {
+            scope.cancel();
+            result.setErrorResult(new DeadlineExceededException("Calculation exceeded its deadline"));
+        });
+        result.onError(error -> scope.cancel());
+        
+        try {
+            lanes.submit(lane, scope, event.bind(calculation)).whenComplete((value, error) -> {
+                permit.close();
+                var failure = error instanceof CompletionException ? error.getCause() : error;
+                event.complete(value, failure);
+                if (failure == null) {
+                    result.setResult(ResponseEntity.ok(value));
+                } else {
+                    result.setErrorResult(failure);
+                }
+            });
+        } catch (RuntimeException e) {
+            permit.close();
+            throw e;
+        }
+        return result;
+    }
+    
+    private static String currentEndpoint() {
+        return ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest().getRequestURI();
     }
 }
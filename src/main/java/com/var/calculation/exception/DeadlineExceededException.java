@@ -0,0 +1,11 @@
+package com.var.calculation.exception;
+
+/**
+ * Thrown when a calculation is stopped because it passed its request deadline.
+ */
+public class DeadlineExceededException extends RuntimeException {
+    
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.var.calculation.exception;
+
+/**
+ * Thrown when a refresh token is malformed, expired or revoked.
+ */
+public class InvalidTokenException extends RuntimeException {
+    
+    public InvalidTokenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.var.calculation.exception;
+
+/**
+ * Thrown when a request is shed because the service or the caller is at its
+ * concurrency limit.
+ */
+public class OverloadedException extends RuntimeException {
+    
+    private final long retryAfterSeconds;
+    
+    public OverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,11 @@
+package com.var.calculation.exception;
+
+/**
+ * Thrown when a requested resource does not exist or is no longer available.
+ */
+public class ResourceNotFoundException extends RuntimeException {
+    
+    public ResourceNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,31 @@
+package com.var.calculation.model.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.var.calculation.model.enums.AuditStatus;
+import java.time.LocalDateTime;
+
+/**
+ * Decoded payloads of an audit record, ready to be posted again.
+ * Uses Java 21 record for immutability.
+ *
+ * @param auditId Audit record ID
+ * @param userId User who made the request
+ * @param endpoint Endpoint the request was made to
+ * @param status Outcome of the request
+ * @param timestamp Time of the request
+ * @param payloadBytes Size of the request and response as plain JSON
+ * @param storedBytes Size of the request and response as stored
+ * @param request Request body
+ * @param response Response body, if the request succeeded
+ */
+public record AuditReplay(
+    Long auditId,
+    String userId,
+    String endpoint,
+    AuditStatus status,
+    LocalDateTime timestamp,
+    Integer payloadBytes,
+    int storedBytes,
+    JsonNode request,
+    JsonNode response
+) {}
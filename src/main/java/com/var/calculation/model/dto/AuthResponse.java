@@ -1,15 +1,20 @@
 package com.var.calculation.model.dto;
 
 /**
- * Authentication response containing JWT token and user details.
+ * Authentication response containing JWT tokens and user details.
  * Uses Java 21 record for immutability.
  *
- * @param token JWT authentication token
+ * @param token JWT access token
  * @param role User's role (USER or ADMIN)
- * @param expiresIn Token expiration time in seconds
+ * @param expiresIn Access token expiration time in seconds
+ * @param refreshToken Single-use token for obtaining a new access token
+ *                     without logging in again
+ * @param refreshExpiresIn Refresh token expiration time in seconds
  */
 public record AuthResponse(
     String token,
     String role,
-    Long expiresIn
+    Long expiresIn,
+    String refreshToken,
+    Long refreshExpiresIn
 ) {}
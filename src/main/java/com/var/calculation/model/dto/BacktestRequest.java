@@ -0,0 +1,42 @@
+package com.var.calculation.model.dto;
+
+import com.var.calculation.validation.MinDataPoints;
+import jakarta.validation.constraints.*;
+import java.util.List;
+
+/**
+ * Request for backtesting rolling historical VaR against realized P&L.
+ * Uses Java 21 record for immutability.
+ *
+ * @param id Identifier of the trade or portfolio being backtested
+ * @param historicalPnL Daily P&L series used to estimate each rolling VaR
+ * @param realizedPnL Optional realized P&L aligned with historicalPnL; defaults to historicalPnL
+ * @param confidenceLevel Confidence level between 0 and 1 (e.g., 0.99 for 99%)
+ * @param windowSize Optional rolling window length; defaults to the configured backtest window
+ */
+public record BacktestRequest(
+    @NotBlank(message = "ID is required")
+    String id,
+    
+    @NotNull(message = "Historical P&L is required")
+    @MinDataPoints
+    List<@NotNull(message = "Historical P&L must not contain nulls") Double> historicalPnL,
+    
+    List<@NotNull(message = "Realized P&L must not contain nulls") Double> realizedPnL,
+    
+    @NotNull(message = "Confidence level is required")
+    @DecimalMin(value = "0.0", inclusive = false, message = "Confidence level must be greater than 0")
+    @DecimalMax(value = "1.0", inclusive = false, message = "Confidence level must be less than 1")
+    Double confidenceLevel,
+    
+    @Min(value = 2, message = "Window size must be at least 2")
+    Integer windowSize
+) {
+    
+    /**
+     * Admission cost of this request, in data points processed.
+     */
+    public long cost() {
+        return historicalPnL.size();
+    }
+}
@@ -0,0 +1,36 @@
+package com.var.calculation.model.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Rolling VaR backtest result with exception counts and coverage tests.
+ * Uses Java 21 record for immutability.
+ *
+ * @param id Identifier of the trade or portfolio
+ * @param confidenceLevel Confidence level used for every rolling VaR
+ * @param windowSize Rolling window length
+ * @param observations Number of days tested
+ * @param exceptions Number of days where the realized loss exceeded VaR
+ * @param expectedExceptions Exceptions expected at this confidence level
+ * @param varSeries VaR estimated for each tested day
+ * @param exceptionIndices Indices into the P&L series of the exception days
+ * @param kupiec Kupiec proportion-of-failures test
+ * @param christoffersen Christoffersen independence test
+ * @param conditionalCoverage Joint Kupiec and Christoffersen conditional coverage test
+ * @param timestamp Calculation time
+ */
+public record BacktestResponse(
+    String id,
+    Double confidenceLevel,
+    Integer windowSize,
+    Integer observations,
+    Integer exceptions,
+    Double expectedExceptions,
+    List<Double> varSeries,
+    List<Integer> exceptionIndices,
+    CoverageTest kupiec,
+    CoverageTest christoffersen,
+    CoverageTest conditionalCoverage,
+    LocalDateTime timestamp
+) {}
@@ -0,0 +1,33 @@
+package com.var.calculation.model.dto;
+
+import com.var.calculation.model.enums.JobStatus;
+import com.var.calculation.model.enums.ResultFormat;
+import java.time.LocalDateTime;
+
+/**
+ * Status of a batch job and its exportable results.
+ * Uses Java 21 record for immutability.
+ *
+ * @param jobId Job identifier, used to download the results
+ * @param source API for submitted batches, INGEST for file-drop runs
+ * @param description Submitting user, or input file name for file-drop runs
+ * @param status Job status
+ * @param portfolios Portfolios in the job
+ * @param rows Result rows written so far
+ * @param format Result file format
+ * @param error Failure reason
+ * @param createdAt Submission time
+ * @param completedAt Completion time, or null while the job runs
+ */
+public record BatchJob(
+    String jobId,
+    String source,
+    String description,
+    JobStatus status,
+    int portfolios,
+    long rows,
+    ResultFormat format,
+    String error,
+    LocalDateTime createdAt,
+    LocalDateTime completedAt
+) {}
@@ -0,0 +1,22 @@
+package com.var.calculation.model.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import java.util.List;
+
+/**
+ * Portfolio in a batch VaR job.
+ * Uses Java 21 record for immutability.
+ *
+ * @param portfolioId Unique identifier for the portfolio
+ * @param trades Trades in the portfolio, optionally dated
+ */
+public record BatchPortfolio(
+    @NotBlank(message = "Portfolio ID is required")
+    String portfolioId,
+    
+    @NotNull(message = "Trades are required")
+    @Size(min = 1, message = "At least one trade required")
+    @Valid
+    List<Trade> trades
+) {}
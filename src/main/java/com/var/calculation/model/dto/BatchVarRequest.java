@@ -0,0 +1,37 @@
+package com.var.calculation.model.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import java.util.List;
+
+/**
+ * Request for a batch VaR job whose results are exported as a file.
+ * Uses Java 21 record for immutability.
+ *
+ * @param confidenceLevels Confidence levels, each between 0 and 1, calculated for every row
+ * @param attribution Whether to add a row per trade with standalone figures and contributions
+ * @param portfolios Portfolios to calculate
+ */
+public record BatchVarRequest(
+    @NotNull(message = "Confidence levels are required")
+    @Size(min = 1, max = 10, message = "Between 1 and 10 confidence levels required")
+    List<@NotNull 
+        @DecimalMin(value = "0.0", inclusive = false, message = "Confidence level must be greater than 0")
+        @DecimalMax(value = "1.0", inclusive = false, message = "Confidence level must be less than 1")
+        Double> confidenceLevels,
+    
+    Boolean attribution,
+    
+    @NotNull(message = "Portfolios are required")
+    @Size(min = 1, message = "At least one portfolio required")
+    @Valid
+    List<BatchPortfolio> portfolios
+) {
+    
+    /**
+     * Total P&L points across all portfolios.
+     */
+    public long points() {
+        return portfolios.stream().mapToLong(portfolio -> Trade.totalPoints(portfolio.trades())).sum();
+    }
+}
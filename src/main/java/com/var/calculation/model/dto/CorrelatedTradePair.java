@@ -0,0 +1,15 @@
+package com.var.calculation.model.dto;
+
+/**
+ * Correlation between the P&L of two trades.
+ * Uses Java 21 record for immutability.
+ *
+ * @param firstTradeId First trade
+ * @param secondTradeId Second trade
+ * @param correlation Pearson correlation of their P&L
+ */
+public record CorrelatedTradePair(
+    String firstTradeId,
+    String secondTradeId,
+    Double correlation
+) {}
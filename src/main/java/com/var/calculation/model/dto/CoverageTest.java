@@ -0,0 +1,15 @@
+package com.var.calculation.model.dto;
+
+/**
+ * Result of a statistical backtesting test on VaR exceptions.
+ * Uses Java 21 record for immutability.
+ *
+ * @param likelihoodRatio Likelihood ratio test statistic
+ * @param degreesOfFreedom Degrees of freedom of the limiting chi-square distribution
+ * @param pValue Probability of a statistic at least this large under the null hypothesis
+ */
+public record CoverageTest(
+    Double likelihoodRatio,
+    Integer degreesOfFreedom,
+    Double pValue
+) {}
@@ -0,0 +1,40 @@
+package com.var.calculation.model.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import java.util.List;
+
+/**
+ * Request for a portfolio diversification report.
+ * Uses Java 21 record for immutability.
+ *
+ * @param portfolioId Unique identifier for the portfolio
+ * @param confidenceLevel Confidence level between 0 and 1 (e.g., 0.95 for 95%)
+ * @param trades Trades in the portfolio, at least two
+ * @param topK Optional number of most correlated pairs to return instead of the full matrix
+ */
+public record DiversificationRequest(
+    @NotBlank(message = "Portfolio ID is required")
+    String portfolioId,
+    
+    @NotNull(message = "Confidence level is required")
+    @DecimalMin(value = "0.0", inclusive = false, message = "Confidence level must be greater than 0")
+    @DecimalMax(value = "1.0", inclusive = false, message = "Confidence level must be less than 1")
+    Double confidenceLevel,
+    
+    @NotNull(message = "Trades are required")
+    @Size(min = 2, message = "At least two trades required")
+    @Valid
+    List<Trade> trades,
+    
+    @Min(value = 1, message = "Top-K must be at least 1")
+    Integer topK
+) {
+    
+    /**
+     * Admission cost of this request, in data points processed.
+     */
+    public long cost() {
+        return Trade.totalPoints(trades);
+    }
+}
@@ -0,0 +1,70 @@
+package com.var.calculation.model.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Diversification report: standalone and portfolio VaR plus trade correlations.
+ * Uses Java 21 record for immutability.
+ *
+ * @param portfolioId Portfolio identifier
+ * @param confidenceLevel Confidence level used
+ * @param portfolioVar VaR of the aggregated portfolio
+ * @param sumOfStandaloneVars Sum of the trades' standalone VaRs
+ * @param diversificationBenefit sumOfStandaloneVars minus portfolioVar
+ * @param standaloneVars Standalone VaR of each trade, in request order
+ * @param correlationMatrix Strict upper triangle of the correlation matrix, row by row, as a read-only view; null when topK is requested
+ * @param topCorrelations Most correlated pairs by absolute correlation, strongest first; null unless topK is requested
+ * @param timestamp Calculation time
+ */
+public record DiversificationResponse(
+    String portfolioId,
+    Double confidenceLevel,
+    Double portfolioVar,
+    Double sumOfStandaloneVars,
+    Double diversificationBenefit,
+    List<TradeVar> standaloneVars,
+    @JsonSerialize(using = DiversificationResponse.FloatsSerializer.class)
+    FloatBuffer correlationMatrix,
+    List<CorrelatedTradePair> topCorrelations,
+    LocalDateTime timestamp
+) {
+    
+    public DiversificationResponse {
+        correlationMatrix = correlationMatrix != null ? correlationMatrix.asReadOnlyBuffer() : null;
+    }
+    
+    /**
+     * Returns a read-only view with its own position, so callers can neither
+     * alter the matrix nor disturb each other's reads, without copying it.
+     */
+    @Override
+    public FloatBuffer correlationMatrix() {
+        return correlationMatrix != null ? correlationMatrix.duplicate() : null;
+    }
+    
+    /**
+     * Writes the remaining floats of a buffer as a JSON array.
+     */
+    static class FloatsSerializer extends StdSerializer<FloatBuffer> {
+        
+        FloatsSerializer() {
+            super(FloatBuffer.class);
+        }
+        
+        @Override
+        public void serialize(FloatBuffer floats, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartArray(floats, floats.remaining());
+            for (int i = floats.position(); i < floats.limit(); i++) {
+                gen.writeNumber(floats.get(i));
+            }
+            gen.writeEndArray();
+        }
+    }
+}
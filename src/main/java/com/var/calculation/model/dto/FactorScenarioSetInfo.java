@@ -0,0 +1,20 @@
+package com.var.calculation.model.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Summary of a stored factor scenario set.
+ * Uses Java 21 record for immutability.
+ *
+ * @param setId Scenario set identifier
+ * @param factors Risk factor names
+ * @param scenarioCount Number of historical scenarios
+ * @param storedAt Time the set was stored
+ */
+public record FactorScenarioSetInfo(
+    String setId,
+    List<String> factors,
+    Integer scenarioCount,
+    LocalDateTime storedAt
+) {}
@@ -0,0 +1,21 @@
+package com.var.calculation.model.dto;
+
+import jakarta.validation.constraints.*;
+import java.util.List;
+
+/**
+ * Historical risk-factor returns to store server-side for factor-based VaR.
+ * Uses Java 21 record for immutability.
+ *
+ * @param factors Risk factor names, in the column order of each scenario
+ * @param returns One row of factor returns per historical scenario
+ */
+public record FactorScenarioSetRequest(
+    @NotNull(message = "Factors are required")
+    @Size(min = 1, message = "At least one factor required")
+    List<@NotBlank String> factors,
+    
+    @NotNull(message = "Returns are required")
+    @Size(min = 1, message = "At least one scenario required")
+    List<@NotNull List<@NotNull Double>> returns
+) {}
@@ -0,0 +1,20 @@
+package com.var.calculation.model.dto;
+
+import jakarta.validation.constraints.*;
+import java.util.Map;
+
+/**
+ * Trade described by its linear sensitivities to risk factors.
+ * Uses Java 21 record for immutability.
+ *
+ * @param tradeId Unique identifier for the trade
+ * @param sensitivities P&L per unit return of each risk factor, by factor name
+ */
+public record FactorTrade(
+    @NotBlank(message = "Trade ID is required")
+    String tradeId,
+    
+    @NotNull(message = "Sensitivities are required")
+    @Size(min = 1, message = "At least one sensitivity required")
+    Map<String, Double> sensitivities
+) {}
@@ -0,0 +1,15 @@
+package com.var.calculation.model.dto;
+
+/**
+ * VaR for a single holding period.
+ * Uses Java 21 record for immutability.
+ *
+ * @param horizon Holding period in days
+ * @param var VaR over the holding period
+ * @param scenarios Number of overlapping horizon P&L scenarios used
+ */
+public record HorizonVar(
+    Integer horizon,
+    Double var,
+    Integer scenarios
+) {}
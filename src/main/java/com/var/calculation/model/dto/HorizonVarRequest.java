@@ -0,0 +1,41 @@
+package com.var.calculation.model.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import java.util.List;
+
+/**
+ * Request for VaR over one or more multi-day holding periods.
+ * Uses Java 21 record for immutability.
+ *
+ * @param id Identifier of the trade or portfolio
+ * @param confidenceLevel Confidence level between 0 and 1 (e.g., 0.99 for 99%)
+ * @param horizons Holding periods in days (e.g., [1, 10])
+ * @param trades Trades whose daily P&L is aggregated before building horizon P&L
+ */
+public record HorizonVarRequest(
+    @NotBlank(message = "ID is required")
+    String id,
+    
+    @NotNull(message = "Confidence level is required")
+    @DecimalMin(value = "0.0", inclusive = false, message = "Confidence level must be greater than 0")
+    @DecimalMax(value = "1.0", inclusive = false, message = "Confidence level must be less than 1")
+    Double confidenceLevel,
+    
+    @NotNull(message = "Horizons are required")
+    @Size(min = 1, message = "At least one horizon required")
+    List<@NotNull @Min(value = 1, message = "Horizon must be at least 1 day") Integer> horizons,
+    
+    @NotNull(message = "Trades are required")
+    @Size(min = 1, message = "At least one trade required")
+    @Valid
+    List<Trade> trades
+) {
+    
+    /**
+     * Admission cost of this request, in data points processed.
+     */
+    public long cost() {
+        return Trade.totalPoints(trades) + (long) horizons.size() * trades.get(0).historicalPnL().size();
+    }
+}
@@ -0,0 +1,24 @@
+package com.var.calculation.model.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Multi-horizon VaR results.
+ * Uses Java 21 record for immutability.
+ *
+ * @param id Identifier of the trade or portfolio
+ * @param confidenceLevel Confidence level used
+ * @param calculationMethod Calculation method used
+ * @param tradeCount Number of trades aggregated
+ * @param horizons VaR per requested horizon, in request order
+ * @param timestamp Calculation time
+ */
+public record HorizonVarResponse(
+    String id,
+    Double confidenceLevel,
+    String calculationMethod,
+    Integer tradeCount,
+    List<HorizonVar> horizons,
+    LocalDateTime timestamp
+) {}
@@ -1,5 +1,6 @@
 package com.var.calculation.model.dto;
 
+import com.var.calculation.model.enums.VarMethod;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.*;
 import java.util.List;
@@ -11,6 +12,7 @@ import java.util.List;
  * @param portfolioId Unique identifier for the portfolio
  * @param confidenceLevel Confidence level between 0 and 1 (e.g., 0.95 for 95%)
  * @param trades List of trades in the portfolio
+ * @param method Calculation method, historical simulation when omitted
  */
 public record PortfolioVarRequest(
     @NotBlank(message = "Portfolio ID is required")
@@ -24,5 +26,34 @@ public record PortfolioVarRequest(
     @NotNull(message = "Trades are required")
     @Size(min = 1, message = "At least one trade required")
     @Valid
-    List<Trade> trades
-) {}
+    List<Trade> trades,
+    
+    VarMethod method
+) {
+    
+    public PortfolioVarRequest {
+        if (method == null) {
+            method = VarMethod.HISTORICAL_SIMULATION;
+        }
+    }
+    
+    public PortfolioVarRequest(String portfolioId, Double confidenceLevel, List<Trade> trades) {
+        this(portfolioId, confidenceLevel, trades, VarMethod.HISTORICAL_SIMULATION);
+    }
+    
+    /**
+     * Key of this request's result in the portfolio VaR cache. Results are
+     * private to the user, since two users may send different trades under
+     * the same portfolio ID.
+     */
+    public String cacheKey(String username) {
+        return username + "_" + portfolioId + "_" + confidenceLevel + "_" + method;
+    }
+    
+    /**
+     * Admission cost of this request, in data points processed.
+     */
+    public long cost() {
+        return Trade.totalPoints(trades);
+    }
+}
@@ -0,0 +1,14 @@
+package com.var.calculation.model.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * Request to exchange or revoke a refresh token.
+ * Uses Java 21 record for immutability.
+ *
+ * @param refreshToken Refresh token issued at login or by a previous refresh
+ */
+public record RefreshRequest(
+    @NotBlank(message = "Refresh token is required")
+    String refreshToken
+) {}
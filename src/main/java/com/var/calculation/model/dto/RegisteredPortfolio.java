@@ -0,0 +1,23 @@
+package com.var.calculation.model.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Portfolio registered for scheduled precomputation.
+ * Uses Java 21 record for immutability.
+ *
+ * @param portfolioId Portfolio identifier
+ * @param confidenceLevel Confidence level the portfolio is precomputed at
+ * @param method Calculation method the portfolio is precomputed with
+ * @param tradeCount Number of trades in the portfolio
+ * @param registeredAt Registration time
+ * @param lastComputedAt Time of the last successful precomputation, or null if not yet computed
+ */
+public record RegisteredPortfolio(
+    String portfolioId,
+    Double confidenceLevel,
+    String method,
+    Integer tradeCount,
+    LocalDateTime registeredAt,
+    LocalDateTime lastComputedAt
+) {}
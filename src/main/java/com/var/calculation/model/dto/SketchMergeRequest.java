@@ -0,0 +1,20 @@
+package com.var.calculation.model.dto;
+
+import jakarta.validation.constraints.*;
+import java.util.List;
+
+/**
+ * Request to merge sketches into a target sketch.
+ * Uses Java 21 record for immutability.
+ *
+ * @param targetId Sketch to merge into; created if it does not exist
+ * @param sourceIds Sketches to merge, left unchanged
+ */
+public record SketchMergeRequest(
+    @NotBlank(message = "Target ID is required")
+    String targetId,
+    
+    @NotNull(message = "Source IDs are required")
+    @Size(min = 1, message = "At least one source required")
+    List<@NotBlank String> sourceIds
+) {}
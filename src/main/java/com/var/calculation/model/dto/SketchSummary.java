@@ -0,0 +1,17 @@
+package com.var.calculation.model.dto;
+
+/**
+ * Size of a streaming quantile sketch.
+ * Uses Java 21 record for immutability.
+ *
+ * @param sketchId Sketch identifier
+ * @param count Number of P&L points summarized
+ * @param centroids Number of centroids held
+ * @param bytes Serialized size in bytes
+ */
+public record SketchSummary(
+    String sketchId,
+    Long count,
+    Integer centroids,
+    Integer bytes
+) {}
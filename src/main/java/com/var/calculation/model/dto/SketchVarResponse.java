@@ -0,0 +1,27 @@
+package com.var.calculation.model.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Approximate VaR and expected shortfall answered from a quantile sketch.
+ * Uses Java 21 record for immutability.
+ *
+ * @param sketchId Sketch identifier
+ * @param var Approximate VaR
+ * @param expectedShortfall Approximate average loss beyond VaR
+ * @param confidenceLevel Confidence level used
+ * @param count Number of P&L points summarized
+ * @param rankErrorBound Upper bound on the rank error of the VaR quantile, as a fraction of count
+ * @param calculationMethod Always TDIGEST_SKETCH
+ * @param timestamp Calculation time
+ */
+public record SketchVarResponse(
+    String sketchId,
+    Double var,
+    Double expectedShortfall,
+    Double confidenceLevel,
+    Long count,
+    Double rankErrorBound,
+    String calculationMethod,
+    LocalDateTime timestamp
+) {}
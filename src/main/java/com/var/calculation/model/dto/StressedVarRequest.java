@@ -0,0 +1,33 @@
+package com.var.calculation.model.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import java.util.List;
+
+/**
+ * Request for a stressed VaR window search over one or more portfolios.
+ * Uses Java 21 record for immutability.
+ *
+ * @param windowSize Optional window length; defaults to the configured stressed window
+ * @param parallel Whether to search the portfolios in parallel
+ * @param portfolios Portfolios to search, each with its own confidence level
+ */
+public record StressedVarRequest(
+    @Min(value = 2, message = "Window size must be at least 2")
+    Integer windowSize,
+    
+    Boolean parallel,
+    
+    @NotNull(message = "Portfolios are required")
+    @Size(min = 1, message = "At least one portfolio required")
+    @Valid
+    List<PortfolioVarRequest> portfolios
+) {
+    
+    /**
+     * Admission cost of this request, in data points processed.
+     */
+    public long cost() {
+        return portfolios.stream().mapToLong(PortfolioVarRequest::cost).sum();
+    }
+}
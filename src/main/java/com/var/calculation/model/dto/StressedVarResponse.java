@@ -0,0 +1,18 @@
+package com.var.calculation.model.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Stressed VaR search results.
+ * Uses Java 21 record for immutability.
+ *
+ * @param windowSize Window length searched
+ * @param results One result per requested portfolio, in request order
+ * @param timestamp Calculation time
+ */
+public record StressedVarResponse(
+    Integer windowSize,
+    List<StressedVarResult> results,
+    LocalDateTime timestamp
+) {}
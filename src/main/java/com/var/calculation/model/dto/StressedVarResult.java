@@ -0,0 +1,21 @@
+package com.var.calculation.model.dto;
+
+/**
+ * Worst historical window found for a single portfolio.
+ * Uses Java 21 record for immutability.
+ *
+ * @param portfolioId Portfolio identifier
+ * @param var VaR over the stressed window
+ * @param confidenceLevel Confidence level used
+ * @param windowStart Index of the first period of the stressed window (inclusive)
+ * @param windowEnd Index of the last period of the stressed window (exclusive)
+ * @param tradeCount Number of trades in the portfolio
+ */
+public record StressedVarResult(
+    String portfolioId,
+    Double var,
+    Double confidenceLevel,
+    Integer windowStart,
+    Integer windowEnd,
+    Integer tradeCount
+) {}
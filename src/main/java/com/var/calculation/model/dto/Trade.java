@@ -2,6 +2,7 @@ package com.var.calculation.model.dto;
 
 import com.var.calculation.validation.MinDataPoints;
 import jakarta.validation.constraints.*;
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -10,6 +11,8 @@ import java.util.List;
  *
  * @param tradeId Unique identifier for the trade
  * @param historicalPnL Historical profit and loss data (configurable minimum points)
+ * @param dates Optional date of each P&L point, strictly increasing
+ * @param offset Optional period of the first P&L point on a common period axis
  */
 public record Trade(
     @NotBlank(message = "Trade ID is required")
@@ -17,5 +20,30 @@ public record Trade(
     
     @NotNull(message = "Historical P&L is required")
     @MinDataPoints
-    List<Double> historicalPnL
-) {}
+    List<Double> historicalPnL,
+    
+    List<@NotNull(message = "Dates must not contain nulls") LocalDate> dates,
+    
+    @Min(value = 0, message = "Offset must not be negative")
+    Integer offset
+) {
+    
+    public Trade(String tradeId, List<Double> historicalPnL) {
+        this(tradeId, historicalPnL, null, null);
+    }
+    
+    /**
+     * Whether this trade's P&L is placed on a date or period axis rather than
+     * assumed to line up point by point with the other trades.
+     */
+    public boolean aligned() {
+        return dates != null || offset != null;
+    }
+    
+    /**
+     * Total number of P&L points across the given trades.
+     */
+    public static long totalPoints(List<Trade> trades) {
+        return trades.stream().mapToLong(trade -> trade.historicalPnL().size()).sum();
+    }
+}
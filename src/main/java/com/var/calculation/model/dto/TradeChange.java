@@ -0,0 +1,30 @@
+package com.var.calculation.model.dto;
+
+import com.var.calculation.model.enums.TradeAction;
+import com.var.calculation.validation.MinDataPoints;
+import jakarta.validation.constraints.*;
+import java.util.List;
+
+/**
+ * Trade added to or removed from a portfolio in a what-if check.
+ * Uses Java 21 record for immutability.
+ *
+ * @param tradeId Unique identifier for the trade
+ * @param historicalPnL Historical P&L of one unit of the trade
+ * @param action Whether the trade is added to or removed from the portfolio
+ * @param quantity Optional scaling applied to the P&L (defaults to 1)
+ */
+public record TradeChange(
+    @NotBlank(message = "Trade ID is required")
+    String tradeId,
+    
+    @NotNull(message = "Historical P&L is required")
+    @MinDataPoints
+    List<Double> historicalPnL,
+    
+    @NotNull(message = "Action is required")
+    TradeAction action,
+    
+    @Positive(message = "Quantity must be positive")
+    Double quantity
+) {}
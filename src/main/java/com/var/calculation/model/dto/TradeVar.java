@@ -0,0 +1,13 @@
+package com.var.calculation.model.dto;
+
+/**
+ * Standalone VaR of one trade.
+ * Uses Java 21 record for immutability.
+ *
+ * @param tradeId Trade identifier
+ * @param var VaR of the trade on its own
+ */
+public record TradeVar(
+    String tradeId,
+    Double var
+) {}
@@ -1,5 +1,6 @@
 package com.var.calculation.model.dto;
 
+import com.var.calculation.model.enums.VarMethod;
 import com.var.calculation.validation.MinDataPoints;
 import jakarta.validation.constraints.*;
 import java.util.List;
@@ -11,6 +12,7 @@ import java.util.List;
  * @param tradeId Unique identifier for the trade
  * @param historicalPnL Historical profit and loss data (configurable minimum points)
  * @param confidenceLevel Confidence level between 0 and 1 (e.g., 0.95 for 95%)
+ * @param method Calculation method, historical simulation when omitted
  */
 public record TradeVarRequest(
     @NotBlank(message = "Trade ID is required")
@@ -23,5 +25,32 @@ public record TradeVarRequest(
     @NotNull(message = "Confidence level is required")
     @DecimalMin(value = "0.0", inclusive = false, message = "Confidence level must be greater than 0")
     @DecimalMax(value = "1.0", inclusive = false, message = "Confidence level must be less than 1")
-    Double confidenceLevel
-) {}
+    Double confidenceLevel,
+    
+    VarMethod method
+) {
+    
+    public TradeVarRequest {
+        if (method == null) {
+            method = VarMethod.HISTORICAL_SIMULATION;
+        }
+    }
+    
+    public TradeVarRequest(String tradeId, List<Double> historicalPnL, Double confidenceLevel) {
+        this(tradeId, historicalPnL, confidenceLevel, VarMethod.HISTORICAL_SIMULATION);
+    }
+    
+    /**
+     * Key of this request's result in the trade VaR cache.
+     */
+    public String cacheKey() {
+        return tradeId + "_" + confidenceLevel + "_" + method;
+    }
+    
+    /**
+     * Admission cost of this request, in data points processed.
+     */
+    public long cost() {
+        return historicalPnL.size();
+    }
+}
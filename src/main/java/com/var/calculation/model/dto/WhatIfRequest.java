@@ -0,0 +1,41 @@
+package com.var.calculation.model.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import java.util.List;
+
+/**
+ * Pre-deal what-if request against a recently calculated portfolio.
+ * Uses Java 21 record for immutability.
+ *
+ * @param portfolioId Portfolio whose aggregated P&L is cached by a previous calculation
+ * @param confidenceLevel Confidence level between 0 and 1 (e.g., 0.95 for 95%)
+ * @param changes Trades to add or remove
+ * @param baseTrades Optional full portfolio, used only if its aggregated P&L is no longer cached
+ */
+public record WhatIfRequest(
+    @NotBlank(message = "Portfolio ID is required")
+    String portfolioId,
+    
+    @NotNull(message = "Confidence level is required")
+    @DecimalMin(value = "0.0", inclusive = false, message = "Confidence level must be greater than 0")
+    @DecimalMax(value = "1.0", inclusive = false, message = "Confidence level must be less than 1")
+    Double confidenceLevel,
+    
+    @NotNull(message = "Changes are required")
+    @Size(min = 1, message = "At least one change required")
+    @Valid
+    List<TradeChange> changes,
+    
+    @Valid
+    List<Trade> baseTrades
+) {
+    
+    /**
+     * Admission cost of this request, in data points processed.
+     */
+    public long cost() {
+        long changed = changes.stream().mapToLong(change -> change.historicalPnL().size()).sum();
+        return baseTrades == null ? changed : changed + Trade.totalPoints(baseTrades);
+    }
+}
@@ -0,0 +1,25 @@
+package com.var.calculation.model.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Portfolio VaR before and after a set of what-if trade changes.
+ * Uses Java 21 record for immutability.
+ *
+ * @param portfolioId Portfolio identifier
+ * @param baseVar VaR of the portfolio as last calculated
+ * @param var VaR after applying the changes
+ * @param varChange Difference between var and baseVar
+ * @param confidenceLevel Confidence level used
+ * @param changeCount Number of trade changes applied
+ * @param timestamp Calculation time
+ */
+public record WhatIfResponse(
+    String portfolioId,
+    Double baseVar,
+    Double var,
+    Double varChange,
+    Double confidenceLevel,
+    Integer changeCount,
+    LocalDateTime timestamp
+) {}
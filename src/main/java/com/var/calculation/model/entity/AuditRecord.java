@@ -1,5 +1,6 @@
 package com.var.calculation.model.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.var.calculation.model.enums.AuditStatus;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -10,18 +11,21 @@ import java.time.LocalDateTime;
 
 /**
  * Audit record entity for tracking API requests and responses.
- * Stores execution metrics and error information for monitoring and compliance.
+ * Stores execution metrics and error information for monitoring and compliance,
+ * and optionally the request and response bodies, compressed.
  * 
  * Updated for Jakarta Persistence (JPA 3.0).
  */
 @Entity
-@Table(name = "audit_record")
+@Table(name = "audit_record", indexes = @Index(name = "idx_audit_record_timestamp", columnList = "timestamp"))
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class AuditRecord {
     
+    public static final int MAX_PAYLOAD_BYTES = 64 * 1024 * 1024;
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -32,11 +36,26 @@ public class AuditRecord {
     @Column(nullable = false)
     private String endpoint;
     
-    @Column(columnDefinition = "TEXT")
-    private String requestPayload;
+    /**
+     * Request body in the {@link #payloadEncoding} binary encoding.
+     */
+    @JsonIgnore
+    @Column(length = MAX_PAYLOAD_BYTES)
+    private byte[] requestPayload;
     
-    @Column(columnDefinition = "TEXT")
-    private String responsePayload;
+    /**
+     * Response body in the {@link #payloadEncoding} binary encoding.
+     */
+    @JsonIgnore
+    @Column(length = MAX_PAYLOAD_BYTES)
+    private byte[] responsePayload;
+    
+    private String payloadEncoding;
+    
+    /**
+     * Size of the request and response as plain JSON, before encoding.
+     */
+    private Integer payloadBytes;
     
     @Column(nullable = false)
     private Long executionTimeMs;
@@ -0,0 +1,68 @@
+package com.var.calculation.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Hourly aggregate of the audit records of one user and endpoint.
+ * Raw audit records are rolled up into these once their hour has closed,
+ * and are purged after the raw retention period while rollups are kept.
+ * 
+ * The latency histogram is an HdrHistogram in its compressed encoding, so
+ * rollups can be merged into percentiles over any range of hours. Records
+ * written after their hour was rolled up are merged into it later.
+ */
+@Entity
+@Table(name = "audit_rollup",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"bucketStart", "userId", "endpoint"}),
+    indexes = @Index(name = "idx_audit_rollup_bucket", columnList = "bucketStart"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditRollup {
+    
+    public static final int MAX_HISTOGRAM_BYTES = 64 * 1024;
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    /**
+     * Start of the hour covered by this rollup.
+     */
+    @Column(nullable = false)
+    private LocalDateTime bucketStart;
+    
+    @Column(nullable = false)
+    private String userId;
+    
+    @Column(nullable = false)
+    private String endpoint;
+    
+    @Column(nullable = false)
+    private Long requestCount;
+    
+    @Column(nullable = false)
+    private Long errorCount;
+    
+    @Column(nullable = false)
+    private Long latencySumMs;
+    
+    @Column(nullable = false)
+    private Long latencyMaxMs;
+    
+    @Column(nullable = false, length = MAX_HISTOGRAM_BYTES)
+    private byte[] latencyHistogram;
+    
+    /**
+     * Highest audit record ID the run that last wrote this row had seen.
+     * Records above the highest of these have not been rolled up yet.
+     */
+    @Column(nullable = false)
+    private Long lastRecordId;
+}
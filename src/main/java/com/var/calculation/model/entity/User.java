@@ -37,4 +37,11 @@ public class User {
     
     @Column(nullable = false)
     private Boolean enabled = true;
+    
+    /**
+     * Whether the account was created for startup warm-up, whose requests are
+     * not audited.
+     */
+    @Column(nullable = false)
+    private boolean warmup;
 }
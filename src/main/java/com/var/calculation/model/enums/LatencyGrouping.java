@@ -0,0 +1,5 @@
+package com.var.calculation.model.enums;
+
+public enum LatencyGrouping {
+    ENDPOINT, USER, ENDPOINT_USER
+}
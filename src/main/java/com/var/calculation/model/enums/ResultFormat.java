@@ -0,0 +1,5 @@
+package com.var.calculation.model.enums;
+
+public enum ResultFormat {
+    CSV, ARROW
+}
@@ -0,0 +1,5 @@
+package com.var.calculation.model.enums;
+
+public enum VarMethod {
+    HISTORICAL_SIMULATION, CORNISH_FISHER
+}
@@ -0,0 +1,5 @@
+package com.var.calculation.model.enums;
+
+public enum WarmupState {
+    DISABLED, PENDING, RUNNING, COMPLETED, BUDGET_EXHAUSTED, FAILED
+}
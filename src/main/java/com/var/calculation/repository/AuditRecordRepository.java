@@ -1,7 +1,93 @@
 package com.var.calculation.repository;
 
 import com.var.calculation.model.entity.AuditRecord;
+import com.var.calculation.model.enums.AuditStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface AuditRecordRepository extends JpaRepository<AuditRecord, Long> {
+    
+    /**
+     * Payloads of successful records with a captured request, newest first,
+     * below an ID, so a replay can walk back through them a page at a time.
+     */
+    List<ReplaySource> findByEndpointInAndStatusAndRequestPayloadIsNotNullAndIdLessThanOrderByIdDesc(
+        Collection<String> endpoints, AuditStatus status, Long id, Pageable pageable);
+    
+    /**
+     * Latency and outcome of the records in [from, to), without their payloads.
+     * Must be consumed inside a transaction and closed.
+     */
+    Stream<LatencySample> findByTimestampGreaterThanEqualAndTimestampLessThan(LocalDateTime from, LocalDateTime to);
+    
+    /**
+     * As above, limited to records with an ID up to through.
+     */
+    Stream<LatencySample> findByTimestampGreaterThanEqualAndTimestampLessThanAndIdLessThanEqual(
+        LocalDateTime from, LocalDateTime to, Long through);
+    
+    /**
+     * Records with an ID in (after, through] and a timestamp before a time,
+     * so rollups can pick up records written after their hour was rolled up.
+     * Must be consumed inside a transaction and closed.
+     */
+    Stream<LatencySample> findByIdGreaterThanAndIdLessThanEqualAndTimestampLessThan(
+        Long after, Long through, LocalDateTime before);
+    
+    /**
+     * Audit history without the payload columns, optionally for one user or outcome.
+     */
+    @Query(value = """
+            select a.id as id, a.userId as userId, a.endpoint as endpoint, a.executionTimeMs as executionTimeMs,
+                   a.status as status, a.errorMessage as errorMessage, a.payloadBytes as payloadBytes,
+                   a.timestamp as timestamp
+            from AuditRecord a
+            where (:userId is null or a.userId = :userId) and (:status is null or a.status = :status)
+            """,
+        countQuery = """
+            select count(a) from AuditRecord a
+            where (:userId is null or a.userId = :userId) and (:status is null or a.status = :status)
+            """)
+    Page<AuditEntry> findEntries(String userId, AuditStatus status, Pageable pageable);
+    
+    @Query("select min(a.timestamp) from AuditRecord a where a.timestamp >= :from")
+    LocalDateTime findEarliestTimestampFrom(LocalDateTime from);
+    
+    @Query("select max(a.id) from AuditRecord a")
+    Long findMaxId();
+    
+    @Query("select a.id from AuditRecord a where a.timestamp < :cutoff and a.id <= :through order by a.id")
+    List<Long> findIdsBefore(LocalDateTime cutoff, Long through, Pageable pageable);
+    
+    interface LatencySample {
+        String getUserId();
+        String getEndpoint();
+        Long getExecutionTimeMs();
+        AuditStatus getStatus();
+        LocalDateTime getTimestamp();
+    }
+    
+    interface ReplaySource {
+        Long getId();
+        String getEndpoint();
+        byte[] getRequestPayload();
+        byte[] getResponsePayload();
+    }
+    
+    interface AuditEntry {
+        Long getId();
+        String getUserId();
+        String getEndpoint();
+        Long getExecutionTimeMs();
+        AuditStatus getStatus();
+        String getErrorMessage();
+        Integer getPayloadBytes();
+        LocalDateTime getTimestamp();
+    }
 }
@@ -0,0 +1,28 @@
+package com.var.calculation.repository;
+
+import com.var.calculation.model.entity.AuditRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface AuditRollupRepository extends JpaRepository<AuditRollup, Long> {
+    
+    @Query("select max(r.bucketStart) from AuditRollup r")
+    LocalDateTime findLatestBucketStart();
+    
+    @Query("select max(r.lastRecordId) from AuditRollup r")
+    Long findLastRecordId();
+    
+    Optional<AuditRollup> findByBucketStartAndUserIdAndEndpoint(LocalDateTime bucketStart, String userId, String endpoint);
+    
+    List<AuditRollup> findByBucketStartGreaterThanEqualAndBucketStartLessThan(LocalDateTime from, LocalDateTime to);
+    
+    @Transactional
+    @Modifying
+    @Query("delete from AuditRollup r where r.bucketStart < :cutoff")
+    int deleteByBucketStartBefore(LocalDateTime cutoff);
+}
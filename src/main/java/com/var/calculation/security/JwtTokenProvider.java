@@ -1,23 +1,40 @@
 package com.var.calculation.security;
 
+import com.var.calculation.exception.InvalidTokenException;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 import javax.crypto.SecretKey;
 import java.util.Date;
 
+/**
+ * Issues and validates short-lived access tokens and long-lived refresh
+ * tokens. Refresh tokens carry a token type claim so they are never accepted
+ * as access tokens, and are only valid while registered in the
+ * {@link RefreshTokenStore}.
+ */
 @Component
+@RequiredArgsConstructor
 public class JwtTokenProvider {
     
+    private static final String TOKEN_TYPE = "typ";
+    private static final String REFRESH = "refresh";
+    
+    private final RefreshTokenStore refreshTokens;
+    
     @Value("${jwt.secret}")
     private String jwtSecret;
     
     @Value("${jwt.expiration}")
     private long jwtExpiration;
     
+    @Value("${jwt.refresh-expiration}")
+    private long refreshExpiration;
+    
     private SecretKey key;
     
     @PostConstruct
@@ -26,7 +43,10 @@ public class JwtTokenProvider {
     }
     
     public String generateToken(Authentication authentication) {
-        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        return generateToken((UserPrincipal) authentication.getPrincipal());
+    }
+    
+    public String generateToken(UserPrincipal userPrincipal) {
         long now = System.currentTimeMillis();
         
         return Jwts.builder()
@@ -38,6 +58,54 @@ public class JwtTokenProvider {
                 .compact();
     }
     
+    /**
+     * Issues a refresh token and registers it, so it can later be revoked.
+     */
+    public String generateRefreshToken(String username) {
+        long now = System.currentTimeMillis();
+        var tokenId = refreshTokens.register(username, now + refreshExpiration);
+        
+        return Jwts.builder()
+                .subject(username)
+                .id(tokenId)
+                .claim(TOKEN_TYPE, REFRESH)
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + refreshExpiration))
+                .signWith(key)
+                .compact();
+    }
+    
+    /**
+     * Checks a refresh token and revokes it, so each one is used once.
+     * 
+     * @return Username the token was issued to
+     * @throws InvalidTokenException if the token is invalid, expired or revoked
+     */
+    public String consumeRefreshToken(String refreshToken) {
+        var claims = parseRefreshToken(refreshToken);
+        if (!refreshTokens.consume(claims.getId(), claims.getSubject())) {
+            throw new InvalidTokenException("Refresh token has been revoked");
+        }
+        return claims.getSubject();
+    }
+    
+    /**
+     * Revokes a refresh token. Revoking a token that is no longer live is a no-op.
+     * 
+     * @throws InvalidTokenException if the token is not a valid refresh token
+     */
+    public void revokeRefreshToken(String refreshToken) {
+        refreshTokens.revoke(parseRefreshToken(refreshToken).getId());
+    }
+    
+    public long getExpirationSeconds() {
+        return jwtExpiration / 1000;
+    }
+    
+    public long getRefreshExpirationSeconds() {
+        return refreshExpiration / 1000;
+    }
+    
     public String getUsernameFromToken(String token) {
         return Jwts.parser()
                 .verifyWith(key)
@@ -47,12 +115,29 @@ public class JwtTokenProvider {
                 .getSubject();
     }
     
+    /**
+     * Validates an access token. Refresh tokens are rejected.
+     */
     public boolean validateToken(String token) {
         try {
-            Jwts.parser().verifyWith(key).build().parseSignedClaims(token);
-            return true;
+            var claims = Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+            return !REFRESH.equals(claims.get(TOKEN_TYPE));
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
     }
+    
+    private Claims parseRefreshToken(String refreshToken) {
+        try {
+            var claims = Jwts.parser().verifyWith(key).build().parseSignedClaims(refreshToken).getPayload();
+            if (!REFRESH.equals(claims.get(TOKEN_TYPE)) || claims.getId() == null) {
+                throw new InvalidTokenException("Not a refresh token");
+            }
+            return claims;
+        } catch (ExpiredJwtException e) {
+            throw new InvalidTokenException("Refresh token has expired");
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new InvalidTokenException("Invalid refresh token");
+        }
+    }
 }
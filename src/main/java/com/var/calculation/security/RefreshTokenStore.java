@@ -0,0 +1,112 @@
+package com.var.calculation.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bounded in-memory registry of live refresh tokens.
+ * 
+ * A refresh token is only honoured while its id is registered here, so
+ * removing the id revokes the token although its signature stays valid.
+ * Ids are kept in issue order. Once a user holds maxTokensPerUser live
+ * tokens, issuing them another evicts their own oldest, so one account
+ * logging in repeatedly cannot push other users' tokens out; once maxTokens
+ * are live in all, issuing another evicts the oldest overall, whose holder
+ * has to log in again. The registry is not persisted, so a restart revokes
+ * every refresh token.
+ */
+@Component
+public class RefreshTokenStore {
+    
+    private final int maxTokens;
+    private final int maxTokensPerUser;
+    private final LinkedHashMap<String, Entry> tokens = new LinkedHashMap<>();
+    private final Map<String, LinkedHashSet<String>> tokensByUser = new HashMap<>();
+    
+    public RefreshTokenStore(@Value("${jwt.refresh-max-tokens:10000}") int maxTokens,
+                             @Value("${jwt.refresh-max-tokens-per-user:10}") int maxTokensPerUser) {
+        if (maxTokens < 1) {
+            throw new IllegalArgumentException("jwt.refresh-max-tokens must be at least 1");
+        }
+        if (maxTokensPerUser < 1) {
+            throw new IllegalArgumentException("jwt.refresh-max-tokens-per-user must be at least 1");
+        }
+        this.maxTokens = maxTokens;
+        this.maxTokensPerUser = maxTokensPerUser;
+    }
+    
+    /**
+     * Registers a new refresh token of the user and returns its id.
+     */
+    public synchronized String register(String username, long expiresAtMillis) {
+        evictExpired(System.currentTimeMillis());
+        var own = tokensByUser.get(username);
+        while (own != null && own.size() >= maxTokensPerUser) {
+            remove(own.iterator().next());
+        }
+        while (tokens.size() >= maxTokens) {
+            remove(tokens.keySet().iterator().next());
+        }
+        
+        var tokenId = UUID.randomUUID().toString();
+        tokens.put(tokenId, new Entry(username, expiresAtMillis));
+        tokensByUser.computeIfAbsent(username, user -> new LinkedHashSet<>()).add(tokenId);
+        return tokenId;
+    }
+    
+    /**
+     * Removes the token if it is live and belongs to the user, so each
+     * refresh token can be used once.
+     * 
+     * @return Whether the token was live
+     */
+    public synchronized boolean consume(String tokenId, String username) {
+        var entry = tokens.get(tokenId);
+        if (entry == null || !entry.username().equals(username)) {
+            return false;
+        }
+        remove(tokenId);
+        return entry.expiresAtMillis() > System.currentTimeMillis();
+    }
+    
+    /**
+     * @return Whether the token was live
+     */
+    public synchronized boolean revoke(String tokenId) {
+        return remove(tokenId) != null;
+    }
+    
+    public synchronized int size() {
+        return tokens.size();
+    }
+    
+    private Entry remove(String tokenId) {
+        var entry = tokens.remove(tokenId);
+        if (entry != null) {
+            var own = tokensByUser.get(entry.username());
+            own.remove(tokenId);
+            if (own.isEmpty()) {
+                tokensByUser.remove(entry.username());
+            }
+        }
+        return entry;
+    }
+    
+    private void evictExpired(long now) {
+        // All tokens share one lifetime, so issue order is expiry order
+        while (!tokens.isEmpty()) {
+            var eldest = tokens.entrySet().iterator().next();
+            if (eldest.getValue().expiresAtMillis() > now) {
+                return;
+            }
+            remove(eldest.getKey());
+        }
+    }
+    
+    private record Entry(String username, long expiresAtMillis) {}
+}
@@ -0,0 +1,177 @@
+package com.var.calculation.service;
+
+import com.var.calculation.config.VarCalculationProperties;
+import com.var.calculation.exception.OverloadedException;
+import org.springframework.stereotype.Service;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admission control in front of the calculation services.
+ *
+ * Requests are weighted by cost (trades x data points). A request is admitted
+ * only while the cost in flight stays within the global limit and within the
+ * caller's share of it; otherwise it is rejected immediately with a retry hint
+ * rather than queued. A request larger than a limit is still admitted when
+ * nothing else is in flight, so oversized work is serialized, not refused.
+ *
+ * The global limit adapts to observed latency per cost unit: while latency
+ * stays within latencyTolerance x the best observed baseline the limit grows,
+ * and when latency rises the limit shrinks in proportion.
+ */
+@Service
+public class AdmissionControlService {
+    
+    private static final long MIN_SIGNAL_NANOS = 1_000_000;
+    private static final double BASELINE_DRIFT = 0.001;
+    
+    private final VarCalculationProperties.Admission settings;
+    private final Map<String, Long> userInFlight = new HashMap<>();
+    
+    private double limit;
+    private long inFlight;
+    private double baselineNanosPerUnit = Double.NaN;
+    private double recentNanosPerUnit = Double.NaN;
+    private double recentLatencyMs;
+    private long admitted;
+    private long rejectedGlobal;
+    private long rejectedUser;
+    
+    public AdmissionControlService(VarCalculationProperties properties) {
+        this.settings = properties.getAdmission();
+        this.limit = settings.getInitialLimit();
+    }
+    
+    /**
+     * Admission ticket for one request. Closing it releases the request's cost
+     * and feeds its latency into the adaptive limit. It may be closed from
+     * several threads, e.g. on timeout and on completion; only the first counts.
+     */
+    public final class Permit implements AutoCloseable {
+        
+        private final String username;
+        private final long cost;
+        private final long startNanos = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+        
+        private Permit(String username, long cost) {
+            this.username = username;
+            this.cost = cost;
+        }
+        
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                release(this, System.nanoTime() - startNanos);
+            }
+        }
+    }
+    
+    public Permit acquire(String username, long cost) {
+        long weight = Math.max(1, cost);
+        if (!settings.isEnabled()) {
+            return new Permit(username, 0);
+        }
+        
+        synchronized (this) {
+            if (inFlight > 0 && inFlight + weight > limit) {
+                rejectedGlobal++;
+                throw new OverloadedException("Service is at capacity, retry later", retryAfterSeconds());
+            }
+            
+            long userCost = userInFlight.getOrDefault(username, 0L);
+            if (userCost > 0 && userCost + weight > limit * settings.getUserShare()) {
+                rejectedUser++;
+                throw new OverloadedException(
+                    "Too many concurrent calculations for user " + username + ", retry later", retryAfterSeconds());
+            }
+            
+            inFlight += weight;
+            userInFlight.merge(username, weight, Long::sum);
+            admitted++;
+            return new Permit(username, weight);
+        }
+    }
+    
+    private synchronized void release(Permit permit, long elapsedNanos) {
+        if (permit.cost == 0) {
+            return;
+        }
+        
+        inFlight -= permit.cost;
+        userInFlight.computeIfPresent(permit.username, (user, cost) -> cost - permit.cost > 0 ? cost - permit.cost : null);
+        adapt(elapsedNanos, permit.cost);
+    }
+    
+    private void adapt(long elapsedNanos, long cost) {
+        double smoothing = settings.getSmoothing();
+        recentLatencyMs += smoothing * (elapsedNanos / 1_000_000.0 - recentLatencyMs);
+        
+        // Sub-millisecond requests are cache hits or trivially small and say nothing about load
+        if (elapsedNanos < MIN_SIGNAL_NANOS) {
+            return;
+        }
+        
+        double sample = (double) elapsedNanos / cost;
+        if (Double.isNaN(recentNanosPerUnit)) {
+            recentNanosPerUnit = sample;
+            baselineNanosPerUnit = sample;
+            return;
+        }
+        recentNanosPerUnit += smoothing * (sample - recentNanosPerUnit);
+        
+        // Track the best smoothed latency, drifting up slowly so a permanently slower host is re-learned
+        baselineNanosPerUnit = Math.min(recentNanosPerUnit,
+            baselineNanosPerUnit + BASELINE_DRIFT * (recentNanosPerUnit - baselineNanosPerUnit));
+        
+        double gradient = Math.max(0.5, Math.min(1.0,
+            settings.getLatencyTolerance() * baselineNanosPerUnit / recentNanosPerUnit));
+        double target = limit * gradient + (gradient >= 1.0 ? Math.sqrt(limit) : 0);
+        double next = limit + smoothing * (target - limit);
+        
+        limit = Math.max(settings.getMinLimit(), Math.min(settings.getMaxLimit(), next));
+    }
+    
+    private long retryAfterSeconds() {
+        long configured = settings.getRetryAfter().toSeconds();
+        return Math.max(Math.max(1, configured), (long) Math.ceil(recentLatencyMs / 1000));
+    }
+    
+    public synchronized AdmissionStatus getStatus() {
+        return new AdmissionStatus(
+            settings.isEnabled(),
+            (long) limit,
+            (long) (limit * settings.getUserShare()),
+            inFlight,
+            Map.copyOf(userInFlight),
+            recentLatencyMs,
+            admitted,
+            rejectedGlobal,
+            rejectedUser
+        );
+    }
+    
+    /**
+     * @param enabled Whether admission control is active
+     * @param limit Current adaptive global limit in cost units
+     * @param userLimit Current per-user limit in cost units
+     * @param inFlight Cost currently being computed
+     * @param userInFlight Cost currently being computed per user
+     * @param recentLatencyMs Smoothed request latency
+     * @param admitted Requests admitted since startup
+     * @param rejectedGlobal Requests rejected by the global limit
+     * @param rejectedUser Requests rejected by a per-user limit
+     */
+    public record AdmissionStatus(
+        boolean enabled,
+        long limit,
+        long userLimit,
+        long inFlight,
+        Map<String, Long> userInFlight,
+        double recentLatencyMs,
+        long admitted,
+        long rejectedGlobal,
+        long rejectedUser
+    ) {}
+}
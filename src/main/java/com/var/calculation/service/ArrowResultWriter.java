@@ -0,0 +1,171 @@
+package com.var.calculation.service;
+
+import com.var.calculation.strategy.HistoricalSimulationStrategy.TailRisk;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowFileWriter;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams VaR results into an Arrow IPC file, one row per portfolio total or
+ * trade:
+ *
+ * <pre>
+ * portfolioId              utf8, not null
+ * tradeId                  utf8, null on the portfolio total row
+ * points                   int32, P&L points behind the row
+ * var_{c}, es_{c}          float64 per confidence level c
+ * var_contribution_{c},    float64 per confidence level, only with attribution;
+ * es_contribution_{c}      null where no contribution applies
+ * </pre>
+ *
+ * Rows are buffered into record batches of {@value #BATCH_ROWS}, so memory
+ * does not grow with the number of rows. The file is written under a
+ * temporary name and only renamed into place by {@link #commit()}; closing
+ * without committing discards it.
+ */
+public final class ArrowResultWriter implements Closeable {
+    
+    public static final String CONTENT_TYPE = "application/vnd.apache.arrow.file";
+    static final int BATCH_ROWS = 4096;
+    
+    private final Path target;
+    private final Path temp;
+    private final int levels;
+    private final BufferAllocator allocator;
+    private final VectorSchemaRoot root;
+    private final FileChannel channel;
+    private final ArrowFileWriter writer;
+    private final VarCharVector portfolioIds;
+    private final VarCharVector tradeIds;
+    private final IntVector points;
+    private final List<Float8Vector> metrics;
+    private int batchRows;
+    private long rows;
+    private boolean committed;
+    
+    public ArrowResultWriter(Path target, double[] confidenceLevels, boolean attribution,
+                             Map<String, String> metadata) throws IOException {
+        this.target = target;
+        this.temp = target.resolveSibling("." + target.getFileName() + ".tmp");
+        this.levels = confidenceLevels.length;
+        
+        var fields = new ArrayList<Field>();
+        fields.add(new Field("portfolioId", FieldType.notNullable(new ArrowType.Utf8()), null));
+        fields.add(new Field("tradeId", FieldType.nullable(new ArrowType.Utf8()), null));
+        fields.add(new Field("points", FieldType.notNullable(new ArrowType.Int(32, true)), null));
+        var prefixes = attribution
+            ? List.of("var_", "es_", "var_contribution_", "es_contribution_")
+            : List.of("var_", "es_");
+        for (String prefix : prefixes) {
+            for (double confidenceLevel : confidenceLevels) {
+                fields.add(new Field(prefix + confidenceLevel,
+                    FieldType.nullable(new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE)), null));
+            }
+        }
+        
+        this.allocator = new RootAllocator();
+        this.root = VectorSchemaRoot.create(new Schema(fields, metadata), allocator);
+        this.portfolioIds = (VarCharVector) root.getVector(0);
+        this.tradeIds = (VarCharVector) root.getVector(1);
+        this.points = (IntVector) root.getVector(2);
+        this.metrics = root.getFieldVectors().subList(3, fields.size()).stream()
+            .map(Float8Vector.class::cast)
+            .toList();
+        
+        this.channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+        this.writer = new ArrowFileWriter(root, null, channel);
+        writer.start();
+        root.allocateNew();
+    }
+    
+    /**
+     * Appends a row.
+     * 
+     * @param risks VaR and ES per level, or null to leave the metrics of a skipped trade null
+     * @param contributions VaR and ES contributions per level, or null
+     */
+    public void write(String portfolioId, String tradeId, int pointCount, List<TailRisk> risks,
+                      List<TailRisk> contributions) throws IOException {
+        int row = batchRows;
+        portfolioIds.setSafe(row, portfolioId.getBytes(StandardCharsets.UTF_8));
+        if (tradeId != null) {
+            tradeIds.setSafe(row, tradeId.getBytes(StandardCharsets.UTF_8));
+        }
+        points.setSafe(row, pointCount);
+        for (int l = 0; l < levels && risks != null; l++) {
+            metrics.get(l).setSafe(row, risks.get(l).var());
+            metrics.get(levels + l).setSafe(row, risks.get(l).expectedShortfall());
+            if (contributions != null && metrics.size() > 2 * levels) {
+                metrics.get(2 * levels + l).setSafe(row, contributions.get(l).var());
+                metrics.get(3 * levels + l).setSafe(row, contributions.get(l).expectedShortfall());
+            }
+        }
+        
+        rows++;
+        if (++batchRows == BATCH_ROWS) {
+            flush();
+        }
+    }
+    
+    public long rows() {
+        return rows;
+    }
+    
+    /**
+     * Writes the remaining rows and the file footer, and moves the file into place.
+     */
+    public void commit() throws IOException {
+        if (batchRows > 0 || rows == 0) {
+            flush();
+        }
+        writer.end();
+        writer.close();
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        committed = true;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        try {
+            if (!committed) {
+                writer.close();
+                Files.deleteIfExists(temp);
+            }
+        } finally {
+            root.close();
+            allocator.close();
+        }
+    }
+    
+    private void flush() throws IOException {
+        for (FieldVector vector : root.getFieldVectors()) {
+            vector.setValueCount(batchRows);
+        }
+        root.setRowCount(batchRows);
+        writer.writeBatch();
+        root.allocateNew();
+        batchRows = 0;
+    }
+}
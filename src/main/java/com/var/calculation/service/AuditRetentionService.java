@@ -0,0 +1,372 @@
+package com.var.calculation.service;
+
+import com.var.calculation.config.VarCalculationProperties;
+import com.var.calculation.exception.OverloadedException;
+import com.var.calculation.model.entity.AuditRollup;
+import com.var.calculation.model.enums.AuditStatus;
+import com.var.calculation.model.enums.LatencyGrouping;
+import com.var.calculation.repository.AuditRecordRepository;
+import com.var.calculation.repository.AuditRecordRepository.LatencySample;
+import com.var.calculation.repository.AuditRollupRepository;
+import com.var.calculation.service.LatencyAnalyticsService.LatencyStats;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.DataFormatException;
+
+/**
+ * Retention of audit records: hourly rollups, purging and aggregate queries.
+ *
+ * Once an hour has closed, its raw records are rolled up into one row per
+ * user and endpoint holding the request and error counts, latency sum and
+ * maximum and a compressed latency histogram; each hour is rolled up in its
+ * own transaction. Audit records are written asynchronously, so some arrive
+ * after their hour was rolled up: each run only considers records up to the
+ * highest id it saw on starting, and merges records above the previous run's
+ * into the rollups of hours already rolled up. Raw records older than the raw
+ * retention are then deleted by id in batches, so no single delete holds a
+ * long lock, but never before they have been rolled up. The audit table is
+ * indexed by timestamp, so rollups, purges and queries of recent records
+ * only touch the time range they need.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AuditRetentionService {
+    
+    /**
+     * Time after the end of an hour before it is rolled up, so audit records
+     * still being written asynchronously are included.
+     */
+    static final Duration ROLLUP_DELAY = Duration.ofMinutes(1);
+    
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+    
+    private final AuditRecordRepository auditRepository;
+    private final AuditRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final VarCalculationProperties properties;
+    private final AtomicBoolean running = new AtomicBoolean();
+    
+    @Scheduled(cron = "${var.calculation.audit.retention-cron:0 5 * * * *}")
+    public void scheduledRun() {
+        if (!properties.getAudit().isRetentionEnabled()) {
+            return;
+        }
+        try {
+            run();
+        } catch (OverloadedException e) {
+            log.warn("Previous audit retention run still in progress, skipping");
+        } catch (RuntimeException e) {
+            log.error("Audit retention run failed", e);
+        }
+    }
+    
+    public RetentionRun run() {
+        return run(LocalDateTime.now());
+    }
+    
+    RetentionRun run(LocalDateTime now) {
+        if (!running.compareAndSet(false, true)) {
+            throw new OverloadedException("Audit retention run already in progress", 60);
+        }
+        try {
+            long startTime = System.currentTimeMillis();
+            var audit = properties.getAudit();
+            
+            // Records written from here on are left to the next run
+            var through = auditRepository.findMaxId();
+            long lateRecords = 0;
+            long[] rolledUp = {0, 0};
+            if (through != null) {
+                lateRecords = mergeLateRecords(through);
+                rolledUp = rollUp(now.minus(ROLLUP_DELAY).truncatedTo(ChronoUnit.HOURS), through);
+            }
+            var rolledUpThrough = rolledUpThrough();
+            
+            var cutoff = now.minus(audit.getRawRetention());
+            long recordsPurged = 0;
+            if (rolledUpThrough != null && through != null) {
+                recordsPurged = purge(cutoff.isBefore(rolledUpThrough) ? cutoff : rolledUpThrough, through);
+            }
+            long rollupsPurged = rollupRepository.deleteByBucketStartBefore(now.minus(audit.getRollupRetention()));
+            
+            var result = new RetentionRun(rolledUp[0], rolledUp[1], lateRecords, recordsPurged, rollupsPurged,
+                rolledUpThrough, System.currentTimeMillis() - startTime);
+            log.info("Audit retention rolled up {} hours into {} rollups, merged {} late records, purged {} records "
+                    + "and {} rollups in {} ms", result.hoursRolledUp(), result.rollupsWritten(), result.lateRecords(),
+                result.recordsPurged(), result.rollupsPurged(), result.executionTimeMs());
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+    
+    /**
+     * Request counts, error rates and latency percentiles in [from, to).
+     * Hours already rolled up are read from their rollups, so they are
+     * included whole; later records are read from the audit table.
+     * 
+     * @param endpoint Only this endpoint, or null for all
+     * @param user Only this user, or null for all
+     */
+    public AuditSummary summarize(LocalDateTime from, LocalDateTime to, LatencyGrouping groupBy,
+                                  String endpoint, String user) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        
+        var groups = new HashMap<GroupKey, Aggregate>();
+        var rolledUpThrough = rolledUpThrough();
+        var rawFrom = from;
+        
+        if (rolledUpThrough != null && from.isBefore(rolledUpThrough)) {
+            var rollupTo = to.isBefore(rolledUpThrough) ? to : rolledUpThrough;
+            var rollups = rollupRepository.findByBucketStartGreaterThanEqualAndBucketStartLessThan(
+                from.truncatedTo(ChronoUnit.HOURS), rollupTo);
+            for (var rollup : rollups) {
+                if (matches(rollup.getEndpoint(), rollup.getUserId(), endpoint, user)) {
+                    groups.computeIfAbsent(GroupKey.of(groupBy, rollup.getEndpoint(), rollup.getUserId()),
+                        key -> new Aggregate()).add(rollup);
+                }
+            }
+            rawFrom = rolledUpThrough;
+        }
+        
+        if (rawFrom.isBefore(to)) {
+            var start = rawFrom;
+            transactionTemplate.executeWithoutResult(status -> {
+                try (var samples = auditRepository.findByTimestampGreaterThanEqualAndTimestampLessThan(start, to)) {
+                    samples.forEach(sample -> {
+                        if (matches(sample.getEndpoint(), sample.getUserId(), endpoint, user)) {
+                            groups.computeIfAbsent(GroupKey.of(groupBy, sample.getEndpoint(), sample.getUserId()),
+                                key -> new Aggregate()).add(sample);
+                        }
+                    });
+                }
+            });
+        }
+        
+        var stats = groups.entrySet().stream()
+            .map(entry -> entry.getValue().stats(entry.getKey()))
+            .sorted(Comparator.comparingLong(LatencyStats::count).reversed()
+                .thenComparing(LatencyStats::endpoint, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(LatencyStats::user, Comparator.nullsFirst(Comparator.naturalOrder())))
+            .toList();
+        
+        return new AuditSummary(from, to, rolledUpThrough, groupBy, stats);
+    }
+    
+    /**
+     * Merges records with an id above the previous run's, up to through,
+     * into the rollups of the hours they belong to if those hours were
+     * already rolled up, in one transaction. Returns the number merged.
+     */
+    private long mergeLateRecords(long through) {
+        var rolledUpThrough = rolledUpThrough();
+        if (rolledUpThrough == null) {
+            return 0;
+        }
+        var after = rollupRepository.findLastRecordId();
+        return transactionTemplate.execute(status -> {
+            var aggregates = new HashMap<LateKey, Aggregate>();
+            try (var samples = auditRepository.findByIdGreaterThanAndIdLessThanEqualAndTimestampLessThan(
+                    after, through, rolledUpThrough)) {
+                samples.forEach(sample -> aggregates
+                    .computeIfAbsent(new LateKey(sample.getTimestamp().truncatedTo(ChronoUnit.HOURS),
+                        new GroupKey(sample.getEndpoint(), sample.getUserId())), key -> new Aggregate())
+                    .add(sample));
+            }
+            
+            long merged = 0;
+            for (var entry : aggregates.entrySet()) {
+                var key = entry.getKey();
+                var aggregate = entry.getValue();
+                merged += aggregate.histogram.getTotalCount();
+                var existing = rollupRepository.findByBucketStartAndUserIdAndEndpoint(
+                    key.bucket(), key.group().user(), key.group().endpoint());
+                existing.ifPresent(aggregate::add);
+                var rollup = aggregate.toRollup(key.bucket(), key.group(), through);
+                existing.ifPresent(row -> rollup.setId(row.getId()));
+                rollupRepository.save(rollup);
+            }
+            return merged;
+        });
+    }
+    
+    /**
+     * Rolls up every hour with records after the last rolled-up hour that ends
+     * by the given hour, taking records with an id up to through. Returns the
+     * number of hours and rollups written.
+     */
+    private long[] rollUp(LocalDateTime end, long through) {
+        var latest = rollupRepository.findLatestBucketStart();
+        var next = auditRepository.findEarliestTimestampFrom(latest != null ? latest.plusHours(1) : BEGINNING);
+        
+        long hours = 0;
+        long rollups = 0;
+        while (next != null && next.isBefore(end)) {
+            var bucket = next.truncatedTo(ChronoUnit.HOURS);
+            rollups += transactionTemplate.execute(status -> rollUpHour(bucket, through));
+            hours++;
+            next = auditRepository.findEarliestTimestampFrom(bucket.plusHours(1));
+        }
+        return new long[] {hours, rollups};
+    }
+    
+    private int rollUpHour(LocalDateTime bucket, long through) {
+        var aggregates = new HashMap<GroupKey, Aggregate>();
+        try (var samples = auditRepository.findByTimestampGreaterThanEqualAndTimestampLessThanAndIdLessThanEqual(
+                bucket, bucket.plusHours(1), through)) {
+            samples.forEach(sample -> aggregates
+                .computeIfAbsent(new GroupKey(sample.getEndpoint(), sample.getUserId()), key -> new Aggregate())
+                .add(sample));
+        }
+        
+        var rollups = aggregates.entrySet().stream()
+            .map(entry -> entry.getValue().toRollup(bucket, entry.getKey(), through))
+            .toList();
+        rollupRepository.saveAll(rollups);
+        return rollups.size();
+    }
+    
+    private long purge(LocalDateTime cutoff, long through) {
+        var page = PageRequest.of(0, properties.getAudit().getPurgeBatchSize());
+        long purged = 0;
+        while (true) {
+            var ids = auditRepository.findIdsBefore(cutoff, through, page);
+            if (ids.isEmpty()) {
+                return purged;
+            }
+            auditRepository.deleteAllByIdInBatch(ids);
+            purged += ids.size();
+        }
+    }
+    
+    private LocalDateTime rolledUpThrough() {
+        var latest = rollupRepository.findLatestBucketStart();
+        return latest != null ? latest.plusHours(1) : null;
+    }
+    
+    private static boolean matches(String endpoint, String user, String endpointFilter, String userFilter) {
+        return (endpointFilter == null || endpointFilter.equals(endpoint))
+            && (userFilter == null || userFilter.equals(user));
+    }
+    
+    private record GroupKey(String endpoint, String user) {
+        
+        static GroupKey of(LatencyGrouping groupBy, String endpoint, String user) {
+            return switch (groupBy) {
+                case ENDPOINT -> new GroupKey(endpoint, null);
+                case USER -> new GroupKey(null, user);
+                case ENDPOINT_USER -> new GroupKey(endpoint, user);
+            };
+        }
+    }
+    
+    private record LateKey(LocalDateTime bucket, GroupKey group) {}
+    
+    private static final class Aggregate {
+        
+        private final Histogram histogram = new Histogram(SIGNIFICANT_DIGITS);
+        private long errors;
+        private long latencySum;
+        
+        void add(LatencySample sample) {
+            long latency = Math.max(0, sample.getExecutionTimeMs());
+            histogram.recordValue(latency);
+            latencySum += latency;
+            if (sample.getStatus() == AuditStatus.ERROR) {
+                errors++;
+            }
+        }
+        
+        void add(AuditRollup rollup) {
+            try {
+                histogram.add(Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(rollup.getLatencyHistogram()), 0));
+            } catch (DataFormatException e) {
+                throw new IllegalStateException("Corrupt latency histogram in audit rollup " + rollup.getId(), e);
+            }
+            errors += rollup.getErrorCount();
+            latencySum += rollup.getLatencySumMs();
+        }
+        
+        AuditRollup toRollup(LocalDateTime bucket, GroupKey key, long lastRecordId) {
+            var buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+            int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+            return AuditRollup.builder()
+                .bucketStart(bucket)
+                .userId(key.user())
+                .endpoint(key.endpoint())
+                .requestCount(histogram.getTotalCount())
+                .errorCount(errors)
+                .latencySumMs(latencySum)
+                .latencyMaxMs(histogram.getMaxValue())
+                .latencyHistogram(Arrays.copyOf(buffer.array(), length))
+                .lastRecordId(lastRecordId)
+                .build();
+        }
+        
+        LatencyStats stats(GroupKey key) {
+            long count = histogram.getTotalCount();
+            return new LatencyStats(
+                key.endpoint(),
+                key.user(),
+                count,
+                errors,
+                (double) errors / count,
+                histogram.getValueAtPercentile(50),
+                histogram.getValueAtPercentile(90),
+                histogram.getValueAtPercentile(99),
+                histogram.getValueAtPercentile(99.9),
+                histogram.getMaxValue(),
+                (double) latencySum / count
+            );
+        }
+    }
+    
+    /**
+     * Outcome of one retention run.
+     * 
+     * @param lateRecords Records merged into hours rolled up before they were written
+     * @param rolledUpThrough End of the last rolled-up hour, or null if none
+     */
+    public record RetentionRun(
+        long hoursRolledUp,
+        long rollupsWritten,
+        long lateRecords,
+        long recordsPurged,
+        long rollupsPurged,
+        LocalDateTime rolledUpThrough,
+        long executionTimeMs
+    ) {}
+    
+    /**
+     * Aggregated audit statistics of a time range.
+     * 
+     * @param rolledUpThrough End of the last rolled-up hour: statistics before
+     *                        it come from hourly rollups, later ones from raw records
+     * @param stats One entry per group, busiest first
+     */
+    public record AuditSummary(
+        LocalDateTime from,
+        LocalDateTime to,
+        LocalDateTime rolledUpThrough,
+        LatencyGrouping groupBy,
+        List<LatencyStats> stats
+    ) {}
+}
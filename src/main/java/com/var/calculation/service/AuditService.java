@@ -1,23 +1,46 @@
 package com.var.calculation.service;
 
+import com.var.calculation.config.AsyncConfig;
+import com.var.calculation.config.VarCalculationProperties;
+import com.var.calculation.exception.ResourceNotFoundException;
+import com.var.calculation.model.dto.AuditReplay;
 import com.var.calculation.model.entity.AuditRecord;
 import com.var.calculation.model.enums.AuditStatus;
 import com.var.calculation.repository.AuditRecordRepository;
+import com.var.calculation.repository.AuditRecordRepository.AuditEntry;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
-import java.util.List;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class AuditService {
     
+    static final int MAX_PAGE_SIZE = 500;
+    
     private final AuditRecordRepository auditRepository;
+    private final PayloadCodec payloadCodec;
+    private final VarCalculationProperties properties;
+    private final LatencyAnalyticsService latencyAnalytics;
     
-    @Async
+    /**
+     * Records a request and, if payload capture is on, its request and
+     * response bodies, and feeds its latency to the latency analytics. Runs
+     * on the async executor, so encoding the payloads never delays the
+     * response; the payloads must not be modified afterwards.
+     * 
+     * @param request Request body, or null
+     * @param response Response body, or null if the request failed
+     */
+    @Async(AsyncConfig.AUDIT_EXECUTOR)
     public void logRequest(String userId, String endpoint, long executionTime, 
-                          boolean success, String errorMessage) {
+                          boolean success, String errorMessage, Object request, Object response) {
         AuditRecord record = AuditRecord.builder()
                 .userId(userId)
                 .endpoint(endpoint)
@@ -27,10 +50,79 @@ public class AuditService {
                 .timestamp(LocalDateTime.now())
                 .build();
         
+        latencyAnalytics.record(endpoint, userId, executionTime, success, System.currentTimeMillis());
+        if (properties.getAudit().isCapturePayloads() && (request != null || response != null)) {
+            capture(record, request, response);
+        }
         auditRepository.save(record);
     }
     
-    public List<AuditRecord> getAuditHistory() {
-        return auditRepository.findAll();
+    /**
+     * A page of audit records, newest first, without their payloads.
+     * 
+     * @param username Only records of this user, or null for all
+     * @param success Only successful or failed records, or null for both
+     */
+    public Page<AuditEntry> getAuditHistory(String username, Boolean success, int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page must be at least 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        var status = success == null ? null : success ? AuditStatus.SUCCESS : AuditStatus.ERROR;
+        return auditRepository.findEntries(username, status, PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "id")));
+    }
+    
+    public AuditReplay replay(Long auditId) {
+        var record = auditRepository.findById(auditId)
+            .orElseThrow(() -> new ResourceNotFoundException("Audit record " + auditId + " not found"));
+        if (record.getRequestPayload() == null && record.getResponsePayload() == null) {
+            throw new ResourceNotFoundException("Audit record " + auditId + " has no captured payload");
+        }
+        if (!PayloadCodec.ENCODING.equals(record.getPayloadEncoding())) {
+            throw new IllegalArgumentException("Unsupported payload encoding " + record.getPayloadEncoding());
+        }
+        
+        return new AuditReplay(
+            record.getId(),
+            record.getUserId(),
+            record.getEndpoint(),
+            record.getStatus(),
+            record.getTimestamp(),
+            record.getPayloadBytes(),
+            length(record.getRequestPayload()) + length(record.getResponsePayload()),
+            record.getRequestPayload() != null ? payloadCodec.decode(record.getRequestPayload()) : null,
+            record.getResponsePayload() != null ? payloadCodec.decode(record.getResponsePayload()) : null
+        );
+    }
+    
+    private void capture(AuditRecord record, Object request, Object response) {
+        // A payload that cannot be captured must not cost the audit record itself
+        try {
+            long limit = Math.min(properties.getAudit().getMaxPayloadSize().toBytes(), AuditRecord.MAX_PAYLOAD_BYTES);
+            int jsonBytes = 0;
+            if (request != null) {
+                var encoded = payloadCodec.encode(request);
+                jsonBytes += encoded.jsonBytes();
+                record.setRequestPayload(encoded.bytes().length <= limit ? encoded.bytes() : null);
+            }
+            if (response != null) {
+                var encoded = payloadCodec.encode(response);
+                jsonBytes += encoded.jsonBytes();
+                record.setResponsePayload(encoded.bytes().length <= limit ? encoded.bytes() : null);
+            }
+            record.setPayloadEncoding(PayloadCodec.ENCODING);
+            record.setPayloadBytes(jsonBytes);
+            
+            if ((request != null && record.getRequestPayload() == null)
+                    || (response != null && record.getResponsePayload() == null)) {
+                log.warn("Payload of {} request exceeds {} bytes compressed and was not captured",
+                    record.getEndpoint(), limit);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not capture payloads of {} request", record.getEndpoint(), e);
+        }
+    }
+    
+    private static int length(byte[] bytes) {
+        return bytes != null ? bytes.length : 0;
     }
 }
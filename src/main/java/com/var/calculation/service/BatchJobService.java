@@ -0,0 +1,279 @@
+package com.var.calculation.service;
+
+import com.var.calculation.config.VarCalculationProperties;
+import com.var.calculation.exception.OverloadedException;
+import com.var.calculation.exception.ResourceNotFoundException;
+import com.var.calculation.model.dto.BatchJob;
+import com.var.calculation.model.dto.BatchPortfolio;
+import com.var.calculation.model.dto.BatchVarRequest;
+import com.var.calculation.model.dto.Trade;
+import com.var.calculation.model.enums.JobStatus;
+import com.var.calculation.model.enums.PriorityLane;
+import com.var.calculation.model.enums.ResultFormat;
+import com.var.calculation.model.enums.UserRole;
+import com.var.calculation.strategy.CalculationScope;
+import com.var.calculation.strategy.HistoricalSimulationStrategy;
+import com.var.calculation.strategy.HistoricalSimulationStrategy.TailRisk;
+import com.var.calculation.strategy.PnLSeries;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Batch VaR jobs with results exported to files, downloadable by job ID.
+ *
+ * A submitted job runs in the bulk lane. Portfolios are evaluated in windows
+ * of parallel subtasks, and each window's rows are streamed straight into an
+ * Arrow IPC file, so memory depends on the window rather than the size of the
+ * batch. File-drop ingestion runs are registered here too, so their result
+ * files can be downloaded the same way. Only the most recent jobs are
+ * retained; the files of evicted batch jobs are deleted.
+ *
+ * A batch job is only visible to the user who submitted it. Administrators
+ * see every job, including file-drop runs, which have no submitting user.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BatchJobService {
+    
+    private static final int WINDOW = 16;
+    private static final long RETRY_AFTER_SECONDS = 30;
+    
+    private final VarCalculationProperties properties;
+    private final VarCalculationService varService;
+    private final HistoricalSimulationStrategy strategy;
+    private final ComputeLaneService lanes;
+    private final Map<String, Job> jobs = new LinkedHashMap<>();
+    
+    private static final class Job {
+        
+        final String id;
+        final String source;
+        final String description;
+        final int portfolios;
+        final ResultFormat format;
+        final Path file;
+        final boolean owned;
+        final String submittedBy;
+        final LocalDateTime createdAt = LocalDateTime.now();
+        volatile JobStatus status;
+        volatile long rows;
+        volatile String error;
+        volatile LocalDateTime completedAt;
+        
+        Job(String id, String source, String description, int portfolios, ResultFormat format, Path file,
+            boolean owned, String submittedBy) {
+            this.id = id;
+            this.source = source;
+            this.description = description;
+            this.portfolios = portfolios;
+            this.format = format;
+            this.file = file;
+            this.owned = owned;
+            this.submittedBy = submittedBy;
+        }
+        
+        boolean finished() {
+            return status == JobStatus.COMPLETED || status == JobStatus.FAILED;
+        }
+        
+        boolean visibleTo(Authentication caller) {
+            return caller.getName().equals(submittedBy) || caller.getAuthorities().stream()
+                .anyMatch(authority -> authority.getAuthority().equals("ROLE_" + UserRole.ADMIN));
+        }
+        
+        BatchJob view() {
+            return new BatchJob(id, source, description, status, portfolios, rows, format, error, createdAt, completedAt);
+        }
+    }
+    
+    /**
+     * Downloadable results of a completed job.
+     */
+    public record JobResults(Path file, String fileName, String contentType) {}
+    
+    public BatchJob submit(BatchVarRequest request, String username) {
+        var settings = properties.getJobs();
+        var jobId = UUID.randomUUID().toString();
+        var submitted = new Job(jobId, "API", username, request.portfolios().size(), ResultFormat.ARROW,
+            settings.getDirectory().resolve(jobId + ".arrow"), true, username);
+        submitted.status = JobStatus.QUEUED;
+        synchronized (jobs) {
+            long active = jobs.values().stream().filter(job -> !job.finished()).count();
+            if (active >= settings.getMaxActive()) {
+                throw new OverloadedException(
+                    "Too many batch jobs in progress (" + active + "); retry later", RETRY_AFTER_SECONDS);
+            }
+            add(submitted);
+        }
+        
+        log.info("Batch job {} submitted by {}: {} portfolios, {} points",
+            jobId, username, request.portfolios().size(), request.points());
+        // Taken before the job can start, so the caller always sees it queued
+        var queued = submitted.view();
+        lanes.submit(PriorityLane.BULK, new CalculationScope(settings.getTimeout().toMillis()), () -> {
+            submitted.status = JobStatus.RUNNING;
+            run(submitted, request);
+            return null;
+        }).whenComplete((ignored, error) -> {
+            if (error != null) {
+                var cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                submitted.error = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+                submitted.status = JobStatus.FAILED;
+                log.warn("Batch job {} failed: {}", submitted.id, submitted.error);
+            } else {
+                submitted.status = JobStatus.COMPLETED;
+                log.info("Batch job {} completed: {} rows", submitted.id, submitted.rows);
+            }
+            submitted.completedAt = LocalDateTime.now();
+        });
+        return queued;
+    }
+    
+    /**
+     * Registers results produced elsewhere, such as a file-drop run, as a
+     * completed job visible to administrators. The file is not deleted when
+     * the job is evicted.
+     */
+    public BatchJob register(String source, String description, int portfolios, long rows,
+                             ResultFormat format, Path file) {
+        var job = new Job(UUID.randomUUID().toString(), source, description, portfolios, format, file, false, null);
+        job.rows = rows;
+        job.status = JobStatus.COMPLETED;
+        job.completedAt = LocalDateTime.now();
+        synchronized (jobs) {
+            add(job);
+        }
+        return job.view();
+    }
+    
+    public BatchJob get(String jobId, Authentication caller) {
+        return find(jobId, caller).view();
+    }
+    
+    public List<BatchJob> getJobs(Authentication caller) {
+        synchronized (jobs) {
+            var views = new ArrayList<BatchJob>(jobs.size());
+            jobs.values().stream()
+                .filter(job -> job.visibleTo(caller))
+                .forEach(job -> views.add(0, job.view()));
+            return views;
+        }
+    }
+    
+    public JobResults results(String jobId, Authentication caller) {
+        var job = find(jobId, caller);
+        if (job.status != JobStatus.COMPLETED || !Files.exists(job.file)) {
+            throw new ResourceNotFoundException("Results of job " + jobId + " are not available (" + job.status + ")");
+        }
+        return new JobResults(job.file, job.file.getFileName().toString(), job.format == ResultFormat.ARROW
+            ? ArrowResultWriter.CONTENT_TYPE
+            : "text/csv");
+    }
+    
+    /**
+     * Jobs of other users are reported as missing, so their IDs are not confirmed to exist.
+     */
+    private Job find(String jobId, Authentication caller) {
+        synchronized (jobs) {
+            var job = jobs.get(jobId);
+            if (job == null || !job.visibleTo(caller)) {
+                throw new ResourceNotFoundException("Job " + jobId + " not found");
+            }
+            return job;
+        }
+    }
+    
+    private void add(Job job) {
+        jobs.put(job.id, job);
+        var oldest = jobs.values().iterator();
+        while (jobs.size() > properties.getJobs().getRetained() && oldest.hasNext()) {
+            var candidate = oldest.next();
+            if (candidate.finished()) {
+                oldest.remove();
+                if (candidate.owned) {
+                    try {
+                        Files.deleteIfExists(candidate.file);
+                    } catch (IOException e) {
+                        log.warn("Could not delete results of evicted job {}", candidate.id, e);
+                    }
+                }
+            }
+        }
+    }
+    
+    private void run(Job job, BatchVarRequest request) {
+        var confidenceLevels = request.confidenceLevels().stream().mapToDouble(Double::doubleValue).toArray();
+        boolean attribution = Boolean.TRUE.equals(request.attribution());
+        var metadata = Map.of(
+            "jobId", job.id,
+            "confidenceLevels", Arrays.stream(confidenceLevels).mapToObj(String::valueOf).collect(Collectors.joining(",")));
+        
+        try {
+            Files.createDirectories(job.file.getParent());
+            try (var writer = new ArrowResultWriter(job.file, confidenceLevels, attribution, metadata)) {
+                var portfolios = request.portfolios();
+                for (int from = 0; from < portfolios.size(); from += WINDOW) {
+                    var window = portfolios.subList(from, Math.min(from + WINDOW, portfolios.size()));
+                    var results = CalculationScope.fork(window.stream()
+                        .<Supplier<List<ResultRow>>>map(portfolio -> () -> evaluate(portfolio, confidenceLevels, attribution))
+                        .toList());
+                    
+                    for (var rows : results) {
+                        for (var row : rows) {
+                            writer.write(row.portfolioId(), row.tradeId(), row.points(), row.risks(), row.contributions());
+                        }
+                    }
+                    job.rows = writer.rows();
+                }
+                writer.commit();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private List<ResultRow> evaluate(BatchPortfolio portfolio, double[] confidenceLevels, boolean attribution) {
+        var trades = portfolio.trades();
+        var portfolioPnL = varService.aggregate(trades);
+        var rows = new ArrayList<ResultRow>(attribution ? trades.size() + 1 : 1);
+        rows.add(new ResultRow(portfolio.portfolioId(), null, portfolioPnL.length,
+            strategy.calculateTailRisk(portfolioPnL, confidenceLevels), null));
+        if (!attribution) {
+            return rows;
+        }
+        
+        var tradesPnL = trades.stream()
+            .map(trade -> PnLSeries.toArray(trade.historicalPnL()))
+            .toArray(double[][]::new);
+        // Contributions need every trade on the portfolio's own periods
+        var contributions = trades.stream().anyMatch(Trade::aligned)
+            ? null
+            : strategy.calculateContributions(tradesPnL, portfolioPnL, confidenceLevels);
+        for (int t = 0; t < trades.size(); t++) {
+            rows.add(new ResultRow(portfolio.portfolioId(), trades.get(t).tradeId(), tradesPnL[t].length,
+                strategy.calculateTailRisk(tradesPnL[t], confidenceLevels),
+                contributions != null ? contributions.get(t) : null));
+        }
+        return rows;
+    }
+    
+    private record ResultRow(String portfolioId, String tradeId, int points, List<TailRisk> risks,
+                             List<TailRisk> contributions) {}
+}
@@ -0,0 +1,158 @@
+package com.var.calculation.service;
+
+import com.var.calculation.model.dto.VarResponse;
+import com.var.calculation.model.enums.PriorityLane;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import java.util.function.Supplier;
+
+/**
+ * Flight Recorder event for one calculation request, from admission until its
+ * result is ready, with the time spent in each phase.
+ *
+ * The event is begun when a request is admitted and bound to the lane thread
+ * while the calculation runs, so {@link VarCalculationService} can describe
+ * the calculation and report phases through the static methods without the
+ * event being passed around. A result served from the cache never reaches the
+ * service, which is how cache hits are recognised. Outside a bound event,
+ * e.g. in precomputation or batch jobs, the static methods do nothing.
+ */
+@Name("com.var.calculation.Calculation")
+@Label("VaR Calculation")
+@Category("VaR Calculation")
+@Description("A calculation request from admission to result")
+@StackTrace(false)
+public class CalculationEvent extends Event {
+    
+    private static final ThreadLocal<CalculationEvent> CURRENT = new ThreadLocal<>();
+    
+    @Label("Endpoint")
+    String endpoint;
+    
+    @Label("User")
+    String user;
+    
+    @Label("Lane")
+    String lane;
+    
+    @Label("Cost")
+    @Description("Admission cost in P&L data points")
+    long points;
+    
+    @Label("ID")
+    @Description("Trade, portfolio or request ID")
+    String id;
+    
+    @Label("Method")
+    String method;
+    
+    @Label("Trades")
+    int trades;
+    
+    @Label("Cache Hit")
+    boolean cacheHit;
+    
+    @Label("Success")
+    boolean success;
+    
+    @Label("Error")
+    String error;
+    
+    @Label("Queue Time")
+    @Description("Time between admission and the start of the calculation on its lane")
+    @Timespan
+    long queueTime;
+    
+    @Label("Aggregation Time")
+    @Description("Time spent summing or aligning trade P&L into portfolio series")
+    @Timespan
+    long aggregationTime;
+    
+    @Label("Calculation Time")
+    @Description("Time on the lane outside aggregation, or looking up the cache on a hit")
+    @Timespan
+    long calculationTime;
+    
+    private transient long admittedNanos;
+    private transient boolean computed;
+    
+    /**
+     * Begins the event of a request being admitted on the calling thread.
+     */
+    public static CalculationEvent admitted(String endpoint, String user, PriorityLane lane, long points) {
+        var event = new CalculationEvent();
+        event.endpoint = endpoint;
+        event.user = user;
+        event.lane = lane.name();
+        event.points = points;
+        event.admittedNanos = System.nanoTime();
+        event.begin();
+        return event;
+    }
+    
+    /**
+     * Wraps a calculation so this event is current on the thread running it.
+     */
+    public <T> Supplier<T> bind(Supplier<T> calculation) {
+        return () -> {
+            long start = System.nanoTime();
+            queueTime = start - admittedNanos;
+            var previous = CURRENT.get();
+            CURRENT.set(this);
+            try {
+                return calculation.get();
+            } finally {
+                CURRENT.set(previous);
+                calculationTime = System.nanoTime() - start - aggregationTime;
+            }
+        };
+    }
+    
+    /**
+     * Ends and commits the event once the calculation has finished.
+     */
+    public void complete(Object result, Throwable failure) {
+        success = failure == null;
+        if (failure != null) {
+            error = failure.getClass().getSimpleName() + ": " + failure.getMessage();
+        }
+        cacheHit = success && !computed;
+        if (cacheHit && result instanceof VarResponse response) {
+            describe(this, response.id(), response.calculationMethod(), response.tradeCount());
+        }
+        commit();
+    }
+    
+    /**
+     * Records what the current calculation is computing; called by the service
+     * before any work, so a calculation that does not call it was a cache hit.
+     */
+    static void describe(String id, String method, int trades) {
+        var event = CURRENT.get();
+        if (event != null) {
+            event.computed = true;
+            describe(event, id, method, trades);
+        }
+    }
+    
+    /**
+     * Adds time spent aggregating trade P&L in the current calculation.
+     */
+    static void aggregated(long nanos) {
+        var event = CURRENT.get();
+        if (event != null) {
+            event.aggregationTime += nanos;
+        }
+    }
+    
+    private static void describe(CalculationEvent event, String id, String method, int trades) {
+        event.id = id;
+        event.method = method;
+        event.trades = trades;
+    }
+}
@@ -0,0 +1,146 @@
+package com.var.calculation.service;
+
+import com.var.calculation.config.VarCalculationProperties;
+import com.var.calculation.model.enums.PriorityLane;
+import com.var.calculation.model.enums.UserRole;
+import com.var.calculation.strategy.CalculationScope;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs calculations on per-lane compute pools.
+ *
+ * Request threads are virtual and cheap, but the CPU behind them is not: with
+ * a single pool a burst of bulk portfolio work queues ahead of single-trade
+ * requests. Each lane gets its own fork-join pool sized as a share of the
+ * cores, so interactive work always has threads reserved for it. Thread
+ * priorities are not used: HotSpot ignores them on Linux by default, so when
+ * the shares add up to more than the cores the lanes compete equally for
+ * them. Subtasks forked by a calculation through {@link CalculationScope}
+ * run in the same lane.
+ */
+@Slf4j
+@Service
+public class ComputeLaneService {
+    
+    private final VarCalculationProperties.Lanes settings;
+    private final Map<PriorityLane, ForkJoinPool> pools = new EnumMap<>(PriorityLane.class);
+    private final Map<PriorityLane, LongAdder> completed = new EnumMap<>(PriorityLane.class);
+    
+    public ComputeLaneService(VarCalculationProperties properties) {
+        this.settings = properties.getLanes();
+        int cores = Runtime.getRuntime().availableProcessors();
+        pools.put(PriorityLane.INTERACTIVE, pool("lane-interactive-",
+            threads(cores, settings.getInteractiveCoreShare())));
+        pools.put(PriorityLane.BULK, pool("lane-bulk-",
+            threads(cores, settings.getBulkCoreShare())));
+        pools.keySet().forEach(lane -> completed.put(lane, new LongAdder()));
+        log.info("Compute lanes: {} interactive and {} bulk threads",
+            pools.get(PriorityLane.INTERACTIVE).getParallelism(), pools.get(PriorityLane.BULK).getParallelism());
+    }
+    
+    private static int threads(int cores, double share) {
+        return Math.max(1, (int) Math.round(cores * share));
+    }
+    
+    private static ForkJoinPool pool(String prefix, int threads) {
+        ForkJoinPool.ForkJoinWorkerThreadFactory factory = forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName(prefix + thread.getPoolIndex());
+            return thread;
+        };
+        return new ForkJoinPool(threads, factory, null, false);
+    }
+    
+    /**
+     * Picks the lane for a request. Endpoints that are interactive by nature
+     * pass INTERACTIVE and are demoted to BULK when the request is large or
+     * the caller has a bulk role; bulk endpoints always run in BULK.
+     */
+    public PriorityLane classify(PriorityLane endpointLane, long cost, Authentication authentication) {
+        if (endpointLane == PriorityLane.BULK || cost > settings.getInteractiveMaxCost()) {
+            return PriorityLane.BULK;
+        }
+        
+        boolean bulkRole = authentication.getAuthorities().stream()
+            .anyMatch(authority -> settings.getBulkRoles().stream()
+                .map(UserRole::name)
+                .anyMatch(role -> authority.getAuthority().equals("ROLE_" + role)));
+        
+        return bulkRole ? PriorityLane.BULK : PriorityLane.INTERACTIVE;
+    }
+    
+    /**
+     * Opens the deadline scope for a request. A missing or non-positive
+     * timeout uses the endpoint's configured default, or the global default
+     * for endpoints without one, and no request may exceed the maximum.
+     */
+    public CalculationScope openScope(String endpoint, Long timeoutMillis) {
+        long maxMillis = settings.getMaxTimeout().toMillis();
+        var defaultTimeout = settings.getEndpointTimeouts().getOrDefault(endpoint, settings.getDefaultTimeout());
+        long millis = timeoutMillis != null && timeoutMillis > 0
+            ? Math.min(timeoutMillis, maxMillis)
+            : Math.min(defaultTimeout.toMillis(), maxMillis);
+        return new CalculationScope(millis);
+    }
+    
+    /**
+     * Runs a calculation within its scope on the lane's pool. Cancelling the
+     * scope stops the calculation at its next checkpoint, or before it starts
+     * if it is still queued; the returned future then completes exceptionally.
+     */
+    public <T> CompletableFuture<T> submit(PriorityLane lane, CalculationScope scope, Supplier<T> calculation) {
+        var future = new CompletableFuture<T>();
+        pools.get(lane).execute(() -> {
+            try {
+                future.complete(scope.call(calculation));
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            } finally {
+                completed.get(lane).increment();
+            }
+        });
+        return future;
+    }
+    
+    public List<LaneStatus> getStatus() {
+        return pools.entrySet().stream()
+            .map(entry -> new LaneStatus(
+                entry.getKey(),
+                entry.getValue().getParallelism(),
+                entry.getValue().getActiveThreadCount(),
+                entry.getValue().getQueuedSubmissionCount(),
+                completed.get(entry.getKey()).sum()))
+            .toList();
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        pools.values().forEach(ForkJoinPool::shutdownNow);
+    }
+    
+    /**
+     * @param lane Priority lane
+     * @param threads Compute threads reserved for the lane
+     * @param active Threads currently computing
+     * @param queued Requests waiting for a thread
+     * @param completed Requests completed since startup
+     */
+    public record LaneStatus(
+        PriorityLane lane,
+        int threads,
+        int active,
+        int queued,
+        long completed
+    ) {}
+}
@@ -0,0 +1,60 @@
+package com.var.calculation.service;
+
+import com.var.calculation.model.dto.DiversificationResponse;
+import com.var.calculation.model.dto.TradeVar;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Compact binary encoding of a diversification report, big-endian:
+ *
+ * <pre>
+ * int32   magic "VCOR"
+ * int16   version (1)
+ * int32   trade count n
+ * float64 portfolio VaR
+ * float64 diversification benefit
+ * n x (UTF trade ID, float64 standalone VaR)
+ * n(n-1)/2 x float32 strict upper triangle of the correlation matrix, row by row
+ * </pre>
+ *
+ * UTF strings are a uint16 byte length followed by modified UTF-8, as written
+ * by {@link DataOutputStream#writeUTF(String)}.
+ */
+public final class DiversificationEncoder {
+    
+    public static final int MAGIC = 0x56434F52;
+    public static final short VERSION = 1;
+    
+    private DiversificationEncoder() {
+    }
+    
+    public static byte[] encode(DiversificationResponse report) {
+        var matrix = report.correlationMatrix();
+        if (matrix == null) {
+            throw new IllegalArgumentException("Binary format requires the full correlation matrix; omit topK");
+        }
+        
+        int n = report.standaloneVars().size();
+        var bytes = new ByteArrayOutputStream(18 + 16 + n * 24 + matrix.remaining() * Float.BYTES);
+        try (var out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeInt(n);
+            out.writeDouble(report.portfolioVar());
+            out.writeDouble(report.diversificationBenefit());
+            for (TradeVar trade : report.standaloneVars()) {
+                out.writeUTF(trade.tradeId());
+                out.writeDouble(trade.var());
+            }
+            while (matrix.hasRemaining()) {
+                out.writeFloat(matrix.get());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
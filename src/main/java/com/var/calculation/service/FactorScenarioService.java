@@ -0,0 +1,128 @@
+package com.var.calculation.service;
+
+import com.var.calculation.exception.ResourceNotFoundException;
+import com.var.calculation.model.dto.FactorScenarioSetInfo;
+import com.var.calculation.model.dto.FactorScenarioSetRequest;
+import com.var.calculation.model.dto.FactorTrade;
+import com.var.calculation.strategy.FactorPnLStrategy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Server-side store of historical factor-return scenarios.
+ *
+ * Each set is held once as a row-major scenario x factor primitive matrix,
+ * so factor-based requests only carry sensitivities.
+ */
+@Slf4j
+@Service
+public class FactorScenarioService {
+    
+    private final Map<String, ScenarioSet> scenarioSets = new ConcurrentHashMap<>();
+    
+    /**
+     * Stored factor scenarios.
+     *
+     * @param setId Scenario set identifier
+     * @param factors Factor names in column order
+     * @param factorIndex Column of each factor
+     * @param returns Row-major scenario x factor returns
+     * @param storedAt Time the set was stored
+     */
+    public record ScenarioSet(
+        String setId,
+        List<String> factors,
+        Map<String, Integer> factorIndex,
+        double[] returns,
+        LocalDateTime storedAt
+    ) {
+        
+        public int scenarioCount() {
+            return returns.length / factors.size();
+        }
+    }
+    
+    public FactorScenarioSetInfo store(String setId, FactorScenarioSetRequest request) {
+        int factorCount = request.factors().size();
+        var factorIndex = new HashMap<String, Integer>();
+        for (int i = 0; i < factorCount; i++) {
+            if (factorIndex.put(request.factors().get(i), i) != null) {
+                throw new IllegalArgumentException("Duplicate factor " + request.factors().get(i));
+            }
+        }
+        
+        var returns = new double[FactorPnLStrategy.matrixSize(request.returns().size(), factorCount)];
+        for (int s = 0; s < request.returns().size(); s++) {
+            var scenario = request.returns().get(s);
+            if (scenario.size() != factorCount) {
+                throw new IllegalArgumentException(
+                    "Scenario " + s + " has " + scenario.size() + " returns, expected " + factorCount);
+            }
+            for (int f = 0; f < factorCount; f++) {
+                returns[s * factorCount + f] = scenario.get(f);
+            }
+        }
+        
+        var set = new ScenarioSet(setId, List.copyOf(request.factors()), Map.copyOf(factorIndex), returns, 
+            LocalDateTime.now());
+        scenarioSets.put(setId, set);
+        log.info("Stored factor scenario set {} with {} scenarios of {} factors", 
+            setId, set.scenarioCount(), factorCount);
+        return toInfo(set);
+    }
+    
+    public ScenarioSet get(String setId) {
+        var set = scenarioSets.get(setId);
+        if (set == null) {
+            throw new ResourceNotFoundException("Factor scenario set " + setId + " not found");
+        }
+        return set;
+    }
+    
+    public List<FactorScenarioSetInfo> getScenarioSets() {
+        return scenarioSets.values().stream()
+            .sorted(Comparator.comparing(ScenarioSet::setId))
+            .map(this::toInfo)
+            .toList();
+    }
+    
+    public void delete(String setId) {
+        if (scenarioSets.remove(setId) == null) {
+            throw new ResourceNotFoundException("Factor scenario set " + setId + " not found");
+        }
+    }
+    
+    /**
+     * Lays out trade sensitivities as a row-major trade x factor matrix in the
+     * set's factor order. Factors a trade is not sensitive to are zero.
+     */
+    public double[] sensitivityMatrix(ScenarioSet set, List<FactorTrade> trades) {
+        int factorCount = set.factors().size();
+        var matrix = new double[FactorPnLStrategy.matrixSize(trades.size(), factorCount)];
+        for (int t = 0; t < trades.size(); t++) {
+            for (var sensitivity : trades.get(t).sensitivities().entrySet()) {
+                Integer factor = set.factorIndex().get(sensitivity.getKey());
+                if (factor == null) {
+                    throw new IllegalArgumentException("Unknown factor " + sensitivity.getKey() 
+                        + " in scenario set " + set.setId());
+                }
+                if (sensitivity.getValue() == null) {
+                    throw new IllegalArgumentException("Missing sensitivity to factor " + sensitivity.getKey() 
+                        + " for trade " + trades.get(t).tradeId());
+                }
+                matrix[t * factorCount + factor] = sensitivity.getValue();
+            }
+        }
+        return matrix;
+    }
+    
+    private FactorScenarioSetInfo toInfo(ScenarioSet set) {
+        return new FactorScenarioSetInfo(set.setId(), set.factors(), set.scenarioCount(), set.storedAt());
+    }
+}
@@ -0,0 +1,182 @@
+package com.var.calculation.service;
+
+import com.var.calculation.config.VarCalculationProperties;
+import com.var.calculation.exception.ResourceNotFoundException;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.text.ParseException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * One Flight Recorder recording of this process, started, dumped and stopped
+ * by administrators.
+ *
+ * The recording holds the JDK's own events as well as the calculation and
+ * strategy events, and is bounded by age and size so it can be left running.
+ * Dumps are written to the configured directory for offline analysis in JDK
+ * Mission Control or with the jfr tool; they include user names and request
+ * IDs, so the directory should be as restricted as the audit database.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FlightRecorderService {
+    
+    static final String RECORDING_NAME = "var-calculation";
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+    
+    private final VarCalculationProperties properties;
+    private Recording recording;
+    private String settingsName;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void startOnStartup() {
+        if (properties.getJfr().isStartOnStartup()) {
+            start(null);
+        }
+    }
+    
+    /**
+     * Starts recording with the named JDK settings, or the configured ones.
+     */
+    public synchronized RecordingStatus start(String settings) {
+        if (recording != null) {
+            throw new IllegalArgumentException("A recording is already running; stop it first");
+        }
+        
+        var jfr = properties.getJfr();
+        var name = settings != null ? settings : jfr.getSettings();
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(name);
+        } catch (NoSuchFileException e) {
+            throw new IllegalArgumentException("Unknown recording settings " + name + "; use default or profile");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ParseException e) {
+            throw new IllegalStateException("Invalid recording settings " + name, e);
+        }
+        
+        var started = new Recording(configuration);
+        started.setName(RECORDING_NAME);
+        started.setToDisk(true);
+        started.setMaxAge(jfr.getMaxAge());
+        started.setMaxSize(jfr.getMaxSize().toBytes());
+        started.start();
+        recording = started;
+        settingsName = name;
+        log.info("Started flight recording with {} settings", name);
+        return status();
+    }
+    
+    /**
+     * Writes the events recorded so far to a new file and keeps recording.
+     */
+    public synchronized RecordingDump dump() {
+        return write(running());
+    }
+    
+    /**
+     * Stops recording and writes everything recorded to a new file.
+     */
+    public synchronized RecordingDump stop() {
+        var stopped = running();
+        try {
+            stopped.stop();
+            return write(stopped);
+        } finally {
+            stopped.close();
+            recording = null;
+            log.info("Stopped flight recording");
+        }
+    }
+    
+    public synchronized RecordingStatus getStatus() {
+        return status();
+    }
+    
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+    
+    private Recording running() {
+        if (recording == null) {
+            throw new ResourceNotFoundException("No recording is running");
+        }
+        return recording;
+    }
+    
+    private RecordingDump write(Recording source) {
+        try {
+            var directory = properties.getJfr().getDirectory();
+            Files.createDirectories(directory);
+            var file = directory.resolve("var-" + LocalDateTime.now().format(FILE_TIME) + ".jfr");
+            source.dump(file);
+            long size = Files.size(file);
+            log.info("Wrote flight recording to {} ({} bytes)", file, size);
+            return new RecordingDump(file.toAbsolutePath().toString(), size, LocalDateTime.now());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private RecordingStatus status() {
+        var jfr = properties.getJfr();
+        if (recording == null) {
+            return new RecordingStatus(false, null, null, 0, jfr.getMaxAge().toMillis(),
+                jfr.getMaxSize().toBytes(), jfr.getDirectory().toAbsolutePath().toString());
+        }
+        var startedAt = recording.getState() == RecordingState.RUNNING && recording.getStartTime() != null
+            ? LocalDateTime.ofInstant(recording.getStartTime(), ZoneId.systemDefault())
+            : null;
+        return new RecordingStatus(true, settingsName, startedAt, recording.getSize(), jfr.getMaxAge().toMillis(),
+            jfr.getMaxSize().toBytes(), jfr.getDirectory().toAbsolutePath().toString());
+    }
+    
+    /**
+     * @param running Whether a recording is running
+     * @param settings JDK settings of the running recording
+     * @param startedAt Time the recording started
+     * @param bytes Size of the events recorded so far
+     * @param maxAgeMillis Age beyond which events are discarded
+     * @param maxBytes Size beyond which the oldest events are discarded
+     * @param directory Directory dumps are written to
+     */
+    public record RecordingStatus(
+        boolean running,
+        String settings,
+        LocalDateTime startedAt,
+        long bytes,
+        long maxAgeMillis,
+        long maxBytes,
+        String directory
+    ) {}
+    
+    /**
+     * @param file Absolute path of the recording file
+     * @param bytes Size of the file
+     * @param writtenAt Time the file was written
+     */
+    public record RecordingDump(
+        String file,
+        long bytes,
+        LocalDateTime writtenAt
+    ) {}
+}
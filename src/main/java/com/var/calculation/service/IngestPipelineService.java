@@ -0,0 +1,509 @@
+package com.var.calculation.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.var.calculation.config.VarCalculationProperties;
+import com.var.calculation.model.enums.PriorityLane;
+import com.var.calculation.model.enums.ResultFormat;
+import com.var.calculation.service.PnLCsvParser.ParsedFile;
+import com.var.calculation.service.PnLCsvParser.TradeColumn;
+import com.var.calculation.strategy.CalculationScope;
+import com.var.calculation.strategy.HistoricalSimulationStrategy;
+import com.var.calculation.strategy.HistoricalSimulationStrategy.TailRisk;
+import com.var.calculation.strategy.PnLAlignmentStrategy;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * File-drop ingestion of nightly P&L extracts.
+ *
+ * A scanner polls the inbox rather than relying on file system events, which
+ * shared network disks often do not deliver, and claims a file once its size
+ * and modification time are unchanged since the previous poll by moving it
+ * into a processing directory. Each claimed file then flows through four
+ * stages on their own threads: parse into primitive columns, compute VaR and
+ * expected shortfall per trade and for the date-aligned portfolio on the bulk
+ * lane, write the result, and archive the input. Stages are joined by bounded
+ * queues, so they overlap across files and a slow stage holds back the
+ * scanner instead of letting parsed files pile up in memory.
+ *
+ * Results are written as CSV, or as an Arrow IPC file when the format is
+ * ARROW, to a temporary file and renamed into place, so readers of the output
+ * directory never see a partial file. Each result is registered as a job so it
+ * can also be downloaded through the jobs API. Every file, processed or
+ * not, gets a line in manifest.jsonl; a file that fails is moved to the
+ * quarantine directory next to a .error file with the reason. A trade too
+ * short to compute is skipped rather than failing its file.
+ *
+ * Result, archive and quarantine names carry the run ID, the time the file
+ * was claimed, so a file dropped again under the same name never replaces
+ * the output of an earlier run.
+ */
+@Slf4j
+@Service
+public class IngestPipelineService {
+    
+    static final String PROCESSING_DIR = ".processing";
+    static final String MANIFEST = "manifest.jsonl";
+    private static final int TRADES_PER_SUBTASK = 64;
+    private static final int RECENT_RUNS = 100;
+    private static final DateTimeFormatter RUN_ID = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmssSSS");
+    
+    private final VarCalculationProperties properties;
+    private final VarCalculationProperties.Ingest settings;
+    private final ComputeLaneService lanes;
+    private final HistoricalSimulationStrategy strategy;
+    private final PnLAlignmentStrategy alignmentStrategy;
+    private final ObjectMapper objectMapper;
+    private final BatchJobService jobService;
+    
+    private final BlockingQueue<Claim> parseQueue;
+    private final BlockingQueue<Parsed> computeQueue;
+    private final BlockingQueue<Computed> writeQueue;
+    private final Map<Path, FileState> seen = new HashMap<>();
+    private final Deque<IngestRun> recentRuns = new ArrayDeque<>();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+    
+    private record FileState(long size, FileTime modified) {}
+    
+    private record Claim(Path file, LocalDateTime startedAt) {
+        
+        String runId() {
+            return RUN_ID.format(startedAt);
+        }
+        
+        /**
+         * The file's name with the run ID before its extension, e.g. eod.20260205T020001123.csv.
+         */
+        String stampedName() {
+            var name = file.getFileName().toString();
+            return baseName(name) + "." + runId() + name.substring(baseName(name).length());
+        }
+    }
+    
+    private record Parsed(Claim claim, ParsedFile file) {}
+    
+    private record Computed(Parsed parsed, List<TradeResult> trades, TradeResult portfolio) {}
+    
+    /**
+     * @param risks VaR and expected shortfall per level, or null if the trade was skipped
+     * @param error Reason the trade was skipped
+     */
+    private record TradeResult(String tradeId, int points, List<TailRisk> risks, String error) {}
+    
+    public IngestPipelineService(VarCalculationProperties properties, ComputeLaneService lanes,
+                                 HistoricalSimulationStrategy strategy, PnLAlignmentStrategy alignmentStrategy,
+                                 ObjectMapper objectMapper, BatchJobService jobService) {
+        this.properties = properties;
+        this.settings = properties.getIngest();
+        this.lanes = lanes;
+        this.strategy = strategy;
+        this.alignmentStrategy = alignmentStrategy;
+        this.objectMapper = objectMapper;
+        this.jobService = jobService;
+        this.parseQueue = new ArrayBlockingQueue<>(settings.getQueueCapacity());
+        this.computeQueue = new ArrayBlockingQueue<>(settings.getQueueCapacity());
+        this.writeQueue = new ArrayBlockingQueue<>(settings.getQueueCapacity());
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        if (!settings.isEnabled() || running) {
+            return;
+        }
+        
+        for (Path dir : List.of(settings.getInbox().resolve(PROCESSING_DIR), settings.getOutput(),
+                settings.getArchive(), settings.getQuarantine())) {
+            Files.createDirectories(dir);
+        }
+        running = true;
+        
+        threads.add(stage("ingest-scan", this::scanLoop));
+        threads.add(stage("ingest-parse", () -> consume(parseQueue, this::parse)));
+        threads.add(stage("ingest-compute", () -> consume(computeQueue, this::compute)));
+        threads.add(stage("ingest-write", () -> consume(writeQueue, this::write)));
+        log.info("Ingesting {} files from {} every {}", settings.getPattern(), settings.getInbox(),
+            settings.getPollInterval());
+    }
+    
+    @PreDestroy
+    public void stop() {
+        running = false;
+        threads.forEach(Thread::interrupt);
+        threads.clear();
+    }
+    
+    public IngestStatus getStatus() {
+        synchronized (recentRuns) {
+            return new IngestStatus(
+                settings.isEnabled(),
+                running,
+                settings.getInbox().toString(),
+                parseQueue.size(),
+                computeQueue.size(),
+                writeQueue.size(),
+                processed.get(),
+                failed.get(),
+                List.copyOf(recentRuns)
+            );
+        }
+    }
+    
+    private Thread stage(String name, Runnable loop) {
+        return Thread.ofPlatform().name(name).daemon().start(loop);
+    }
+    
+    private void scanLoop() {
+        try {
+            // Files claimed before a restart are resumed first
+            try (Stream<Path> leftover = Files.list(settings.getInbox().resolve(PROCESSING_DIR))) {
+                for (Path file : leftover.sorted().toList()) {
+                    parseQueue.put(new Claim(file, LocalDateTime.now()));
+                }
+            }
+            while (running) {
+                scan();
+                Thread.sleep(settings.getPollInterval().toMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.error("Ingest scanner stopped", e);
+        }
+    }
+    
+    void scan() throws InterruptedException {
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + settings.getPattern());
+        List<Path> candidates;
+        try (Stream<Path> files = Files.list(settings.getInbox())) {
+            candidates = files
+                .filter(Files::isRegularFile)
+                .filter(file -> matcher.matches(file.getFileName()))
+                .sorted(Comparator.comparing(Path::getFileName))
+                .toList();
+        } catch (IOException e) {
+            log.warn("Cannot list inbox {}: {}", settings.getInbox(), e.getMessage());
+            return;
+        }
+        
+        seen.keySet().retainAll(candidates);
+        for (Path file : candidates) {
+            FileState state;
+            try {
+                state = new FileState(Files.size(file), Files.getLastModifiedTime(file));
+            } catch (IOException e) {
+                continue;
+            }
+            
+            // Claim only once the writer has finished, i.e. nothing changed since the last poll
+            if (!state.equals(seen.put(file, state))) {
+                continue;
+            }
+            
+            // A file of the same name still in flight keeps this one in the inbox until it is done
+            var claimed = settings.getInbox().resolve(PROCESSING_DIR).resolve(file.getFileName());
+            if (Files.exists(claimed)) {
+                continue;
+            }
+            seen.remove(file);
+            try {
+                Files.move(file, claimed, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                log.debug("Could not claim {}: {}", file, e.getMessage());
+                continue;
+            }
+            parseQueue.put(new Claim(claimed, LocalDateTime.now()));
+        }
+    }
+    
+    private <T> void consume(BlockingQueue<T> queue, Stage<T> stage) {
+        while (running) {
+            try {
+                stage.process(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Ingest stage {} failed", Thread.currentThread().getName(), e);
+            }
+        }
+    }
+    
+    private void parse(Claim claim) throws InterruptedException {
+        ParsedFile file;
+        try (var in = Files.newInputStream(claim.file())) {
+            file = PnLCsvParser.parse(claim.file().getFileName().toString(), in);
+        } catch (IOException | RuntimeException e) {
+            quarantine(claim, null, e);
+            return;
+        }
+        computeQueue.put(new Parsed(claim, file));
+    }
+    
+    private void compute(Parsed parsed) throws InterruptedException {
+        Computed computed;
+        try {
+            var scope = new CalculationScope(settings.getTimeout().toMillis());
+            computed = lanes.submit(PriorityLane.BULK, scope, () -> computeRisk(parsed)).join();
+        } catch (CompletionException e) {
+            quarantine(parsed.claim(), parsed.file(), e.getCause());
+            return;
+        } catch (RuntimeException e) {
+            quarantine(parsed.claim(), parsed.file(), e);
+            return;
+        }
+        writeQueue.put(computed);
+    }
+    
+    private Computed computeRisk(Parsed parsed) {
+        var confidenceLevels = settings.getConfidenceLevels().stream().mapToDouble(Double::doubleValue).toArray();
+        var trades = parsed.file().trades();
+        
+        var subtasks = new ArrayList<Supplier<List<TradeResult>>>();
+        for (int from = 0; from < trades.size(); from += TRADES_PER_SUBTASK) {
+            var chunk = trades.subList(from, Math.min(from + TRADES_PER_SUBTASK, trades.size()));
+            subtasks.add(() -> chunk.stream()
+                .map(trade -> tradeRisk(trade, confidenceLevels))
+                .toList());
+        }
+        var results = CalculationScope.fork(subtasks).stream().flatMap(List::stream).toList();
+        
+        // Skipped trades are left out of the portfolio, which fails the file only if nothing is left
+        var computable = new ArrayList<TradeColumn>(trades.size());
+        for (int i = 0; i < trades.size(); i++) {
+            if (results.get(i).error() == null) {
+                computable.add(trades.get(i));
+            }
+        }
+        if (computable.isEmpty()) {
+            throw new IllegalArgumentException("No trade could be computed: " + results.get(0).error());
+        }
+        var portfolioPnL = alignmentStrategy.aggregate(computable, properties.getAlignment().getMissingData());
+        var portfolio = new TradeResult("PORTFOLIO", portfolioPnL.length,
+            strategy.calculateTailRisk(portfolioPnL, confidenceLevels), null);
+        return new Computed(parsed, results, portfolio);
+    }
+    
+    private TradeResult tradeRisk(TradeColumn trade, double[] confidenceLevels) {
+        try {
+            return new TradeResult(trade.id(), trade.size(), strategy.calculateTailRisk(trade.pnl(), confidenceLevels),
+                null);
+        } catch (IllegalArgumentException e) {
+            return new TradeResult(trade.id(), trade.size(), null, e.getMessage());
+        }
+    }
+    
+    private void write(Computed computed) {
+        var claim = computed.parsed().claim();
+        var file = computed.parsed().file();
+        var format = settings.getFormat();
+        var output = settings.getOutput().resolve(baseName(file.fileName()) + "." + claim.runId()
+            + (format == ResultFormat.ARROW ? ".var.arrow" : ".var.csv"));
+        try {
+            if (format == ResultFormat.ARROW) {
+                writeArrow(output, computed);
+            } else {
+                writeCsv(output, computed);
+            }
+            Files.move(claim.file(), settings.getArchive().resolve(claim.stampedName()));
+        } catch (IOException | RuntimeException e) {
+            quarantine(claim, file, e);
+            return;
+        }
+        
+        var job = jobService.register("INGEST", file.fileName(), 1, computed.trades().size() + 1, format, output);
+        var skipped = new LinkedHashMap<String, String>();
+        computed.trades().stream()
+            .filter(trade -> trade.error() != null)
+            .forEach(trade -> skipped.put(trade.tradeId(), trade.error()));
+        record(new IngestRun(file.fileName(), claim.runId(), "PROCESSED", file.sha256(), file.trades().size(),
+            file.points(), skipped, output.getFileName().toString(), job.jobId(), null, claim.startedAt(),
+            LocalDateTime.now()));
+        processed.incrementAndGet();
+        log.info("Ingested {}: {} trades, {} skipped, {} points", file.fileName(), file.trades().size(), skipped.size(),
+            file.points());
+    }
+    
+    private void writeCsv(Path output, Computed computed) throws IOException {
+        writeAtomically(output, writer -> {
+            writer.write("tradeId,points");
+            for (double confidenceLevel : settings.getConfidenceLevels()) {
+                writer.write(",var_" + confidenceLevel + ",es_" + confidenceLevel);
+            }
+            writer.newLine();
+            for (var trade : computed.trades()) {
+                writeRow(writer, trade);
+            }
+            writeRow(writer, computed.portfolio());
+        });
+    }
+    
+    private void writeArrow(Path output, Computed computed) throws IOException {
+        var file = computed.parsed().file();
+        var portfolioId = baseName(file.fileName());
+        var confidenceLevels = settings.getConfidenceLevels().stream().mapToDouble(Double::doubleValue).toArray();
+        var metadata = Map.of("source", file.fileName(), "sha256", file.sha256());
+        try (var writer = new ArrowResultWriter(output, confidenceLevels, false, metadata)) {
+            for (var trade : computed.trades()) {
+                writer.write(portfolioId, trade.tradeId(), trade.points(), trade.risks(), null);
+            }
+            var portfolio = computed.portfolio();
+            writer.write(portfolioId, null, portfolio.points(), portfolio.risks(), null);
+            writer.commit();
+        }
+    }
+    
+    private void writeRow(BufferedWriter writer, TradeResult result) throws IOException {
+        writer.write(result.tradeId() + "," + result.points());
+        if (result.risks() == null) {
+            writer.write(",".repeat(2 * settings.getConfidenceLevels().size()));
+        } else {
+            for (var risk : result.risks()) {
+                writer.write("," + risk.var() + "," + risk.expectedShortfall());
+            }
+        }
+        writer.newLine();
+    }
+    
+    private void quarantine(Claim claim, ParsedFile file, Throwable error) {
+        var name = claim.file().getFileName().toString();
+        var reason = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+        log.warn("Quarantining {}: {}", name, reason);
+        try {
+            var target = settings.getQuarantine().resolve(claim.stampedName());
+            writeAtomically(target.resolveSibling(target.getFileName() + ".error"), writer -> writer.write(reason));
+            Files.move(claim.file(), target);
+        } catch (IOException e) {
+            log.error("Could not quarantine {}", name, e);
+        }
+        
+        record(new IngestRun(name, claim.runId(), "QUARANTINED", file != null ? file.sha256() : null,
+            file != null ? file.trades().size() : 0, file != null ? file.points() : 0, Map.of(),
+            null, null, reason, claim.startedAt(), LocalDateTime.now()));
+        failed.incrementAndGet();
+    }
+    
+    private void record(IngestRun run) {
+        synchronized (recentRuns) {
+            recentRuns.addFirst(run);
+            if (recentRuns.size() > RECENT_RUNS) {
+                recentRuns.removeLast();
+            }
+            try {
+                Files.writeString(settings.getOutput().resolve(MANIFEST),
+                    objectMapper.writeValueAsString(run) + System.lineSeparator(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                log.error("Could not append {} to the ingest manifest", run.file(), e);
+            }
+        }
+    }
+    
+    private void writeAtomically(Path target, Writing writing) throws IOException {
+        var temp = target.resolveSibling("." + target.getFileName() + ".tmp");
+        try (var writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writing.write(writer);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+    
+    private static String baseName(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0 ? fileName.substring(0, dot) : fileName;
+    }
+    
+    @FunctionalInterface
+    private interface Stage<T> {
+        void process(T item) throws InterruptedException;
+    }
+    
+    @FunctionalInterface
+    private interface Writing {
+        void write(BufferedWriter writer) throws IOException;
+    }
+    
+    /**
+     * One ingested file, as recorded in the manifest.
+     *
+     * @param file Input file name
+     * @param runId Time the file was claimed, which also stamps its result, archive and quarantine names
+     * @param status PROCESSED or QUARANTINED
+     * @param sha256 SHA-256 of the input, if it could be read
+     * @param trades Trades in the file
+     * @param points P&L rows in the file
+     * @param skippedTrades Reason per trade that was too short to compute and left out of the portfolio
+     * @param output Result file name, if processed
+     * @param jobId Job under which the result file can be downloaded, if processed
+     * @param error Reason the file was quarantined
+     * @param startedAt Time the file was claimed
+     * @param completedAt Time the file was archived or quarantined
+     */
+    public record IngestRun(
+        String file,
+        String runId,
+        String status,
+        String sha256,
+        int trades,
+        long points,
+        Map<String, String> skippedTrades,
+        String output,
+        String jobId,
+        String error,
+        LocalDateTime startedAt,
+        LocalDateTime completedAt
+    ) {}
+    
+    /**
+     * @param enabled Whether ingestion is configured on
+     * @param running Whether the pipeline threads are running
+     * @param inbox Directory being watched
+     * @param parseQueued Claimed files waiting to be parsed
+     * @param computeQueued Parsed files waiting for computation
+     * @param writeQueued Computed files waiting to be written
+     * @param processed Files processed since startup
+     * @param failed Files quarantined since startup
+     * @param recentRuns Most recent files, newest first
+     */
+    public record IngestStatus(
+        boolean enabled,
+        boolean running,
+        String inbox,
+        int parseQueued,
+        int computeQueued,
+        int writeQueued,
+        long processed,
+        long failed,
+        List<IngestRun> recentRuns
+    ) {}
+}
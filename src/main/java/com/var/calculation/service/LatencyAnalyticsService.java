@@ -0,0 +1,248 @@
+package com.var.calculation.service;
+
+import com.var.calculation.config.VarCalculationProperties;
+import com.var.calculation.model.enums.LatencyGrouping;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.PackedHistogram;
+import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rolling latency percentiles and error rates of audited requests.
+ *
+ * Every audited request is recorded here as well as in the audit table, so
+ * reports never scan the table. Each endpoint and user pair keeps a ring of
+ * packed HDR histograms, one per slot of the configured resolution, covering
+ * the retention period; a report merges the slots inside its window. A packed
+ * histogram only allocates the buckets it has seen, so an idle series costs a
+ * few hundred bytes. Once maxSeries pairs are tracked, new users are folded
+ * into one "(other)" series per endpoint.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LatencyAnalyticsService {
+    
+    static final String OTHER_USER = "(other)";
+    
+    private static final int SIGNIFICANT_DIGITS = 3;
+    
+    private final VarCalculationProperties properties;
+    private final Map<SeriesKey, Series> series = new ConcurrentHashMap<>();
+    
+    public void record(String endpoint, String user, long latencyMillis, boolean success, long epochMillis) {
+        long slot = epochMillis / resolutionMillis();
+        seriesFor(new SeriesKey(endpoint, user != null ? user : "anonymous"), slot)
+            .record(slot, Math.max(0, latencyMillis), success);
+    }
+    
+    /**
+     * Latency statistics of the requests recorded in the last window, one entry
+     * per group, busiest first. The window is rounded up to whole slots.
+     * 
+     * @param endpoint Only this endpoint, or null for all
+     * @param user Only this user, or null for all
+     */
+    public LatencyReport report(Duration window, LatencyGrouping groupBy, String endpoint, String user) {
+        return report(window, groupBy, endpoint, user, System.currentTimeMillis());
+    }
+    
+    LatencyReport report(Duration window, LatencyGrouping groupBy, String endpoint, String user, long nowMillis) {
+        var latency = properties.getLatency();
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("Window must be positive");
+        }
+        if (window.compareTo(latency.getRetention()) > 0) {
+            throw new IllegalArgumentException("Window cannot exceed the retention of " + latency.getRetention());
+        }
+        
+        long resolution = resolutionMillis();
+        long toSlot = nowMillis / resolution;
+        long fromSlot = toSlot - (window.toMillis() + resolution - 1) / resolution + 1;
+        
+        var groups = new HashMap<SeriesKey, Group>();
+        series.forEach((key, value) -> {
+            if ((endpoint == null || endpoint.equals(key.endpoint())) && (user == null || user.equals(key.user()))) {
+                var groupKey = switch (groupBy) {
+                    case ENDPOINT -> new SeriesKey(key.endpoint(), null);
+                    case USER -> new SeriesKey(null, key.user());
+                    case ENDPOINT_USER -> key;
+                };
+                value.addTo(groups.computeIfAbsent(groupKey, k -> new Group()), fromSlot, toSlot);
+            }
+        });
+        
+        var stats = groups.entrySet().stream()
+            .filter(entry -> entry.getValue().histogram.getTotalCount() > 0)
+            .map(entry -> entry.getValue().stats(entry.getKey()))
+            .sorted(Comparator.comparingLong(LatencyStats::count).reversed()
+                .thenComparing(LatencyStats::endpoint, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(LatencyStats::user, Comparator.nullsFirst(Comparator.naturalOrder())))
+            .toList();
+        
+        return new LatencyReport(
+            window,
+            Instant.ofEpochMilli(fromSlot * resolution),
+            Instant.ofEpochMilli(nowMillis),
+            groupBy,
+            stats
+        );
+    }
+    
+    int seriesCount() {
+        return series.size();
+    }
+    
+    private Series seriesFor(SeriesKey key, long slot) {
+        var existing = series.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        
+        int maxSeries = properties.getLatency().getMaxSeries();
+        if (series.size() >= maxSeries) {
+            long oldest = slot - slotCount() + 1;
+            series.values().removeIf(candidate -> candidate.lastSlot() < oldest);
+        }
+        if (series.size() >= maxSeries) {
+            // Overflow series are bounded by the number of endpoints
+            key = new SeriesKey(key.endpoint(), OTHER_USER);
+        }
+        return series.computeIfAbsent(key, k -> new Series(slotCount()));
+    }
+    
+    private long resolutionMillis() {
+        return Math.max(1, properties.getLatency().getResolution().toMillis());
+    }
+    
+    private int slotCount() {
+        long resolution = resolutionMillis();
+        return (int) ((properties.getLatency().getRetention().toMillis() + resolution - 1) / resolution);
+    }
+    
+    private record SeriesKey(String endpoint, String user) {}
+    
+    /**
+     * Ring of per-slot histograms of one endpoint and user. A slot is reused
+     * once the ring wraps around to it; records older than the ring are dropped.
+     */
+    private static final class Series {
+        
+        private final PackedHistogram[] histograms;
+        private final long[] errors;
+        private final long[] slots;
+        private long lastSlot = Long.MIN_VALUE;
+        
+        Series(int size) {
+            histograms = new PackedHistogram[size];
+            errors = new long[size];
+            slots = new long[size];
+            Arrays.fill(slots, Long.MIN_VALUE);
+        }
+        
+        synchronized void record(long slot, long latencyMillis, boolean success) {
+            if (lastSlot != Long.MIN_VALUE && lastSlot - slot >= histograms.length) {
+                return;
+            }
+            int index = Math.floorMod(slot, histograms.length);
+            if (slots[index] != slot) {
+                if (slots[index] > slot) {
+                    return;
+                }
+                if (histograms[index] == null) {
+                    histograms[index] = new PackedHistogram(SIGNIFICANT_DIGITS);
+                } else {
+                    histograms[index].reset();
+                }
+                errors[index] = 0;
+                slots[index] = slot;
+            }
+            histograms[index].recordValue(latencyMillis);
+            if (!success) {
+                errors[index]++;
+            }
+            lastSlot = Math.max(lastSlot, slot);
+        }
+        
+        synchronized void addTo(Group group, long fromSlot, long toSlot) {
+            for (int i = 0; i < histograms.length; i++) {
+                if (slots[i] >= fromSlot && slots[i] <= toSlot) {
+                    group.histogram.add(histograms[i]);
+                    group.errors += errors[i];
+                }
+            }
+        }
+        
+        synchronized long lastSlot() {
+            return lastSlot;
+        }
+    }
+    
+    private static final class Group {
+        
+        private final Histogram histogram = new Histogram(SIGNIFICANT_DIGITS);
+        private long errors;
+        
+        LatencyStats stats(SeriesKey key) {
+            long count = histogram.getTotalCount();
+            return new LatencyStats(
+                key.endpoint(),
+                key.user(),
+                count,
+                errors,
+                (double) errors / count,
+                histogram.getValueAtPercentile(50),
+                histogram.getValueAtPercentile(90),
+                histogram.getValueAtPercentile(99),
+                histogram.getValueAtPercentile(99.9),
+                histogram.getMaxValue(),
+                histogram.getMean()
+            );
+        }
+    }
+    
+    /**
+     * Latency statistics of the requests in a report window.
+     * 
+     * @param from Start of the first slot in the window
+     * @param to Time of the report
+     * @param stats One entry per group, busiest first
+     */
+    public record LatencyReport(
+        Duration window,
+        Instant from,
+        Instant to,
+        LatencyGrouping groupBy,
+        List<LatencyStats> stats
+    ) {}
+    
+    /**
+     * Request count, error rate and latency percentiles in milliseconds of one
+     * group. Percentiles are accurate to three significant digits.
+     * 
+     * @param endpoint Endpoint, or null when grouped by user only
+     * @param user User, or null when grouped by endpoint only
+     */
+    public record LatencyStats(
+        String endpoint,
+        String user,
+        long count,
+        long errors,
+        double errorRate,
+        long p50,
+        long p90,
+        long p99,
+        long p999,
+        long max,
+        double mean
+    ) {}
+}
@@ -0,0 +1,141 @@
+package com.var.calculation.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.var.calculation.config.VarCalculationProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compact binary encoding of audited request and response bodies.
+ *
+ * A payload is converted to its JSON tree, and every array of at least
+ * minSeriesLength floating-point numbers, such as a P&L series, is cut out
+ * and compressed with {@link SeriesCodec}, leaving an empty array behind.
+ * The remaining JSON and the series, each tagged with the JSON pointer it was
+ * cut from, are then deflated together. Decoding puts every series back in
+ * place, giving the original JSON body, which can be posted again as is.
+ */
+@Component
+@RequiredArgsConstructor
+public class PayloadCodec {
+    
+    public static final String ENCODING = "json+gorilla+deflate/1";
+    private static final int VERSION = 1;
+    
+    private final ObjectMapper objectMapper;
+    private final VarCalculationProperties properties;
+    
+    /**
+     * @param bytes Encoded payload
+     * @param jsonBytes Size of the payload as plain JSON
+     */
+    public record EncodedPayload(byte[] bytes, int jsonBytes) {}
+    
+    private record Series(String pointer, int count, byte[] bytes) {}
+    
+    public EncodedPayload encode(Object payload) {
+        JsonNode tree = objectMapper.valueToTree(payload);
+        var buffer = new ByteArrayOutputStream();
+        try {
+            int jsonBytes = objectMapper.writeValueAsBytes(tree).length;
+            var series = new ArrayList<Series>();
+            var skeleton = objectMapper.writeValueAsBytes(extract(tree, "", series));
+            
+            try (var out = new DataOutputStream(new DeflaterOutputStream(buffer))) {
+                out.writeByte(VERSION);
+                out.writeInt(skeleton.length);
+                out.write(skeleton);
+                out.writeInt(series.size());
+                for (var s : series) {
+                    out.writeUTF(s.pointer());
+                    out.writeInt(s.count());
+                    out.writeInt(s.bytes().length);
+                    out.write(s.bytes());
+                }
+            }
+            return new EncodedPayload(buffer.toByteArray(), jsonBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    public JsonNode decode(byte[] bytes) {
+        try (var in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(bytes)))) {
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported payload encoding version " + version);
+            }
+            var skeleton = new byte[in.readInt()];
+            in.readFully(skeleton);
+            var tree = objectMapper.readTree(skeleton);
+            
+            int seriesCount = in.readInt();
+            for (int s = 0; s < seriesCount; s++) {
+                var pointer = in.readUTF();
+                int count = in.readInt();
+                var encoded = new byte[in.readInt()];
+                in.readFully(encoded);
+                if (!(tree.at(pointer) instanceof ArrayNode array)) {
+                    throw new IllegalArgumentException("No array at " + pointer);
+                }
+                for (double value : SeriesCodec.decode(encoded, count)) {
+                    array.add(value);
+                }
+            }
+            return tree;
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalArgumentException("Invalid payload encoding", e);
+        }
+    }
+    
+    private JsonNode extract(JsonNode node, String pointer, List<Series> series) {
+        if (isSeries(node)) {
+            var values = new double[node.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = node.get(i).doubleValue();
+            }
+            series.add(new Series(pointer, values.length, SeriesCodec.encode(values)));
+            return objectMapper.createArrayNode();
+        }
+        if (node instanceof ObjectNode object) {
+            var names = new ArrayList<String>();
+            object.fieldNames().forEachRemaining(names::add);
+            for (String name : names) {
+                var escaped = name.replace("~", "~0").replace("/", "~1");
+                object.set(name, extract(object.get(name), pointer + "/" + escaped, series));
+            }
+        } else if (node instanceof ArrayNode array) {
+            for (int i = 0; i < array.size(); i++) {
+                array.set(i, extract(array.get(i), pointer + "/" + i, series));
+            }
+        }
+        return node;
+    }
+    
+    private boolean isSeries(JsonNode node) {
+        if (!node.isArray() || node.size() < properties.getAudit().getMinSeriesLength()) {
+            return false;
+        }
+        for (JsonNode element : node) {
+            if (!element.isDouble() && !element.isFloat()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
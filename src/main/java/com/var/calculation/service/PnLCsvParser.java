@@ -0,0 +1,168 @@
+package com.var.calculation.service;
+
+import com.var.calculation.strategy.PnLAlignmentStrategy.AlignedSeries;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Streams a long-format P&L extract into one primitive column pair (epoch
+ * day, P&L) per trade.
+ *
+ * The file needs a header naming tradeId, date (ISO yyyy-MM-dd) and pnl
+ * columns in any order; other columns are ignored. Fields are plain
+ * comma-separated values without quoting. Rows of a trade must be in date
+ * order, but trades may be interleaved.
+ */
+final class PnLCsvParser {
+    
+    private PnLCsvParser() {
+    }
+    
+    static ParsedFile parse(String fileName, InputStream in) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        
+        var reader = new BufferedReader(new InputStreamReader(new DigestInputStream(in, digest), StandardCharsets.UTF_8));
+        var header = reader.readLine();
+        if (header == null) {
+            throw new IllegalArgumentException("File is empty");
+        }
+        var columns = Arrays.asList(header.replace("\uFEFF", "").toLowerCase(Locale.ROOT).split(",", -1));
+        int tradeColumn = column(columns, "tradeid");
+        int dateColumn = column(columns, "date");
+        int pnlColumn = column(columns, "pnl");
+        int width = Math.max(tradeColumn, Math.max(dateColumn, pnlColumn)) + 1;
+        
+        var trades = new LinkedHashMap<String, TradeColumn>();
+        long points = 0;
+        int lineNumber = 1;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            
+            var fields = line.split(",", -1);
+            if (fields.length < width) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": expected at least " + width + " fields");
+            }
+            try {
+                var tradeId = fields[tradeColumn].trim();
+                if (tradeId.isEmpty()) {
+                    throw new IllegalArgumentException("trade ID is blank");
+                }
+                double pnl = Double.parseDouble(fields[pnlColumn].trim());
+                if (!Double.isFinite(pnl)) {
+                    throw new IllegalArgumentException("P&L must be finite");
+                }
+                trades.computeIfAbsent(tradeId, TradeColumn::new)
+                    .add(LocalDate.parse(fields[dateColumn].trim()).toEpochDay(), pnl);
+                points++;
+            } catch (DateTimeParseException | IllegalArgumentException e) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        
+        if (trades.isEmpty()) {
+            throw new IllegalArgumentException("File has no P&L rows");
+        }
+        return new ParsedFile(fileName, new ArrayList<>(trades.values()), points,
+            HexFormat.of().formatHex(digest.digest()));
+    }
+    
+    private static int column(List<String> columns, String name) {
+        int index = columns.stream().map(String::trim).toList().indexOf(name);
+        if (index < 0) {
+            throw new IllegalArgumentException("Header must name a " + name + " column");
+        }
+        return index;
+    }
+    
+    /**
+     * A parsed extract.
+     *
+     * @param fileName Name of the input file
+     * @param trades Trade columns in order of first appearance
+     * @param points Total P&L rows
+     * @param sha256 SHA-256 of the file contents, hex encoded
+     */
+    record ParsedFile(String fileName, List<TradeColumn> trades, long points, String sha256) {}
+    
+    /**
+     * Growable epoch-day and P&L columns of one trade.
+     */
+    static final class TradeColumn implements AlignedSeries {
+        
+        private final String id;
+        private long[] days = new long[64];
+        private double[] pnl = new double[64];
+        private int size;
+        
+        TradeColumn(String id) {
+            this.id = id;
+        }
+        
+        void add(long day, double value) {
+            if (size > 0 && day <= days[size - 1]) {
+                throw new IllegalArgumentException("rows of trade " + id + " must be in increasing date order");
+            }
+            if (size == days.length) {
+                days = Arrays.copyOf(days, size * 2);
+                pnl = Arrays.copyOf(pnl, size * 2);
+            }
+            days[size] = day;
+            pnl[size++] = value;
+        }
+        
+        /**
+         * The P&L column trimmed to its length.
+         */
+        double[] pnl() {
+            return Arrays.copyOf(pnl, size);
+        }
+        
+        @Override
+        public String id() {
+            return id;
+        }
+        
+        @Override
+        public int size() {
+            return size;
+        }
+        
+        @Override
+        public long period(int index) {
+            return days[index];
+        }
+        
+        @Override
+        public double value(int index) {
+            return pnl[index];
+        }
+        
+        @Override
+        public String describe(long period) {
+            return LocalDate.ofEpochDay(period).toString();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.var.calculation.service;
+
+import com.var.calculation.config.CacheConfig;
+import com.var.calculation.config.CacheReloader;
+import com.var.calculation.config.VarCalculationProperties;
+import com.var.calculation.exception.ResourceNotFoundException;
+import com.var.calculation.model.dto.PortfolioVarRequest;
+import com.var.calculation.model.dto.RegisteredPortfolio;
+import com.var.calculation.model.dto.VarResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Refresh-ahead precomputation of registered portfolios.
+ * 
+ * Registered portfolios are recomputed on a schedule, off the request path,
+ * on a bounded compute pool, and written straight into the portfolio VaR
+ * cache so interactive requests for them are cache hits. The service is also
+ * the cache's reloader when refresh-after-write is configured.
+ *
+ * Registrations belong to the user who made them and are keyed like their
+ * results, by user, portfolio, confidence level and method, so a portfolio
+ * can be registered at several confidence levels and a precomputed result
+ * only ever answers its own user's requests.
+ */
+@Slf4j
+@Service
+public class PortfolioPrecomputeService implements CacheReloader {
+    
+    private final VarCalculationService varService;
+    private final VarCalculationProperties properties;
+    private final Cache resultCache;
+    private final ExecutorService computePool;
+    private final Map<String, Registration> registrations = new ConcurrentHashMap<>();
+    private final Map<String, LocalDateTime> lastComputed = new ConcurrentHashMap<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+    
+    /**
+     * @param cacheKey Key of the registration and of its result in the portfolio VaR cache
+     */
+    private record Registration(String username, PortfolioVarRequest request, String cacheKey,
+                                LocalDateTime registeredAt) {}
+    
+    public PortfolioPrecomputeService(VarCalculationService varService, VarCalculationProperties properties,
+                                      CacheManager cacheManager) {
+        this.varService = varService;
+        this.properties = properties;
+        this.resultCache = cacheManager.getCache(CacheConfig.PORTFOLIO_VAR_CACHE);
+        this.computePool = Executors.newFixedThreadPool(properties.getPrecompute().getConcurrency(), 
+            Thread.ofPlatform().name("precompute-", 0).daemon().factory());
+    }
+    
+    /**
+     * Registers the portfolio for the user, replacing the user's registration
+     * at the same confidence level and method.
+     */
+    public RegisteredPortfolio register(PortfolioVarRequest request, String username) {
+        var cacheKey = request.cacheKey(username);
+        if (!registrations.containsKey(cacheKey) 
+                && registrations.size() >= properties.getPrecompute().getMaxRegistered()) {
+            throw new IllegalArgumentException(
+                "Cannot register more than " + properties.getPrecompute().getMaxRegistered() + " portfolios");
+        }
+        
+        var registration = new Registration(username, request, cacheKey, LocalDateTime.now());
+        registrations.put(cacheKey, registration);
+        lastComputed.remove(cacheKey);
+        log.info("Registered portfolio {} at {} for precomputation by user: {}", 
+            request.portfolioId(), request.confidenceLevel(), username);
+        
+        computePool.execute(() -> precomputeQuietly(registration));
+        return toView(registration);
+    }
+    
+    /**
+     * Removes the user's registrations of the portfolio, only the one at the
+     * given confidence level if there is one.
+     */
+    public void unregister(String portfolioId, Double confidenceLevel, String username) {
+        boolean removed = false;
+        for (var registration : registrations.values()) {
+            var request = registration.request();
+            if (registration.username().equals(username) && request.portfolioId().equals(portfolioId)
+                    && (confidenceLevel == null || request.confidenceLevel().equals(confidenceLevel))
+                    && registrations.remove(registration.cacheKey(), registration)) {
+                lastComputed.remove(registration.cacheKey());
+                removed = true;
+            }
+        }
+        if (!removed) {
+            throw new ResourceNotFoundException("Portfolio " + portfolioId + " is not registered");
+        }
+    }
+    
+    public List<RegisteredPortfolio> getRegisteredPortfolios(String username) {
+        return registrations.values().stream()
+            .filter(registration -> registration.username().equals(username))
+            .map(this::toView)
+            .sorted(Comparator.comparing(RegisteredPortfolio::portfolioId)
+                .thenComparing(RegisteredPortfolio::confidenceLevel)
+                .thenComparing(RegisteredPortfolio::method))
+            .toList();
+    }
+    
+    @Scheduled(cron = "${var.calculation.precompute.cron:0 0 * * * *}")
+    public void refreshRegisteredPortfolios() {
+        var settings = properties.getPrecompute();
+        if (!settings.isEnabled() || registrations.isEmpty() || !inWindow(LocalTime.now())) {
+            return;
+        }
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Previous precompute run still in progress, skipping");
+            return;
+        }
+        
+        long startTime = System.currentTimeMillis();
+        var tasks = registrations.values().stream()
+            .map(registration -> CompletableFuture.runAsync(
+                () -> precomputeQuietly(registration), computePool))
+            .toArray(CompletableFuture[]::new);
+        
+        CompletableFuture.allOf(tasks).whenComplete((ignored, error) -> {
+            running.set(false);
+            log.info("Precomputed {} registered portfolios in {} ms", 
+                tasks.length, System.currentTimeMillis() - startTime);
+        });
+    }
+    
+    @Override
+    public String cacheName() {
+        return CacheConfig.PORTFOLIO_VAR_CACHE;
+    }
+    
+    @Override
+    public Object reload(Object key) {
+        var registration = registrations.get(key);
+        return registration != null ? precompute(registration) : null;
+    }
+    
+    boolean inWindow(LocalTime now) {
+        var start = properties.getPrecompute().getWindowStart();
+        var end = properties.getPrecompute().getWindowEnd();
+        if (start == null || end == null) {
+            return true;
+        }
+        return start.isBefore(end)
+            ? !now.isBefore(start) && now.isBefore(end)
+            : !now.isBefore(start) || now.isBefore(end);
+    }
+    
+    private VarResponse precompute(Registration registration) {
+        var response = varService.evaluatePortfolio(registration.request());
+        resultCache.put(registration.cacheKey(), response);
+        lastComputed.put(registration.cacheKey(), LocalDateTime.now());
+        return response;
+    }
+    
+    private void precomputeQuietly(Registration registration) {
+        try {
+            precompute(registration);
+        } catch (Exception e) {
+            log.error("Precompute failed for portfolio: {}", registration.request().portfolioId(), e);
+        }
+    }
+    
+    private RegisteredPortfolio toView(Registration registration) {
+        var request = registration.request();
+        return new RegisteredPortfolio(
+            request.portfolioId(),
+            request.confidenceLevel(),
+            request.method().name(),
+            request.trades().size(),
+            registration.registeredAt(),
+            lastComputed.get(registration.cacheKey())
+        );
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        computePool.shutdownNow();
+    }
+}
@@ -0,0 +1,109 @@
+package com.var.calculation.service;
+
+import com.var.calculation.config.CacheConfig;
+import com.var.calculation.model.dto.Trade;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps the aggregated scenario P&L vector of recently calculated portfolios
+ * so what-if checks can apply trade deltas without re-aggregating the portfolio.
+ *
+ * Vectors are held per user and portfolio, together with a fingerprint of the
+ * trades they were aggregated from, so one user's vector is never served to
+ * another and a vector is only reused for the trades that produced it.
+ * Cached vectors are shared and must be treated as read-only.
+ */
+@Component
+public class PortfolioVectorCache {
+    
+    private final Cache cache;
+    
+    public PortfolioVectorCache(CacheManager cacheManager) {
+        this.cache = cacheManager.getCache(CacheConfig.PORTFOLIO_VECTOR_CACHE);
+    }
+    
+    /**
+     * Cache key: the user who calculated the portfolio and its identifier.
+     */
+    record Key(String username, String portfolioId) {}
+    
+    /**
+     * Cached vector with the fingerprint of the trades it was aggregated from.
+     *
+     * @param fingerprint Digest of the trades, see {@link #fingerprint(List)}
+     * @param portfolioPnL Aggregated scenario P&L
+     * @param aligned Whether any trade carried dates or an offset, so the vector is on a merged period axis
+     */
+    public record PortfolioVector(String fingerprint, double[] portfolioPnL, boolean aligned) {}
+    
+    public void put(String username, String portfolioId, List<Trade> trades, double[] portfolioPnL) {
+        cache.put(new Key(username, portfolioId), 
+            new PortfolioVector(fingerprint(trades), portfolioPnL, trades.stream().anyMatch(Trade::aligned)));
+    }
+    
+    /**
+     * The user's vector for the portfolio, if it was aggregated from exactly these trades.
+     */
+    public Optional<PortfolioVector> get(String username, String portfolioId, List<Trade> trades) {
+        return latest(username, portfolioId)
+            .filter(vector -> vector.fingerprint().equals(fingerprint(trades)));
+    }
+    
+    /**
+     * The user's most recently calculated vector for the portfolio, whatever its trades.
+     */
+    public Optional<PortfolioVector> latest(String username, String portfolioId) {
+        return Optional.ofNullable(cache.get(new Key(username, portfolioId), PortfolioVector.class));
+    }
+    
+    public void evict(String username, String portfolioId) {
+        cache.evict(new Key(username, portfolioId));
+    }
+    
+    /**
+     * SHA-256 over each trade's identifier, P&L points, dates and offset.
+     */
+    static String fingerprint(List<Trade> trades) {
+        var digest = sha256();
+        var buffer = ByteBuffer.allocate(Long.BYTES);
+        for (Trade trade : trades) {
+            var tradeId = trade.tradeId().getBytes(StandardCharsets.UTF_8);
+            update(digest, buffer.clear().putInt(tradeId.length));
+            digest.update(tradeId);
+            update(digest, buffer.clear().putInt(trade.historicalPnL().size()));
+            for (Double point : trade.historicalPnL()) {
+                update(digest, buffer.clear().putLong(Double.doubleToLongBits(point)));
+            }
+            update(digest, buffer.clear().putInt(trade.dates() != null ? trade.dates().size() : -1));
+            if (trade.dates() != null) {
+                for (LocalDate date : trade.dates()) {
+                    update(digest, buffer.clear().putLong(date.toEpochDay()));
+                }
+            }
+            update(digest, buffer.clear().putInt(trade.offset() != null ? trade.offset() : -1));
+        }
+        return Base64.getEncoder().encodeToString(digest.digest());
+    }
+    
+    private static void update(MessageDigest digest, ByteBuffer buffer) {
+        digest.update(buffer.flip());
+    }
+    
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.var.calculation.service;
+
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.var.calculation.config.VarCalculationProperties;
+import com.var.calculation.exception.ResourceNotFoundException;
+import com.var.calculation.model.dto.SketchMergeRequest;
+import com.var.calculation.model.dto.SketchSummary;
+import com.var.calculation.model.dto.SketchVarResponse;
+import com.var.calculation.strategy.QuantileSketch;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Named streaming quantile sketches for P&L series too long to send as lists.
+ *
+ * Points are streamed from the request body into a fixed-size staging sketch
+ * in small batches, so memory does not grow with the series length, and the
+ * staging sketch is merged into the named one only once the whole body has
+ * been read and validated. Sketches belong to the user who created them;
+ * other users can neither see nor change them.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class QuantileSketchService {
+    
+    private static final int BATCH_SIZE = 8192;
+    
+    private final VarCalculationProperties properties;
+    private final ObjectMapper objectMapper;
+    private final AuditService auditService;
+    private final Map<SketchKey, QuantileSketch> sketches = new ConcurrentHashMap<>();
+    
+    private record SketchKey(String username, String sketchId) {}
+    
+    /**
+     * Adds points from a JSON array of numbers.
+     */
+    public SketchSummary ingestJson(String sketchId, InputStream body, String username) {
+        var staged = newSketch();
+        try (var parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of P&L values");
+            }
+            
+            var batch = new double[BATCH_SIZE];
+            int size = 0;
+            for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+                if (token == null || !token.isNumeric()) {
+                    throw new IllegalArgumentException("Expected a JSON array of P&L values");
+                }
+                batch[size++] = parser.getDoubleValue();
+                if (size == BATCH_SIZE) {
+                    staged.addAll(batch, size);
+                    size = 0;
+                }
+            }
+            staged.addAll(batch, size);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid JSON P&L stream: " + e.getMessage(), e);
+        }
+        return commit(new SketchKey(username, sketchId), staged);
+    }
+    
+    /**
+     * Adds points from a stream of big-endian IEEE 754 doubles. A body whose
+     * length is not a multiple of 8 bytes is rejected as truncated.
+     */
+    public SketchSummary ingestBinary(String sketchId, InputStream body, String username) {
+        var staged = newSketch();
+        try (body) {
+            var bytes = new byte[BATCH_SIZE * Double.BYTES];
+            var batch = new double[BATCH_SIZE];
+            int read;
+            while ((read = body.readNBytes(bytes, 0, bytes.length)) > 0) {
+                if (read % Double.BYTES != 0) {
+                    throw new IllegalArgumentException("Binary P&L must be a whole number of 8-byte doubles");
+                }
+                int size = read / Double.BYTES;
+                ByteBuffer.wrap(bytes, 0, read).asDoubleBuffer().get(batch, 0, size);
+                staged.addAll(batch, size);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return commit(new SketchKey(username, sketchId), staged);
+    }
+    
+    public SketchSummary merge(SketchMergeRequest request, String username) {
+        var sources = request.sourceIds().stream()
+            .map(sourceId -> get(new SketchKey(username, sourceId)))
+            .toList();
+        
+        var target = getOrCreate(new SketchKey(username, request.targetId()));
+        for (var source : sources) {
+            if (source != target) {
+                target.merge(source);
+            }
+        }
+        return summary(request.targetId(), target);
+    }
+    
+    /**
+     * Merges a sketch exported by another node into the named sketch. At most
+     * {@code max-import-size} bytes are read from the body.
+     */
+    public SketchSummary importSketch(String sketchId, InputStream body, String username) {
+        long maxBytes = properties.getSketch().getMaxImportSize().toBytes();
+        byte[] bytes;
+        try (body) {
+            bytes = body.readNBytes((int) Math.min(Integer.MAX_VALUE - 8, maxBytes + 1));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (bytes.length > maxBytes) {
+            throw new IllegalArgumentException("Sketch exceeds the " + maxBytes + "-byte import limit");
+        }
+        
+        var imported = QuantileSketch.fromBytes(bytes, properties.getSketch().getCompression());
+        return commit(new SketchKey(username, sketchId), imported);
+    }
+    
+    public byte[] export(String sketchId, String username) {
+        return get(new SketchKey(username, sketchId)).toBytes();
+    }
+    
+    public SketchVarResponse calculateVaR(String sketchId, double confidenceLevel, String username) {
+        long startTime = System.currentTimeMillis();
+        
+        try {
+            var sketch = get(new SketchKey(username, sketchId));
+            var response = new SketchVarResponse(
+                sketchId,
+                sketch.var(confidenceLevel),
+                sketch.expectedShortfall(confidenceLevel),
+                confidenceLevel,
+                sketch.count(),
+                sketch.rankErrorBound(confidenceLevel),
+                "TDIGEST_SKETCH",
+                LocalDateTime.now()
+            );
+            
+            auditService.logRequest(username, "/api/v1/var/sketches/var",
+                System.currentTimeMillis() - startTime, true, null, query(sketchId, confidenceLevel), response);
+            
+            return response;
+        } catch (Exception e) {
+            auditService.logRequest(username, "/api/v1/var/sketches/var",
+                System.currentTimeMillis() - startTime, false, e.getMessage(), query(sketchId, confidenceLevel), null);
+            throw e;
+        }
+    }
+    
+    public List<SketchSummary> getSketches(String username) {
+        return sketches.entrySet().stream()
+            .filter(entry -> entry.getKey().username().equals(username))
+            .sorted(Comparator.comparing(entry -> entry.getKey().sketchId()))
+            .map(entry -> summary(entry.getKey().sketchId(), entry.getValue()))
+            .toList();
+    }
+    
+    public void delete(String sketchId, String username) {
+        if (sketches.remove(new SketchKey(username, sketchId)) == null) {
+            throw new ResourceNotFoundException("Sketch " + sketchId + " not found");
+        }
+    }
+    
+    private static Map<String, Object> query(String sketchId, double confidenceLevel) {
+        return Map.of("sketchId", sketchId, "confidenceLevel", confidenceLevel);
+    }
+    
+    private QuantileSketch newSketch() {
+        return new QuantileSketch(properties.getSketch().getCompression());
+    }
+    
+    private SketchSummary commit(SketchKey key, QuantileSketch staged) {
+        var sketch = getOrCreate(key);
+        sketch.merge(staged);
+        return summary(key.sketchId(), sketch);
+    }
+    
+    private QuantileSketch get(SketchKey key) {
+        var sketch = sketches.get(key);
+        if (sketch == null) {
+            throw new ResourceNotFoundException("Sketch " + key.sketchId() + " not found");
+        }
+        return sketch;
+    }
+    
+    private QuantileSketch getOrCreate(SketchKey key) {
+        var sketch = sketches.get(key);
+        if (sketch != null) {
+            return sketch;
+        }
+        if (sketches.size() >= properties.getSketch().getMaxSketches()) {
+            throw new IllegalArgumentException(
+                "Cannot hold more than " + properties.getSketch().getMaxSketches() + " sketches");
+        }
+        return sketches.computeIfAbsent(key, k -> newSketch());
+    }
+    
+    private SketchSummary summary(String sketchId, QuantileSketch sketch) {
+        return new SketchSummary(sketchId, sketch.count(), sketch.centroidCount(), sketch.byteSize());
+    }
+}
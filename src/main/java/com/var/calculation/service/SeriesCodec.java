@@ -0,0 +1,245 @@
+package com.var.calculation.service;
+
+import java.util.Arrays;
+
+/**
+ * Lossless compression of double series, using the smaller of two encodings
+ * per series.
+ *
+ * Values that are all decimals with a few places, such as P&L in cents, can
+ * be scaled to integers and stored as zigzag varint deltas: a decimal fraction
+ * fills the whole binary mantissa, so XORing those gains almost nothing.
+ * Other values, typically computed at full precision, use the Gorilla
+ * time-series encoding: each value is XORed with its predecessor, and since
+ * neighbouring values share sign, exponent and leading mantissa bits, only
+ * the meaningful bits of the XOR are written:
+ *
+ * <pre>
+ * first value      64 bits
+ * equal to prev    '0'
+ * same window      '10' + meaningful bits within the previous window
+ * new window       '11' + 5 bits leading zeros + 6 bits (length - 1) + meaningful bits
+ * </pre>
+ *
+ * Decoded values are bit-for-bit identical to the input, including NaN
+ * payloads and negative zero.
+ */
+final class SeriesCodec {
+    
+    private static final byte XOR = 0;
+    private static final byte DECIMAL = 1;
+    private static final int MAX_DECIMALS = 9;
+    private static final long MAX_EXACT = 1L << 53;
+    private static final double[] POWERS_OF_TEN = new double[MAX_DECIMALS + 1];
+    
+    static {
+        for (int i = 0; i <= MAX_DECIMALS; i++) {
+            POWERS_OF_TEN[i] = Math.pow(10, i);
+        }
+    }
+    
+    private SeriesCodec() {
+    }
+    
+    static byte[] encode(double[] values) {
+        var xor = encodeXor(values);
+        int decimals = decimals(values);
+        if (decimals < 0) {
+            return xor;
+        }
+        // Long runs of repeated values still favour XOR
+        var decimal = encodeDecimal(values, decimals);
+        return decimal.length < xor.length ? decimal : xor;
+    }
+    
+    static double[] decode(byte[] bytes, int count) {
+        var in = new BitReader(bytes);
+        return switch ((int) in.read(8)) {
+            case XOR -> decodeXor(in, count);
+            case DECIMAL -> decodeDecimal(in, count);
+            default -> throw new IllegalArgumentException("Unknown series encoding");
+        };
+    }
+    
+    /**
+     * Fewest decimal places that represent every value exactly, or -1.
+     */
+    private static int decimals(double[] values) {
+        for (int decimals = 0; decimals <= MAX_DECIMALS; decimals++) {
+            double scale = POWERS_OF_TEN[decimals];
+            boolean exact = true;
+            for (int i = 0; i < values.length && exact; i++) {
+                long scaled = (long) Math.rint(values[i] * scale);
+                exact = Math.abs(scaled) < MAX_EXACT
+                    && Double.doubleToRawLongBits(scaled / scale) == Double.doubleToRawLongBits(values[i]);
+            }
+            if (exact) {
+                return decimals;
+            }
+        }
+        return -1;
+    }
+    
+    private static byte[] encodeDecimal(double[] values, int decimals) {
+        var out = new BitWriter(values.length * 3 + 2);
+        out.write(DECIMAL, 8);
+        out.write(decimals, 8);
+        double scale = POWERS_OF_TEN[decimals];
+        long previous = 0;
+        for (double value : values) {
+            long scaled = (long) Math.rint(value * scale);
+            long delta = scaled - previous;
+            previous = scaled;
+            long zigzag = (delta << 1) ^ (delta >> 63);
+            while ((zigzag & ~0x7FL) != 0) {
+                out.write((zigzag & 0x7F) | 0x80, 8);
+                zigzag >>>= 7;
+            }
+            out.write(zigzag, 8);
+        }
+        return out.toByteArray();
+    }
+    
+    private static double[] decodeDecimal(BitReader in, int count) {
+        int decimals = (int) in.read(8);
+        if (decimals > MAX_DECIMALS) {
+            throw new IllegalArgumentException("Invalid series scale");
+        }
+        double scale = POWERS_OF_TEN[decimals];
+        var values = new double[count];
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            long zigzag = 0;
+            int shift = 0;
+            long b;
+            do {
+                b = in.read(8);
+                zigzag |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0 && shift < 64);
+            previous += (zigzag >>> 1) ^ -(zigzag & 1);
+            values[i] = previous / scale;
+        }
+        return values;
+    }
+    
+    private static byte[] encodeXor(double[] values) {
+        var out = new BitWriter(values.length * 2 + 9);
+        out.write(XOR, 8);
+        if (values.length == 0) {
+            return out.toByteArray();
+        }
+        
+        long previous = Double.doubleToRawLongBits(values[0]);
+        out.write(previous, 64);
+        int windowLeading = -1;
+        int windowTrailing = 0;
+        for (int i = 1; i < values.length; i++) {
+            long current = Double.doubleToRawLongBits(values[i]);
+            long xor = current ^ previous;
+            previous = current;
+            if (xor == 0) {
+                out.write(0, 1);
+                continue;
+            }
+            
+            int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            int trailing = Long.numberOfTrailingZeros(xor);
+            if (windowLeading >= 0 && leading >= windowLeading && trailing >= windowTrailing) {
+                out.write(0b10, 2);
+                out.write(xor >>> windowTrailing, 64 - windowLeading - windowTrailing);
+            } else {
+                int length = 64 - leading - trailing;
+                out.write(0b11, 2);
+                out.write(leading, 5);
+                out.write(length - 1, 6);
+                out.write(xor >>> trailing, length);
+                windowLeading = leading;
+                windowTrailing = trailing;
+            }
+        }
+        return out.toByteArray();
+    }
+    
+    private static double[] decodeXor(BitReader in, int count) {
+        var values = new double[count];
+        if (count == 0) {
+            return values;
+        }
+        
+        long previous = in.read(64);
+        values[0] = Double.longBitsToDouble(previous);
+        int windowLeading = 0;
+        int windowTrailing = 0;
+        for (int i = 1; i < count; i++) {
+            if (in.read(1) != 0) {
+                if (in.read(1) != 0) {
+                    windowLeading = (int) in.read(5);
+                    windowTrailing = 64 - windowLeading - ((int) in.read(6) + 1);
+                    if (windowTrailing < 0) {
+                        throw new IllegalArgumentException("Invalid series window");
+                    }
+                }
+                previous ^= in.read(64 - windowLeading - windowTrailing) << windowTrailing;
+            }
+            values[i] = Double.longBitsToDouble(previous);
+        }
+        return values;
+    }
+    
+    private static final class BitWriter {
+        
+        private byte[] bytes;
+        private long position;
+        
+        BitWriter(int capacity) {
+            this.bytes = new byte[Math.max(capacity, 8)];
+        }
+        
+        void write(long value, int bits) {
+            while (bits > 0) {
+                int index = (int) (position >>> 3);
+                if (index == bytes.length) {
+                    bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                }
+                int free = 8 - (int) (position & 7);
+                int take = Math.min(free, bits);
+                int chunk = (int) (value >>> (bits - take)) & ((1 << take) - 1);
+                bytes[index] |= (byte) (chunk << (free - take));
+                bits -= take;
+                position += take;
+            }
+        }
+        
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, (int) ((position + 7) >>> 3));
+        }
+    }
+    
+    private static final class BitReader {
+        
+        private final byte[] bytes;
+        private long position;
+        
+        BitReader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+        
+        long read(int bits) {
+            long value = 0;
+            while (bits > 0) {
+                int index = (int) (position >>> 3);
+                if (index >= bytes.length) {
+                    throw new IllegalArgumentException("Truncated series encoding");
+                }
+                int available = 8 - (int) (position & 7);
+                int take = Math.min(available, bits);
+                int chunk = ((bytes[index] & 0xFF) >>> (available - take)) & ((1 << take) - 1);
+                value = (value << take) | chunk;
+                bits -= take;
+                position += take;
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.var.calculation.service;
+
+import com.var.calculation.config.VarCalculationProperties;
+import com.var.calculation.strategy.HistoricalSimulationStrategy;
+import com.var.calculation.strategy.VarEngine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Runs a candidate VaR engine in shadow of the production historical
+ * simulation.
+ *
+ * A sample of live requests is handed, with the P&L and the VaR already
+ * served, to a single minimum-priority thread behind a bounded queue; when
+ * the queue is full the sample is dropped rather than waited for, so
+ * shadowing never adds latency to the request. The shadow thread times the
+ * production engine and the candidate back to back on the same input,
+ * alternating which runs first, and checks the candidate against the served
+ * VaR within the tolerance.
+ */
+@Slf4j
+@Service
+public class ShadowComparisonService {
+    
+    private static final int RECENT_MISMATCHES = 20;
+    
+    private final VarCalculationProperties.Shadow settings;
+    private final VarEngine baseline;
+    private final VarEngine candidate;
+    private final ThreadPoolExecutor executor;
+    
+    private final LongAdder sampled = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final Totals totals = new Totals();
+    private volatile ReplayReport lastReplay;
+    
+    public ShadowComparisonService(VarCalculationProperties properties, HistoricalSimulationStrategy baseline,
+                                   List<VarEngine> engines) {
+        this.settings = properties.getShadow();
+        this.baseline = baseline;
+        this.candidate = engines.stream()
+            .filter(engine -> engine.name().equals(settings.getCandidate()))
+            .findFirst()
+            .orElse(null);
+        if (settings.isEnabled() && candidate == null) {
+            throw new IllegalStateException("Unknown shadow candidate " + settings.getCandidate() + "; available: "
+                + engines.stream().map(VarEngine::name).collect(Collectors.joining(", ")));
+        }
+        
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, settings.getQueueCapacity())),
+            Thread.ofPlatform().name("var-shadow").daemon().priority(Thread.MIN_PRIORITY).factory(),
+            (task, pool) -> dropped.increment());
+    }
+    
+    /**
+     * Compares a sample of served results with the candidate. The P&L is
+     * only materialized on the shadow thread and must not change afterwards.
+     */
+    public void sample(String endpoint, String id, Supplier<double[]> pnl, double confidenceLevel, double served) {
+        if (!settings.isEnabled() || ThreadLocalRandom.current().nextDouble() >= settings.getSampleRate()) {
+            return;
+        }
+        sampled.increment();
+        executor.execute(() -> {
+            try {
+                totals.add(compare(endpoint, id, pnl.get(), confidenceLevel, served));
+            } catch (RuntimeException e) {
+                failed.increment();
+                log.warn("Shadow comparison of {} {} failed", endpoint, id, e);
+            }
+        });
+    }
+    
+    /**
+     * Runs both engines on the calling thread and compares the candidate with
+     * the served VaR.
+     */
+    public Comparison compare(String endpoint, String id, double[] pnl, double confidenceLevel, double served) {
+        var engine = requireCandidate();
+        double baselineVar;
+        double candidateVar;
+        long baselineNanos;
+        long candidateNanos;
+        // Alternate the order so neither engine always runs on a warm cache
+        if (ThreadLocalRandom.current().nextBoolean()) {
+            long start = System.nanoTime();
+            baselineVar = baseline.calculateVaR(pnl, confidenceLevel);
+            long middle = System.nanoTime();
+            candidateVar = engine.calculateVaR(pnl, confidenceLevel);
+            baselineNanos = middle - start;
+            candidateNanos = System.nanoTime() - middle;
+        } else {
+            long start = System.nanoTime();
+            candidateVar = engine.calculateVaR(pnl, confidenceLevel);
+            long middle = System.nanoTime();
+            baselineVar = baseline.calculateVaR(pnl, confidenceLevel);
+            candidateNanos = middle - start;
+            baselineNanos = System.nanoTime() - middle;
+        }
+        
+        double difference = Math.abs(candidateVar - served);
+        boolean match = difference <= settings.getTolerance() * Math.max(1, Math.abs(served));
+        return new Comparison(endpoint, id, confidenceLevel, pnl.length, served, baselineVar, candidateVar,
+            difference, match, baselineNanos, candidateNanos, LocalDateTime.now());
+    }
+    
+    void recordReplay(ReplayReport report) {
+        lastReplay = report;
+    }
+    
+    VarEngine requireCandidate() {
+        if (candidate == null) {
+            throw new IllegalStateException("No shadow candidate named " + settings.getCandidate());
+        }
+        return candidate;
+    }
+    
+    public ShadowStatus getStatus() {
+        synchronized (totals) {
+            return new ShadowStatus(
+                settings.isEnabled(),
+                baseline.name(),
+                settings.getCandidate(),
+                settings.getSampleRate(),
+                settings.getTolerance(),
+                sampled.sum(),
+                totals.compared,
+                totals.mismatches,
+                dropped.sum(),
+                failed.sum(),
+                totals.maxDifference,
+                totals.baselineNanos / 1e6,
+                totals.candidateNanos / 1e6,
+                speedup(totals.baselineNanos, totals.candidateNanos),
+                List.copyOf(totals.recentMismatches),
+                lastReplay);
+        }
+    }
+    
+    static double speedup(long baselineNanos, long candidateNanos) {
+        return candidateNanos > 0 ? (double) baselineNanos / candidateNanos : 0;
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    /**
+     * Running totals of comparisons, live or replayed.
+     */
+    static final class Totals {
+        
+        long compared;
+        long mismatches;
+        long baselineNanos;
+        long candidateNanos;
+        double maxDifference;
+        final Deque<Comparison> recentMismatches = new ArrayDeque<>();
+        
+        synchronized void add(Comparison comparison) {
+            compared++;
+            baselineNanos += comparison.baselineNanos();
+            candidateNanos += comparison.candidateNanos();
+            maxDifference = Math.max(maxDifference, comparison.difference());
+            if (!comparison.match()) {
+                mismatches++;
+                recentMismatches.addFirst(comparison);
+                if (recentMismatches.size() > RECENT_MISMATCHES) {
+                    recentMismatches.removeLast();
+                }
+            }
+        }
+    }
+    
+    /**
+     * One shadowed calculation.
+     *
+     * @param endpoint Endpoint the request was made to
+     * @param id Trade or portfolio ID
+     * @param confidenceLevel Confidence level
+     * @param points P&L points
+     * @param served VaR returned to the client or recorded in the audit trail
+     * @param baseline VaR recomputed by the production engine
+     * @param candidate VaR computed by the candidate engine
+     * @param difference Absolute difference between candidate and served VaR
+     * @param match Whether the difference is within tolerance
+     * @param baselineNanos Time taken by the production engine
+     * @param candidateNanos Time taken by the candidate engine
+     * @param comparedAt Time of the comparison
+     */
+    public record Comparison(
+        String endpoint,
+        String id,
+        double confidenceLevel,
+        int points,
+        double served,
+        double baseline,
+        double candidate,
+        double difference,
+        boolean match,
+        long baselineNanos,
+        long candidateNanos,
+        LocalDateTime comparedAt
+    ) {}
+    
+    /**
+     * Outcome of replaying captured audit payloads through both engines.
+     *
+     * @param records Audit records examined
+     * @param compared Records recomputed
+     * @param skipped Records that could not be replayed, e.g. another method
+     * @param mismatches Candidate results outside tolerance of the recorded VaR
+     * @param irreproducible Records whose VaR the production engine no longer reproduces exactly
+     * @param baselineMillis Total production engine time
+     * @param candidateMillis Total candidate engine time
+     * @param speedup Production time divided by candidate time
+     * @param mismatchDetails Most recent mismatches found, newest first
+     * @param completedAt Time the replay finished
+     */
+    public record ReplayReport(
+        int records,
+        int compared,
+        int skipped,
+        int mismatches,
+        int irreproducible,
+        double baselineMillis,
+        double candidateMillis,
+        double speedup,
+        List<Comparison> mismatchDetails,
+        LocalDateTime completedAt
+    ) {}
+    
+    /**
+     * @param enabled Whether live requests are sampled
+     * @param baseline Production engine
+     * @param candidate Candidate engine
+     * @param sampleRate Fraction of live requests shadowed
+     * @param tolerance Relative tolerance of a match
+     * @param sampled Live requests sampled since startup
+     * @param compared Samples compared
+     * @param mismatches Samples outside tolerance
+     * @param dropped Samples dropped because the shadow queue was full
+     * @param failed Samples whose comparison threw
+     * @param maxDifference Largest absolute difference seen
+     * @param baselineMillis Total production engine time over the samples
+     * @param candidateMillis Total candidate engine time over the samples
+     * @param speedup Production time divided by candidate time
+     * @param recentMismatches Most recent mismatches, newest first
+     * @param lastReplay Report of the last audit replay, if any
+     */
+    public record ShadowStatus(
+        boolean enabled,
+        String baseline,
+        String candidate,
+        double sampleRate,
+        double tolerance,
+        long sampled,
+        long compared,
+        long mismatches,
+        long dropped,
+        long failed,
+        double maxDifference,
+        double baselineMillis,
+        double candidateMillis,
+        double speedup,
+        List<Comparison> recentMismatches,
+        ReplayReport lastReplay
+    ) {}
+}
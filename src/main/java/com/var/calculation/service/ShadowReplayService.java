@@ -0,0 +1,125 @@
+package com.var.calculation.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.var.calculation.model.dto.PortfolioVarRequest;
+import com.var.calculation.model.dto.TradeVarRequest;
+import com.var.calculation.model.enums.AuditStatus;
+import com.var.calculation.model.enums.VarMethod;
+import com.var.calculation.repository.AuditRecordRepository;
+import com.var.calculation.service.ShadowComparisonService.ReplayReport;
+import com.var.calculation.strategy.PnLSeries;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Deterministic replay of captured audit payloads through the production and
+ * candidate VaR engines.
+ *
+ * The most recent successful trade and portfolio requests with captured
+ * payloads are decoded and recomputed. They are read a page at a time,
+ * going back by ID, so only one page of payloads is held at once. Each
+ * candidate result is compared with the VaR recorded in the response, and a
+ * record is counted as irreproducible when the production engine no longer
+ * returns exactly the recorded value, e.g. after a change to aggregation.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ShadowReplayService {
+    
+    static final int MAX_RECORDS = 1000;
+    static final int PAGE_SIZE = 50;
+    private static final String TRADE = "/api/v1/var/trade";
+    private static final String PORTFOLIO = "/api/v1/var/portfolio";
+    
+    private final AuditRecordRepository auditRepository;
+    private final PayloadCodec payloadCodec;
+    private final ObjectMapper objectMapper;
+    private final VarCalculationService varService;
+    private final ShadowComparisonService shadowService;
+    
+    private record Replayable(String id, double[] pnl, double confidenceLevel) {}
+    
+    public ReplayReport replay(int limit) {
+        if (limit < 1 || limit > MAX_RECORDS) {
+            throw new IllegalArgumentException("Replay limit must be between 1 and " + MAX_RECORDS);
+        }
+        shadowService.requireCandidate();
+        
+        var totals = new ShadowComparisonService.Totals();
+        int examined = 0;
+        int skipped = 0;
+        int irreproducible = 0;
+        long before = Long.MAX_VALUE;
+        while (examined < limit) {
+            var pageable = PageRequest.of(0, Math.min(PAGE_SIZE, limit - examined));
+            var page = auditRepository.findByEndpointInAndStatusAndRequestPayloadIsNotNullAndIdLessThanOrderByIdDesc(
+                List.of(TRADE, PORTFOLIO), AuditStatus.SUCCESS, before, pageable);
+            for (var record : page) {
+                try {
+                    var response = record.getResponsePayload() != null
+                        ? payloadCodec.decode(record.getResponsePayload())
+                        : null;
+                    var replayable = response != null && response.hasNonNull("var")
+                        ? replayable(record.getEndpoint(), record.getRequestPayload())
+                        : null;
+                    if (replayable == null) {
+                        skipped++;
+                        continue;
+                    }
+                    
+                    var comparison = shadowService.compare(record.getEndpoint(), replayable.id(), replayable.pnl(),
+                        replayable.confidenceLevel(), response.get("var").doubleValue());
+                    if (Double.compare(comparison.baseline(), comparison.served()) != 0) {
+                        irreproducible++;
+                    }
+                    totals.add(comparison);
+                } catch (JsonProcessingException | RuntimeException e) {
+                    log.debug("Skipping audit record {} in replay: {}", record.getId(), e.getMessage());
+                    skipped++;
+                }
+            }
+            
+            examined += page.size();
+            if (page.size() < PAGE_SIZE) {
+                break;
+            }
+            before = page.get(page.size() - 1).getId();
+        }
+        
+        var report = new ReplayReport(
+            examined,
+            (int) totals.compared,
+            skipped,
+            (int) totals.mismatches,
+            irreproducible,
+            totals.baselineNanos / 1e6,
+            totals.candidateNanos / 1e6,
+            ShadowComparisonService.speedup(totals.baselineNanos, totals.candidateNanos),
+            List.copyOf(totals.recentMismatches),
+            LocalDateTime.now());
+        shadowService.recordReplay(report);
+        log.info("Replayed {} audit records: {} compared, {} mismatches, speedup {}",
+            examined, report.compared(), report.mismatches(), report.speedup());
+        return report;
+    }
+    
+    private Replayable replayable(String endpoint, byte[] payload) throws JsonProcessingException {
+        var request = payloadCodec.decode(payload);
+        if (TRADE.equals(endpoint)) {
+            var trade = objectMapper.treeToValue(request, TradeVarRequest.class);
+            return trade.method() == VarMethod.HISTORICAL_SIMULATION
+                ? new Replayable(trade.tradeId(), PnLSeries.toArray(trade.historicalPnL()), trade.confidenceLevel())
+                : null;
+        }
+        var portfolio = objectMapper.treeToValue(request, PortfolioVarRequest.class);
+        return portfolio.method() == VarMethod.HISTORICAL_SIMULATION
+            ? new Replayable(portfolio.portfolioId(), varService.aggregate(portfolio.trades()), portfolio.confidenceLevel())
+            : null;
+    }
+}
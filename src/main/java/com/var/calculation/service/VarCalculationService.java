@@ -1,12 +1,28 @@
 package com.var.calculation.service;
 
+import com.var.calculation.config.VarCalculationProperties;
+import com.var.calculation.exception.ResourceNotFoundException;
 import com.var.calculation.model.dto.*;
+import com.var.calculation.model.enums.TradeAction;
+import com.var.calculation.model.enums.VarMethod;
+import com.var.calculation.strategy.BacktestStrategy;
+import com.var.calculation.strategy.CalculationScope;
+import com.var.calculation.strategy.CornishFisherStrategy;
+import com.var.calculation.strategy.CorrelationStrategy;
+import com.var.calculation.strategy.FactorPnLStrategy;
 import com.var.calculation.strategy.HistoricalSimulationStrategy;
+import com.var.calculation.strategy.PnLAlignmentStrategy;
+import com.var.calculation.strategy.PnLSeries;
+import com.var.calculation.strategy.StressedVarStrategy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import java.nio.FloatBuffer;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
@@ -14,66 +30,509 @@ import java.time.LocalDateTime;
 public class VarCalculationService {
     
     private final HistoricalSimulationStrategy strategy;
+    private final BacktestStrategy backtestStrategy;
+    private final StressedVarStrategy stressedStrategy;
+    private final FactorPnLStrategy factorStrategy;
+    private final CorrelationStrategy correlationStrategy;
+    private final CornishFisherStrategy cornishFisherStrategy;
+    private final PnLAlignmentStrategy alignmentStrategy;
+    private final FactorScenarioService factorScenarios;
     private final AuditService auditService;
+    private final ShadowComparisonService shadowService;
+    private final PortfolioVectorCache vectorCache;
+    private final WarmupService warmupService;
+    private final VarCalculationProperties properties;
     
-    @Cacheable(value = "tradeVarCache", key = "#request.tradeId() + '_' + #request.confidenceLevel()")
+    @Cacheable(value = "tradeVarCache", key = "#request.cacheKey()")
     public VarResponse calculateTradeVaR(TradeVarRequest request, String username) {
         log.debug("Calculating VaR for trade: {} by user: {}", request.tradeId(), username);
         
         long startTime = System.currentTimeMillis();
+        boolean recorded = !warmupService.isWarmupUser(username);
         
         try {
-            double var = strategy.calculateTradeVaR(request.historicalPnL(), request.confidenceLevel());
+            CalculationEvent.describe(request.tradeId(), request.method().name(), 1);
+            double var = switch (request.method()) {
+                case HISTORICAL_SIMULATION -> strategy.calculateTradeVaR(request.historicalPnL(), request.confidenceLevel());
+                case CORNISH_FISHER -> cornishFisherStrategy.calculateVaR(
+                    PnLSeries.toArray(request.historicalPnL()), request.confidenceLevel());
+            };
+            if (recorded && request.method() == VarMethod.HISTORICAL_SIMULATION) {
+                shadowService.sample("/api/v1/var/trade", request.tradeId(),
+                    () -> PnLSeries.toArray(request.historicalPnL()), request.confidenceLevel(), var);
+            }
             
-            auditService.logRequest(username, "/api/v1/var/trade", 
-                System.currentTimeMillis() - startTime, true, null);
-            
-            return new VarResponse(
+            var response = new VarResponse(
                 request.tradeId(),
                 var,
                 request.confidenceLevel(),
-                "HISTORICAL_SIMULATION",
+                request.method().name(),
                 1,
                 LocalDateTime.now()
             );
+            
+            if (recorded) {
+                auditService.logRequest(username, "/api/v1/var/trade", 
+                    System.currentTimeMillis() - startTime, true, null, request, response);
+            }
+            
+            return response;
         } catch (Exception e) {
-            auditService.logRequest(username, "/api/v1/var/trade", 
-                System.currentTimeMillis() - startTime, false, e.getMessage());
+            if (recorded) {
+                auditService.logRequest(username, "/api/v1/var/trade", 
+                    System.currentTimeMillis() - startTime, false, e.getMessage(), request, null);
+            }
             log.error("VaR calculation failed for trade: {}", request.tradeId(), e);
             throw e;
         }
     }
     
-    @Cacheable(value = "portfolioVarCache", key = "#request.portfolioId() + '_' + #request.confidenceLevel()")
+    @Cacheable(value = "portfolioVarCache", key = "#request.cacheKey(#username)")
     public VarResponse calculatePortfolioVaR(PortfolioVarRequest request, String username) {
         log.debug("Calculating portfolio VaR: {} with {} trades by user: {}", 
             request.portfolioId(), request.trades().size(), username);
         
         long startTime = System.currentTimeMillis();
+        boolean recorded = !warmupService.isWarmupUser(username);
         
         try {
-            var tradesPnL = request.trades().stream()
-                .map(Trade::historicalPnL)
-                .toList();
+            CalculationEvent.describe(request.portfolioId(), request.method().name(), request.trades().size());
+            var portfolioPnL = aggregate(request.trades());
+            vectorCache.put(username, request.portfolioId(), request.trades(), portfolioPnL);
+            var response = evaluate(request, portfolioPnL, recorded);
             
-            double var = strategy.calculatePortfolioVaR(tradesPnL, request.confidenceLevel());
+            if (recorded) {
+                auditService.logRequest(username, "/api/v1/var/portfolio", 
+                    System.currentTimeMillis() - startTime, true, null, request, response);
+            }
             
-            auditService.logRequest(username, "/api/v1/var/portfolio", 
-                System.currentTimeMillis() - startTime, true, null);
+            return response;
+        } catch (Exception e) {
+            if (recorded) {
+                auditService.logRequest(username, "/api/v1/var/portfolio", 
+                    System.currentTimeMillis() - startTime, false, e.getMessage(), request, null);
+            }
+            log.error("Portfolio VaR calculation failed: {}", request.portfolioId(), e);
+            throw e;
+        }
+    }
+    
+    /**
+     * Calculates portfolio VaR without caching or auditing, for callers that
+     * manage the result cache themselves such as scheduled precomputation.
+     */
+    public VarResponse evaluatePortfolio(PortfolioVarRequest request) {
+        return evaluate(request, aggregate(request.trades()), true);
+    }
+    
+    private VarResponse evaluate(PortfolioVarRequest request, double[] portfolioPnL, boolean shadowed) {
+        double var = switch (request.method()) {
+            case HISTORICAL_SIMULATION -> strategy.calculateVaR(portfolioPnL, request.confidenceLevel());
+            case CORNISH_FISHER -> cornishFisherStrategy.calculateVaR(portfolioPnL, request.confidenceLevel());
+        };
+        if (shadowed && request.method() == VarMethod.HISTORICAL_SIMULATION) {
+            shadowService.sample("/api/v1/var/portfolio", request.portfolioId(),
+                () -> portfolioPnL, request.confidenceLevel(), var);
+        }
+        
+        return new VarResponse(
+            request.portfolioId(),
+            var,
+            request.confidenceLevel(),
+            request.method().name(),
+            request.trades().size(),
+            LocalDateTime.now()
+        );
+    }
+    
+    public VarResponse calculateFactorVaR(FactorVarRequest request, String username) {
+        log.debug("Calculating factor VaR: {} with {} trades against scenario set {} by user: {}", 
+            request.portfolioId(), request.trades().size(), request.scenarioSetId(), username);
+        
+        long startTime = System.currentTimeMillis();
+        
+        try {
+            CalculationEvent.describe(request.portfolioId(), "FACTOR_HISTORICAL_SIMULATION", request.trades().size());
+            var scenarios = factorScenarios.get(request.scenarioSetId());
+            var sensitivities = factorScenarios.sensitivityMatrix(scenarios, request.trades());
             
-            return new VarResponse(
+            long aggregationStart = System.nanoTime();
+            var tradesPnL = factorStrategy.tradePnL(sensitivities, request.trades().size(), 
+                scenarios.returns(), scenarios.factors().size());
+            var portfolioPnL = strategy.aggregatePortfolioPnL(tradesPnL);
+            CalculationEvent.aggregated(System.nanoTime() - aggregationStart);
+            double var = strategy.calculateVaR(portfolioPnL, request.confidenceLevel());
+            shadowService.sample("/api/v1/var/factor", request.portfolioId(),
+                () -> portfolioPnL, request.confidenceLevel(), var);
+            
+            var response = new VarResponse(
                 request.portfolioId(),
                 var,
                 request.confidenceLevel(),
+                "FACTOR_HISTORICAL_SIMULATION",
+                request.trades().size(),
+                LocalDateTime.now()
+            );
+            
+            auditService.logRequest(username, "/api/v1/var/factor", 
+                System.currentTimeMillis() - startTime, true, null, request, response);
+            
+            return response;
+        } catch (Exception e) {
+            auditService.logRequest(username, "/api/v1/var/factor", 
+                System.currentTimeMillis() - startTime, false, e.getMessage(), request, null);
+            log.error("Factor VaR calculation failed: {}", request.portfolioId(), e);
+            throw e;
+        }
+    }
+    
+    public DiversificationResponse calculateDiversification(DiversificationRequest request, String username) {
+        log.debug("Calculating diversification report: {} with {} trades by user: {}", 
+            request.portfolioId(), request.trades().size(), username);
+        
+        long startTime = System.currentTimeMillis();
+        
+        try {
+            CalculationEvent.describe(request.portfolioId(), VarMethod.HISTORICAL_SIMULATION.name(), request.trades().size());
+            var trades = request.trades();
+            if (trades.stream().anyMatch(Trade::aligned)) {
+                throw new IllegalArgumentException("Diversification reports need trades with equal-length P&L, without dates or offsets");
+            }
+            var tradesPnL = new double[trades.size()][];
+            for (int t = 0; t < trades.size(); t++) {
+                tradesPnL[t] = PnLSeries.toArray(trades.get(t).historicalPnL());
+            }
+            
+            long aggregationStart = System.nanoTime();
+            var portfolioPnL = strategy.aggregatePortfolioPnL(tradesPnL);
+            CalculationEvent.aggregated(System.nanoTime() - aggregationStart);
+            double portfolioVar = strategy.calculateVaR(portfolioPnL, request.confidenceLevel());
+            
+            var standaloneVars = new ArrayList<TradeVar>(trades.size());
+            double sumOfStandaloneVars = 0;
+            for (int t = 0; t < trades.size(); t++) {
+                double var = strategy.calculateVaR(tradesPnL[t], request.confidenceLevel());
+                standaloneVars.add(new TradeVar(trades.get(t).tradeId(), var));
+                sumOfStandaloneVars += var;
+            }
+            
+            FloatBuffer correlationMatrix = null;
+            List<CorrelatedTradePair> topCorrelations = null;
+            if (request.topK() != null) {
+                topCorrelations = correlationStrategy.topPairs(tradesPnL, request.topK()).stream()
+                    .map(pair -> new CorrelatedTradePair(
+                        trades.get(pair.first()).tradeId(), trades.get(pair.second()).tradeId(), pair.correlation()))
+                    .toList();
+            } else {
+                correlationMatrix = FloatBuffer.wrap(correlationStrategy.correlationMatrix(tradesPnL));
+            }
+            
+            var response = new DiversificationResponse(
+                request.portfolioId(),
+                request.confidenceLevel(),
+                portfolioVar,
+                sumOfStandaloneVars,
+                sumOfStandaloneVars - portfolioVar,
+                standaloneVars,
+                correlationMatrix,
+                topCorrelations,
+                LocalDateTime.now()
+            );
+            
+            auditService.logRequest(username, "/api/v1/var/portfolio/diversification", 
+                System.currentTimeMillis() - startTime, true, null, request, response);
+            
+            return response;
+        } catch (Exception e) {
+            auditService.logRequest(username, "/api/v1/var/portfolio/diversification", 
+                System.currentTimeMillis() - startTime, false, e.getMessage(), request, null);
+            log.error("Diversification report failed: {}", request.portfolioId(), e);
+            throw e;
+        }
+    }
+    
+    public BacktestResponse backtest(BacktestRequest request, String username) {
+        int windowSize = request.windowSize() != null 
+            ? request.windowSize() 
+            : properties.getBacktestWindowSize();
+        log.debug("Backtesting VaR: {} over {} points with {}-day window by user: {}", 
+            request.id(), request.historicalPnL().size(), windowSize, username);
+        
+        long startTime = System.currentTimeMillis();
+        
+        try {
+            CalculationEvent.describe(request.id(), VarMethod.HISTORICAL_SIMULATION.name(), 1);
+            var historical = PnLSeries.toArray(request.historicalPnL());
+            var realized = request.realizedPnL() != null 
+                ? PnLSeries.toArray(request.realizedPnL()) 
+                : historical;
+            
+            var result = backtestStrategy.backtest(historical, realized, windowSize, request.confidenceLevel());
+            
+            int observations = result.varSeries().size();
+            var response = new BacktestResponse(
+                request.id(),
+                request.confidenceLevel(),
+                windowSize,
+                observations,
+                result.exceptionIndices().size(),
+                observations * (1 - request.confidenceLevel()),
+                result.varSeries(),
+                result.exceptionIndices(),
+                result.kupiec(),
+                result.christoffersen(),
+                result.conditionalCoverage(),
+                LocalDateTime.now()
+            );
+            
+            auditService.logRequest(username, "/api/v1/var/backtest", 
+                System.currentTimeMillis() - startTime, true, null, request, response);
+            
+            return response;
+        } catch (Exception e) {
+            auditService.logRequest(username, "/api/v1/var/backtest", 
+                System.currentTimeMillis() - startTime, false, e.getMessage(), request, null);
+            log.error("VaR backtest failed: {}", request.id(), e);
+            throw e;
+        }
+    }
+    
+    public StressedVarResponse calculateStressedVaR(StressedVarRequest request, String username) {
+        int windowSize = request.windowSize() != null 
+            ? request.windowSize() 
+            : properties.getStressedWindowSize();
+        boolean parallel = Boolean.TRUE.equals(request.parallel());
+        log.debug("Searching stressed {}-day window for {} portfolios (parallel={}) by user: {}", 
+            windowSize, request.portfolios().size(), parallel, username);
+        
+        long startTime = System.currentTimeMillis();
+        
+        try {
+            CalculationEvent.describe(null, VarMethod.HISTORICAL_SIMULATION.name(),
+                request.portfolios().stream().mapToInt(portfolio -> portfolio.trades().size()).sum());
+            var searches = request.portfolios().stream()
+                .<Supplier<StressedVarResult>>map(portfolio -> () -> findStressedWindow(portfolio, windowSize))
+                .toList();
+            
+            var results = parallel 
+                ? CalculationScope.fork(searches) 
+                : searches.stream().map(Supplier::get).toList();
+            
+            var response = new StressedVarResponse(windowSize, results, LocalDateTime.now());
+            
+            auditService.logRequest(username, "/api/v1/var/stressed", 
+                System.currentTimeMillis() - startTime, true, null, request, response);
+            
+            return response;
+        } catch (Exception e) {
+            auditService.logRequest(username, "/api/v1/var/stressed", 
+                System.currentTimeMillis() - startTime, false, e.getMessage(), request, null);
+            log.error("Stressed VaR search failed", e);
+            throw e;
+        }
+    }
+    
+    private StressedVarResult findStressedWindow(PortfolioVarRequest portfolio, int windowSize) {
+        var portfolioPnL = aggregate(portfolio.trades());
+        var window = stressedStrategy.findStressedWindow(portfolioPnL, windowSize, portfolio.confidenceLevel());
+        
+        return new StressedVarResult(
+            portfolio.portfolioId(),
+            window.var(),
+            portfolio.confidenceLevel(),
+            window.start(),
+            window.end(),
+            portfolio.trades().size()
+        );
+    }
+    
+    public HorizonVarResponse calculateHorizonVaR(HorizonVarRequest request, String username) {
+        log.debug("Calculating {}-horizon VaR: {} with {} trades by user: {}", 
+            request.horizons(), request.id(), request.trades().size(), username);
+        
+        long startTime = System.currentTimeMillis();
+        
+        try {
+            CalculationEvent.describe(request.id(), VarMethod.HISTORICAL_SIMULATION.name(), request.trades().size());
+            var dailyPnL = aggregate(request.trades());
+            var horizons = request.horizons().stream().mapToInt(Integer::intValue).toArray();
+            var vars = strategy.calculateHorizonVaR(dailyPnL, horizons, request.confidenceLevel());
+            
+            var results = new ArrayList<HorizonVar>(horizons.length);
+            for (int i = 0; i < horizons.length; i++) {
+                results.add(new HorizonVar(horizons[i], vars[i], dailyPnL.length - horizons[i] + 1));
+            }
+            
+            var response = new HorizonVarResponse(
+                request.id(),
+                request.confidenceLevel(),
                 "HISTORICAL_SIMULATION",
                 request.trades().size(),
+                results,
                 LocalDateTime.now()
             );
+            
+            auditService.logRequest(username, "/api/v1/var/horizon", 
+                System.currentTimeMillis() - startTime, true, null, request, response);
+            
+            return response;
         } catch (Exception e) {
-            auditService.logRequest(username, "/api/v1/var/portfolio", 
-                System.currentTimeMillis() - startTime, false, e.getMessage());
-            log.error("Portfolio VaR calculation failed: {}", request.portfolioId(), e);
+            auditService.logRequest(username, "/api/v1/var/horizon", 
+                System.currentTimeMillis() - startTime, false, e.getMessage(), request, null);
+            log.error("Horizon VaR calculation failed: {}", request.id(), e);
             throw e;
         }
     }
+    
+    public WhatIfResponse calculateWhatIfVaR(WhatIfRequest request, String username) {
+        log.debug("Calculating what-if VaR: {} with {} changes by user: {}", 
+            request.portfolioId(), request.changes().size(), username);
+        
+        long startTime = System.currentTimeMillis();
+        
+        try {
+            CalculationEvent.describe(request.portfolioId(), VarMethod.HISTORICAL_SIMULATION.name(),
+                request.changes().size());
+            var basePnL = basePortfolioPnL(request, username);
+            
+            var whatIfPnL = basePnL.clone();
+            for (TradeChange change : request.changes()) {
+                double quantity = change.quantity() != null ? change.quantity() : 1.0;
+                double scale = change.action() == TradeAction.REMOVE ? -quantity : quantity;
+                strategy.addScaled(whatIfPnL, change.historicalPnL(), scale);
+            }
+            
+            double baseVar = strategy.calculateVaR(basePnL, request.confidenceLevel());
+            double var = strategy.calculateVaR(whatIfPnL, request.confidenceLevel());
+            
+            var response = new WhatIfResponse(
+                request.portfolioId(),
+                baseVar,
+                var,
+                var - baseVar,
+                request.confidenceLevel(),
+                request.changes().size(),
+                LocalDateTime.now()
+            );
+            
+            auditService.logRequest(username, "/api/v1/var/portfolio/what-if", 
+                System.currentTimeMillis() - startTime, true, null, request, response);
+            
+            return response;
+        } catch (Exception e) {
+            auditService.logRequest(username, "/api/v1/var/portfolio/what-if", 
+                System.currentTimeMillis() - startTime, false, e.getMessage(), request, null);
+            log.error("What-if VaR calculation failed: {}", request.portfolioId(), e);
+            throw e;
+        }
+    }
+    
+    /**
+     * Base P&L of a what-if request: the supplied base trades, aggregated unless
+     * the user's cached vector came from the same trades, or else the user's
+     * latest cached vector for the portfolio.
+     * 
+     * Changes carry plain P&L series that are added point by point, so the
+     * base must not be on a merged date or offset axis.
+     */
+    private double[] basePortfolioPnL(WhatIfRequest request, String username) {
+        var baseTrades = request.baseTrades();
+        if (baseTrades == null || baseTrades.isEmpty()) {
+            var vector = vectorCache.latest(username, request.portfolioId())
+                .orElseThrow(() -> new ResourceNotFoundException("No cached P&L for portfolio " + request.portfolioId() 
+                    + "; calculate its VaR first or include baseTrades"));
+            if (vector.aligned()) {
+                throw unalignedChangesOnly(request);
+            }
+            return vector.portfolioPnL();
+        }
+        
+        if (baseTrades.stream().anyMatch(Trade::aligned)) {
+            throw unalignedChangesOnly(request);
+        }
+        return vectorCache.get(username, request.portfolioId(), baseTrades)
+            .map(PortfolioVectorCache.PortfolioVector::portfolioPnL)
+            .orElseGet(() -> {
+                var portfolioPnL = aggregate(baseTrades);
+                vectorCache.put(username, request.portfolioId(), baseTrades, portfolioPnL);
+                return portfolioPnL;
+            });
+    }
+    
+    private static IllegalArgumentException unalignedChangesOnly(WhatIfRequest request) {
+        return new IllegalArgumentException("What-if is not supported for portfolio " + request.portfolioId() 
+            + " because its trades carry dates or offsets");
+    }
+    
+    /**
+     * Aggregates trade P&L into a portfolio series. Portfolios larger than the
+     * configured fan-out size are summed in chunks of trades by parallel
+     * subtasks of the request's scope, then the partial sums are combined.
+     * Trades carrying dates or offsets are merged on their period axis instead.
+     */
+    public double[] aggregate(List<Trade> trades) {
+        long start = System.nanoTime();
+        try {
+            return aggregateTrades(trades);
+        } finally {
+            CalculationEvent.aggregated(System.nanoTime() - start);
+        }
+    }
+    
+    private double[] aggregateTrades(List<Trade> trades) {
+        if (trades.stream().anyMatch(Trade::aligned)) {
+            return alignmentStrategy.aggregate(alignedSeries(trades), properties.getAlignment().getMissingData());
+        }
+        
+        long chunks = Math.min(trades.size(), Trade.totalPoints(trades) / properties.getLanes().getFanOutPoints());
+        if (chunks < 2) {
+            return strategy.aggregatePortfolioPnL(historicalPnL(trades));
+        }
+        
+        int chunkSize = (int) Math.ceil((double) trades.size() / chunks);
+        var subtasks = new ArrayList<Supplier<double[]>>();
+        for (int from = 0; from < trades.size(); from += chunkSize) {
+            var chunk = trades.subList(from, Math.min(from + chunkSize, trades.size()));
+            subtasks.add(() -> strategy.aggregatePortfolioPnL(historicalPnL(chunk)));
+        }
+        
+        var partials = CalculationScope.fork(subtasks);
+        var portfolioPnL = partials.get(0);
+        for (int i = 1; i < partials.size(); i++) {
+            var partial = partials.get(i);
+            if (partial.length != portfolioPnL.length) {
+                throw new IllegalArgumentException("All trades must have the same number of data points");
+            }
+            for (int period = 0; period < partial.length; period++) {
+                portfolioPnL[period] += partial[period];
+            }
+        }
+        return portfolioPnL;
+    }
+    
+    private static List<PnLAlignmentStrategy.AlignedSeries> alignedSeries(List<Trade> trades) {
+        boolean dated = trades.stream().anyMatch(trade -> trade.dates() != null);
+        return trades.stream()
+            .map(trade -> {
+                if (trade.dates() != null && trade.offset() != null) {
+                    throw new IllegalArgumentException(
+                        "Trade " + trade.tradeId() + " cannot carry both dates and an offset");
+                }
+                if (dated != (trade.dates() != null)) {
+                    throw new IllegalArgumentException(
+                        "Either all trades or none must carry dates; trade " + trade.tradeId() + " differs");
+                }
+                return dated
+                    ? PnLAlignmentStrategy.dated(trade.tradeId(), trade.historicalPnL(), trade.dates())
+                    : PnLAlignmentStrategy.offset(trade.tradeId(), trade.historicalPnL(),
+                        trade.offset() != null ? trade.offset() : 0);
+            })
+            .toList();
+    }
+    
+    private static List<List<Double>> historicalPnL(List<Trade> trades) {
+        return trades.stream()
+            .map(Trade::historicalPnL)
+            .toList();
+    }
 }
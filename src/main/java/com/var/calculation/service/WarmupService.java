@@ -0,0 +1,312 @@
+package com.var.calculation.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.var.calculation.config.CacheConfig;
+import com.var.calculation.config.VarCalculationProperties;
+import com.var.calculation.model.dto.PortfolioVarRequest;
+import com.var.calculation.model.dto.Trade;
+import com.var.calculation.model.dto.TradeVarRequest;
+import com.var.calculation.model.enums.WarmupState;
+import com.var.calculation.security.JwtTokenProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * JIT warm-up run once at startup before the instance reports ready.
+ *
+ * Straight after startup the strategies, Jackson binding and the security
+ * filter chain still run in the interpreter, so the first requests are
+ * several times slower than in steady state. When enabled, synthetic trade
+ * and portfolio requests of each configured size are posted to this instance
+ * over loopback HTTP with a token for the configured user, so the code that
+ * gets compiled is the code real requests run. Every request has a fresh ID
+ * and random P&L, so none is answered from a cache, and each round posts
+ * every shape once so all of them are warm even if the budget runs out.
+ *
+ * The configured user is a dedicated account: its requests are not audited,
+ * fed to the latency analytics or shadow sampled, and once warm-up is over
+ * the results and portfolio vectors it left in the caches are evicted.
+ * The warmup health indicator keeps the readiness group out of service until
+ * warm-up completes, fails or runs out of budget.
+ */
+@Slf4j
+@Service
+public class WarmupService {
+    
+    private static final String API_PATH = "/api/v1/var/";
+    private static final Duration MAX_REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    
+    private final VarCalculationProperties.Warmup settings;
+    private final Environment environment;
+    private final ObjectMapper objectMapper;
+    private final UserDetailsService userDetailsService;
+    private final JwtTokenProvider tokenProvider;
+    private final CacheManager cacheManager;
+    private final PortfolioVectorCache vectorCache;
+    private final List<Shape> shapes = new ArrayList<>();
+    private final List<String> tradeKeys = new ArrayList<>();
+    private final List<String> portfolioKeys = new ArrayList<>();
+    private final List<String> portfolioIds = new ArrayList<>();
+    private final SplittableRandom random = new SplittableRandom();
+    
+    private volatile WarmupState state;
+    private volatile String error;
+    private volatile long requests;
+    private volatile long startedNanos;
+    private volatile long elapsedMillis;
+    
+    public WarmupService(VarCalculationProperties properties, Environment environment, ObjectMapper objectMapper,
+                         UserDetailsService userDetailsService, JwtTokenProvider tokenProvider,
+                         CacheManager cacheManager, PortfolioVectorCache vectorCache) {
+        this.settings = properties.getWarmup();
+        this.environment = environment;
+        this.objectMapper = objectMapper;
+        this.userDetailsService = userDetailsService;
+        this.tokenProvider = tokenProvider;
+        this.cacheManager = cacheManager;
+        this.vectorCache = vectorCache;
+        this.state = settings.isEnabled() ? WarmupState.PENDING : WarmupState.DISABLED;
+        
+        for (int points : settings.getDataPoints()) {
+            shapes.add(new Shape("trade", points, 1));
+            shapes.add(new Shape("portfolio", points, settings.getPortfolioTrades()));
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (state != WarmupState.PENDING) {
+            return;
+        }
+        state = WarmupState.RUNNING;
+        startedNanos = System.nanoTime();
+        Thread.ofPlatform().name("var-warmup").daemon().start(this::run);
+    }
+    
+    /**
+     * Whether the instance may report ready: warm-up is disabled or over.
+     */
+    public boolean isReady() {
+        var current = state;
+        return current != WarmupState.PENDING && current != WarmupState.RUNNING;
+    }
+    
+    /**
+     * Whether requests by this user are warm-up traffic, which is kept out of
+     * the audit trail, latency analytics and shadow comparisons.
+     */
+    public boolean isWarmupUser(String username) {
+        return settings.isEnabled() && settings.getUsername().equals(username);
+    }
+    
+    public WarmupStatus getStatus() {
+        var current = state;
+        long elapsed = current == WarmupState.RUNNING
+            ? (System.nanoTime() - startedNanos) / 1_000_000
+            : elapsedMillis;
+        return new WarmupStatus(current, isReady(), requests, elapsed, settings.getBudget().toMillis(), error,
+            shapes.stream().map(Shape::status).toList());
+    }
+    
+    void run() {
+        long deadline = startedNanos + settings.getBudget().toNanos();
+        var outcome = WarmupState.COMPLETED;
+        try (var client = HttpClient.newHttpClient()) {
+            var base = "http://localhost:" + environment.getRequiredProperty("local.server.port")
+                + environment.getProperty("server.servlet.context-path", "") + API_PATH;
+            var token = token();
+            
+            rounds:
+            for (int round = 0; round < settings.getIterations(); round++) {
+                for (var shape : shapes) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        outcome = WarmupState.BUDGET_EXHAUSTED;
+                        break rounds;
+                    }
+                    try {
+                        post(client, base, token, shape, round, Duration.ofNanos(remaining));
+                    } catch (HttpTimeoutException e) {
+                        if (System.nanoTime() - deadline < 0) {
+                            throw e;
+                        }
+                        // The budget ran out while the request was in flight
+                        outcome = WarmupState.BUDGET_EXHAUSTED;
+                        break rounds;
+                    }
+                    requests++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            outcome = WarmupState.FAILED;
+            error = "Interrupted";
+        } catch (Exception e) {
+            outcome = WarmupState.FAILED;
+            error = e.getMessage();
+            log.warn("Warm-up failed after {} requests; reporting ready anyway", requests, e);
+        } finally {
+            evictResults();
+            elapsedMillis = (System.nanoTime() - startedNanos) / 1_000_000;
+            state = outcome;
+        }
+        log.info("Warm-up {} after {} requests in {} ms", outcome, requests, elapsedMillis);
+    }
+    
+    private String token() {
+        var user = userDetailsService.loadUserByUsername(settings.getUsername());
+        return tokenProvider.generateToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+    
+    /**
+     * Evicts the results and portfolio vectors of every request posted, so
+     * synthetic entries do not displace real ones.
+     */
+    private void evictResults() {
+        var tradeResults = cacheManager.getCache(CacheConfig.TRADE_VAR_CACHE);
+        var portfolioResults = cacheManager.getCache(CacheConfig.PORTFOLIO_VAR_CACHE);
+        tradeKeys.forEach(tradeResults::evict);
+        portfolioKeys.forEach(portfolioResults::evict);
+        portfolioIds.forEach(portfolioId -> vectorCache.evict(settings.getUsername(), portfolioId));
+    }
+    
+    private void post(HttpClient client, String base, String token, Shape shape, int round, Duration remaining)
+            throws IOException, InterruptedException {
+        var id = "WARMUP-" + shape.endpoint + "-" + shape.points + "-" + round;
+        Object body;
+        if (shape.trades == 1) {
+            var trade = new TradeVarRequest(id, pnl(shape.points), settings.getConfidenceLevel());
+            tradeKeys.add(trade.cacheKey());
+            body = trade;
+        } else {
+            var portfolio = new PortfolioVarRequest(id, settings.getConfidenceLevel(), trades(id, shape));
+            portfolioKeys.add(portfolio.cacheKey(settings.getUsername()));
+            portfolioIds.add(id);
+            body = portfolio;
+        }
+        
+        var request = HttpRequest.newBuilder(URI.create(base + shape.endpoint))
+            .timeout(remaining.compareTo(MAX_REQUEST_TIMEOUT) < 0 ? remaining : MAX_REQUEST_TIMEOUT)
+            .header("Content-Type", "application/json")
+            .header("Authorization", "Bearer " + token)
+            .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+            .build();
+        
+        long start = System.nanoTime();
+        var response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(
+                "Warm-up request to " + API_PATH + shape.endpoint + " returned " + response.statusCode());
+        }
+        shape.record(System.nanoTime() - start);
+    }
+    
+    private List<Trade> trades(String portfolioId, Shape shape) {
+        var trades = new ArrayList<Trade>(shape.trades);
+        for (int t = 0; t < shape.trades; t++) {
+            trades.add(new Trade(portfolioId + "-" + t, pnl(shape.points)));
+        }
+        return trades;
+    }
+    
+    private List<Double> pnl(int points) {
+        var pnl = new ArrayList<Double>(points);
+        for (int i = 0; i < points; i++) {
+            // Whole cents, as P&L arrives from upstream systems
+            pnl.add(Math.round(random.nextDouble(-1, 1) * 1_000_000) / 100.0);
+        }
+        return pnl;
+    }
+    
+    /**
+     * Latency of one request shape, first requests against the latest.
+     */
+    private static final class Shape {
+        
+        private static final int TIMED = 10;
+        
+        private final String endpoint;
+        private final int points;
+        private final int trades;
+        private final long[] latest = new long[TIMED];
+        private long requests;
+        private long firstNanos;
+        
+        Shape(String endpoint, int points, int trades) {
+            this.endpoint = endpoint;
+            this.points = points;
+            this.trades = trades;
+        }
+        
+        synchronized void record(long nanos) {
+            if (requests < TIMED) {
+                firstNanos += nanos;
+            }
+            latest[(int) (requests % TIMED)] = nanos;
+            requests++;
+        }
+        
+        synchronized ShapeStatus status() {
+            int timed = (int) Math.min(requests, TIMED);
+            long latestNanos = 0;
+            for (int i = 0; i < timed; i++) {
+                latestNanos += latest[i];
+            }
+            return new ShapeStatus(endpoint, points, trades, requests,
+                timed == 0 ? 0 : firstNanos / 1e6 / timed,
+                timed == 0 ? 0 : latestNanos / 1e6 / timed);
+        }
+    }
+    
+    /**
+     * @param endpoint Calculation endpoint, trade or portfolio
+     * @param points P&L points per trade
+     * @param trades Trades per request
+     * @param requests Requests completed
+     * @param firstMillis Mean latency of the first ten requests
+     * @param latestMillis Mean latency of the latest ten requests
+     */
+    public record ShapeStatus(
+        String endpoint,
+        int points,
+        int trades,
+        long requests,
+        double firstMillis,
+        double latestMillis
+    ) {}
+    
+    /**
+     * @param state Warm-up progress
+     * @param ready Whether warm-up no longer holds back readiness
+     * @param requests Requests completed
+     * @param elapsedMillis Time spent so far
+     * @param budgetMillis Time allowed
+     * @param error Reason warm-up failed, if it did
+     * @param shapes Progress per request shape
+     */
+    public record WarmupStatus(
+        WarmupState state,
+        boolean ready,
+        long requests,
+        long elapsedMillis,
+        long budgetMillis,
+        String error,
+        List<ShapeStatus> shapes
+    ) {}
+}
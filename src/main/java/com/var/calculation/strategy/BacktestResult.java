@@ -0,0 +1,21 @@
+package com.var.calculation.strategy;
+
+import com.var.calculation.model.dto.CoverageTest;
+import java.util.List;
+
+/**
+ * Output of a rolling VaR backtest.
+ *
+ * @param varSeries VaR estimated for each tested day
+ * @param exceptionIndices Indices into the P&L series of the exception days
+ * @param kupiec Kupiec proportion-of-failures test
+ * @param christoffersen Christoffersen independence test
+ * @param conditionalCoverage Joint conditional coverage test
+ */
+public record BacktestResult(
+    List<Double> varSeries,
+    List<Integer> exceptionIndices,
+    CoverageTest kupiec,
+    CoverageTest christoffersen,
+    CoverageTest conditionalCoverage
+) {}
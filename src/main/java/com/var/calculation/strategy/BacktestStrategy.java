@@ -0,0 +1,156 @@
+package com.var.calculation.strategy;
+
+import com.var.calculation.config.VarCalculationProperties;
+import com.var.calculation.model.dto.CoverageTest;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+
+/**
+ * Rolling historical VaR backtest.
+ *
+ * Each day's VaR is estimated from the preceding window and compared with
+ * that day's realized P&L. The window slides through a
+ * {@link SlidingWindowQuantile}, so every step costs O(log n) instead of a sort.
+ */
+@Component
+public class BacktestStrategy {
+    
+    private static final int CHECKPOINT_MASK = 1023;
+    
+    private final VarCalculationProperties properties;
+    
+    public BacktestStrategy(VarCalculationProperties properties) {
+        this.properties = properties;
+    }
+    
+    public BacktestResult backtest(double[] historicalPnL, double[] realizedPnL, 
+                                   int windowSize, double confidenceLevel) {
+        validateInput(historicalPnL, realizedPnL, windowSize, confidenceLevel);
+        
+        int observations = historicalPnL.length - windowSize;
+        var varSeries = new ArrayList<Double>(observations);
+        var exceptionIndices = new ArrayList<Integer>();
+        
+        var window = new SlidingWindowQuantile(historicalPnL);
+        for (int i = 0; i < windowSize; i++) {
+            window.add(historicalPnL[i]);
+        }
+        
+        // Transition counts n[previous][current] for the independence test
+        long[][] transitions = new long[2][2];
+        int previous = -1;
+        
+        for (int day = windowSize; day < historicalPnL.length; day++) {
+            if ((day & CHECKPOINT_MASK) == 0) {
+                CalculationScope.checkpoint();
+            }
+            double var = window.var(confidenceLevel);
+            varSeries.add(var);
+            
+            int exception = realizedPnL[day] < -var ? 1 : 0;
+            if (exception == 1) {
+                exceptionIndices.add(day);
+            }
+            if (previous >= 0) {
+                transitions[previous][exception]++;
+            }
+            previous = exception;
+            
+            window.remove(historicalPnL[day - windowSize]);
+            window.add(historicalPnL[day]);
+        }
+        
+        double p = 1 - confidenceLevel;
+        var kupiec = kupiecTest(observations, exceptionIndices.size(), p);
+        var christoffersen = christoffersenTest(transitions);
+        double ccRatio = kupiec.likelihoodRatio() + christoffersen.likelihoodRatio();
+        var conditionalCoverage = new CoverageTest(ccRatio, 2, Math.exp(-ccRatio / 2));
+        
+        return new BacktestResult(varSeries, exceptionIndices, kupiec, christoffersen, conditionalCoverage);
+    }
+    
+    /**
+     * Kupiec proportion-of-failures test: are exceptions as frequent as the
+     * confidence level implies?
+     */
+    private CoverageTest kupiecTest(int observations, int exceptions, double p) {
+        double observed = (double) exceptions / observations;
+        double ratio = -2 * (xLogY(observations - exceptions, 1 - p) + xLogY(exceptions, p))
+                     + 2 * (xLogY(observations - exceptions, 1 - observed) + xLogY(exceptions, observed));
+        ratio = Math.max(ratio, 0);
+        return new CoverageTest(ratio, 1, chiSquareOneDegreeSurvival(ratio));
+    }
+    
+    /**
+     * Christoffersen independence test: does an exception make another
+     * exception on the next day more likely?
+     */
+    private CoverageTest christoffersenTest(long[][] n) {
+        long n00 = n[0][0], n01 = n[0][1], n10 = n[1][0], n11 = n[1][1];
+        long total = n00 + n01 + n10 + n11;
+        if (total == 0) {
+            return new CoverageTest(0.0, 1, 1.0);
+        }
+        
+        double pi0 = (n00 + n01) == 0 ? 0 : (double) n01 / (n00 + n01);
+        double pi1 = (n10 + n11) == 0 ? 0 : (double) n11 / (n10 + n11);
+        double pi = (double) (n01 + n11) / total;
+        
+        double ratio = -2 * (xLogY(n00 + n10, 1 - pi) + xLogY(n01 + n11, pi))
+                     + 2 * (xLogY(n00, 1 - pi0) + xLogY(n01, pi0) + xLogY(n10, 1 - pi1) + xLogY(n11, pi1));
+        ratio = Math.max(ratio, 0);
+        return new CoverageTest(ratio, 1, chiSquareOneDegreeSurvival(ratio));
+    }
+    
+    /**
+     * Computes x * ln(y) with the 0 * ln(0) = 0 convention of likelihood ratios.
+     */
+    private double xLogY(double x, double y) {
+        return x == 0 ? 0 : x * Math.log(y);
+    }
+    
+    /**
+     * P(X >= x) for a chi-square distribution with one degree of freedom.
+     */
+    private double chiSquareOneDegreeSurvival(double x) {
+        return erfc(Math.sqrt(x / 2));
+    }
+    
+    /**
+     * Complementary error function (Chebyshev approximation, relative error below 1.2e-7).
+     */
+    private double erfc(double x) {
+        double z = Math.abs(x);
+        double t = 1 / (1 + 0.5 * z);
+        double r = t * Math.exp(-z * z - 1.26551223 + t * (1.00002368 + t * (0.37409196 
+            + t * (0.09678418 + t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 
+            + t * (1.48851587 + t * (-0.82215223 + t * 0.17087277)))))))));
+        return x >= 0 ? r : 2 - r;
+    }
+    
+    private void validateInput(double[] historicalPnL, double[] realizedPnL, 
+                               int windowSize, double confidenceLevel) {
+        if (historicalPnL == null || historicalPnL.length == 0) {
+            throw new IllegalArgumentException("Historical data is required");
+        }
+        
+        int minPoints = properties.getMinDataPoints();
+        if (windowSize < minPoints) {
+            throw new IllegalArgumentException(
+                "Window size must be at least " + minPoints + " data points for reliable VaR calculation");
+        }
+        
+        if (historicalPnL.length <= windowSize) {
+            throw new IllegalArgumentException(
+                "Need more than " + windowSize + " data points to backtest a " + windowSize + "-day window");
+        }
+        
+        if (realizedPnL.length != historicalPnL.length) {
+            throw new IllegalArgumentException("Realized P&L must have the same number of data points as historical P&L");
+        }
+        
+        if (confidenceLevel <= 0 || confidenceLevel >= 1) {
+            throw new IllegalArgumentException("Confidence level must be between 0 and 1");
+        }
+    }
+}
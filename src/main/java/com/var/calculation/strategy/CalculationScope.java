@@ -0,0 +1,126 @@
+package com.var.calculation.strategy;
+
+import com.var.calculation.exception.DeadlineExceededException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Deadline and cancellation scope of one calculation request.
+ *
+ * The scope is bound to the thread running the request and to every subtask
+ * it forks, so long loops can call {@link #checkpoint()} and stop as soon as
+ * the deadline passes or the client goes away. Subtasks forked with
+ * {@link #fork(List)} run in the caller's fork-join pool and never outlive
+ * the call: it returns only once every subtask has finished, and the first
+ * failure cancels the remaining siblings.
+ */
+public final class CalculationScope {
+
+    private static final ThreadLocal<CalculationScope> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+    private final long timeoutMillis;
+    private volatile boolean cancelled;
+
+    public CalculationScope(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+        this.deadlineNanos = System.nanoTime() + timeoutMillis * 1_000_000;
+    }
+
+    /**
+     * Throws if the calculation running on this thread has been cancelled or
+     * has passed its deadline. A no-op outside a scope.
+     */
+    public static void checkpoint() {
+        var scope = CURRENT.get();
+        if (scope != null) {
+            scope.check();
+        }
+    }
+
+    /**
+     * Runs subtasks in parallel within the current scope and returns their
+     * results in order. Outside a fork-join pool they run sequentially on the
+     * calling thread.
+     */
+    public static <T> List<T> fork(List<? extends Supplier<T>> subtasks) {
+        var scope = CURRENT.get();
+        if (scope == null || subtasks.size() < 2 || !ForkJoinTask.inForkJoinPool()) {
+            var results = new ArrayList<T>(subtasks.size());
+            for (Supplier<T> subtask : subtasks) {
+                checkpoint();
+                results.add(subtask.get());
+            }
+            return results;
+        }
+        return scope.forkAll(subtasks);
+    }
+
+    /**
+     * Runs a calculation on the current thread bound to this scope.
+     */
+    public <T> T call(Supplier<T> calculation) {
+        var previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            check();
+            return calculation.get();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public long remainingMillis() {
+        return Math.max(0, (deadlineNanos - System.nanoTime()) / 1_000_000);
+    }
+
+    private void check() {
+        if (System.nanoTime() - deadlineNanos > 0) {
+            cancelled = true;
+            throw new DeadlineExceededException("Calculation exceeded its " + timeoutMillis + " ms deadline");
+        }
+        if (cancelled) {
+            throw new CancellationException("Calculation cancelled");
+        }
+    }
+
+    private <T> List<T> forkAll(List<? extends Supplier<T>> subtasks) {
+        var results = new ArrayList<T>(subtasks.size());
+        var failure = new AtomicReference<Throwable>();
+        var tasks = new ArrayList<ForkJoinTask<?>>(subtasks.size());
+
+        for (int i = 0; i < subtasks.size(); i++) {
+            results.add(null);
+            int index = i;
+            tasks.add(ForkJoinTask.adapt(() -> {
+                try {
+                    results.set(index, call(subtasks.get(index)));
+                } catch (Throwable t) {
+                    // Keep the first failure; siblings stop at their next checkpoint
+                    if (failure.compareAndSet(null, t)) {
+                        cancel();
+                    }
+                }
+            }));
+        }
+
+        ForkJoinTask.invokeAll(tasks);
+
+        var first = failure.get();
+        if (first instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        if (first instanceof Error error) {
+            throw error;
+        }
+        return results;
+    }
+}
@@ -0,0 +1,172 @@
+package com.var.calculation.strategy;
+
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Supplier;
+
+/**
+ * Pairwise Pearson correlation of trade P&L series.
+ *
+ * Each series is centred and scaled to unit length once, so a correlation is
+ * a single dot product. The upper triangle of the trade x trade matrix is
+ * tiled into blocks, and each block on or above the diagonal is a subtask of
+ * the current {@link CalculationScope}; blocks below the diagonal are never
+ * computed because the matrix is symmetric.
+ *
+ * The full matrix is returned packed as its strict upper triangle, row by row:
+ * the correlation of trades i &lt; j is at {@link #packedIndex(int, int, int)}.
+ * A trade with constant P&L has no defined correlation and is reported as 0.
+ */
+@Component
+public class CorrelationStrategy {
+
+    static final int BLOCK = 64;
+
+    private static final Comparator<CorrelatedPair> BY_STRENGTH =
+        Comparator.comparingDouble(pair -> Math.abs(pair.correlation()));
+
+    /**
+     * Position of the correlation of trades i &lt; j in a packed upper triangle of n trades.
+     */
+    public static int packedIndex(int i, int j, int n) {
+        return i * n - i * (i + 1) / 2 + (j - i - 1);
+    }
+
+    /**
+     * Computes the strict upper triangle of the correlation matrix.
+     */
+    public float[] correlationMatrix(double[][] tradesPnL) {
+        var normalized = normalize(tradesPnL);
+        int n = normalized.length;
+        var packed = new float[n * (n - 1) / 2];
+
+        CalculationScope.fork(blocks(n, (i0, j0) -> {
+            forEachPair(normalized, i0, j0, (i, j, correlation) ->
+                packed[packedIndex(i, j, n)] = (float) correlation);
+            return null;
+        }));
+
+        return packed;
+    }
+
+    /**
+     * Finds the k most strongly correlated pairs by absolute correlation
+     * without materializing the matrix, strongest first.
+     */
+    public List<CorrelatedPair> topPairs(double[][] tradesPnL, int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("Top-K must be at least 1");
+        }
+
+        var normalized = normalize(tradesPnL);
+        var blockTops = CalculationScope.fork(blocks(normalized.length, (i0, j0) -> {
+            var top = new PriorityQueue<CorrelatedPair>(BY_STRENGTH);
+            forEachPair(normalized, i0, j0, (i, j, correlation) -> offer(top, k, new CorrelatedPair(i, j, correlation)));
+            return top;
+        }));
+
+        var top = new PriorityQueue<CorrelatedPair>(BY_STRENGTH);
+        for (var blockTop : blockTops) {
+            blockTop.forEach(pair -> offer(top, k, pair));
+        }
+
+        var pairs = new ArrayList<>(top);
+        pairs.sort(BY_STRENGTH.reversed());
+        return pairs;
+    }
+
+    private static void offer(PriorityQueue<CorrelatedPair> top, int k, CorrelatedPair pair) {
+        if (top.size() < k) {
+            top.add(pair);
+        } else if (BY_STRENGTH.compare(pair, top.peek()) > 0) {
+            top.poll();
+            top.add(pair);
+        }
+    }
+
+    private double[][] normalize(double[][] tradesPnL) {
+        if (tradesPnL == null || tradesPnL.length < 2) {
+            throw new IllegalArgumentException("At least two trades are required for correlation");
+        }
+
+        int periods = tradesPnL[0].length;
+        var normalized = new double[tradesPnL.length][];
+        for (int t = 0; t < tradesPnL.length; t++) {
+            var pnl = tradesPnL[t];
+            if (pnl.length != periods) {
+                throw new IllegalArgumentException("All trades must have the same number of data points");
+            }
+
+            double mean = 0;
+            for (double value : pnl) {
+                mean += value;
+            }
+            mean /= periods;
+
+            var centred = new double[periods];
+            double sumOfSquares = 0;
+            for (int i = 0; i < periods; i++) {
+                centred[i] = pnl[i] - mean;
+                sumOfSquares += centred[i] * centred[i];
+            }
+
+            double norm = Math.sqrt(sumOfSquares);
+            if (norm > 0) {
+                for (int i = 0; i < periods; i++) {
+                    centred[i] /= norm;
+                }
+            }
+            normalized[t] = centred;
+        }
+        return normalized;
+    }
+
+    private <T> List<Supplier<T>> blocks(int n, BlockTask<T> task) {
+        var blocks = new ArrayList<Supplier<T>>();
+        for (int i0 = 0; i0 < n; i0 += BLOCK) {
+            for (int j0 = i0; j0 < n; j0 += BLOCK) {
+                int rowStart = i0;
+                int columnStart = j0;
+                blocks.add(() -> task.run(rowStart, columnStart));
+            }
+        }
+        return blocks;
+    }
+
+    private void forEachPair(double[][] normalized, int i0, int j0, PairSink sink) {
+        CalculationScope.checkpoint();
+        int n = normalized.length;
+        int iEnd = Math.min(i0 + BLOCK, n);
+        int jEnd = Math.min(j0 + BLOCK, n);
+
+        for (int i = i0; i < iEnd; i++) {
+            var row = normalized[i];
+            for (int j = Math.max(j0, i + 1); j < jEnd; j++) {
+                var column = normalized[j];
+                double dot = 0;
+                for (int p = 0; p < row.length; p++) {
+                    dot += row[p] * column[p];
+                }
+                sink.accept(i, j, Math.max(-1.0, Math.min(1.0, dot)));
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface BlockTask<T> {
+        T run(int rowStart, int columnStart);
+    }
+
+    @FunctionalInterface
+    private interface PairSink {
+        void accept(int i, int j, double correlation);
+    }
+
+    /**
+     * Correlation of two trades, identified by their positions in the input.
+     */
+    public record CorrelatedPair(int first, int second, double correlation) {}
+}
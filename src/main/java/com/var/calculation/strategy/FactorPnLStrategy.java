@@ -0,0 +1,99 @@
+package com.var.calculation.strategy;
+
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Factor-based historical simulation.
+ *
+ * Revalues linear trades under historical factor-return scenarios as the
+ * product of the trade x factor sensitivity matrix and the transposed
+ * scenario x factor return matrix. Both matrices are row-major with factors
+ * contiguous, so every inner loop is a dot product over contiguous memory.
+ * The product is tiled into trade x scenario blocks, each computed by its own
+ * subtask of the current {@link CalculationScope}, and each block iterates
+ * factors in chunks so the sensitivity and return rows it touches stay in
+ * cache.
+ */
+@Component
+public class FactorPnLStrategy {
+    
+    static final int TRADE_BLOCK = 64;
+    static final int SCENARIO_BLOCK = 256;
+    static final int FACTOR_BLOCK = 256;
+    
+    /**
+     * Builds the trade x scenario P&L matrix.
+     * 
+     * @param sensitivities Row-major trades x factors sensitivities
+     * @param trades Number of trades
+     * @param returns Row-major scenarios x factors returns
+     * @param factors Number of factors
+     * @return P&L of each trade under each scenario
+     */
+    public double[][] tradePnL(double[] sensitivities, int trades, double[] returns, int factors) {
+        if (trades < 1 || factors < 1) {
+            throw new IllegalArgumentException("At least one trade and one factor are required");
+        }
+        if (sensitivities.length != matrixSize(trades, factors) || returns.length % factors != 0) {
+            throw new IllegalArgumentException("Sensitivities and returns must both have " + factors + " factors");
+        }
+        
+        int scenarios = returns.length / factors;
+        var pnl = new double[trades][scenarios];
+        
+        var blocks = new ArrayList<Supplier<Void>>();
+        for (int t0 = 0; t0 < trades; t0 += TRADE_BLOCK) {
+            for (int s0 = 0; s0 < scenarios; s0 += SCENARIO_BLOCK) {
+                int tradeStart = t0;
+                int scenarioStart = s0;
+                blocks.add(() -> {
+                    multiplyBlock(sensitivities, returns, factors, pnl, tradeStart,
+                        Math.min(tradeStart + TRADE_BLOCK, trades), scenarioStart,
+                        Math.min(scenarioStart + SCENARIO_BLOCK, scenarios));
+                    return null;
+                });
+            }
+        }
+        CalculationScope.fork(blocks);
+        
+        return pnl;
+    }
+    
+    private void multiplyBlock(double[] sensitivities, double[] returns, int factors, double[][] pnl,
+                               int tradeStart, int tradeEnd, int scenarioStart, int scenarioEnd) {
+        for (int f0 = 0; f0 < factors; f0 += FACTOR_BLOCK) {
+            CalculationScope.checkpoint();
+            int f1 = Math.min(f0 + FACTOR_BLOCK, factors);
+            
+            for (int t = tradeStart; t < tradeEnd; t++) {
+                int tradeRow = t * factors;
+                var tradePnL = pnl[t];
+                
+                for (int s = scenarioStart; s < scenarioEnd; s++) {
+                    int scenarioRow = s * factors;
+                    double sum = 0;
+                    for (int f = f0; f < f1; f++) {
+                        sum += sensitivities[tradeRow + f] * returns[scenarioRow + f];
+                    }
+                    tradePnL[s] += sum;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Number of elements in a row-major rows x factors matrix.
+     * 
+     * @throws IllegalArgumentException If the matrix would not fit in an array
+     */
+    public static int matrixSize(int rows, int factors) {
+        try {
+            return Math.multiplyExact(rows, factors);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(
+                "A " + rows + " x " + factors + " matrix is too large; use fewer rows or factors");
+        }
+    }
+}
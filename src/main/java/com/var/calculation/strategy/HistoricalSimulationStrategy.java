@@ -3,10 +3,13 @@ package com.var.calculation.strategy;
 import com.var.calculation.config.VarCalculationProperties;
 import org.springframework.stereotype.Component;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.IntStream;
 
 @Component
-public class HistoricalSimulationStrategy {
+public class HistoricalSimulationStrategy implements VarEngine {
     
     private final VarCalculationProperties properties;
     
@@ -14,30 +17,182 @@ public class HistoricalSimulationStrategy {
         this.properties = properties;
     }
     
+    @Override
+    public String name() {
+        return "HISTORICAL_SIMULATION";
+    }
+    
     public double calculateTradeVaR(List<Double> historicalPnL, double confidenceLevel) {
-        validateInput(historicalPnL, confidenceLevel);
+        if (historicalPnL == null || historicalPnL.isEmpty()) {
+            throw new IllegalArgumentException("Historical data is required");
+        }
         
-        var sorted = historicalPnL.stream().sorted().toList();
-        double percentile = 1 - confidenceLevel;
-        double position = percentile * (sorted.size() - 1);
+        return calculateVaR(PnLSeries.toArray(historicalPnL), confidenceLevel);
+    }
+    
+    public double calculatePortfolioVaR(List<List<Double>> tradesPnL, double confidenceLevel) {
+        return calculateVaR(aggregatePortfolioPnL(tradesPnL), confidenceLevel);
+    }
+    
+    /**
+     * Calculates VaR of a primitive P&L series. The input array is not modified.
+     */
+    @Override
+    public double calculateVaR(double[] pnl, double confidenceLevel) {
+        validateInput(pnl == null ? 0 : pnl.length, confidenceLevel);
         
-        int lower = (int) Math.floor(position);
-        int upper = (int) Math.ceil(position);
+        var event = StrategyEvent.begin("VAR", 1, pnl.length);
+        var sorted = pnl.clone();
+        CalculationScope.checkpoint();
+        Arrays.sort(sorted);
+        CalculationScope.checkpoint();
+        double var = percentileLoss(sorted, sorted.length, confidenceLevel);
+        event.commit();
+        return var;
+    }
+    
+    /**
+     * Calculates VaR and expected shortfall at several confidence levels from
+     * a single sort. Expected shortfall is the average of the worst
+     * ceil((1 - confidence) x n) outcomes. The input array is not modified.
+     */
+    public List<TailRisk> calculateTailRisk(double[] pnl, double[] confidenceLevels) {
+        for (double confidenceLevel : confidenceLevels) {
+            validateInput(pnl == null ? 0 : pnl.length, confidenceLevel);
+        }
         
-        double var = (lower == upper) 
-            ? sorted.get(lower)
-            : interpolate(sorted.get(lower), sorted.get(upper), position - lower);
+        var event = StrategyEvent.begin("TAIL_RISK", 1, pnl.length);
+        var sorted = pnl.clone();
+        CalculationScope.checkpoint();
+        Arrays.sort(sorted);
+        CalculationScope.checkpoint();
+        var risks = new ArrayList<TailRisk>(confidenceLevels.length);
+        for (double confidenceLevel : confidenceLevels) {
+            // The epsilon keeps e.g. (1 - 0.99) x 100 from rounding up to 2
+            int tail = Math.max(1, (int) Math.ceil((1 - confidenceLevel) * sorted.length - 1e-9));
+            double sum = 0;
+            for (int i = 0; i < tail; i++) {
+                sum += sorted[i];
+            }
+            risks.add(new TailRisk(confidenceLevel, percentileLoss(sorted, sorted.length, confidenceLevel),
+                Math.abs(sum / tail)));
+        }
+        event.commit();
+        return risks;
+    }
+    
+    /**
+     * Euler allocation of portfolio VaR and expected shortfall to trades.
+     * 
+     * A trade's contribution is its loss in the scenarios that determine the
+     * portfolio figure: the two scenarios interpolated for the VaR quantile,
+     * and the tail scenarios averaged for expected shortfall, exactly as in
+     * {@link #calculateTailRisk}. Contributions therefore add up to the
+     * portfolio VaR and expected shortfall whenever those are losses.
+     * 
+     * @param tradesPnL Trade x period P&L, summing to portfolioPnL
+     * @param portfolioPnL Portfolio P&L per period
+     * @param confidenceLevels Confidence levels
+     * @return Per trade, the VaR and expected shortfall contributions at each level
+     */
+    public List<List<TailRisk>> calculateContributions(double[][] tradesPnL, double[] portfolioPnL,
+                                                       double[] confidenceLevels) {
+        int n = portfolioPnL.length;
+        var event = StrategyEvent.begin("CONTRIBUTIONS", tradesPnL.length, n);
+        var order = IntStream.range(0, n).boxed()
+            .sorted(Comparator.comparingDouble(i -> portfolioPnL[i]))
+            .mapToInt(Integer::intValue)
+            .toArray();
         
-        return Math.abs(var);
+        var contributions = new ArrayList<List<TailRisk>>(tradesPnL.length);
+        for (double[] trade : tradesPnL) {
+            if (trade.length != n) {
+                throw new IllegalArgumentException("All trades must have the same number of data points");
+            }
+            
+            var risks = new ArrayList<TailRisk>(confidenceLevels.length);
+            for (double confidenceLevel : confidenceLevels) {
+                double position = (1 - confidenceLevel) * (n - 1);
+                int lower = (int) Math.floor(position);
+                int upper = (int) Math.ceil(position);
+                double var = -interpolate(trade[order[lower]], trade[order[upper]], position - lower);
+                
+                int tail = Math.max(1, (int) Math.ceil((1 - confidenceLevel) * n - 1e-9));
+                double sum = 0;
+                for (int i = 0; i < tail; i++) {
+                    sum += trade[order[i]];
+                }
+                risks.add(new TailRisk(confidenceLevel, var, -sum / tail));
+            }
+            contributions.add(risks);
+        }
+        event.commit();
+        return contributions;
     }
     
-    public double calculatePortfolioVaR(List<List<Double>> tradesPnL, double confidenceLevel) {
+    /**
+     * Calculates VaR over overlapping multi-day horizons of a daily P&L series.
+     * 
+     * The h-day P&L starting on day i is prefix[i + h] - prefix[i], so every
+     * horizon is built in O(n) from a single prefix-sum array and one scratch
+     * buffer shared by all horizons. The input array is not modified.
+     * 
+     * @param dailyPnL Daily P&L series
+     * @param horizons Holding periods in days
+     * @param confidenceLevel Confidence level between 0 and 1
+     * @return VaR for each horizon, in the order requested
+     */
+    public double[] calculateHorizonVaR(double[] dailyPnL, int[] horizons, double confidenceLevel) {
+        if (horizons == null || horizons.length == 0) {
+            throw new IllegalArgumentException("At least one horizon is required");
+        }
+        
+        int days = dailyPnL.length;
+        int shortest = Integer.MAX_VALUE;
+        for (int horizon : horizons) {
+            if (horizon < 1) {
+                throw new IllegalArgumentException("Horizon must be at least 1 day");
+            }
+            int minPoints = properties.getMinDataPoints();
+            if (days - horizon + 1 < minPoints) {
+                throw new IllegalArgumentException(
+                    "Need at least " + (minPoints + horizon - 1) + " data points for a " + horizon + "-day horizon");
+            }
+            validateInput(days - horizon + 1, confidenceLevel);
+            shortest = Math.min(shortest, horizon);
+        }
+        
+        var event = StrategyEvent.begin("HORIZON_VAR", horizons.length, days);
+        var prefix = new double[days + 1];
+        for (int i = 0; i < days; i++) {
+            prefix[i + 1] = prefix[i] + dailyPnL[i];
+        }
+        
+        var scenarios = new double[days - shortest + 1];
+        var vars = new double[horizons.length];
+        for (int h = 0; h < horizons.length; h++) {
+            CalculationScope.checkpoint();
+            int count = days - horizons[h] + 1;
+            for (int i = 0; i < count; i++) {
+                scenarios[i] = prefix[i + horizons[h]] - prefix[i];
+            }
+            Arrays.sort(scenarios, 0, count);
+            vars[h] = percentileLoss(scenarios, count, confidenceLevel);
+        }
+        
+        event.commit();
+        return vars;
+    }
+    
+    /**
+     * Sums trade P&L period by period into a single portfolio P&L series.
+     */
+    public double[] aggregatePortfolioPnL(List<List<Double>> tradesPnL) {
         if (tradesPnL == null || tradesPnL.isEmpty()) {
             throw new IllegalArgumentException("Portfolio must contain at least one trade");
         }
         
         int periods = tradesPnL.get(0).size();
-        int numTrades = tradesPnL.size();
         
         // Check all trades have same number of periods
         for (List<Double> trade : tradesPnL) {
@@ -47,29 +202,84 @@ public class HistoricalSimulationStrategy {
         }
         
         // Aggregate P&L across trades for each period
-        var portfolioPnL = new ArrayList<Double>(periods);
-        for (int i = 0; i < periods; i++) {
-            double sum = 0;
-            for (int j = 0; j < numTrades; j++) {
-                sum += tradesPnL.get(j).get(i);
+        var event = StrategyEvent.begin("AGGREGATE", tradesPnL.size(), periods);
+        var portfolioPnL = new double[periods];
+        for (List<Double> trade : tradesPnL) {
+            CalculationScope.checkpoint();
+            for (int i = 0; i < periods; i++) {
+                portfolioPnL[i] += trade.get(i);
+            }
+        }
+        
+        event.commit();
+        return portfolioPnL;
+    }
+    
+    /**
+     * Sums a primitive trade x period P&L matrix into a portfolio P&L series.
+     */
+    public double[] aggregatePortfolioPnL(double[][] tradesPnL) {
+        if (tradesPnL == null || tradesPnL.length == 0) {
+            throw new IllegalArgumentException("Portfolio must contain at least one trade");
+        }
+        
+        int periods = tradesPnL[0].length;
+        var event = StrategyEvent.begin("AGGREGATE", tradesPnL.length, periods);
+        var portfolioPnL = new double[periods];
+        for (double[] trade : tradesPnL) {
+            if (trade.length != periods) {
+                throw new IllegalArgumentException("All trades must have the same number of data points");
+            }
+            CalculationScope.checkpoint();
+            for (int i = 0; i < periods; i++) {
+                portfolioPnL[i] += trade[i];
             }
-            portfolioPnL.add(sum);
         }
         
-        return calculateTradeVaR(portfolioPnL, confidenceLevel);
+        event.commit();
+        return portfolioPnL;
+    }
+    
+    /**
+     * Adds scale x trade P&L into a portfolio P&L series in place, e.g. a
+     * scale of -1 removes the trade from the portfolio.
+     */
+    public void addScaled(double[] portfolioPnL, List<Double> tradePnL, double scale) {
+        if (tradePnL.size() != portfolioPnL.length) {
+            throw new IllegalArgumentException(
+                "Trade must have the same number of data points as the portfolio (" + portfolioPnL.length + ")");
+        }
+        
+        for (int i = 0; i < portfolioPnL.length; i++) {
+            portfolioPnL[i] += scale * tradePnL.get(i);
+        }
+    }
+    
+    private double percentileLoss(double[] sorted, int length, double confidenceLevel) {
+        double percentile = 1 - confidenceLevel;
+        double position = percentile * (length - 1);
+        
+        int lower = (int) Math.floor(position);
+        int upper = (int) Math.ceil(position);
+        
+        double var = (lower == upper)
+            ? sorted[lower]
+            : interpolate(sorted[lower], sorted[upper], position - lower);
+        
+        return Math.abs(var);
     }
     
     private double interpolate(double lower, double upper, double fraction) {
         return lower + fraction * (upper - lower);
     }
     
-    private void validateInput(List<Double> data, double confidenceLevel) {
-        if (data == null || data.isEmpty()) {
+    private void validateInput(int points, double confidenceLevel) {
+        if (points <= 0) {
             throw new IllegalArgumentException("Historical data is required");
         }
         
         int minPoints = properties.getMinDataPoints();
-        if (data.size() < minPoints) {
+        if (points < minPoints) {
             throw new IllegalArgumentException(
                 "Need at least " + minPoints + " data points for reliable VaR calculation");
         }
@@ -78,4 +288,9 @@ public class HistoricalSimulationStrategy {
             throw new IllegalArgumentException("Confidence level must be between 0 and 1");
         }
     }
+    
+    /**
+     * VaR and expected shortfall of a P&L series at one confidence level.
+     */
+    public record TailRisk(double confidenceLevel, double var, double expectedShortfall) {}
 }
@@ -0,0 +1,106 @@
+package com.var.calculation.strategy;
+
+/**
+ * Running mean and central moments up to the fourth, accumulated in one
+ * numerically stable pass.
+ *
+ * Points are added with Terriberry's extension of Welford's update, which
+ * tracks sums of powers of deviations from the running mean rather than raw
+ * power sums, so large means do not cancel away the higher moments. Two
+ * accumulators over disjoint parts of a series merge exactly (Pebay's
+ * pairwise formulas), so chunks can be accumulated in parallel.
+ */
+public final class Moments {
+    
+    private long count;
+    private double mean;
+    private double m2;
+    private double m3;
+    private double m4;
+    
+    /**
+     * Accumulates values[from, to).
+     */
+    public static Moments of(double[] values, int from, int to) {
+        var moments = new Moments();
+        for (int i = from; i < to; i++) {
+            moments.add(values[i]);
+        }
+        return moments;
+    }
+    
+    public void add(double value) {
+        long n1 = count;
+        count++;
+        double delta = value - mean;
+        double deltaN = delta / count;
+        double deltaN2 = deltaN * deltaN;
+        double term = delta * deltaN * n1;
+        
+        mean += deltaN;
+        m4 += term * deltaN2 * ((double) count * count - 3 * count + 3) + 6 * deltaN2 * m2 - 4 * deltaN * m3;
+        m3 += term * deltaN * (count - 2) - 3 * deltaN * m2;
+        m2 += term;
+    }
+    
+    /**
+     * Folds another accumulator over a disjoint set of points into this one.
+     */
+    public void merge(Moments other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            count = other.count;
+            mean = other.mean;
+            m2 = other.m2;
+            m3 = other.m3;
+            m4 = other.m4;
+            return;
+        }
+        
+        double na = count;
+        double nb = other.count;
+        double n = na + nb;
+        double delta = other.mean - mean;
+        double delta2 = delta * delta;
+        
+        double combinedM4 = m4 + other.m4
+            + delta2 * delta2 * na * nb * (na * na - na * nb + nb * nb) / (n * n * n)
+            + 6 * delta2 * (na * na * other.m2 + nb * nb * m2) / (n * n)
+            + 4 * delta * (na * other.m3 - nb * m3) / n;
+        double combinedM3 = m3 + other.m3
+            + delta2 * delta * na * nb * (na - nb) / (n * n)
+            + 3 * delta * (na * other.m2 - nb * m2) / n;
+        double combinedM2 = m2 + other.m2 + delta2 * na * nb / n;
+        
+        count += other.count;
+        mean += delta * nb / n;
+        m2 = combinedM2;
+        m3 = combinedM3;
+        m4 = combinedM4;
+    }
+    
+    public long count() {
+        return count;
+    }
+    
+    public double mean() {
+        return mean;
+    }
+    
+    /**
+     * Sample standard deviation.
+     */
+    public double standardDeviation() {
+        return count < 2 ? 0 : Math.sqrt(m2 / (count - 1));
+    }
+    
+    public double skewness() {
+        return m2 == 0 ? 0 : Math.sqrt(count) * m3 / Math.pow(m2, 1.5);
+    }
+    
+    public double excessKurtosis() {
+        return m2 == 0 ? 0 : count * m4 / (m2 * m2) - 3;
+    }
+}
@@ -0,0 +1,198 @@
+package com.var.calculation.strategy;
+
+import com.var.calculation.model.enums.MissingDataPolicy;
+import org.springframework.stereotype.Component;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Sums trade P&L series that start on different dates or skip different
+ * holidays into one portfolio series.
+ *
+ * Each series is read in place through a cursor, and the cursors are merged
+ * k ways on a binary min-heap keyed by their current period, so aggregation
+ * takes O(N log k) for N points across k trades and never pads or copies a
+ * trade's series. A period on which only some trades have P&L is handled by
+ * the {@link MissingDataPolicy}.
+ */
+@Component
+public class PnLAlignmentStrategy {
+    
+    private static final int CHECKPOINT_MASK = 1023;
+    
+    /**
+     * A trade's P&L placed on an ordered period axis such as epoch days.
+     */
+    public interface AlignedSeries {
+        
+        String id();
+        
+        int size();
+        
+        long period(int index);
+        
+        double value(int index);
+        
+        default String describe(long period) {
+            return "period " + period;
+        }
+    }
+    
+    /**
+     * A series with one date per point, aligned on epoch days.
+     */
+    public static AlignedSeries dated(String id, List<Double> pnl, List<LocalDate> dates) {
+        if (dates.size() != pnl.size()) {
+            throw new IllegalArgumentException("Trade " + id + " must have one date per P&L point");
+        }
+        if (dates.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Trade " + id + " has a missing date");
+        }
+        return new DatedSeries(id, pnl, dates);
+    }
+    
+    /**
+     * A series whose first point falls on the given period of a common axis.
+     */
+    public static AlignedSeries offset(String id, List<Double> pnl, int offset) {
+        return new OffsetSeries(id, pnl, offset);
+    }
+    
+    public double[] aggregate(List<? extends AlignedSeries> series, MissingDataPolicy policy) {
+        if (series == null || series.isEmpty()) {
+            throw new IllegalArgumentException("Portfolio must contain at least one trade");
+        }
+        
+        int k = series.size();
+        var heap = new int[k];
+        var cursor = new int[k];
+        var current = new long[k];
+        int heapSize = 0;
+        long total = 0;
+        int longest = 0;
+        for (int s = 0; s < k; s++) {
+            var trade = series.get(s);
+            if (trade.size() == 0) {
+                throw new IllegalArgumentException("Trade " + trade.id() + " has no P&L");
+            }
+            current[s] = trade.period(0);
+            heap[heapSize++] = s;
+            total += trade.size();
+            longest = Math.max(longest, trade.size());
+        }
+        for (int i = heapSize / 2 - 1; i >= 0; i--) {
+            siftDown(heap, heapSize, current, i);
+        }
+        
+        // The union of periods is at least the longest series and at most all points
+        var portfolioPnL = new double[longest];
+        int periods = 0;
+        long steps = 0;
+        while (heapSize > 0) {
+            if ((steps++ & CHECKPOINT_MASK) == 0) {
+                CalculationScope.checkpoint();
+            }
+            
+            long period = current[heap[0]];
+            double sum = 0;
+            int present = 0;
+            while (heapSize > 0 && current[heap[0]] == period) {
+                int s = heap[0];
+                var trade = series.get(s);
+                sum += trade.value(cursor[s]);
+                present++;
+                
+                if (++cursor[s] < trade.size()) {
+                    long next = trade.period(cursor[s]);
+                    if (next <= period) {
+                        throw new IllegalArgumentException(
+                            "P&L dates of trade " + trade.id() + " must be strictly increasing");
+                    }
+                    current[s] = next;
+                } else {
+                    heap[0] = heap[--heapSize];
+                }
+                siftDown(heap, heapSize, current, 0);
+            }
+            
+            if (present < k) {
+                if (policy == MissingDataPolicy.REJECT) {
+                    throw new IllegalArgumentException(
+                        (k - present) + " of " + k + " trades have no P&L on " + series.get(0).describe(period));
+                }
+                if (policy == MissingDataPolicy.INTERSECT) {
+                    continue;
+                }
+            }
+            
+            if (periods == portfolioPnL.length) {
+                portfolioPnL = Arrays.copyOf(portfolioPnL, (int) Math.min(total, 2L * periods + 1));
+            }
+            portfolioPnL[periods++] = sum;
+        }
+        
+        return Arrays.copyOf(portfolioPnL, periods);
+    }
+    
+    private static void siftDown(int[] heap, int size, long[] current, int index) {
+        int item = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && current[heap[child + 1]] < current[heap[child]]) {
+                child++;
+            }
+            if (current[heap[child]] >= current[item]) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = item;
+    }
+    
+    private record DatedSeries(String id, List<Double> pnl, List<LocalDate> dates) implements AlignedSeries {
+        
+        @Override
+        public int size() {
+            return pnl.size();
+        }
+        
+        @Override
+        public long period(int index) {
+            return dates.get(index).toEpochDay();
+        }
+        
+        @Override
+        public double value(int index) {
+            return pnl.get(index);
+        }
+        
+        @Override
+        public String describe(long period) {
+            return LocalDate.ofEpochDay(period).toString();
+        }
+    }
+    
+    private record OffsetSeries(String id, List<Double> pnl, int offset) implements AlignedSeries {
+        
+        @Override
+        public int size() {
+            return pnl.size();
+        }
+        
+        @Override
+        public long period(int index) {
+            return (long) offset + index;
+        }
+        
+        @Override
+        public double value(int index) {
+            return pnl.get(index);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.var.calculation.strategy;
+
+import java.util.List;
+
+/**
+ * Helpers for working with P&L series as primitive arrays.
+ */
+public final class PnLSeries {
+
+    private PnLSeries() {
+    }
+
+    public static double[] toArray(List<Double> pnl) {
+        var values = new double[pnl.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = pnl.get(i);
+        }
+        return values;
+    }
+}
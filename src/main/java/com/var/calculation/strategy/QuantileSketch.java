@@ -0,0 +1,173 @@
+package com.var.calculation.strategy;
+
+import com.tdunning.math.stats.Centroid;
+import com.tdunning.math.stats.MergingDigest;
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed-memory, mergeable approximation of a P&L distribution backed by a
+ * merging t-digest.
+ *
+ * Memory is bounded by the compression: a digest keeps at most about
+ * 2 x compression centroids however many points are added. Centroids are
+ * smallest in the tails, so low quantiles such as the 1% loss quantile are
+ * much more accurate than the median. The rank error of a quantile is at
+ * most half the weight of the centroid containing it; {@link #rankErrorBound}
+ * reports that bound for the current digest so callers can see the actual
+ * accuracy of each answer rather than a worst case.
+ *
+ * Merging combines samples: the merged sketch describes the union of the
+ * points, e.g. one series ingested in parts on different nodes, not the sum
+ * of two trades' P&L. Instances are thread-safe.
+ */
+public class QuantileSketch {
+    
+    private static final int VERBOSE_ENCODING = 1;
+    private static final int SMALL_ENCODING = 2;
+    
+    /**
+     * Encoding tag, then min and max as doubles, then the compression.
+     */
+    private static final int COMPRESSION_OFFSET = 4 + 2 * Double.BYTES;
+    private static final int HEADER_BYTES = COMPRESSION_OFFSET + Double.BYTES;
+    
+    private final MergingDigest digest;
+    
+    public QuantileSketch(double compression) {
+        this(new MergingDigest(compression));
+    }
+    
+    private QuantileSketch(MergingDigest digest) {
+        this.digest = digest;
+    }
+    
+    public synchronized void add(double value) {
+        if (!Double.isFinite(value)) {
+            throw new IllegalArgumentException("P&L values must be finite");
+        }
+        digest.add(value);
+    }
+    
+    public synchronized void addAll(double[] values, int length) {
+        for (int i = 0; i < length; i++) {
+            add(values[i]);
+        }
+    }
+    
+    public void merge(QuantileSketch other) {
+        var copy = other.copy();
+        synchronized (this) {
+            digest.add(copy);
+        }
+    }
+    
+    public synchronized long count() {
+        return digest.size();
+    }
+    
+    public synchronized int centroidCount() {
+        digest.compress();
+        return digest.centroidCount();
+    }
+    
+    public synchronized int byteSize() {
+        digest.compress();
+        return digest.byteSize();
+    }
+    
+    public synchronized double var(double confidenceLevel) {
+        validate(confidenceLevel);
+        return Math.abs(digest.quantile(1 - confidenceLevel));
+    }
+    
+    /**
+     * Expected shortfall: the average loss beyond VaR, integrated over the
+     * centroids in the tail with the straddling centroid counted pro rata.
+     */
+    public synchronized double expectedShortfall(double confidenceLevel) {
+        validate(confidenceLevel);
+        double tailWeight = (1 - confidenceLevel) * digest.size();
+        if (tailWeight < 1) {
+            return Math.abs(digest.getMin());
+        }
+        
+        double weight = 0;
+        double sum = 0;
+        for (Centroid centroid : digest.centroids()) {
+            double take = Math.min(centroid.count(), tailWeight - weight);
+            sum += take * centroid.mean();
+            weight += take;
+            if (weight >= tailWeight) {
+                break;
+            }
+        }
+        return Math.abs(sum / weight);
+    }
+    
+    /**
+     * Upper bound on the rank error of the VaR quantile as a fraction of all
+     * points: half the weight of the centroid containing that rank.
+     */
+    public synchronized double rankErrorBound(double confidenceLevel) {
+        validate(confidenceLevel);
+        double rank = (1 - confidenceLevel) * digest.size();
+        double weight = 0;
+        for (Centroid centroid : digest.centroids()) {
+            weight += centroid.count();
+            if (weight >= rank) {
+                return centroid.count() / 2.0 / digest.size();
+            }
+        }
+        return 0;
+    }
+    
+    /**
+     * Serializes the sketch in the t-digest verbose binary encoding.
+     */
+    public synchronized byte[] toBytes() {
+        digest.compress();
+        var buffer = ByteBuffer.allocate(digest.byteSize());
+        digest.asBytes(buffer);
+        return buffer.array();
+    }
+    
+    /**
+     * Deserializes a sketch in either t-digest encoding. The digest's buffers
+     * are sized from the compression in its header, so sketches compressed
+     * more finely than maxCompression are rejected before they are decoded.
+     */
+    public static QuantileSketch fromBytes(byte[] bytes, double maxCompression) {
+        if (bytes.length < HEADER_BYTES) {
+            throw new IllegalArgumentException("Invalid sketch encoding");
+        }
+        
+        var header = ByteBuffer.wrap(bytes);
+        double compression = switch (header.getInt(0)) {
+            case VERBOSE_ENCODING -> header.getDouble(COMPRESSION_OFFSET);
+            case SMALL_ENCODING -> header.getFloat(COMPRESSION_OFFSET);
+            default -> throw new IllegalArgumentException("Invalid sketch encoding");
+        };
+        if (!(compression > 0 && compression <= maxCompression)) {
+            throw new IllegalArgumentException("Sketch compression must be positive and at most " + maxCompression);
+        }
+        
+        try {
+            return new QuantileSketch(MergingDigest.fromBytes(ByteBuffer.wrap(bytes)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid sketch encoding", e);
+        }
+    }
+    
+    private synchronized MergingDigest copy() {
+        return MergingDigest.fromBytes(ByteBuffer.wrap(toBytes()));
+    }
+    
+    private void validate(double confidenceLevel) {
+        if (digest.size() == 0) {
+            throw new IllegalArgumentException("Sketch is empty");
+        }
+        if (confidenceLevel <= 0 || confidenceLevel >= 1) {
+            throw new IllegalArgumentException("Confidence level must be between 0 and 1");
+        }
+    }
+}
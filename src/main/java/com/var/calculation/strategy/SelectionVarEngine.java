@@ -0,0 +1,113 @@
+package com.var.calculation.strategy;
+
+import org.springframework.stereotype.Component;
+import java.util.Arrays;
+
+/**
+ * Historical-simulation VaR by selection instead of sorting.
+ *
+ * VaR only needs the two order statistics around the (1 - confidence)
+ * quantile, so the lower one is found with quickselect in expected O(n) and
+ * the upper one is the minimum of the partition above it. The interpolation
+ * is the same as {@link HistoricalSimulationStrategy}'s, so results are
+ * identical. Pivots are medians of three, and a selection that makes too
+ * little progress falls back to sorting the remaining range, which bounds
+ * the worst case at O(n log n).
+ */
+@Component
+public class SelectionVarEngine implements VarEngine {
+    
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+    
+    @Override
+    public String name() {
+        return "QUICKSELECT";
+    }
+    
+    @Override
+    public double calculateVaR(double[] pnl, double confidenceLevel) {
+        if (pnl == null || pnl.length == 0) {
+            throw new IllegalArgumentException("Historical data is required");
+        }
+        if (confidenceLevel <= 0 || confidenceLevel >= 1) {
+            throw new IllegalArgumentException("Confidence level must be between 0 and 1");
+        }
+        
+        var values = pnl.clone();
+        double position = (1 - confidenceLevel) * (values.length - 1);
+        int lower = (int) Math.floor(position);
+        int upper = (int) Math.ceil(position);
+        
+        double lowerValue = select(values, lower);
+        if (lower == upper) {
+            return Math.abs(lowerValue);
+        }
+        double upperValue = values[upper];
+        for (int i = upper + 1; i < values.length; i++) {
+            upperValue = Math.min(upperValue, values[i]);
+        }
+        return Math.abs(lowerValue + (position - lower) * (upperValue - lowerValue));
+    }
+    
+    /**
+     * Rearranges values so that values[k] is the k-th smallest, everything
+     * before it no greater and everything after it no smaller, and returns it.
+     */
+    static double select(double[] values, int k) {
+        int lo = 0;
+        int hi = values.length - 1;
+        int budget = 2 * (32 - Integer.numberOfLeadingZeros(values.length));
+        
+        while (hi - lo > INSERTION_SORT_THRESHOLD) {
+            if (budget-- == 0) {
+                Arrays.sort(values, lo, hi + 1);
+                return values[k];
+            }
+            
+            double pivot = medianOfThree(values, lo, (lo + hi) >>> 1, hi);
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (values[i] < pivot) {
+                    i++;
+                }
+                while (values[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(values, i++, j--);
+                }
+            }
+            
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return values[k];
+            }
+        }
+        
+        Arrays.sort(values, lo, hi + 1);
+        return values[k];
+    }
+    
+    private static double medianOfThree(double[] values, int a, int b, int c) {
+        if (values[b] < values[a]) {
+            swap(values, a, b);
+        }
+        if (values[c] < values[b]) {
+            swap(values, b, c);
+            if (values[b] < values[a]) {
+                swap(values, a, b);
+            }
+        }
+        return values[b];
+    }
+    
+    private static void swap(double[] values, int i, int j) {
+        double t = values[i];
+        values[i] = values[j];
+        values[j] = t;
+    }
+}
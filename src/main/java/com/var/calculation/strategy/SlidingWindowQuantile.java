@@ -0,0 +1,113 @@
+package com.var.calculation.strategy;
+
+import java.util.Arrays;
+
+/**
+ * Order-statistic structure for a sliding window of P&L observations.
+ *
+ * Values are rank-compressed against the full series once, after which
+ * insert, remove and k-th smallest are Fenwick tree operations in O(log n),
+ * so rolling a window across the history never re-sorts it.
+ */
+public final class SlidingWindowQuantile {
+
+    private final double[] ranks;
+    private final int[] tree;
+    private final int highestBit;
+    private int size;
+
+    /**
+     * @param series every value that may ever enter the window
+     */
+    public SlidingWindowQuantile(double[] series) {
+        var sorted = series.clone();
+        Arrays.sort(sorted);
+
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || Double.compare(sorted[i], sorted[distinct - 1]) != 0) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+
+        this.ranks = Arrays.copyOf(sorted, distinct);
+        this.tree = new int[distinct + 1];
+        this.highestBit = distinct == 0 ? 0 : Integer.highestOneBit(distinct);
+    }
+
+    public void add(double value) {
+        update(rankOf(value), 1);
+        size++;
+    }
+
+    public void remove(double value) {
+        if (size == 0) {
+            throw new IllegalStateException("Window is empty");
+        }
+        update(rankOf(value), -1);
+        size--;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the k-th smallest value currently in the window (0-based).
+     */
+    public double select(int k) {
+        if (k < 0 || k >= size) {
+            throw new IndexOutOfBoundsException("k=" + k + ", size=" + size);
+        }
+
+        // Binary lifting: find the largest position whose prefix count is <= k
+        int position = 0;
+        int remaining = k;
+        for (int step = highestBit; step > 0; step >>= 1) {
+            int next = position + step;
+            if (next < tree.length && tree[next] <= remaining) {
+                position = next;
+                remaining -= tree[next];
+            }
+        }
+        return ranks[position];
+    }
+
+    /**
+     * VaR of the current window, using the same interpolated percentile as
+     * {@link HistoricalSimulationStrategy#calculateTradeVaR}.
+     */
+    public double var(double confidenceLevel) {
+        return Math.abs(quantile(confidenceLevel));
+    }
+
+    /**
+     * Signed (1 - confidenceLevel) quantile of the current window: negative
+     * for a loss. Windows compare by this value, since a large profit
+     * quantile has a large VaR magnitude but is no stress.
+     */
+    public double quantile(double confidenceLevel) {
+        double position = (1 - confidenceLevel) * (size - 1);
+        int lower = (int) Math.floor(position);
+        int upper = (int) Math.ceil(position);
+
+        double lowerValue = select(lower);
+        return (lower == upper)
+            ? lowerValue
+            : lowerValue + (position - lower) * (select(upper) - lowerValue);
+    }
+
+    private int rankOf(double value) {
+        int index = Arrays.binarySearch(ranks, value);
+        if (index < 0) {
+            throw new IllegalArgumentException("Value " + value + " is not part of the indexed series");
+        }
+        return index + 1;
+    }
+
+    private void update(int index, int delta) {
+        for (int i = index; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.var.calculation.strategy;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Flight Recorder event for one strategy operation on P&L series, such as the
+ * sort behind a VaR quantile or summing trades into a portfolio.
+ *
+ * Only operations of at least 1 ms are recorded by default, which keeps
+ * always-on recordings small; lower the threshold in the recording settings
+ * to see every call. Calls on the thread of a calculation fall inside its
+ * {@code com.var.calculation.Calculation} event.
+ */
+@Name("com.var.calculation.Strategy")
+@Label("VaR Strategy Operation")
+@Category("VaR Calculation")
+@Description("A strategy operation on P&L series")
+@Threshold("1 ms")
+@StackTrace(false)
+class StrategyEvent extends Event {
+    
+    @Label("Operation")
+    final String operation;
+    
+    @Label("Trades")
+    @Description("Number of P&L series")
+    final int trades;
+    
+    @Label("Points")
+    @Description("P&L points per series")
+    final int points;
+    
+    private StrategyEvent(String operation, int trades, int points) {
+        this.operation = operation;
+        this.trades = trades;
+        this.points = points;
+    }
+    
+    static StrategyEvent begin(String operation, int trades, int points) {
+        var event = new StrategyEvent(operation, trades, points);
+        event.begin();
+        return event;
+    }
+}
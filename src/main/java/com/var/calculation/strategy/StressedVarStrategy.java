@@ -0,0 +1,74 @@
+package com.var.calculation.strategy;
+
+import com.var.calculation.config.VarCalculationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stressed VaR window search.
+ *
+ * Slides a fixed-length window across an aggregated portfolio P&L history
+ * and keeps the window whose loss quantile is the most negative. The window
+ * is maintained in a {@link SlidingWindowQuantile}, so the search is
+ * O(n log n) rather than a sort per window.
+ */
+@Component
+public class StressedVarStrategy {
+    
+    private static final int CHECKPOINT_MASK = 1023;
+    
+    private final VarCalculationProperties properties;
+    
+    public StressedVarStrategy(VarCalculationProperties properties) {
+        this.properties = properties;
+    }
+    
+    public StressedWindow findStressedWindow(double[] portfolioPnL, int windowSize, double confidenceLevel) {
+        validateInput(portfolioPnL, windowSize, confidenceLevel);
+        
+        var window = new SlidingWindowQuantile(portfolioPnL);
+        for (int i = 0; i < windowSize; i++) {
+            window.add(portfolioPnL[i]);
+        }
+        
+        // Compare signed quantiles: the worst window has the most negative one
+        int worstStart = 0;
+        double worstQuantile = window.quantile(confidenceLevel);
+        
+        for (int start = 1; start + windowSize <= portfolioPnL.length; start++) {
+            if ((start & CHECKPOINT_MASK) == 0) {
+                CalculationScope.checkpoint();
+            }
+            window.remove(portfolioPnL[start - 1]);
+            window.add(portfolioPnL[start + windowSize - 1]);
+            
+            double quantile = window.quantile(confidenceLevel);
+            if (quantile < worstQuantile) {
+                worstQuantile = quantile;
+                worstStart = start;
+            }
+        }
+        
+        return new StressedWindow(worstStart, worstStart + windowSize, Math.abs(worstQuantile));
+    }
+    
+    private void validateInput(double[] data, int windowSize, double confidenceLevel) {
+        if (data == null || data.length == 0) {
+            throw new IllegalArgumentException("Historical data is required");
+        }
+        
+        int minPoints = properties.getMinDataPoints();
+        if (windowSize < minPoints) {
+            throw new IllegalArgumentException(
+                "Window size must be at least " + minPoints + " data points for reliable VaR calculation");
+        }
+        
+        if (data.length < windowSize) {
+            throw new IllegalArgumentException(
+                "Need at least " + windowSize + " data points to search a " + windowSize + "-day window");
+        }
+        
+        if (confidenceLevel <= 0 || confidenceLevel >= 1) {
+            throw new IllegalArgumentException("Confidence level must be between 0 and 1");
+        }
+    }
+}
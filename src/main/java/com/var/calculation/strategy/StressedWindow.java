@@ -0,0 +1,14 @@
+package com.var.calculation.strategy;
+
+/**
+ * Window of a P&L history that produces the highest VaR.
+ *
+ * @param start Index of the first period in the window (inclusive)
+ * @param end Index of the last period in the window (exclusive)
+ * @param var VaR over the window
+ */
+public record StressedWindow(
+    int start,
+    int end,
+    double var
+) {}
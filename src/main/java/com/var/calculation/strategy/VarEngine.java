@@ -0,0 +1,16 @@
+package com.var.calculation.strategy;
+
+/**
+ * A VaR calculation over a primitive P&L series, so that candidate
+ * implementations can be run in shadow against the production engine.
+ * Engines must not modify the input array.
+ */
+public interface VarEngine {
+    
+    /**
+     * Name under which the engine is selected in configuration.
+     */
+    String name();
+    
+    double calculateVaR(double[] pnl, double confidenceLevel);
+}
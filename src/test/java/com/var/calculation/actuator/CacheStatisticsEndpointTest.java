@@ -0,0 +1,70 @@
+package com.var.calculation.actuator;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.var.calculation.config.CacheConfig;
+import com.var.calculation.config.CacheEntryWeigher;
+import com.var.calculation.config.VarCalculationProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.util.unit.DataSize;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for the per-cache statistics reported at {@code /actuator/varcaches}.
+ */
+@DisplayName("CacheStatisticsEndpoint Tests")
+class CacheStatisticsEndpointTest {
+    
+    @Test
+    @DisplayName("Should report size, weight, hit rate and evictions per cache")
+    void shouldReportCacheStatistics() {
+        // Given
+        var properties = new VarCalculationProperties();
+        properties.getCache().setHeapBudget(DataSize.ofKilobytes(64));
+        var cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(CacheConfig.PORTFOLIO_VECTOR_CACHE, Caffeine.newBuilder()
+            .recordStats()
+            .executor(Runnable::run)
+            .maximumWeight(2048)
+            .weigher(new CacheEntryWeigher())
+            .build());
+        cacheManager.registerCustomCache(CacheConfig.TRADE_VAR_CACHE, Caffeine.newBuilder()
+            .recordStats()
+            .maximumSize(10)
+            .build());
+        
+        var vectors = cacheManager.getCache(CacheConfig.PORTFOLIO_VECTOR_CACHE);
+        vectors.put("a", new double[100]);
+        vectors.put("b", new double[100]);
+        vectors.put("c", new double[100]);
+        vectors.get("c");
+        vectors.get("missing");
+        cacheManager.getCache(CacheConfig.TRADE_VAR_CACHE).put("T1", "response");
+        
+        // When
+        var report = new CacheStatisticsEndpoint(cacheManager, properties).caches();
+        
+        // Then
+        var vectorStats = report.caches().get(CacheConfig.PORTFOLIO_VECTOR_CACHE);
+        assertThat(vectorStats.weighted()).isTrue();
+        assertThat(vectorStats.size()).isEqualTo(2);
+        assertThat(vectorStats.weightedSize()).isEqualTo(2 * (42 + 816));
+        assertThat(vectorStats.maximum()).isEqualTo(2048);
+        assertThat(vectorStats.hitCount()).isEqualTo(1);
+        assertThat(vectorStats.missCount()).isEqualTo(1);
+        assertThat(vectorStats.hitRate()).isEqualTo(0.5);
+        assertThat(vectorStats.evictionCount()).isEqualTo(1);
+        assertThat(vectorStats.evictionWeight()).isEqualTo(42 + 816);
+        
+        var tradeStats = report.caches().get(CacheConfig.TRADE_VAR_CACHE);
+        assertThat(tradeStats.weighted()).isFalse();
+        assertThat(tradeStats.weightedSize()).isNull();
+        assertThat(tradeStats.maximum()).isEqualTo(10);
+        assertThat(tradeStats.size()).isEqualTo(1);
+        
+        assertThat(report.heapBudgetBytes()).isEqualTo(64 * 1024);
+        assertThat(report.totalWeightBytes()).isEqualTo(vectorStats.weightedSize());
+    }
+}
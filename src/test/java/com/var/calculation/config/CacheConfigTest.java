@@ -0,0 +1,170 @@
+package com.var.calculation.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for cache construction from {@code var.calculation.cache.specs}: weight
+ * bounds, the shared heap budget and refresh through {@link CacheReloader}s.
+ */
+@DisplayName("CacheConfig Tests")
+class CacheConfigTest {
+    
+    private final VarCalculationProperties properties = new VarCalculationProperties();
+    private final AtomicLong nanos = new AtomicLong();
+    private final List<Object> reloadedKeys = new ArrayList<>();
+    private TieredCaffeineCacheManager cacheManager;
+    
+    @AfterEach
+    void tearDown() {
+        if (cacheManager != null) {
+            cacheManager.destroy();
+        }
+    }
+    
+    @Test
+    @DisplayName("Should evict by estimated weight rather than entry count")
+    void shouldEvictByWeight() {
+        // Given
+        properties.getCache().setSpecs(Map.of("vectors", weighted(DataSize.ofKilobytes(2))));
+        var cache = nativeCache(build(), "vectors");
+        
+        // When
+        cache.put("a", new double[100]);
+        cache.put("b", new double[100]);
+        cache.put("c", new double[100]);
+        cache.cleanUp();
+        
+        // Then
+        assertThat(cache.estimatedSize()).isEqualTo(2);
+        assertThat(cache.stats().evictionCount()).isEqualTo(1);
+        assertThat(cache.policy().eviction().orElseThrow().weightedSize().orElseThrow())
+            .isLessThanOrEqualTo(2048);
+    }
+    
+    @Test
+    @DisplayName("Should scale all caches, including unconfigured known caches, down to fit the heap budget")
+    void shouldScaleCachesToHeapBudget() {
+        // Given: 4MB configured plus 3 x 16MB of known caches left at their defaults
+        properties.getCache().setHeapBudget(DataSize.ofMegabytes(13));
+        properties.getCache().setSpecs(Map.of(
+            "first", weighted(DataSize.ofMegabytes(1)),
+            "second", weighted(DataSize.ofMegabytes(3))));
+        
+        // When
+        var manager = build();
+        
+        // Then
+        assertThat(maximum(nativeCache(manager, "first"))).isEqualTo(256 * 1024);
+        assertThat(maximum(nativeCache(manager, "second"))).isEqualTo(768 * 1024);
+        assertThat(maximum(nativeCache(manager, CacheConfig.TRADE_VAR_CACHE))).isEqualTo(4 * 1024 * 1024);
+    }
+    
+    @Test
+    @DisplayName("Should reject a cache without a maximum weight, which the heap budget could not count")
+    void shouldRejectCacheWithoutMaximumWeight() {
+        // Given
+        var spec = new VarCalculationProperties.CacheSpec();
+        spec.setExpireAfterWrite(Duration.ofMinutes(5));
+        properties.getCache().setSpecs(Map.of("unbounded", spec));
+        
+        // When/Then
+        assertThatThrownBy(this::build)
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("unbounded.maximum-weight");
+    }
+    
+    @Test
+    @DisplayName("Should reload entries due for refresh through the cache's reloader")
+    void shouldReloadEntriesDueForRefresh() {
+        // Given
+        properties.getCache().setSpecs(Map.of("refreshed", refreshing()));
+        var cache = build().getCache("refreshed");
+        cache.put("k", "old");
+        
+        // When
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        var beforeDue = cache.get("k", String.class);
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        var afterDue = cache.get("k", String.class);
+        
+        // Then: the refresh executor runs on the calling thread, so the read that triggers it sees the result
+        assertThat(beforeDue).isEqualTo("old");
+        assertThat(afterDue).isEqualTo("fresh-k");
+        assertThat(cache.get("k", String.class)).isEqualTo("fresh-k");
+        assertThat(reloadedKeys).containsExactly("k");
+    }
+    
+    @Test
+    @DisplayName("Should drop entries whose reloader returns null")
+    void shouldDropEntriesWhenReloadReturnsNull() {
+        // Given
+        properties.getCache().setSpecs(Map.of("refreshed", refreshing()));
+        var cache = build().getCache("refreshed");
+        cache.put("gone", "old");
+        
+        // When
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        cache.get("gone");
+        
+        // Then
+        assertThat(reloadedKeys).containsExactly("gone");
+        assertThat(cache.get("gone")).isNull();
+    }
+    
+    private TieredCaffeineCacheManager build() {
+        var reloader = new CacheReloader() {
+            @Override
+            public String cacheName() {
+                return "refreshed";
+            }
+            
+            @Override
+            public Object reload(Object key) {
+                reloadedKeys.add(key);
+                return "gone".equals(key) ? null : "fresh-" + key;
+            }
+        };
+        var reloaders = new StaticListableBeanFactory(Map.of("reloader", reloader)).getBeanProvider(CacheReloader.class);
+        cacheManager = new CacheConfig().cacheManager(properties, reloaders, new ObjectMapper(), nanos::get,
+            Clock.systemUTC(), Runnable::run);
+        return cacheManager;
+    }
+    
+    private static VarCalculationProperties.CacheSpec weighted(DataSize maximumWeight) {
+        var spec = new VarCalculationProperties.CacheSpec();
+        spec.setMaximumWeight(maximumWeight);
+        return spec;
+    }
+    
+    private static VarCalculationProperties.CacheSpec refreshing() {
+        var spec = new VarCalculationProperties.CacheSpec();
+        spec.setMaximumWeight(DataSize.ofKilobytes(64));
+        spec.setRefreshAfterWrite(Duration.ofMinutes(1));
+        return spec;
+    }
+    
+    private static Cache<Object, Object> nativeCache(TieredCaffeineCacheManager manager, String name) {
+        return ((CaffeineCache) manager.getCache(name)).getNativeCache();
+    }
+    
+    private static long maximum(Cache<Object, Object> cache) {
+        return cache.policy().eviction().orElseThrow().getMaximum();
+    }
+}
@@ -0,0 +1,41 @@
+package com.var.calculation.config;
+
+import com.var.calculation.model.dto.VarResponse;
+import com.var.calculation.service.PortfolioVectorCache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for the heap size estimates used by weight-bounded caches.
+ */
+@DisplayName("CacheEntryWeigher Tests")
+class CacheEntryWeigherTest {
+    
+    private final CacheEntryWeigher weigher = new CacheEntryWeigher();
+    
+    @Test
+    @DisplayName("Should weigh vectors and strings by their length")
+    void shouldWeighVectorsAndStringsByLength() {
+        assertThat(CacheEntryWeigher.estimate(new double[1000])).isEqualTo(16 + 8000);
+        assertThat(CacheEntryWeigher.estimate("PORT-001")).isEqualTo(40 + 16);
+        assertThat(weigher.weigh("PORT-001", new double[1000])).isEqualTo(56 + 8016);
+    }
+    
+    @Test
+    @DisplayName("Should weigh responses, what-if vectors and collections by their contents")
+    void shouldWeighCompositeValues() {
+        var response = new VarResponse("T1", 6.1, 0.95, "HISTORICAL_SIMULATION", 1, LocalDateTime.now());
+        var vector = new PortfolioVectorCache.PortfolioVector("fingerprint", new double[100], false);
+        
+        assertThat(CacheEntryWeigher.estimate(response)).isEqualTo(200 + 44 + 40 + 2L * 21);
+        assertThat(CacheEntryWeigher.estimate(vector)).isEqualTo(32 + 62 + 816);
+        assertThat(CacheEntryWeigher.estimate(List.of("a", "bb"))).isEqualTo(42 + 44 + 16 + 8);
+        assertThat(CacheEntryWeigher.estimate(null)).isZero();
+        assertThat(CacheEntryWeigher.estimate(new Object())).isEqualTo(256);
+    }
+}
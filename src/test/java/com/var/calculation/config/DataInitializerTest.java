@@ -0,0 +1,79 @@
+package com.var.calculation.config;
+
+import com.var.calculation.model.entity.User;
+import com.var.calculation.model.enums.UserRole;
+import com.var.calculation.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for creating the default and warm-up accounts at startup.
+ */
+@DisplayName("DataInitializer Tests")
+class DataInitializerTest {
+    
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final VarCalculationProperties properties = new VarCalculationProperties();
+    private DataInitializer initializer;
+    
+    @BeforeEach
+    void setUp() {
+        when(userRepository.count()).thenReturn(2L);
+        properties.getWarmup().setEnabled(true);
+        initializer = new DataInitializer(userRepository, NoOpPasswordEncoder.getInstance(), properties);
+    }
+    
+    @Test
+    @DisplayName("Should create the warm-up account marked as such when missing")
+    void shouldCreateMarkedWarmupUser() {
+        // Given
+        when(userRepository.findByUsername("warmup")).thenReturn(Optional.empty());
+        
+        // When
+        initializer.run();
+        
+        // Then
+        var saved = ArgumentCaptor.forClass(User.class);
+        verify(userRepository).save(saved.capture());
+        assertThat(saved.getValue().getUsername()).isEqualTo("warmup");
+        assertThat(saved.getValue().getRole()).isEqualTo(UserRole.USER);
+        assertThat(saved.getValue().isWarmup()).isTrue();
+    }
+    
+    @Test
+    @DisplayName("Should keep an existing warm-up account")
+    void shouldKeepExistingWarmupUser() {
+        // Given
+        when(userRepository.findByUsername("warmup"))
+            .thenReturn(Optional.of(User.builder().username("warmup").role(UserRole.USER).warmup(true).build()));
+        
+        // When
+        initializer.run();
+        
+        // Then
+        verify(userRepository, never()).save(any());
+    }
+    
+    @Test
+    @DisplayName("Should refuse to start when the warm-up username belongs to a real account")
+    void shouldRefuseRealAccountAsWarmupUser() {
+        // Given
+        properties.getWarmup().setUsername("user");
+        when(userRepository.findByUsername("user"))
+            .thenReturn(Optional.of(User.builder().username("user").role(UserRole.USER).build()));
+        
+        // When/Then
+        assertThatThrownBy(() -> initializer.run())
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("'user'");
+        verify(userRepository, never()).save(any());
+    }
+}
@@ -0,0 +1,179 @@
+package com.var.calculation.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.var.calculation.model.dto.VarResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for the disk-backed second cache tier.
+ */
+@DisplayName("TieredCache Tests")
+class TieredCacheTest {
+    
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    
+    private final FakeTime time = new FakeTime();
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    @DisplayName("Should restore snapshot entries after a restart")
+    void shouldRestoreSnapshotAfterRestart() {
+        // Given
+        String path = tempDir.resolve("cache.mv.db").toString();
+        var response = new VarResponse("T1", 6.1, 0.95, "HISTORICAL_SIMULATION", 1, LocalDateTime.now());
+        
+        try (var store = new PersistentCacheStore(path)) {
+            var cache = newCache(store, Duration.ofMinutes(60));
+            cache.put("T1_0.95", response);
+            assertThat(cache.snapshot(100)).isEqualTo(1);
+            store.commit();
+        }
+        
+        // When
+        try (var store = new PersistentCacheStore(path)) {
+            var cache = newCache(store, Duration.ofMinutes(60));
+            
+            // Then
+            assertThat(cache.get("T1_0.95", VarResponse.class)).isEqualTo(response);
+            assertThat(cache.getNativeCache().getIfPresent("T1_0.95")).isEqualTo(response);
+        }
+    }
+    
+    @Test
+    @DisplayName("Should discard snapshot entries older than the TTL")
+    void shouldDiscardExpiredSnapshotEntries() {
+        // Given
+        String path = tempDir.resolve("cache.mv.db").toString();
+        var response = new VarResponse("T2", 1.0, 0.99, "HISTORICAL_SIMULATION", 1, LocalDateTime.now());
+        
+        try (var store = new PersistentCacheStore(path)) {
+            var cache = newCache(store, Duration.ofMinutes(10));
+            cache.put("T2_0.99", response);
+            cache.snapshot(100);
+            store.commit();
+        }
+        time.advance(Duration.ofMinutes(11));
+        
+        // When/Then
+        try (var store = new PersistentCacheStore(path)) {
+            var cache = newCache(store, Duration.ofMinutes(10));
+            assertThat(cache.get("T2_0.99")).isNull();
+        }
+    }
+    
+    @Test
+    @DisplayName("Should keep the original write time of entries promoted from disk")
+    void shouldKeepWriteTimeOfPromotedEntries() {
+        // Given: an entry written 4 minutes before shutdown, restored 3 minutes later
+        String path = tempDir.resolve("cache.mv.db").toString();
+        var response = new VarResponse("T3", 2.0, 0.95, "HISTORICAL_SIMULATION", 1, LocalDateTime.now());
+        
+        try (var store = new PersistentCacheStore(path)) {
+            var cache = newCache(store, Duration.ofMinutes(10));
+            cache.put("T3_0.95", response);
+            time.advance(Duration.ofMinutes(4));
+            cache.snapshot(100);
+            store.commit();
+        }
+        time.advance(Duration.ofMinutes(3));
+        
+        try (var store = new PersistentCacheStore(path)) {
+            var cache = newCache(store, Duration.ofMinutes(10));
+            assertThat(cache.get("T3_0.95", VarResponse.class)).isEqualTo(response);
+            
+            // When: a snapshot taken 2 minutes later still carries the original write time
+            time.advance(Duration.ofMinutes(2));
+            cache.snapshot(100);
+            
+            // Then: the promoted entry expires 10 minutes after it was first written
+            assertThat(cache.getNativeCache().getIfPresent("T3_0.95")).isEqualTo(response);
+            time.advance(Duration.ofMinutes(2));
+            assertThat(cache.getNativeCache().getIfPresent("T3_0.95")).isNull();
+            assertThat(cache.get("T3_0.95")).isNull();
+        }
+    }
+    
+    @Test
+    @DisplayName("Should only snapshot and restore allow-listed value types")
+    void shouldOnlyRestoreAllowListedTypes() {
+        // Given
+        String path = tempDir.resolve("cache.mv.db").toString();
+        
+        try (var store = new PersistentCacheStore(path)) {
+            var cache = newCache(store, Duration.ofMinutes(10));
+            cache.put("plain", "not a snapshot type");
+            assertThat(cache.snapshot(100)).isZero();
+            
+            store.map("tradeVarCache").put("forged", time.millis() + "\njava.util.ArrayList\n[]");
+            store.commit();
+        }
+        
+        // When/Then
+        try (var store = new PersistentCacheStore(path)) {
+            var cache = newCache(store, Duration.ofMinutes(10));
+            assertThat(cache.get("plain")).isNull();
+            assertThat(cache.get("forged")).isNull();
+            assertThat(store.map("tradeVarCache").containsKey("forged")).isFalse();
+        }
+    }
+    
+    private TieredCache newCache(PersistentCacheStore store, Duration ttl) {
+        var nativeCache = Caffeine.newBuilder()
+            .maximumSize(100)
+            .ticker(time)
+            .expireAfter(CacheConfig.expireAfterWrite(ttl))
+            .build();
+        return new TieredCache("tradeVarCache", nativeCache, true, store.map("tradeVarCache"), ttl, objectMapper, time);
+    }
+    
+    /**
+     * Clock and Caffeine ticker over one manually advanced time.
+     */
+    private static class FakeTime extends Clock implements Ticker {
+        
+        private final AtomicLong millis = new AtomicLong(Instant.parse("2026-01-01T00:00:00Z").toEpochMilli());
+        
+        void advance(Duration duration) {
+            millis.addAndGet(duration.toMillis());
+        }
+        
+        @Override
+        public long read() {
+            return TimeUnit.MILLISECONDS.toNanos(millis.get());
+        }
+        
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis.get());
+        }
+        
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+        
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
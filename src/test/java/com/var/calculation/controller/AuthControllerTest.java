@@ -0,0 +1,118 @@
+package com.var.calculation.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.var.calculation.exception.GlobalExceptionHandler;
+import com.var.calculation.model.dto.AuthResponse;
+import com.var.calculation.model.dto.RefreshRequest;
+import com.var.calculation.security.JwtTokenProvider;
+import com.var.calculation.security.RefreshTokenStore;
+import com.var.calculation.security.UserPrincipal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests for exchanging and revoking refresh tokens through the auth endpoints.
+ */
+@DisplayName("AuthController Tests")
+class AuthControllerTest {
+    
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final UserDetailsService userDetailsService = mock(UserDetailsService.class);
+    private JwtTokenProvider tokenProvider;
+    private MockMvc mockMvc;
+    
+    @BeforeEach
+    void setUp() {
+        tokenProvider = new JwtTokenProvider(new RefreshTokenStore(100, 10));
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpiration", 900_000L);
+        ReflectionTestUtils.setField(tokenProvider, "refreshExpiration", 604_800_000L);
+        ReflectionTestUtils.invokeMethod(tokenProvider, "init");
+        
+        var controller = new AuthController(mock(AuthenticationManager.class), tokenProvider, userDetailsService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+            .setControllerAdvice(new GlobalExceptionHandler())
+            .build();
+    }
+    
+    @Test
+    @DisplayName("Should issue new tokens with the user's current role and retire the old refresh token")
+    void shouldRefreshWithReloadedUser() throws Exception {
+        // Given: the user was promoted after the refresh token was issued
+        var refreshToken = tokenProvider.generateRefreshToken("alice");
+        when(userDetailsService.loadUserByUsername("alice"))
+            .thenReturn(new UserPrincipal(1L, "alice", "hash", "ADMIN"));
+        
+        // When
+        var response = objectMapper.readValue(
+            refresh(refreshToken).andExpect(status().isOk()).andReturn().getResponse().getContentAsString(),
+            AuthResponse.class);
+        
+        // Then
+        assertThat(response.role()).isEqualTo("ADMIN");
+        assertThat(tokenProvider.getUsernameFromToken(response.token())).isEqualTo("alice");
+        assertThat(response.refreshToken()).isNotEqualTo(refreshToken);
+        verify(userDetailsService).loadUserByUsername("alice");
+        
+        refresh(refreshToken).andExpect(status().isUnauthorized());
+        refresh(response.refreshToken()).andExpect(status().isOk());
+    }
+    
+    @Test
+    @DisplayName("Should reject the refresh token of a deleted user with 401")
+    void shouldRejectRefreshOfDeletedUser() throws Exception {
+        // Given
+        var refreshToken = tokenProvider.generateRefreshToken("alice");
+        when(userDetailsService.loadUserByUsername("alice")).thenThrow(new UsernameNotFoundException("alice"));
+        
+        // When/Then
+        refresh(refreshToken)
+            .andExpect(status().isUnauthorized())
+            .andExpect(jsonPath("$.message").value("User of refresh token no longer exists"));
+    }
+    
+    @Test
+    @DisplayName("Should reject a refresh token after it was revoked")
+    void shouldRejectRevokedRefreshToken() throws Exception {
+        // Given
+        var refreshToken = tokenProvider.generateRefreshToken("alice");
+        
+        // When
+        mockMvc.perform(post("/api/v1/auth/revoke")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RefreshRequest(refreshToken))))
+            .andExpect(status().isNoContent());
+        
+        // Then
+        refresh(refreshToken).andExpect(status().isUnauthorized());
+        verifyNoInteractions(userDetailsService);
+    }
+    
+    @Test
+    @DisplayName("Should reject a refresh request without a token with 400")
+    void shouldRequireRefreshToken() throws Exception {
+        refresh("").andExpect(status().isBadRequest());
+    }
+    
+    private ResultActions refresh(String refreshToken) throws Exception {
+        return mockMvc.perform(post("/api/v1/auth/refresh")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(new RefreshRequest(refreshToken))));
+    }
+}
@@ -0,0 +1,81 @@
+package com.var.calculation.repository;
+
+import com.var.calculation.model.entity.AuditRecord;
+import com.var.calculation.model.enums.AuditStatus;
+import com.var.calculation.repository.AuditRecordRepository.AuditEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for the paged audit history projection.
+ */
+@DataJpaTest
+@DisplayName("AuditRecordRepository Tests")
+class AuditRecordRepositoryTest {
+    
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 2, 20, 12, 30);
+    
+    @Autowired
+    private AuditRecordRepository repository;
+    
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 5; i++) {
+            save("alice", i != 3, i);
+        }
+        save("bob", true, 5);
+    }
+    
+    @Test
+    @DisplayName("Should page the history newest first")
+    void shouldPageHistory() {
+        // When
+        var page = repository.findEntries(null, null, PageRequest.of(0, 4, Sort.by(Sort.Direction.DESC, "id")));
+        
+        // Then
+        assertThat(page.getTotalElements()).isEqualTo(6);
+        assertThat(page.getTotalPages()).isEqualTo(2);
+        assertThat(page.getContent()).extracting(AuditEntry::getExecutionTimeMs).containsExactly(5L, 4L, 3L, 2L);
+        var newest = page.getContent().get(0);
+        assertThat(newest.getUserId()).isEqualTo("bob");
+        assertThat(newest.getEndpoint()).isEqualTo("/api/v1/var/trade");
+        assertThat(newest.getPayloadBytes()).isEqualTo(1024);
+        assertThat(newest.getTimestamp()).isEqualTo(NOW.plusSeconds(5));
+    }
+    
+    @Test
+    @DisplayName("Should filter the history by user and outcome")
+    void shouldFilterHistory() {
+        // When
+        var page = repository.findEntries("alice", AuditStatus.ERROR, PageRequest.of(0, 20));
+        
+        // Then
+        assertThat(page.getTotalElements()).isEqualTo(1);
+        assertThat(page.getContent().get(0).getStatus()).isEqualTo(AuditStatus.ERROR);
+        assertThat(page.getContent().get(0).getErrorMessage()).isEqualTo("failed");
+        assertThat(repository.findEntries("alice", null, PageRequest.of(0, 20)).getTotalElements()).isEqualTo(5);
+    }
+    
+    private void save(String userId, boolean success, int second) {
+        repository.save(AuditRecord.builder()
+            .userId(userId)
+            .endpoint("/api/v1/var/trade")
+            .executionTimeMs((long) second)
+            .status(success ? AuditStatus.SUCCESS : AuditStatus.ERROR)
+            .errorMessage(success ? null : "failed")
+            .requestPayload(new byte[512])
+            .responsePayload(new byte[512])
+            .payloadBytes(1024)
+            .timestamp(NOW.plusSeconds(second))
+            .build());
+    }
+}
@@ -0,0 +1,130 @@
+package com.var.calculation.security;
+
+import com.var.calculation.exception.InvalidTokenException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for access and refresh token issue, rotation and revocation.
+ */
+@DisplayName("JwtTokenProvider Tests")
+class JwtTokenProviderTest {
+    
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+    
+    private final UserPrincipal user = new UserPrincipal(1L, "user", "hash", "USER");
+    private RefreshTokenStore store;
+    private JwtTokenProvider provider;
+    
+    @BeforeEach
+    void setUp() {
+        store = new RefreshTokenStore(3, 2);
+        provider = provider(900_000, 604_800_000);
+    }
+    
+    @Test
+    @DisplayName("Should accept access tokens but not refresh tokens as bearer tokens")
+    void shouldKeepTokenTypesApart() {
+        // Given
+        var access = provider.generateToken(user);
+        var refresh = provider.generateRefreshToken("user");
+        
+        // Then
+        assertThat(provider.validateToken(access)).isTrue();
+        assertThat(provider.getUsernameFromToken(access)).isEqualTo("user");
+        assertThat(provider.validateToken(refresh)).isFalse();
+        assertThatThrownBy(() -> provider.consumeRefreshToken(access))
+            .isInstanceOf(InvalidTokenException.class);
+        assertThat(provider.getExpirationSeconds()).isEqualTo(900);
+        assertThat(provider.getRefreshExpirationSeconds()).isEqualTo(604_800);
+    }
+    
+    @Test
+    @DisplayName("Should accept each refresh token once")
+    void shouldConsumeRefreshTokenOnce() {
+        // Given
+        var refresh = provider.generateRefreshToken("user");
+        
+        // When
+        var username = provider.consumeRefreshToken(refresh);
+        
+        // Then
+        assertThat(username).isEqualTo("user");
+        assertThat(store.size()).isZero();
+        assertThatThrownBy(() -> provider.consumeRefreshToken(refresh))
+            .isInstanceOf(InvalidTokenException.class)
+            .hasMessageContaining("revoked");
+    }
+    
+    @Test
+    @DisplayName("Should reject revoked, expired and foreign refresh tokens")
+    void shouldRejectInvalidRefreshTokens() {
+        // Given
+        var revoked = provider.generateRefreshToken("user");
+        provider.revokeRefreshToken(revoked);
+        var expired = provider(900_000, -1000).generateRefreshToken("user");
+        var foreign = provider.generateRefreshToken("user").replaceAll(".$", "A") + "x";
+        
+        // Then
+        assertThatThrownBy(() -> provider.consumeRefreshToken(revoked))
+            .isInstanceOf(InvalidTokenException.class);
+        assertThatThrownBy(() -> provider.consumeRefreshToken(expired))
+            .isInstanceOf(InvalidTokenException.class)
+            .hasMessageContaining("expired");
+        assertThatThrownBy(() -> provider.consumeRefreshToken(foreign))
+            .isInstanceOf(InvalidTokenException.class);
+    }
+    
+    @Test
+    @DisplayName("Should evict the oldest refresh token once the store is full")
+    void shouldBoundRefreshTokenStore() {
+        // Given
+        var oldest = provider.generateRefreshToken("user");
+        var tokens = new String[] {
+            provider.generateRefreshToken("admin"),
+            provider.generateRefreshToken("user"),
+            provider.generateRefreshToken("guest")
+        };
+        
+        // Then
+        assertThat(store.size()).isEqualTo(3);
+        assertThatThrownBy(() -> provider.consumeRefreshToken(oldest))
+            .isInstanceOf(InvalidTokenException.class);
+        for (var token : tokens) {
+            assertThat(provider.consumeRefreshToken(token)).isIn("user", "admin", "guest");
+        }
+    }
+    
+    @Test
+    @DisplayName("Should evict a user's own oldest refresh token once they hold the most allowed")
+    void shouldBoundRefreshTokensPerUser() {
+        // Given
+        var admin = provider.generateRefreshToken("admin");
+        var oldest = provider.generateRefreshToken("user");
+        var older = provider.generateRefreshToken("user");
+        
+        // When
+        var newest = provider.generateRefreshToken("user");
+        
+        // Then
+        assertThat(store.size()).isEqualTo(3);
+        assertThatThrownBy(() -> provider.consumeRefreshToken(oldest))
+            .isInstanceOf(InvalidTokenException.class);
+        assertThat(provider.consumeRefreshToken(admin)).isEqualTo("admin");
+        assertThat(provider.consumeRefreshToken(older)).isEqualTo("user");
+        assertThat(provider.consumeRefreshToken(newest)).isEqualTo("user");
+    }
+    
+    private JwtTokenProvider provider(long expiration, long refreshExpiration) {
+        var provider = new JwtTokenProvider(store);
+        ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(provider, "jwtExpiration", expiration);
+        ReflectionTestUtils.setField(provider, "refreshExpiration", refreshExpiration);
+        ReflectionTestUtils.invokeMethod(provider, "init");
+        return provider;
+    }
+}
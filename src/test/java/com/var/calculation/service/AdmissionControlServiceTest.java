@@ -0,0 +1,99 @@
+package com.var.calculation.service;
+
+import com.var.calculation.config.VarCalculationProperties;
+import com.var.calculation.exception.OverloadedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for per-user admission control.
+ */
+@DisplayName("AdmissionControlService Tests")
+class AdmissionControlServiceTest {
+    
+    private VarCalculationProperties properties;
+    private AdmissionControlService service;
+    
+    @BeforeEach
+    void setUp() {
+        properties = new VarCalculationProperties();
+        properties.getAdmission().setInitialLimit(1_000);
+        properties.getAdmission().setMinLimit(100);
+        properties.getAdmission().setUserShare(0.5);
+        service = new AdmissionControlService(properties);
+    }
+    
+    @Test
+    @DisplayName("Should reject a user exceeding their share and release cost on close")
+    void shouldEnforcePerUserShare() {
+        // Given
+        var first = service.acquire("alice", 400);
+        
+        // When / Then
+        assertThatThrownBy(() -> service.acquire("alice", 200))
+            .isInstanceOf(OverloadedException.class)
+            .hasMessageContaining("alice");
+        
+        try (var other = service.acquire("bob", 400)) {
+            assertThat(service.getStatus().inFlight()).isEqualTo(800);
+        }
+        
+        first.close();
+        first.close();
+        assertThat(service.getStatus().inFlight()).isZero();
+        assertThat(service.getStatus().rejectedUser()).isEqualTo(1);
+        assertThatCode(() -> service.acquire("alice", 200).close()).doesNotThrowAnyException();
+    }
+    
+    @Test
+    @DisplayName("Should release a permit's cost only once when closed on timeout and on completion")
+    void shouldReleasePermitOnce() {
+        // Given
+        var timedOut = service.acquire("alice", 300);
+        service.acquire("bob", 300);
+        
+        // When
+        timedOut.close();
+        timedOut.close();
+        
+        // Then
+        assertThat(service.getStatus().inFlight()).isEqualTo(300);
+    }
+    
+    @Test
+    @DisplayName("Should shed load beyond the global limit with a retry hint")
+    void shouldRejectBeyondGlobalLimit() {
+        // Given
+        service.acquire("alice", 450);
+        service.acquire("bob", 450);
+        
+        // When / Then
+        assertThatThrownBy(() -> service.acquire("carol", 200))
+            .isInstanceOf(OverloadedException.class)
+            .satisfies(ex -> assertThat(((OverloadedException) ex).getRetryAfterSeconds()).isPositive());
+        assertThat(service.getStatus().rejectedGlobal()).isEqualTo(1);
+    }
+    
+    @Test
+    @DisplayName("Should admit an oversized request when nothing is in flight")
+    void shouldAdmitOversizedRequestWhenIdle() {
+        try (var permit = service.acquire("alice", 10_000)) {
+            assertThatThrownBy(() -> service.acquire("bob", 1))
+                .isInstanceOf(OverloadedException.class);
+        }
+    }
+    
+    @Test
+    @DisplayName("Should admit everything when disabled")
+    void shouldAdmitEverythingWhenDisabled() {
+        properties.getAdmission().setEnabled(false);
+        
+        service.acquire("alice", 10_000);
+        
+        assertThatCode(() -> service.acquire("alice", 10_000)).doesNotThrowAnyException();
+        assertThat(service.getStatus().inFlight()).isZero();
+    }
+}
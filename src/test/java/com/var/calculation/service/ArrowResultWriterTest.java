@@ -0,0 +1,97 @@
+package com.var.calculation.service;
+
+import com.var.calculation.strategy.HistoricalSimulationStrategy.TailRisk;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.ipc.ArrowFileReader;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Round-trip tests of the Arrow result file, read back with the Arrow reader.
+ */
+@DisplayName("ArrowResultWriter Tests")
+class ArrowResultWriterTest {
+    
+    @TempDir
+    Path root;
+    
+    @Test
+    @DisplayName("Should stream rows in record batches and read them back")
+    void shouldRoundTripRowsAcrossBatches() throws Exception {
+        // Given
+        var target = root.resolve("results.arrow");
+        int rowCount = ArrowResultWriter.BATCH_ROWS + 10;
+        
+        // When
+        try (var writer = new ArrowResultWriter(target, new double[] {0.95, 0.99}, true, Map.of("jobId", "j1"))) {
+            writer.write("P1", null, 250, risks(100), null);
+            for (int i = 1; i < rowCount; i++) {
+                writer.write("P1", "T" + i, 250, risks(i), risks(i / 2.0));
+            }
+            writer.commit();
+            assertThat(writer.rows()).isEqualTo(rowCount);
+        }
+        
+        // Then
+        assertThat(Files.list(root).map(path -> path.getFileName().toString()).toList())
+            .containsExactly("results.arrow");
+        try (var allocator = new RootAllocator();
+             var channel = FileChannel.open(target);
+             var reader = new ArrowFileReader(channel, allocator)) {
+            var schema = reader.getVectorSchemaRoot().getSchema();
+            assertThat(schema.getCustomMetadata()).containsEntry("jobId", "j1");
+            assertThat(schema.getFields()).extracting(field -> field.getName()).containsExactly(
+                "portfolioId", "tradeId", "points", "var_0.95", "var_0.99", "es_0.95", "es_0.99",
+                "var_contribution_0.95", "var_contribution_0.99", "es_contribution_0.95", "es_contribution_0.99");
+            assertThat(reader.getRecordBlocks()).hasSize(2);
+            
+            assertThat(reader.loadNextBatch()).isTrue();
+            var batch = reader.getVectorSchemaRoot();
+            assertThat(batch.getRowCount()).isEqualTo(ArrowResultWriter.BATCH_ROWS);
+            var tradeIds = (VarCharVector) batch.getVector("tradeId");
+            assertThat(tradeIds.isNull(0)).isTrue();
+            assertThat(new String(tradeIds.get(3))).isEqualTo("T3");
+            assertThat(((IntVector) batch.getVector("points")).get(3)).isEqualTo(250);
+            assertThat(((Float8Vector) batch.getVector("es_0.99")).get(3)).isEqualTo(6.0);
+            assertThat(((Float8Vector) batch.getVector("var_contribution_0.95")).isNull(0)).isTrue();
+            assertThat(((Float8Vector) batch.getVector("var_contribution_0.95")).get(3)).isEqualTo(1.5);
+            
+            assertThat(reader.loadNextBatch()).isTrue();
+            assertThat(reader.getVectorSchemaRoot().getRowCount()).isEqualTo(10);
+            assertThat(new String(((VarCharVector) reader.getVectorSchemaRoot().getVector("tradeId")).get(9)))
+                .isEqualTo("T" + (rowCount - 1));
+            assertThat(reader.loadNextBatch()).isFalse();
+        }
+    }
+    
+    @Test
+    @DisplayName("Should discard the file when closed without committing")
+    void shouldDiscardUncommittedFile() throws Exception {
+        // Given
+        var target = root.resolve("partial.arrow");
+        
+        // When
+        try (var writer = new ArrowResultWriter(target, new double[] {0.99}, false, Map.of())) {
+            writer.write("P1", "T1", 10, List.of(new TailRisk(0.99, 1, 2)), null);
+        }
+        
+        // Then
+        assertThat(Files.list(root)).isEmpty();
+    }
+    
+    private static List<TailRisk> risks(double base) {
+        return List.of(new TailRisk(0.95, base, base + 1), new TailRisk(0.99, base + 2, base + 3));
+    }
+}
@@ -0,0 +1,179 @@
+package com.var.calculation.service;
+
+import com.var.calculation.config.VarCalculationProperties;
+import com.var.calculation.model.entity.AuditRecord;
+import com.var.calculation.model.enums.AuditStatus;
+import com.var.calculation.model.enums.LatencyGrouping;
+import com.var.calculation.repository.AuditRecordRepository;
+import com.var.calculation.repository.AuditRollupRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for hourly audit rollups, batched purging and aggregate queries.
+ */
+@DataJpaTest
+@Import({AuditRetentionService.class, VarCalculationProperties.class})
+@DisplayName("AuditRetentionService Tests")
+class AuditRetentionServiceTest {
+    
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 2, 20, 12, 30);
+    
+    @Autowired
+    private AuditRecordRepository auditRepository;
+    
+    @Autowired
+    private AuditRollupRepository rollupRepository;
+    
+    @Autowired
+    private AuditRetentionService service;
+    
+    @Autowired
+    private VarCalculationProperties properties;
+    
+    @Test
+    @DisplayName("Should roll up closed hours per user and endpoint")
+    void shouldRollUpClosedHours() {
+        // Given: two closed hours and the current, open hour
+        var tenOClock = NOW.minusHours(2).withMinute(0);
+        for (int i = 1; i <= 100; i++) {
+            save("alice", "/api/v1/var/trade", i, i % 10 != 0, tenOClock.plusSeconds(i));
+        }
+        save("bob", "/api/v1/var/trade", 500, true, tenOClock.plusMinutes(30));
+        save("alice", "/api/v1/var/portfolio", 40, true, tenOClock.plusHours(1));
+        save("alice", "/api/v1/var/trade", 7, true, NOW.minusMinutes(5));
+        
+        // When
+        var run = service.run(NOW);
+        
+        // Then
+        assertThat(run.hoursRolledUp()).isEqualTo(2);
+        assertThat(run.rollupsWritten()).isEqualTo(3);
+        assertThat(run.rolledUpThrough()).isEqualTo(NOW.withMinute(0));
+        assertThat(run.recordsPurged()).isZero();
+        
+        var alice = rollupRepository.findAll().stream()
+            .filter(rollup -> rollup.getUserId().equals("alice") && rollup.getBucketStart().equals(tenOClock))
+            .findFirst().orElseThrow();
+        assertThat(alice.getRequestCount()).isEqualTo(100);
+        assertThat(alice.getErrorCount()).isEqualTo(10);
+        assertThat(alice.getLatencySumMs()).isEqualTo(5050);
+        assertThat(alice.getLatencyMaxMs()).isEqualTo(100);
+        
+        // A second run has nothing left to roll up
+        assertThat(service.run(NOW).hoursRolledUp()).isZero();
+        assertThat(rollupRepository.count()).isEqualTo(3);
+    }
+    
+    @Test
+    @DisplayName("Should merge records written after their hour was rolled up, once")
+    void shouldMergeLateRecords() {
+        // Given: the ten o'clock hour is rolled up before more of its records arrive
+        var tenOClock = NOW.minusHours(2).withMinute(0);
+        save("alice", "/api/v1/var/trade", 10, true, tenOClock.plusMinutes(1));
+        service.run(NOW);
+        save("alice", "/api/v1/var/trade", 30, false, tenOClock.plusMinutes(59));
+        save("bob", "/api/v1/var/trade", 20, true, tenOClock.minusMinutes(30));
+        
+        // When
+        var run = service.run(NOW);
+        
+        // Then
+        assertThat(run.lateRecords()).isEqualTo(2);
+        assertThat(run.hoursRolledUp()).isZero();
+        assertThat(rollupRepository.findAll()).hasSize(2);
+        var alice = rollupRepository.findByBucketStartAndUserIdAndEndpoint(tenOClock, "alice", "/api/v1/var/trade")
+            .orElseThrow();
+        assertThat(alice.getRequestCount()).isEqualTo(2);
+        assertThat(alice.getErrorCount()).isEqualTo(1);
+        assertThat(alice.getLatencySumMs()).isEqualTo(40);
+        assertThat(alice.getLatencyMaxMs()).isEqualTo(30);
+        assertThat(rollupRepository.findByBucketStartAndUserIdAndEndpoint(
+            tenOClock.minusHours(1), "bob", "/api/v1/var/trade")).isPresent();
+        
+        assertThat(service.run(NOW).lateRecords()).isZero();
+        var summary = service.summarize(NOW.minusDays(1), NOW, LatencyGrouping.ENDPOINT, null, null);
+        assertThat(summary.stats()).singleElement().satisfies(stats -> assertThat(stats.count()).isEqualTo(3));
+    }
+    
+    @Test
+    @DisplayName("Should purge expired records in batches only once rolled up")
+    void shouldPurgeExpiredRecords() {
+        // Given
+        properties.getAudit().setRawRetention(Duration.ofDays(1));
+        properties.getAudit().setPurgeBatchSize(7);
+        var old = NOW.minusDays(3).withMinute(0);
+        for (int i = 0; i < 20; i++) {
+            save("alice", "/api/v1/var/trade", 10, true, old.plusMinutes(i));
+        }
+        save("alice", "/api/v1/var/trade", 10, true, NOW.minusMinutes(5));
+        
+        // When
+        var run = service.run(NOW);
+        
+        // Then
+        assertThat(run.recordsPurged()).isEqualTo(20);
+        assertThat(auditRepository.count()).isEqualTo(1);
+        assertThat(rollupRepository.findAll()).singleElement()
+            .satisfies(rollup -> assertThat(rollup.getRequestCount()).isEqualTo(20));
+    }
+    
+    @Test
+    @DisplayName("Should summarize rolled-up hours together with recent raw records")
+    void shouldSummarizeRollupsAndRawRecords() {
+        // Given
+        properties.getAudit().setRawRetention(Duration.ofHours(1));
+        var earlier = NOW.minusHours(3).withMinute(0);
+        for (int i = 1; i <= 1000; i++) {
+            save(i % 2 == 0 ? "alice" : "bob", "/api/v1/var/trade", i, i % 100 != 0, earlier.plusSeconds(i));
+        }
+        service.run(NOW);
+        assertThat(auditRepository.count()).isZero();
+        save("alice", "/api/v1/var/trade", 2000, false, NOW.minusMinutes(5));
+        
+        // When
+        var byEndpoint = service.summarize(NOW.minusDays(1), NOW, LatencyGrouping.ENDPOINT, null, null);
+        var byUser = service.summarize(NOW.minusDays(1), NOW, LatencyGrouping.USER, null, "alice");
+        
+        // Then
+        assertThat(byEndpoint.rolledUpThrough()).isEqualTo(earlier.plusHours(1));
+        assertThat(byEndpoint.stats()).singleElement().satisfies(stats -> {
+            assertThat(stats.count()).isEqualTo(1001);
+            assertThat(stats.errors()).isEqualTo(11);
+            assertThat(stats.p50()).isEqualTo(501);
+            assertThat(stats.p99()).isEqualTo(991);
+            assertThat(stats.max()).isCloseTo(2000, within(1L));
+            assertThat(stats.mean()).isCloseTo((500_500 + 2000) / 1001.0, within(1e-9));
+        });
+        assertThat(byUser.stats()).singleElement().satisfies(stats -> {
+            assertThat(stats.user()).isEqualTo("alice");
+            assertThat(stats.endpoint()).isNull();
+            assertThat(stats.count()).isEqualTo(501);
+        });
+    }
+    
+    @Test
+    @DisplayName("Should reject an empty time range")
+    void shouldRejectEmptyRange() {
+        assertThatThrownBy(() -> service.summarize(NOW, NOW, LatencyGrouping.ENDPOINT, null, null))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    private void save(String user, String endpoint, long latency, boolean success, LocalDateTime timestamp) {
+        auditRepository.save(AuditRecord.builder()
+            .userId(user)
+            .endpoint(endpoint)
+            .executionTimeMs(latency)
+            .status(success ? AuditStatus.SUCCESS : AuditStatus.ERROR)
+            .timestamp(timestamp)
+            .build());
+    }
+}
@@ -0,0 +1,102 @@
+package com.var.calculation.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.var.calculation.config.VarCalculationProperties;
+import com.var.calculation.exception.ResourceNotFoundException;
+import com.var.calculation.model.dto.TradeVarRequest;
+import com.var.calculation.model.dto.VarResponse;
+import com.var.calculation.model.entity.AuditRecord;
+import com.var.calculation.model.enums.AuditStatus;
+import com.var.calculation.repository.AuditRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.util.unit.DataSize;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for payload capture in audit records and their replay.
+ */
+@DisplayName("AuditService Tests")
+class AuditServiceTest {
+    
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final VarCalculationProperties properties = new VarCalculationProperties();
+    private AuditRecordRepository repository;
+    private AuditService service;
+    
+    @BeforeEach
+    void setUp() {
+        repository = mock(AuditRecordRepository.class);
+        service = new AuditService(repository, new PayloadCodec(objectMapper, properties), properties,
+            new LatencyAnalyticsService(properties));
+    }
+    
+    @Test
+    @DisplayName("Should capture payloads and replay them as the original request")
+    void shouldCaptureAndReplayPayloads() throws Exception {
+        // Given
+        var pnl = List.of(-12.5, 3.25, 8.0, -1.75, 4.5, -6.0, 2.25, 9.5, -3.0, 1.0);
+        var request = new TradeVarRequest("T1", pnl, 0.99);
+        var response = new VarResponse("T1", 6.0, 0.99, "HISTORICAL_SIMULATION", 1, LocalDateTime.now());
+        
+        // When
+        service.logRequest("user", "/api/v1/var/trade", 5, true, null, request, response);
+        var record = saved();
+        record.setId(1L);
+        when(repository.findById(1L)).thenReturn(Optional.of(record));
+        var replay = service.replay(1L);
+        
+        // Then
+        assertThat(record.getPayloadEncoding()).isEqualTo(PayloadCodec.ENCODING);
+        assertThat(record.getPayloadBytes())
+            .isEqualTo(objectMapper.writeValueAsBytes(request).length + objectMapper.writeValueAsBytes(response).length);
+        assertThat(replay.status()).isEqualTo(AuditStatus.SUCCESS);
+        assertThat(objectMapper.treeToValue(replay.request(), TradeVarRequest.class)).isEqualTo(request);
+        assertThat(objectMapper.treeToValue(replay.response(), VarResponse.class)).isEqualTo(response);
+    }
+    
+    @Test
+    @DisplayName("Should keep the audit record but drop payloads over the size limit")
+    void shouldDropOversizedPayloads() {
+        // Given
+        properties.getAudit().setMaxPayloadSize(DataSize.ofBytes(16));
+        var request = new TradeVarRequest("T1", List.of(1.0, 2.0, 3.0, 4.0, 5.0), 0.95);
+        
+        // When
+        service.logRequest("user", "/api/v1/var/trade", 5, false, "failed", request, null);
+        var record = saved();
+        
+        // Then
+        assertThat(record.getStatus()).isEqualTo(AuditStatus.ERROR);
+        assertThat(record.getRequestPayload()).isNull();
+        when(repository.findById(2L)).thenReturn(Optional.of(record));
+        assertThatThrownBy(() -> service.replay(2L))
+            .isInstanceOf(ResourceNotFoundException.class)
+            .hasMessage("Audit record 2 has no captured payload");
+    }
+    
+    @Test
+    @DisplayName("Should reject audit history pages outside the allowed size")
+    void shouldRejectInvalidHistoryPages() {
+        assertThatThrownBy(() -> service.getAuditHistory(null, null, 0, AuditService.MAX_PAGE_SIZE + 1))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.getAuditHistory(null, null, -1, 20))
+            .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(repository);
+    }
+    
+    private AuditRecord saved() {
+        var captor = ArgumentCaptor.forClass(AuditRecord.class);
+        verify(repository).save(captor.capture());
+        return captor.getValue();
+    }
+}
@@ -0,0 +1,28 @@
+package com.var.calculation.service;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Polls for a condition met by work running on another thread.
+ */
+final class Await {
+    
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    
+    private Await() {
+    }
+    
+    /**
+     * Waits until the condition holds, failing the test after ten seconds.
+     */
+    static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("timed out").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
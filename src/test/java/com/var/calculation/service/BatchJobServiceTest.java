@@ -0,0 +1,182 @@
+package com.var.calculation.service;
+
+import com.var.calculation.config.VarCalculationProperties;
+import com.var.calculation.exception.OverloadedException;
+import com.var.calculation.exception.ResourceNotFoundException;
+import com.var.calculation.model.dto.BatchJob;
+import com.var.calculation.model.dto.BatchPortfolio;
+import com.var.calculation.model.dto.BatchVarRequest;
+import com.var.calculation.model.dto.Trade;
+import com.var.calculation.model.enums.JobStatus;
+import com.var.calculation.model.enums.ResultFormat;
+import com.var.calculation.strategy.HistoricalSimulationStrategy;
+import com.var.calculation.strategy.PnLSeries;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
+
+import static com.var.calculation.service.Await.await;
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for batch job submission, execution, visibility and retention.
+ */
+@DisplayName("BatchJobService Tests")
+class BatchJobServiceTest {
+    
+    private static final Authentication ALICE = caller("alice", "ROLE_USER");
+    private static final Authentication BOB = caller("bob", "ROLE_USER");
+    private static final Authentication ADMIN = caller("admin", "ROLE_ADMIN");
+    
+    @TempDir
+    Path directory;
+    
+    private final VarCalculationProperties properties = new VarCalculationProperties();
+    private final VarCalculationService varService = mock(VarCalculationService.class);
+    private ComputeLaneService lanes;
+    private BatchJobService service;
+    
+    @BeforeEach
+    void setUp() {
+        properties.getJobs().setDirectory(directory);
+        lanes = new ComputeLaneService(properties);
+        service = new BatchJobService(properties, varService, new HistoricalSimulationStrategy(properties), lanes);
+        when(varService.aggregate(anyList()))
+            .thenAnswer(invocation -> PnLSeries.toArray(invocation.<List<Trade>>getArgument(0).get(0).historicalPnL()));
+    }
+    
+    @AfterEach
+    void tearDown() {
+        lanes.shutdown();
+    }
+    
+    @Test
+    @DisplayName("Should run a submitted job and write one row per portfolio")
+    void shouldRunSubmittedJob() throws Exception {
+        // When
+        var submitted = service.submit(request(portfolio("P1", 100), portfolio("P2", 50)), "alice");
+        var job = awaitFinished(submitted.jobId(), ALICE);
+        
+        // Then
+        assertThat(submitted.status()).isEqualTo(JobStatus.QUEUED);
+        assertThat(job.status()).isEqualTo(JobStatus.COMPLETED);
+        assertThat(job.description()).isEqualTo("alice");
+        assertThat(job.rows()).isEqualTo(2);
+        assertThat(job.completedAt()).isNotNull();
+        
+        var results = service.results(job.jobId(), ALICE);
+        assertThat(results.file()).isEqualTo(directory.resolve(job.jobId() + ".arrow"));
+        assertThat(results.contentType()).isEqualTo(ArrowResultWriter.CONTENT_TYPE);
+        assertThat(Files.size(results.file())).isPositive();
+    }
+    
+    @Test
+    @DisplayName("Should fail a job with the reason and offer no results")
+    void shouldReportFailedJob() throws Exception {
+        // When: the second portfolio is too short to compute
+        var submitted = service.submit(request(portfolio("P1", 100), portfolio("P2", 2)), "alice");
+        var job = awaitFinished(submitted.jobId(), ALICE);
+        
+        // Then
+        assertThat(job.status()).isEqualTo(JobStatus.FAILED);
+        assertThat(job.error()).contains("data points");
+        assertThatThrownBy(() -> service.results(job.jobId(), ALICE))
+            .isInstanceOf(ResourceNotFoundException.class)
+            .hasMessageContaining("FAILED");
+        assertThat(directory.resolve(job.jobId() + ".arrow")).doesNotExist();
+    }
+    
+    @Test
+    @DisplayName("Should reject submissions beyond the active job limit")
+    void shouldLimitActiveJobs() throws Exception {
+        // Given: the only slot is held by a job blocked in aggregation
+        properties.getJobs().setMaxActive(1);
+        var release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await();
+            return PnLSeries.toArray(invocation.<List<Trade>>getArgument(0).get(0).historicalPnL());
+        }).when(varService).aggregate(anyList());
+        var first = service.submit(request(portfolio("P1", 100)), "alice");
+        
+        // When/Then
+        assertThatThrownBy(() -> service.submit(request(portfolio("P2", 100)), "bob"))
+            .isInstanceOf(OverloadedException.class);
+        
+        release.countDown();
+        awaitFinished(first.jobId(), ALICE);
+        assertThat(service.submit(request(portfolio("P2", 100)), "bob").status()).isEqualTo(JobStatus.QUEUED);
+    }
+    
+    @Test
+    @DisplayName("Should evict the oldest finished jobs, deleting only their own files")
+    void shouldEvictOldestJobs() throws Exception {
+        // Given
+        properties.getJobs().setRetained(2);
+        var ingested = Files.writeString(directory.resolve("eod.var.csv"), "tradeId,points\n");
+        var registered = service.register("INGEST", "eod.csv", 1, 1, ResultFormat.CSV, ingested);
+        var first = service.submit(request(portfolio("P1", 100)), "alice");
+        awaitFinished(first.jobId(), ALICE);
+        
+        // When
+        var second = service.submit(request(portfolio("P2", 100)), "alice");
+        awaitFinished(second.jobId(), ALICE);
+        var third = service.submit(request(portfolio("P3", 100)), "alice");
+        awaitFinished(third.jobId(), ALICE);
+        
+        // Then
+        assertThat(service.getJobs(ADMIN)).extracting(BatchJob::jobId).containsExactly(third.jobId(), second.jobId());
+        assertThat(ingested).exists();
+        assertThat(directory.resolve(first.jobId() + ".arrow")).doesNotExist();
+        assertThat(directory.resolve(second.jobId() + ".arrow")).exists();
+        assertThatThrownBy(() -> service.get(registered.jobId(), ADMIN)).isInstanceOf(ResourceNotFoundException.class);
+    }
+    
+    @Test
+    @DisplayName("Should only show jobs to their submitter and administrators")
+    void shouldScopeJobsToTheirOwner() throws Exception {
+        // Given
+        var job = service.submit(request(portfolio("P1", 100)), "alice");
+        awaitFinished(job.jobId(), ALICE);
+        var ingested = service.register("INGEST", "eod.csv", 1, 1, ResultFormat.CSV, directory.resolve("eod.var.csv"));
+        
+        // When/Then
+        assertThat(service.getJobs(ALICE)).extracting(BatchJob::jobId).containsExactly(job.jobId());
+        assertThat(service.getJobs(BOB)).isEmpty();
+        assertThat(service.getJobs(ADMIN)).extracting(BatchJob::jobId).containsExactly(ingested.jobId(), job.jobId());
+        assertThatThrownBy(() -> service.get(job.jobId(), BOB)).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> service.results(job.jobId(), BOB)).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> service.get(ingested.jobId(), ALICE)).isInstanceOf(ResourceNotFoundException.class);
+        assertThat(service.results(job.jobId(), ADMIN).file()).exists();
+    }
+    
+    private BatchJob awaitFinished(String jobId, Authentication caller) throws InterruptedException {
+        await(() -> service.get(jobId, caller).completedAt() != null);
+        return service.get(jobId, caller);
+    }
+    
+    private static BatchVarRequest request(BatchPortfolio... portfolios) {
+        return new BatchVarRequest(List.of(0.95, 0.99), false, List.of(portfolios));
+    }
+    
+    private static BatchPortfolio portfolio(String portfolioId, int points) {
+        var pnl = IntStream.range(0, points).mapToObj(i -> (double) (i - points / 2)).toList();
+        return new BatchPortfolio(portfolioId, List.of(new Trade(portfolioId + "-T1", pnl)));
+    }
+    
+    private static Authentication caller(String username, String authority) {
+        return new UsernamePasswordAuthenticationToken(username, null, List.of(new SimpleGrantedAuthority(authority)));
+    }
+}
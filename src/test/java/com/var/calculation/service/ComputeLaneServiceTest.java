@@ -0,0 +1,129 @@
+package com.var.calculation.service;
+
+import com.var.calculation.config.VarCalculationProperties;
+import com.var.calculation.model.enums.PriorityLane;
+import com.var.calculation.model.enums.UserRole;
+import com.var.calculation.strategy.CalculationScope;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for priority lane classification and execution.
+ */
+@DisplayName("ComputeLaneService Tests")
+class ComputeLaneServiceTest {
+    
+    private VarCalculationProperties properties;
+    private ComputeLaneService service;
+    
+    @BeforeEach
+    void setUp() {
+        properties = new VarCalculationProperties();
+        properties.getLanes().setInteractiveMaxCost(1_000);
+        service = new ComputeLaneService(properties);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+    
+    @Test
+    @DisplayName("Should classify by endpoint, request size and role")
+    void shouldClassifyRequests() {
+        var user = authentication("ROLE_USER");
+        var admin = authentication("ROLE_ADMIN");
+        properties.getLanes().setBulkRoles(Set.of(UserRole.ADMIN));
+        
+        assertThat(service.classify(PriorityLane.INTERACTIVE, 500, user)).isEqualTo(PriorityLane.INTERACTIVE);
+        assertThat(service.classify(PriorityLane.INTERACTIVE, 5_000, user)).isEqualTo(PriorityLane.BULK);
+        assertThat(service.classify(PriorityLane.BULK, 10, user)).isEqualTo(PriorityLane.BULK);
+        assertThat(service.classify(PriorityLane.INTERACTIVE, 500, admin)).isEqualTo(PriorityLane.BULK);
+    }
+    
+    @Test
+    @DisplayName("Should run calculations on the lane's threads and complete with their exceptions")
+    void shouldRunOnLaneThreads() {
+        var scope = service.openScope("/api/v1/var/trade", null);
+        
+        assertThat(service.submit(PriorityLane.INTERACTIVE, scope, () -> Thread.currentThread().getName()).join())
+            .startsWith("lane-interactive-");
+        assertThat(service.submit(PriorityLane.BULK, scope, () -> Thread.currentThread().getName()).join())
+            .startsWith("lane-bulk-");
+        
+        assertThat(service.submit(PriorityLane.BULK, scope, () -> {
+            throw new IllegalArgumentException("Bad input");
+        }))
+            .failsWithin(Duration.ofSeconds(5))
+            .withThrowableOfType(ExecutionException.class)
+            .withCauseInstanceOf(IllegalArgumentException.class);
+    }
+    
+    @Test
+    @DisplayName("Should stop a cancelled calculation at its next checkpoint")
+    void shouldStopCancelledCalculation() throws Exception {
+        // Given
+        var scope = service.openScope("/api/v1/var/trade", 60_000L);
+        var started = new CountDownLatch(1);
+        
+        // When
+        var future = service.submit(PriorityLane.BULK, scope, () -> {
+            started.countDown();
+            while (true) {
+                CalculationScope.checkpoint();
+            }
+        });
+        started.await();
+        scope.cancel();
+        
+        // Then
+        assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+            .isInstanceOf(CancellationException.class)
+            .hasMessage("Calculation cancelled");
+    }
+    
+    @Test
+    @DisplayName("Should cap requested timeouts at the configured maximum")
+    void shouldCapTimeouts() {
+        properties.getLanes().setMaxTimeout(Duration.ofSeconds(10));
+        
+        assertThat(service.openScope("/api/v1/var/trade", 3_600_000L).remainingMillis()).isLessThanOrEqualTo(10_000);
+        assertThat(service.openScope("/api/v1/var/trade", -1L).remainingMillis()).isLessThanOrEqualTo(10_000);
+        assertThat(service.openScope("/api/v1/var/trade", 500L).remainingMillis()).isLessThanOrEqualTo(500);
+    }
+    
+    @Test
+    @DisplayName("Should default to the endpoint's configured timeout, still capped at the maximum")
+    void shouldUseEndpointDefaultTimeout() {
+        properties.getLanes().setDefaultTimeout(Duration.ofSeconds(5));
+        properties.getLanes().setMaxTimeout(Duration.ofMinutes(1));
+        properties.getLanes().setEndpointTimeouts(Map.of(
+            "/api/v1/var/stressed", Duration.ofSeconds(40),
+            "/api/v1/var/backtest", Duration.ofHours(1)));
+        
+        assertThat(service.openScope("/api/v1/var/stressed", null).remainingMillis()).isBetween(30_000L, 40_000L);
+        assertThat(service.openScope("/api/v1/var/backtest", null).remainingMillis()).isBetween(50_000L, 60_000L);
+        assertThat(service.openScope("/api/v1/var/trade", null).remainingMillis()).isLessThanOrEqualTo(5_000);
+        assertThat(service.openScope("/api/v1/var/stressed", 1_000L).remainingMillis()).isLessThanOrEqualTo(1_000);
+    }
+    
+    private Authentication authentication(String authority) {
+        return new UsernamePasswordAuthenticationToken("user", null, List.of(new SimpleGrantedAuthority(authority)));
+    }
+}
@@ -0,0 +1,49 @@
+package com.var.calculation.service;
+
+import com.var.calculation.model.dto.DiversificationResponse;
+import com.var.calculation.model.dto.TradeVar;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for the binary diversification report format.
+ */
+@DisplayName("DiversificationEncoder Tests")
+class DiversificationEncoderTest {
+    
+    @Test
+    @DisplayName("Should encode header, standalone VaRs and the packed matrix")
+    void shouldEncodeReport() throws IOException {
+        // Given
+        var report = new DiversificationResponse("PORT-001", 0.95, 10.0, 16.0, 6.0,
+            List.of(new TradeVar("T1", 7.0), new TradeVar("T2", 5.0), new TradeVar("T3", 4.0)),
+            FloatBuffer.wrap(new float[] {0.5f, -0.25f, 0.75f}), null, LocalDateTime.now());
+        
+        // When
+        var in = new DataInputStream(new ByteArrayInputStream(DiversificationEncoder.encode(report)));
+        
+        // Then
+        assertThat(in.readInt()).isEqualTo(DiversificationEncoder.MAGIC);
+        assertThat(in.readShort()).isEqualTo(DiversificationEncoder.VERSION);
+        assertThat(in.readInt()).isEqualTo(3);
+        assertThat(in.readDouble()).isEqualTo(10.0);
+        assertThat(in.readDouble()).isEqualTo(6.0);
+        assertThat(in.readUTF()).isEqualTo("T1");
+        assertThat(in.readDouble()).isEqualTo(7.0);
+        in.readUTF();
+        in.readDouble();
+        in.readUTF();
+        in.readDouble();
+        assertThat(new float[] {in.readFloat(), in.readFloat(), in.readFloat()}).containsExactly(0.5f, -0.25f, 0.75f);
+        assertThat(in.available()).isZero();
+    }
+}
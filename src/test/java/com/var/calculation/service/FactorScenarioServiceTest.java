@@ -0,0 +1,63 @@
+package com.var.calculation.service;
+
+import com.var.calculation.exception.ResourceNotFoundException;
+import com.var.calculation.model.dto.FactorScenarioSetRequest;
+import com.var.calculation.model.dto.FactorTrade;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for the factor scenario store.
+ */
+@DisplayName("FactorScenarioService Tests")
+class FactorScenarioServiceTest {
+    
+    private final FactorScenarioService service = new FactorScenarioService();
+    
+    @Test
+    @DisplayName("Should store scenarios row-major and lay out sensitivities in factor order")
+    void shouldStoreScenariosAndLayOutSensitivities() {
+        // Given
+        var info = service.store("HIST-2Y", new FactorScenarioSetRequest(
+            List.of("EURUSD", "UST10Y"),
+            List.of(List.of(0.01, -0.02), List.of(0.03, 0.04), List.of(-0.05, 0.06))));
+        var set = service.get("HIST-2Y");
+        
+        // When
+        var matrix = service.sensitivityMatrix(set, List.of(
+            new FactorTrade("T1", Map.of("UST10Y", 100.0)),
+            new FactorTrade("T2", Map.of("EURUSD", 50.0, "UST10Y", -20.0))));
+        
+        // Then
+        assertThat(info.scenarioCount()).isEqualTo(3);
+        assertThat(set.returns()).containsExactly(0.01, -0.02, 0.03, 0.04, -0.05, 0.06);
+        assertThat(matrix).containsExactly(0.0, 100.0, 50.0, -20.0);
+    }
+    
+    @Test
+    @DisplayName("Should reject unknown factors, ragged scenarios and missing sets")
+    void shouldRejectInvalidInput() {
+        service.store("S", new FactorScenarioSetRequest(List.of("F1"), List.of(List.of(0.01))));
+        var set = service.get("S");
+        
+        assertThatThrownBy(() -> service.sensitivityMatrix(set, List.of(new FactorTrade("T1", Map.of("F2", 1.0)))))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Unknown factor F2");
+        var missing = new HashMap<String, Double>();
+        missing.put("F1", null);
+        assertThatThrownBy(() -> service.sensitivityMatrix(set, List.of(new FactorTrade("T1", missing))))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Missing sensitivity to factor F1");
+        assertThatThrownBy(() -> service.store("R", new FactorScenarioSetRequest(
+            List.of("F1", "F2"), List.of(List.of(0.01)))))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.get("MISSING"))
+            .isInstanceOf(ResourceNotFoundException.class);
+    }
+}
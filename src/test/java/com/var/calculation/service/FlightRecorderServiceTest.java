@@ -0,0 +1,133 @@
+package com.var.calculation.service;
+
+import com.var.calculation.config.VarCalculationProperties;
+import com.var.calculation.exception.ResourceNotFoundException;
+import com.var.calculation.model.enums.PriorityLane;
+import com.var.calculation.strategy.HistoricalSimulationStrategy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for flight recordings of calculation and strategy events.
+ */
+@DisplayName("FlightRecorderService Tests")
+class FlightRecorderServiceTest {
+    
+    @TempDir
+    Path directory;
+    
+    private final VarCalculationProperties properties = new VarCalculationProperties();
+    private FlightRecorderService service;
+    
+    @BeforeEach
+    void setUp() {
+        properties.getJfr().setDirectory(directory);
+        service = new FlightRecorderService(properties);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+    
+    @Test
+    @DisplayName("Should record computed and cached calculations with their phases")
+    void shouldRecordCalculationEvents() throws Exception {
+        // Given
+        service.start(null);
+        
+        // When: one calculation reaches the service, the other is a cache hit
+        var computed = CalculationEvent.admitted("/api/v1/var/portfolio", "user", PriorityLane.INTERACTIVE, 500);
+        computed.bind(() -> {
+            CalculationEvent.describe("P1", "HISTORICAL_SIMULATION", 2);
+            CalculationEvent.aggregated(1_000_000);
+            return null;
+        }).get();
+        computed.complete(null, null);
+        
+        var cached = CalculationEvent.admitted("/api/v1/var/trade", "user", PriorityLane.INTERACTIVE, 250);
+        cached.bind(() -> null).get();
+        cached.complete(null, null);
+        
+        var failed = CalculationEvent.admitted("/api/v1/var/trade", "user", PriorityLane.BULK, 250);
+        failed.complete(null, new IllegalArgumentException("bad input"));
+        
+        var dump = service.stop();
+        
+        // Then
+        var events = read(dump.file(), "com.var.calculation.Calculation");
+        assertThat(events).hasSize(3);
+        
+        var portfolio = events.get(0);
+        assertThat(portfolio.getString("endpoint")).isEqualTo("/api/v1/var/portfolio");
+        assertThat(portfolio.getString("id")).isEqualTo("P1");
+        assertThat(portfolio.getString("lane")).isEqualTo("INTERACTIVE");
+        assertThat(portfolio.getInt("trades")).isEqualTo(2);
+        assertThat(portfolio.getLong("points")).isEqualTo(500);
+        assertThat(portfolio.getBoolean("cacheHit")).isFalse();
+        assertThat(portfolio.getBoolean("success")).isTrue();
+        assertThat(portfolio.getDuration("aggregationTime").toNanos()).isEqualTo(1_000_000);
+        assertThat(portfolio.getDuration("queueTime").toNanos()).isPositive();
+        
+        assertThat(events.get(1).getBoolean("cacheHit")).isTrue();
+        assertThat(events.get(2).getBoolean("success")).isFalse();
+        assertThat(events.get(2).getString("error")).isEqualTo("IllegalArgumentException: bad input");
+        assertThat(service.getStatus().running()).isFalse();
+    }
+    
+    @Test
+    @DisplayName("Should record slow strategy operations and keep recording after a dump")
+    void shouldRecordStrategyEvents() throws Exception {
+        // Given
+        var strategy = new HistoricalSimulationStrategy(properties);
+        var pnl = new Random(5).doubles(2_000_000).toArray();
+        service.start("profile");
+        
+        // When
+        strategy.calculateVaR(pnl, 0.99);
+        var dump = service.dump();
+        
+        // Then
+        assertThat(service.getStatus().running()).isTrue();
+        assertThat(service.getStatus().settings()).isEqualTo("profile");
+        assertThat(read(dump.file(), "com.var.calculation.Strategy"))
+            .anySatisfy(event -> {
+                assertThat(event.getString("operation")).isEqualTo("VAR");
+                assertThat(event.getInt("points")).isEqualTo(2_000_000);
+            });
+        assertThat(Path.of(dump.file()).getParent()).isEqualTo(directory.toAbsolutePath());
+    }
+    
+    @Test
+    @DisplayName("Should reject a second recording, unknown settings and dumps without a recording")
+    void shouldValidateRecordingState() {
+        assertThatThrownBy(() -> service.dump())
+            .isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> service.start("verbose"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Unknown recording settings verbose; use default or profile");
+        
+        service.start(null);
+        
+        assertThatThrownBy(() -> service.start(null))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("A recording is already running; stop it first");
+    }
+    
+    private static List<RecordedEvent> read(String file, String name) throws Exception {
+        return RecordingFile.readAllEvents(Path.of(file)).stream()
+            .filter(event -> event.getEventType().getName().equals(name))
+            .toList();
+    }
+}
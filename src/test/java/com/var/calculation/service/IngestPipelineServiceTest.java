@@ -0,0 +1,184 @@
+package com.var.calculation.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.var.calculation.config.VarCalculationProperties;
+import com.var.calculation.strategy.HistoricalSimulationStrategy;
+import com.var.calculation.strategy.PnLAlignmentStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.var.calculation.service.Await.await;
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * End-to-end tests of the file-drop pipeline against temporary directories.
+ */
+@DisplayName("IngestPipelineService Tests")
+class IngestPipelineServiceTest {
+    
+    @TempDir
+    Path root;
+    
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private ComputeLaneService lanes;
+    private IngestPipelineService service;
+    private BatchJobService jobService;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        var properties = new VarCalculationProperties();
+        var ingest = properties.getIngest();
+        ingest.setEnabled(true);
+        ingest.setInbox(root.resolve("inbox"));
+        ingest.setOutput(root.resolve("output"));
+        ingest.setArchive(root.resolve("archive"));
+        ingest.setQuarantine(root.resolve("quarantine"));
+        ingest.setPollInterval(Duration.ofMillis(20));
+        
+        lanes = new ComputeLaneService(properties);
+        var strategy = new HistoricalSimulationStrategy(properties);
+        jobService = new BatchJobService(properties, mock(VarCalculationService.class), strategy, lanes);
+        service = new IngestPipelineService(properties, lanes, strategy, new PnLAlignmentStrategy(), objectMapper,
+            jobService);
+        service.start();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        service.stop();
+        lanes.shutdown();
+    }
+    
+    @Test
+    @DisplayName("Should write results atomically, archive the input and record it in the manifest")
+    void shouldProcessDroppedFile() throws Exception {
+        // Given: two trades, the second starting a day later
+        var csv = new StringBuilder("date,tradeId,pnl,book\n");
+        var start = LocalDate.of(2026, 1, 1);
+        for (int day = 0; day < 100; day++) {
+            csv.append(start.plusDays(day)).append(",A,").append(day - 50).append(",EQ\n");
+            if (day > 0) {
+                csv.append(start.plusDays(day)).append(",B,").append(2 * day).append(",EQ\n");
+            }
+        }
+        Files.writeString(root.resolve("inbox/eod.csv"), csv);
+        
+        // When
+        await(() -> service.getStatus().processed() == 1);
+        
+        // Then
+        var manifest = Files.readAllLines(root.resolve("output/manifest.jsonl"));
+        var run = objectMapper.readValue(manifest.get(0), IngestPipelineService.IngestRun.class);
+        var output = root.resolve("output/eod." + run.runId() + ".var.csv");
+        var lines = Files.readAllLines(output);
+        assertThat(lines.get(0)).isEqualTo("tradeId,points,var_0.95,es_0.95,var_0.99,es_0.99");
+        assertThat(lines).hasSize(4);
+        assertThat(lines.get(1)).isEqualTo("A,100,45.05,48.0,49.01,50.0");
+        assertThat(lines.get(3)).startsWith("PORTFOLIO,99,");
+        assertThat(root.resolve("inbox/eod.csv")).doesNotExist();
+        assertThat(root.resolve("archive/eod." + run.runId() + ".csv")).exists();
+        
+        assertThat(run.output()).isEqualTo(output.getFileName().toString());
+        assertThat(run.status()).isEqualTo("PROCESSED");
+        assertThat(run.skippedTrades()).isEmpty();
+        assertThat(run.trades()).isEqualTo(2);
+        assertThat(run.points()).isEqualTo(199);
+        assertThat(run.sha256()).hasSize(64);
+        assertThat(service.getStatus().processed()).isEqualTo(1);
+        var admin = new UsernamePasswordAuthenticationToken("admin", null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        assertThat(jobService.results(run.jobId(), admin).file()).isEqualTo(output);
+        assertThat(jobService.get(run.jobId(), admin).rows()).isEqualTo(3);
+    }
+    
+    @Test
+    @DisplayName("Should quarantine a malformed file with the reason")
+    void shouldQuarantineBadFile() throws Exception {
+        // Given
+        Files.writeString(root.resolve("inbox/bad.csv"), "tradeId,date,pnl\nA,2026-01-01,abc\n");
+        Files.writeString(root.resolve("inbox/ignored.txt"), "not an extract");
+        
+        // When
+        await(() -> service.getStatus().failed() == 1);
+        
+        // Then
+        var runId = service.getStatus().recentRuns().get(0).runId();
+        assertThat(Files.readString(root.resolve("quarantine/bad." + runId + ".csv.error")))
+            .isEqualTo("Line 2: For input string: \"abc\"");
+        assertThat(root.resolve("quarantine/bad." + runId + ".csv")).exists();
+        assertThat(root.resolve("inbox/ignored.txt")).exists();
+        assertThat(service.getStatus().failed()).isEqualTo(1);
+        assertThat(service.getStatus().recentRuns())
+            .extracting(IngestPipelineService.IngestRun::status)
+            .containsExactly("QUARANTINED");
+        assertThat(Files.list(root.resolve("output")).map(path -> path.getFileName().toString()).toList())
+            .isEqualTo(List.of("manifest.jsonl"));
+    }
+    
+    @Test
+    @DisplayName("Should skip a trade too short to compute instead of quarantining the file")
+    void shouldSkipShortTrades() throws Exception {
+        // Given: trade A has enough history, trade B only three days
+        var csv = new StringBuilder("date,tradeId,pnl\n");
+        var start = LocalDate.of(2026, 1, 1);
+        for (int day = 0; day < 100; day++) {
+            csv.append(start.plusDays(day)).append(",A,").append(day - 50).append('\n');
+            if (day < 3) {
+                csv.append(start.plusDays(day)).append(",B,").append(day).append('\n');
+            }
+        }
+        Files.writeString(root.resolve("inbox/eod.csv"), csv);
+        
+        // When
+        await(() -> service.getStatus().processed() == 1);
+        
+        // Then
+        var run = service.getStatus().recentRuns().get(0);
+        assertThat(run.skippedTrades()).containsOnlyKeys("B");
+        assertThat(run.skippedTrades().get("B")).contains("data points");
+        assertThat(Files.readAllLines(root.resolve("output/" + run.output())))
+            .containsExactly(
+                "tradeId,points,var_0.95,es_0.95,var_0.99,es_0.99",
+                "A,100,45.05,48.0,49.01,50.0",
+                "B,3,,,,",
+                "PORTFOLIO,100,45.05,48.0,49.01,50.0");
+        assertThat(service.getStatus().failed()).isZero();
+    }
+    
+    @Test
+    @DisplayName("Should keep the results of an earlier file dropped under the same name")
+    void shouldKeepEarlierRunsOfSameFile() throws Exception {
+        // Given
+        var csv = new StringBuilder("date,tradeId,pnl\n");
+        var start = LocalDate.of(2026, 1, 1);
+        for (int day = 0; day < 100; day++) {
+            csv.append(start.plusDays(day)).append(",A,").append(day - 50).append('\n');
+        }
+        
+        // When
+        Files.writeString(root.resolve("inbox/eod.csv"), csv);
+        await(() -> service.getStatus().processed() == 1);
+        Files.writeString(root.resolve("inbox/eod.csv"), csv);
+        await(() -> service.getStatus().processed() == 2);
+        
+        // Then
+        var runs = service.getStatus().recentRuns();
+        assertThat(runs).extracting(IngestPipelineService.IngestRun::runId).doesNotHaveDuplicates();
+        for (var run : runs) {
+            assertThat(root.resolve("output/" + run.output())).exists();
+            assertThat(root.resolve("archive/eod." + run.runId() + ".csv")).exists();
+        }
+    }
+}
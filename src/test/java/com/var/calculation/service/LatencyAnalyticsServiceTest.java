@@ -0,0 +1,121 @@
+package com.var.calculation.service;
+
+import com.var.calculation.config.VarCalculationProperties;
+import com.var.calculation.model.enums.LatencyGrouping;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for rolling latency percentiles of audited requests.
+ */
+@DisplayName("LatencyAnalyticsService Tests")
+class LatencyAnalyticsServiceTest {
+    
+    private static final long NOW = 1_700_000_000_000L;
+    private static final long MINUTE = 60_000;
+    
+    private final VarCalculationProperties properties = new VarCalculationProperties();
+    private LatencyAnalyticsService service;
+    
+    @BeforeEach
+    void setUp() {
+        service = new LatencyAnalyticsService(properties);
+    }
+    
+    @Test
+    @DisplayName("Should report percentiles and error rates per endpoint")
+    void shouldReportPercentilesPerEndpoint() {
+        // Given: 1000 trade requests of 1..1000 ms, every hundredth failing
+        for (int i = 1; i <= 1000; i++) {
+            service.record("/api/v1/var/trade", i % 2 == 0 ? "alice" : "bob", i, i % 100 != 0, NOW);
+        }
+        service.record("/api/v1/var/portfolio", "alice", 40, true, NOW);
+        
+        // When
+        var report = service.report(Duration.ofMinutes(15), LatencyGrouping.ENDPOINT, null, null, NOW);
+        
+        // Then
+        assertThat(report.stats()).hasSize(2);
+        var trade = report.stats().get(0);
+        assertThat(trade.endpoint()).isEqualTo("/api/v1/var/trade");
+        assertThat(trade.user()).isNull();
+        assertThat(trade.count()).isEqualTo(1000);
+        assertThat(trade.errors()).isEqualTo(10);
+        assertThat(trade.errorRate()).isCloseTo(0.01, within(1e-9));
+        assertThat(trade.p50()).isEqualTo(500);
+        assertThat(trade.p99()).isEqualTo(990);
+        assertThat(trade.p999()).isEqualTo(999);
+        assertThat(trade.max()).isEqualTo(1000);
+        assertThat(report.stats().get(1).count()).isEqualTo(1);
+    }
+    
+    @Test
+    @DisplayName("Should only include slots inside the window")
+    void shouldRespectWindow() {
+        // Given
+        service.record("/api/v1/var/trade", "alice", 10, true, NOW - 30 * MINUTE);
+        service.record("/api/v1/var/trade", "alice", 20, false, NOW - 10 * MINUTE);
+        service.record("/api/v1/var/trade", "alice", 30, true, NOW);
+        
+        // When
+        var recent = service.report(Duration.ofMinutes(15), LatencyGrouping.ENDPOINT_USER, null, null, NOW);
+        var hour = service.report(Duration.ofHours(1), LatencyGrouping.ENDPOINT_USER, null, null, NOW);
+        
+        // Then
+        assertThat(recent.stats()).singleElement().satisfies(stats -> {
+            assertThat(stats.count()).isEqualTo(2);
+            assertThat(stats.errors()).isEqualTo(1);
+            assertThat(stats.user()).isEqualTo("alice");
+        });
+        assertThat(hour.stats().get(0).count()).isEqualTo(3);
+    }
+    
+    @Test
+    @DisplayName("Should drop slots older than the retention once the ring wraps")
+    void shouldExpireOldSlots() {
+        // Given
+        service.record("/api/v1/var/trade", "alice", 10, true, NOW - 70 * MINUTE);
+        service.record("/api/v1/var/trade", "alice", 20, true, NOW);
+        service.record("/api/v1/var/trade", "alice", 5, true, NOW - 90 * MINUTE);
+        
+        // When
+        var report = service.report(Duration.ofHours(1), LatencyGrouping.USER, "/api/v1/var/trade", "alice", NOW);
+        
+        // Then
+        assertThat(report.stats()).singleElement().satisfies(stats -> {
+            assertThat(stats.count()).isEqualTo(1);
+            assertThat(stats.max()).isEqualTo(20);
+        });
+    }
+    
+    @Test
+    @DisplayName("Should fold users beyond the series limit into one series per endpoint")
+    void shouldBoundSeries() {
+        // Given
+        properties.getLatency().setMaxSeries(3);
+        
+        // When
+        for (int i = 0; i < 10; i++) {
+            service.record("/api/v1/var/trade", "user" + i, 10, true, NOW);
+        }
+        
+        // Then
+        assertThat(service.seriesCount()).isEqualTo(4);
+        var report = service.report(Duration.ofMinutes(1), LatencyGrouping.USER, null, LatencyAnalyticsService.OTHER_USER, NOW);
+        assertThat(report.stats().get(0).count()).isEqualTo(7);
+    }
+    
+    @Test
+    @DisplayName("Should reject windows longer than the retention")
+    void shouldRejectInvalidWindows() {
+        assertThatThrownBy(() -> service.report(Duration.ofHours(2), LatencyGrouping.ENDPOINT, null, null))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.report(Duration.ZERO, LatencyGrouping.ENDPOINT, null, null))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
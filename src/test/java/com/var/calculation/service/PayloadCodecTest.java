@@ -0,0 +1,134 @@
+package com.var.calculation.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.var.calculation.config.VarCalculationProperties;
+import com.var.calculation.model.dto.PortfolioVarRequest;
+import com.var.calculation.model.dto.Trade;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for the XOR series codec and the audit payload encoding built on it.
+ */
+@DisplayName("PayloadCodec Tests")
+class PayloadCodecTest {
+    
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final PayloadCodec codec = new PayloadCodec(objectMapper, new VarCalculationProperties());
+    
+    @Test
+    @DisplayName("Should round-trip full-precision doubles bit for bit")
+    void shouldRoundTripSeriesExactly() {
+        // Given: repeats, sign changes, special values and random noise
+        var random = new Random(11);
+        var values = new double[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i % 7 == 0 ? values[Math.max(0, i - 1)] : random.nextGaussian() * 1e4;
+        }
+        values[10] = -0.0;
+        values[11] = Double.NaN;
+        values[12] = Double.MIN_VALUE;
+        values[13] = -Double.MAX_VALUE;
+        
+        // When/Then
+        assertBitIdentical(SeriesCodec.decode(SeriesCodec.encode(values), values.length), values);
+        assertThat(SeriesCodec.decode(SeriesCodec.encode(new double[0]), 0)).isEmpty();
+    }
+    
+    @Test
+    @DisplayName("Should store values with few decimals as scaled integers")
+    void shouldRoundTripDecimalSeries() {
+        // Given: P&L in cents
+        var random = new Random(5);
+        var values = new double[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.round(random.nextGaussian() * 50_000) / 100.0;
+        }
+        
+        // When
+        var encoded = SeriesCodec.encode(values);
+        
+        // Then
+        assertBitIdentical(SeriesCodec.decode(encoded, values.length), values);
+        assertThat(encoded.length).isLessThan(values.length * 4);
+    }
+    
+    @Test
+    @DisplayName("Should encode a flat series in about one bit per value")
+    void shouldCompressRepeatedValues() {
+        // Given
+        var values = new double[8000];
+        Arrays.fill(values, 1234.5);
+        
+        // When/Then
+        assertThat(SeriesCodec.encode(values)).hasSizeLessThanOrEqualTo(1 + 8 + 1000);
+    }
+    
+    @Test
+    @DisplayName("Should decode a request back to the JSON it was encoded from")
+    void shouldRoundTripRequest() throws Exception {
+        // Given: a dated trade, whose dates stay in the JSON, and an undated one
+        var random = new Random(3);
+        var dates = IntStream.range(0, 250).mapToObj(day -> LocalDate.of(2025, 1, 1).plusDays(day)).toList();
+        var trades = new ArrayList<Trade>();
+        trades.add(new Trade("DATED", series(random, 250), dates, null));
+        trades.add(new Trade("UNDATED", series(random, 250)));
+        var request = new PortfolioVarRequest("P/1~x", 0.99, trades);
+        
+        // When
+        var encoded = codec.encode(request);
+        var decoded = codec.decode(encoded.bytes());
+        
+        // Then
+        assertThat(decoded).isEqualTo(objectMapper.valueToTree(request));
+        assertThat(objectMapper.treeToValue(decoded, PortfolioVarRequest.class)).isEqualTo(request);
+        assertThat(encoded.jsonBytes()).isEqualTo(objectMapper.writeValueAsBytes(request).length);
+        assertThat(encoded.bytes().length).isLessThan(encoded.jsonBytes() * 2 / 5);
+    }
+    
+    @Test
+    @DisplayName("Should leave short and integer arrays in the JSON")
+    void shouldOnlyEncodeLongFloatingPointArrays() {
+        // Given
+        var payload = List.of(
+            List.of(1.5, 2.5),
+            List.of(1, 2, 3, 4, 5, 6, 7, 8, 9),
+            List.of(List.of(0.1, 0.2, 0.3, 0.4, 0.5, 0.6, 0.7, 0.8)));
+        
+        // When
+        var decoded = codec.decode(codec.encode(payload).bytes());
+        
+        // Then
+        assertThat(decoded).isEqualTo(objectMapper.valueToTree(payload));
+    }
+    
+    @Test
+    @DisplayName("Should reject a corrupt encoding")
+    void shouldRejectCorruptEncoding() {
+        assertThatThrownBy(() -> codec.decode(new byte[] {1, 2, 3}))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Invalid payload encoding");
+    }
+    
+    private static void assertBitIdentical(double[] actual, double[] expected) {
+        assertThat(actual).hasSameSizeAs(expected);
+        for (int i = 0; i < expected.length; i++) {
+            assertThat(Double.doubleToRawLongBits(actual[i])).as("value %d", i)
+                .isEqualTo(Double.doubleToRawLongBits(expected[i]));
+        }
+    }
+    
+    private static List<Double> series(Random random, int size) {
+        return random.doubles(size).map(u -> Math.round((u - 0.5) * 2e7) / 100.0).boxed().toList();
+    }
+}
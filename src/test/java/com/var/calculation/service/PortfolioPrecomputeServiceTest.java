@@ -0,0 +1,121 @@
+package com.var.calculation.service;
+
+import com.var.calculation.config.CacheConfig;
+import com.var.calculation.config.VarCalculationProperties;
+import com.var.calculation.exception.ResourceNotFoundException;
+import com.var.calculation.model.dto.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for registered portfolio precomputation.
+ */
+@DisplayName("PortfolioPrecomputeService Tests")
+class PortfolioPrecomputeServiceTest {
+    
+    private VarCalculationService varService;
+    private VarCalculationProperties properties;
+    private ConcurrentMapCacheManager cacheManager;
+    private PortfolioPrecomputeService service;
+    
+    private final PortfolioVarRequest request = new PortfolioVarRequest("PORT-001", 0.95,
+        List.of(new Trade("T1", List.of(-10.0, -5.0, 0.0, 5.0, 10.0))));
+    
+    @BeforeEach
+    void setUp() {
+        varService = mock(VarCalculationService.class);
+        properties = new VarCalculationProperties();
+        properties.getPrecompute().setConcurrency(1);
+        cacheManager = new ConcurrentMapCacheManager(CacheConfig.PORTFOLIO_VAR_CACHE);
+        service = new PortfolioPrecomputeService(varService, properties, cacheManager);
+    }
+    
+    @Test
+    @DisplayName("Should reload registered portfolios into the result cache")
+    void shouldReloadRegisteredPortfolio() {
+        // Given
+        var response = new VarResponse("PORT-001", 9.5, 0.95, "HISTORICAL_SIMULATION", 1, LocalDateTime.now());
+        when(varService.evaluatePortfolio(any())).thenReturn(response);
+        service.register(request, "alice");
+        
+        // When
+        Object reloaded = service.reload(request.cacheKey("alice"));
+        
+        // Then
+        assertThat(reloaded).isEqualTo(response);
+        assertThat(cacheManager.getCache(CacheConfig.PORTFOLIO_VAR_CACHE).get(request.cacheKey("alice"), VarResponse.class))
+            .isEqualTo(response);
+        assertThat(service.reload("alice_UNKNOWN_0.95_HISTORICAL_SIMULATION")).isNull();
+    }
+    
+    @Test
+    @DisplayName("Should enforce the registration limit")
+    void shouldEnforceRegistrationLimit() {
+        // Given
+        properties.getPrecompute().setMaxRegistered(1);
+        service.register(request, "alice");
+        var other = new PortfolioVarRequest("PORT-002", 0.99, request.trades());
+        
+        // When/Then
+        assertThatThrownBy(() -> service.register(other, "alice"))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.unregister("PORT-002", null, "alice"))
+            .isInstanceOf(ResourceNotFoundException.class);
+    }
+    
+    @Test
+    @DisplayName("Should keep registrations and precomputed results private to their user")
+    void shouldScopeRegistrationsToUser() {
+        // Given: bob registers the same portfolio ID with different trades
+        var bobRequest = new PortfolioVarRequest("PORT-001", 0.95, List.of(new Trade("FAKE", List.of(0.0, 0.0, 0.0, 0.0, 0.0))));
+        var aliceResponse = new VarResponse("PORT-001", 9.5, 0.95, "HISTORICAL_SIMULATION", 1, LocalDateTime.now());
+        var bobResponse = new VarResponse("PORT-001", 0.0, 0.95, "HISTORICAL_SIMULATION", 1, LocalDateTime.now());
+        when(varService.evaluatePortfolio(request)).thenReturn(aliceResponse);
+        when(varService.evaluatePortfolio(bobRequest)).thenReturn(bobResponse);
+        service.register(request, "alice");
+        service.register(new PortfolioVarRequest("PORT-001", 0.99, request.trades()), "alice");
+        service.register(bobRequest, "bob");
+        
+        // When
+        service.reload(bobRequest.cacheKey("bob"));
+        
+        // Then
+        var results = cacheManager.getCache(CacheConfig.PORTFOLIO_VAR_CACHE);
+        assertThat(service.reload(request.cacheKey("alice"))).isEqualTo(aliceResponse);
+        assertThat(results.get(request.cacheKey("alice"), VarResponse.class)).isEqualTo(aliceResponse);
+        assertThat(results.get(bobRequest.cacheKey("bob"), VarResponse.class)).isEqualTo(bobResponse);
+        assertThat(service.getRegisteredPortfolios("alice")).extracting(RegisteredPortfolio::confidenceLevel)
+            .containsExactly(0.95, 0.99);
+        assertThat(service.getRegisteredPortfolios("bob")).hasSize(1);
+        
+        service.unregister("PORT-001", 0.95, "alice");
+        assertThat(service.getRegisteredPortfolios("alice")).extracting(RegisteredPortfolio::confidenceLevel)
+            .containsExactly(0.99);
+        assertThat(service.getRegisteredPortfolios("bob")).hasSize(1);
+        assertThatThrownBy(() -> service.unregister("PORT-001", 0.99, "carol"))
+            .isInstanceOf(ResourceNotFoundException.class);
+    }
+    
+    @Test
+    @DisplayName("Should honour time windows that wrap past midnight")
+    void shouldHonourWrappingWindow() {
+        // Given
+        properties.getPrecompute().setWindowStart(LocalTime.of(22, 0));
+        properties.getPrecompute().setWindowEnd(LocalTime.of(6, 0));
+        
+        // Then
+        assertThat(service.inWindow(LocalTime.of(23, 30))).isTrue();
+        assertThat(service.inWindow(LocalTime.of(5, 59))).isTrue();
+        assertThat(service.inWindow(LocalTime.of(12, 0))).isFalse();
+    }
+}
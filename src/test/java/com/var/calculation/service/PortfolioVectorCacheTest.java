@@ -0,0 +1,88 @@
+package com.var.calculation.service;
+
+import com.var.calculation.config.CacheConfig;
+import com.var.calculation.model.dto.Trade;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for the per-user what-if vector cache.
+ */
+@DisplayName("PortfolioVectorCache Tests")
+class PortfolioVectorCacheTest {
+    
+    private final PortfolioVectorCache cache = new PortfolioVectorCache(
+        new ConcurrentMapCacheManager(CacheConfig.PORTFOLIO_VECTOR_CACHE));
+    
+    private final List<Trade> trades = List.of(new Trade("T1", List.of(1.0, 2.0, 3.0, 4.0, 5.0)));
+    
+    @Test
+    @DisplayName("Should only serve a vector to the user who stored it")
+    void shouldScopeVectorsToTheirUser() {
+        // Given
+        double[] pnl = {1.0, 2.0, 3.0, 4.0, 5.0};
+        
+        // When
+        cache.put("alice", "P1", trades, pnl);
+        
+        // Then
+        assertThat(cache.latest("alice", "P1")).map(PortfolioVectorCache.PortfolioVector::portfolioPnL).containsSame(pnl);
+        assertThat(cache.latest("bob", "P1")).isEmpty();
+        assertThat(cache.get("bob", "P1", trades)).isEmpty();
+    }
+    
+    @Test
+    @DisplayName("Should only match the vector against the trades it was aggregated from")
+    void shouldMatchVectorsByTradeFingerprint() {
+        // Given
+        double[] pnl = {1.0, 2.0, 3.0, 4.0, 5.0};
+        cache.put("alice", "P1", trades, pnl);
+        
+        // When
+        var otherPoints = List.of(new Trade("T1", List.of(1.0, 2.0, 3.0, 4.0, 6.0)));
+        var otherId = List.of(new Trade("T2", List.of(1.0, 2.0, 3.0, 4.0, 5.0)));
+        var withOffset = List.of(new Trade("T1", List.of(1.0, 2.0, 3.0, 4.0, 5.0), null, 0));
+        var withDates = List.of(new Trade("T1", List.of(1.0, 2.0, 3.0, 4.0, 5.0),
+            List.of(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 3),
+                LocalDate.of(2024, 1, 4), LocalDate.of(2024, 1, 5)), null));
+        
+        // Then
+        assertThat(cache.get("alice", "P1", List.copyOf(trades))).map(PortfolioVectorCache.PortfolioVector::portfolioPnL)
+            .containsSame(pnl);
+        assertThat(cache.get("alice", "P1", otherPoints)).isEmpty();
+        assertThat(cache.get("alice", "P1", otherId)).isEmpty();
+        assertThat(cache.get("alice", "P1", withOffset)).isEmpty();
+        assertThat(cache.get("alice", "P1", withDates)).isEmpty();
+    }
+    
+    @Test
+    @DisplayName("Should flag vectors aggregated from dated or offset trades")
+    void shouldFlagAlignedVectors() {
+        // When
+        cache.put("alice", "P1", trades, new double[] {1.0});
+        cache.put("alice", "P2", List.of(new Trade("T1", List.of(1.0, 2.0), null, 3)), new double[] {1.0});
+        
+        // Then
+        assertThat(cache.latest("alice", "P1")).map(PortfolioVectorCache.PortfolioVector::aligned).contains(false);
+        assertThat(cache.latest("alice", "P2")).map(PortfolioVectorCache.PortfolioVector::aligned).contains(true);
+    }
+    
+    @Test
+    @DisplayName("Should drop a user's vector on eviction")
+    void shouldEvictVector() {
+        // Given
+        cache.put("alice", "P1", trades, new double[] {1.0});
+        
+        // When
+        cache.evict("alice", "P1");
+        
+        // Then
+        assertThat(cache.latest("alice", "P1")).isEmpty();
+    }
+}
@@ -0,0 +1,149 @@
+package com.var.calculation.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.var.calculation.config.VarCalculationProperties;
+import com.var.calculation.exception.ResourceNotFoundException;
+import com.var.calculation.model.dto.SketchMergeRequest;
+import com.var.calculation.model.dto.SketchSummary;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for streamed sketch ingest, merging and import/export.
+ */
+@DisplayName("QuantileSketchService Tests")
+class QuantileSketchServiceTest {
+    
+    private static final String USER = "alice";
+    
+    private final VarCalculationProperties properties = new VarCalculationProperties();
+    private final QuantileSketchService service = new QuantileSketchService(
+        properties, new ObjectMapper(), mock(AuditService.class));
+    
+    @Test
+    @DisplayName("Should ingest JSON and binary points into the same sketch")
+    void shouldIngestJsonAndBinary() {
+        // When
+        service.ingestJson("S1", json("[-10.0, -5.5, 0, 5, 10]"), USER);
+        var summary = service.ingestBinary("S1", binary(-20.0, 20.0), USER);
+        
+        // Then
+        assertThat(summary.count()).isEqualTo(7);
+        assertThat(service.calculateVaR("S1", 0.99, USER).var()).isCloseTo(20.0, within(1e-9));
+    }
+    
+    @Test
+    @DisplayName("Should reject truncated binary input without changing the sketch")
+    void shouldRejectTruncatedBinary() {
+        // Given
+        service.ingestBinary("S1", binary(1.0, 2.0), USER);
+        var truncated = Arrays.copyOf(binary(3.0, 4.0).readAllBytes(), 12);
+        
+        // When/Then
+        assertThatThrownBy(() -> service.ingestBinary("S1", new ByteArrayInputStream(truncated), USER))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("8-byte");
+        assertThat(service.getSketches(USER)).extracting(SketchSummary::count).containsExactly(2L);
+    }
+    
+    @Test
+    @DisplayName("Should add no points from a stream with an invalid value")
+    void shouldValidateWholeStreamBeforeAdding() {
+        // When/Then
+        assertThatThrownBy(() -> service.ingestBinary("S1", binary(1.0, 2.0, Double.NaN), USER))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.ingestJson("S1", json("[1.0, 2.0, \"x\"]"), USER))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(service.getSketches(USER)).isEmpty();
+    }
+    
+    @Test
+    @DisplayName("Should merge a user's sketches into a target")
+    void shouldMergeSketches() {
+        // Given
+        service.ingestJson("A", json("[1, 2, 3]"), USER);
+        service.ingestJson("B", json("[4, 5]"), USER);
+        
+        // When
+        var merged = service.merge(new SketchMergeRequest("ALL", List.of("A", "B")), USER);
+        
+        // Then
+        assertThat(merged.count()).isEqualTo(5);
+        assertThat(service.getSketches(USER)).extracting(SketchSummary::sketchId).containsExactly("A", "ALL", "B");
+    }
+    
+    @Test
+    @DisplayName("Should round-trip a sketch through export and import")
+    void shouldExportAndImport() {
+        // Given
+        service.ingestJson("S1", json("[-3, -2, -1, 0, 1, 2, 3]"), USER);
+        
+        // When
+        var exported = service.export("S1", USER);
+        var imported = service.importSketch("COPY", new ByteArrayInputStream(exported), USER);
+        
+        // Then
+        assertThat(imported.count()).isEqualTo(7);
+        assertThat(service.calculateVaR("COPY", 0.9, USER).var())
+            .isEqualTo(service.calculateVaR("S1", 0.9, USER).var());
+    }
+    
+    @Test
+    @DisplayName("Should reject imports over the size limit or with a finer compression")
+    void shouldRejectOversizedImports() {
+        // Given
+        properties.getSketch().setMaxImportSize(DataSize.ofBytes(64));
+        
+        // When/Then
+        assertThatThrownBy(() -> service.importSketch("S1", new ByteArrayInputStream(new byte[65]), USER))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("64-byte import limit");
+        
+        var header = ByteBuffer.allocate(40).putInt(1).putDouble(0).putDouble(0).putDouble(1e9).array();
+        assertThatThrownBy(() -> service.importSketch("S1", new ByteArrayInputStream(header), USER))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("compression");
+        assertThat(service.getSketches(USER)).isEmpty();
+    }
+    
+    @Test
+    @DisplayName("Should keep sketches private to the user who created them")
+    void shouldScopeSketchesToTheirOwner() {
+        // Given
+        service.ingestJson("S1", json("[1, 2, 3]"), USER);
+        
+        // When
+        service.ingestJson("S1", json("[100]"), "bob");
+        
+        // Then
+        assertThat(service.getSketches(USER)).extracting(SketchSummary::count).containsExactly(3L);
+        assertThat(service.getSketches("bob")).extracting(SketchSummary::count).containsExactly(1L);
+        assertThatThrownBy(() -> service.export("S1", "carol")).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> service.merge(new SketchMergeRequest("MINE", List.of("S1")), "carol"))
+            .isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> service.delete("S1", "carol")).isInstanceOf(ResourceNotFoundException.class);
+    }
+    
+    private static InputStream json(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static ByteArrayInputStream binary(double... values) {
+        var buffer = ByteBuffer.allocate(values.length * Double.BYTES);
+        for (double value : values) {
+            buffer.putDouble(value);
+        }
+        return new ByteArrayInputStream(buffer.array());
+    }
+}
@@ -0,0 +1,106 @@
+package com.var.calculation.service;
+
+import com.var.calculation.config.VarCalculationProperties;
+import com.var.calculation.strategy.HistoricalSimulationStrategy;
+import com.var.calculation.strategy.SelectionVarEngine;
+import com.var.calculation.strategy.VarEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static com.var.calculation.service.Await.await;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for sampling live results into the shadow engine.
+ */
+@DisplayName("ShadowComparisonService Tests")
+class ShadowComparisonServiceTest {
+    
+    private final VarCalculationProperties properties = new VarCalculationProperties();
+    private ShadowComparisonService service;
+    
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+    
+    @Test
+    @DisplayName("Should compare every sample off the calling thread and report no mismatches")
+    void shouldShadowSampledRequests() throws Exception {
+        // Given
+        var baseline = new HistoricalSimulationStrategy(properties);
+        service = create(baseline, new SelectionVarEngine());
+        var random = new Random(9);
+        
+        // When
+        for (int i = 0; i < 20; i++) {
+            var pnl = random.doubles(500).map(u -> u - 0.5).toArray();
+            service.sample("/api/v1/var/trade", "T" + i, () -> pnl, 0.99, baseline.calculateVaR(pnl, 0.99));
+        }
+        await(() -> service.getStatus().compared() == 20);
+        
+        // Then
+        var status = service.getStatus();
+        assertThat(status.sampled()).isEqualTo(20);
+        assertThat(status.mismatches()).isZero();
+        assertThat(status.maxDifference()).isZero();
+        assertThat(status.speedup()).isPositive();
+    }
+    
+    @Test
+    @DisplayName("Should report a candidate outside tolerance as a mismatch")
+    void shouldRecordMismatches() throws Exception {
+        // Given: a candidate that is off by one part in a million
+        var baseline = new HistoricalSimulationStrategy(properties);
+        var biased = new VarEngine() {
+            @Override
+            public String name() {
+                return "QUICKSELECT";
+            }
+            
+            @Override
+            public double calculateVaR(double[] pnl, double confidenceLevel) {
+                return baseline.calculateVaR(pnl, confidenceLevel) * (1 + 1e-6);
+            }
+        };
+        service = create(baseline, biased);
+        var pnl = new Random(2).doubles(250).map(u -> (u - 0.5) * 1000).toArray();
+        
+        // When
+        service.sample("/api/v1/var/portfolio", "P1", () -> pnl, 0.95, baseline.calculateVaR(pnl, 0.95));
+        await(() -> service.getStatus().compared() == 1);
+        
+        // Then
+        var status = service.getStatus();
+        assertThat(status.mismatches()).isEqualTo(1);
+        assertThat(status.recentMismatches()).singleElement()
+            .satisfies(mismatch -> {
+                assertThat(mismatch.id()).isEqualTo("P1");
+                assertThat(mismatch.points()).isEqualTo(250);
+                assertThat(mismatch.match()).isFalse();
+            });
+    }
+    
+    @Test
+    @DisplayName("Should reject an unknown candidate when enabled")
+    void shouldRejectUnknownCandidate() {
+        properties.getShadow().setEnabled(true);
+        properties.getShadow().setCandidate("MISSING");
+        var baseline = new HistoricalSimulationStrategy(properties);
+        
+        assertThatThrownBy(() -> new ShadowComparisonService(properties, baseline, List.of(baseline)))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("Unknown shadow candidate MISSING; available: HISTORICAL_SIMULATION");
+        service = new ShadowComparisonService(new VarCalculationProperties(), baseline, List.of(baseline));
+    }
+    
+    private ShadowComparisonService create(HistoricalSimulationStrategy baseline, VarEngine candidate) {
+        properties.getShadow().setEnabled(true);
+        properties.getShadow().setSampleRate(1.0);
+        return new ShadowComparisonService(properties, baseline, List.of(baseline, candidate));
+    }
+}
@@ -0,0 +1,186 @@
+package com.var.calculation.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.var.calculation.config.VarCalculationProperties;
+import com.var.calculation.model.dto.PortfolioVarRequest;
+import com.var.calculation.model.dto.Trade;
+import com.var.calculation.model.dto.TradeVarRequest;
+import com.var.calculation.model.dto.VarResponse;
+import com.var.calculation.model.enums.AuditStatus;
+import com.var.calculation.model.enums.VarMethod;
+import com.var.calculation.repository.AuditRecordRepository;
+import com.var.calculation.repository.AuditRecordRepository.ReplaySource;
+import com.var.calculation.strategy.HistoricalSimulationStrategy;
+import com.var.calculation.strategy.SelectionVarEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for replaying captured audit payloads through both VaR engines.
+ */
+@DisplayName("ShadowReplayService Tests")
+class ShadowReplayServiceTest {
+    
+    private static final String TRADE = "/api/v1/var/trade";
+    private static final String PORTFOLIO = "/api/v1/var/portfolio";
+    
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final VarCalculationProperties properties = new VarCalculationProperties();
+    private final HistoricalSimulationStrategy baseline = new HistoricalSimulationStrategy(properties);
+    private final PayloadCodec payloadCodec = new PayloadCodec(objectMapper, properties);
+    private final List<ReplaySource> records = new ArrayList<>();
+    private final Random random = new Random(17);
+    private AuditRecordRepository repository;
+    private VarCalculationService varService;
+    private ShadowComparisonService shadowService;
+    private ShadowReplayService service;
+    
+    @BeforeEach
+    void setUp() {
+        repository = mock(AuditRecordRepository.class);
+        when(repository.findByEndpointInAndStatusAndRequestPayloadIsNotNullAndIdLessThanOrderByIdDesc(
+                anyCollection(), eq(AuditStatus.SUCCESS), anyLong(), any(Pageable.class)))
+            .thenAnswer(invocation -> {
+                Collection<String> endpoints = invocation.getArgument(0);
+                long before = invocation.getArgument(2);
+                Pageable pageable = invocation.getArgument(3);
+                return records.stream()
+                    .filter(record -> endpoints.contains(record.getEndpoint()) && record.getId() < before)
+                    .sorted(Comparator.comparing(ReplaySource::getId).reversed())
+                    .limit(pageable.getPageSize())
+                    .toList();
+            });
+        varService = mock(VarCalculationService.class);
+        shadowService = new ShadowComparisonService(properties, baseline, List.of(baseline, new SelectionVarEngine()));
+        service = new ShadowReplayService(repository, payloadCodec, objectMapper, varService, shadowService);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        shadowService.shutdown();
+    }
+    
+    @Test
+    @DisplayName("Should replay the most recent records a page at a time")
+    void shouldReplayInPages() {
+        // Given
+        for (int i = 0; i < 130; i++) {
+            var pnl = pnl();
+            addTrade(new TradeVarRequest("T" + i, list(pnl), 0.99), baseline.calculateVaR(pnl, 0.99));
+        }
+        
+        // When
+        var report = service.replay(120);
+        
+        // Then
+        assertThat(report.records()).isEqualTo(120);
+        assertThat(report.compared()).isEqualTo(120);
+        assertThat(report.skipped()).isZero();
+        assertThat(report.mismatches()).isZero();
+        assertThat(report.irreproducible()).isZero();
+        assertThat(shadowService.getStatus().lastReplay()).isEqualTo(report);
+        
+        var pages = ArgumentCaptor.forClass(Pageable.class);
+        var before = ArgumentCaptor.forClass(Long.class);
+        verify(repository, times(3)).findByEndpointInAndStatusAndRequestPayloadIsNotNullAndIdLessThanOrderByIdDesc(
+            eq(List.of(TRADE, PORTFOLIO)), eq(AuditStatus.SUCCESS), before.capture(), pages.capture());
+        assertThat(pages.getAllValues()).extracting(Pageable::getPageSize)
+            .containsExactly(ShadowReplayService.PAGE_SIZE, ShadowReplayService.PAGE_SIZE, 20);
+        assertThat(before.getAllValues()).containsExactly(Long.MAX_VALUE, 81L, 31L);
+    }
+    
+    @Test
+    @DisplayName("Should skip records it cannot replay and flag results no longer reproduced")
+    void shouldSkipAndFlagRecords() {
+        // Given
+        var pnl = pnl();
+        double var = baseline.calculateVaR(pnl, 0.95);
+        addTrade(new TradeVarRequest("SAME", list(pnl), 0.95), var);
+        addTrade(new TradeVarRequest("CHANGED", list(pnl), 0.95), var + 1);
+        addTrade(new TradeVarRequest("CF", list(pnl), 0.95, VarMethod.CORNISH_FISHER), var);
+        add(TRADE, payloadCodec.encode(new TradeVarRequest("FAILED", list(pnl), 0.95)).bytes(), null);
+        add(TRADE, new byte[] {1, 2, 3}, response("BROKEN", var));
+        
+        var trades = List.of(new Trade("T1", list(pnl)));
+        when(varService.aggregate(trades)).thenReturn(pnl);
+        add(PORTFOLIO, payloadCodec.encode(new PortfolioVarRequest("P1", 0.95, trades)).bytes(), response("P1", var));
+        
+        // When
+        var report = service.replay(100);
+        
+        // Then
+        assertThat(report.records()).isEqualTo(6);
+        assertThat(report.compared()).isEqualTo(3);
+        assertThat(report.skipped()).isEqualTo(3);
+        assertThat(report.irreproducible()).isEqualTo(1);
+        assertThat(report.mismatches()).isEqualTo(1);
+        assertThat(report.mismatchDetails()).extracting(ShadowComparisonService.Comparison::id).containsExactly("CHANGED");
+    }
+    
+    @Test
+    @DisplayName("Should reject limits outside 1 to 1000 without reading records")
+    void shouldRejectInvalidLimits() {
+        assertThatThrownBy(() -> service.replay(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.replay(ShadowReplayService.MAX_RECORDS + 1))
+            .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(repository);
+    }
+    
+    private double[] pnl() {
+        return random.doubles(250).map(u -> Math.round((u - 0.5) * 1e4) / 100.0).toArray();
+    }
+    
+    private static List<Double> list(double[] pnl) {
+        return Arrays.stream(pnl).boxed().toList();
+    }
+    
+    private void addTrade(TradeVarRequest request, double var) {
+        add(TRADE, payloadCodec.encode(request).bytes(), response(request.tradeId(), var));
+    }
+    
+    private byte[] response(String id, double var) {
+        return payloadCodec.encode(new VarResponse(id, var, 0.95, "HISTORICAL_SIMULATION", 1, LocalDateTime.now())).bytes();
+    }
+    
+    private void add(String endpoint, byte[] request, byte[] response) {
+        long id = records.size() + 1;
+        records.add(new ReplaySource() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+            
+            @Override
+            public String getEndpoint() {
+                return endpoint;
+            }
+            
+            @Override
+            public byte[] getRequestPayload() {
+                return request;
+            }
+            
+            @Override
+            public byte[] getResponsePayload() {
+                return response;
+            }
+        });
+    }
+}
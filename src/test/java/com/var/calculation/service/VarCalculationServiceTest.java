@@ -1,6 +1,12 @@
 package com.var.calculation.service;
 
+import com.var.calculation.config.VarCalculationProperties;
+import com.var.calculation.exception.ResourceNotFoundException;
 import com.var.calculation.model.dto.*;
+import com.var.calculation.model.enums.TradeAction;
+import com.var.calculation.model.enums.VarMethod;
+import com.var.calculation.strategy.CornishFisherStrategy;
+import com.var.calculation.strategy.CorrelationStrategy;
 import com.var.calculation.strategy.HistoricalSimulationStrategy;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -9,9 +15,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.nio.ReadOnlyBufferException;
 import java.util.List;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -28,9 +37,27 @@ class VarCalculationServiceTest {
     @Mock
     private HistoricalSimulationStrategy strategy;
     
+    @Mock
+    private CornishFisherStrategy cornishFisherStrategy;
+    
+    @Mock
+    private CorrelationStrategy correlationStrategy;
+    
     @Mock
     private AuditService auditService;
     
+    @Mock
+    private ShadowComparisonService shadowService;
+    
+    @Mock
+    private PortfolioVectorCache vectorCache;
+    
+    @Mock
+    private WarmupService warmupService;
+    
+    @Spy
+    private VarCalculationProperties properties = new VarCalculationProperties();
+    
     @InjectMocks
     private VarCalculationService service;
     
@@ -65,7 +92,24 @@ class VarCalculationServiceTest {
         assertThat(response.tradeCount()).isEqualTo(1);
         
         verify(strategy).calculateTradeVaR(samplePnL, TEST_CONFIDENCE);
-        verify(auditService).logRequest(eq(TEST_USER), eq("/api/v1/var/trade"), anyLong(), eq(true), isNull());
+        verify(auditService).logRequest(eq(TEST_USER), eq("/api/v1/var/trade"), anyLong(), eq(true), isNull(), eq(request), eq(response));
+    }
+    
+    @Test
+    @DisplayName("Should calculate trade VaR with the selected method")
+    void shouldCalculateTradeVarWithSelectedMethod() {
+        // Given
+        var request = new TradeVarRequest("TRADE-001", samplePnL, TEST_CONFIDENCE, VarMethod.CORNISH_FISHER);
+        when(cornishFisherStrategy.calculateVaR(any(double[].class), eq(TEST_CONFIDENCE))).thenReturn(9.1);
+        
+        // When
+        VarResponse response = service.calculateTradeVaR(request, TEST_USER);
+        
+        // Then
+        assertThat(response.var()).isEqualTo(9.1);
+        assertThat(response.calculationMethod()).isEqualTo("CORNISH_FISHER");
+        assertThat(request.cacheKey()).isNotEqualTo(new TradeVarRequest("TRADE-001", samplePnL, TEST_CONFIDENCE).cacheKey());
+        verifyNoInteractions(strategy);
     }
     
     @Test
@@ -84,7 +128,7 @@ class VarCalculationServiceTest {
             .isInstanceOf(IllegalArgumentException.class)
             .hasMessage(errorMessage);
         
-        verify(auditService).logRequest(eq(TEST_USER), eq("/api/v1/var/trade"), anyLong(), eq(false), eq(errorMessage));
+        verify(auditService).logRequest(eq(TEST_USER), eq("/api/v1/var/trade"), anyLong(), eq(false), eq(errorMessage), eq(request), isNull());
     }
     
     @Test
@@ -97,7 +141,10 @@ class VarCalculationServiceTest {
         Trade trade2 = new Trade("T2", samplePnL);
         PortfolioVarRequest request = new PortfolioVarRequest(portfolioId, TEST_CONFIDENCE, List.of(trade1, trade2));
         
-        when(strategy.calculatePortfolioVaR(ArgumentMatchers.<List<List<Double>>>any(), eq(TEST_CONFIDENCE))).thenReturn(expectedVar);
+        double[] portfolioPnL = {-20.0, -10.0, 0.0, 10.0, 20.0, 30.0, 40.0};
+        
+        when(strategy.aggregatePortfolioPnL(ArgumentMatchers.<List<List<Double>>>any())).thenReturn(portfolioPnL);
+        when(strategy.calculateVaR(portfolioPnL, TEST_CONFIDENCE)).thenReturn(expectedVar);
         
         // When
         VarResponse response = service.calculatePortfolioVaR(request, TEST_USER);
@@ -108,8 +155,28 @@ class VarCalculationServiceTest {
         assertThat(response.var()).isEqualTo(expectedVar);
         assertThat(response.tradeCount()).isEqualTo(2);
         
-        verify(strategy).calculatePortfolioVaR(ArgumentMatchers.<List<List<Double>>>any(), eq(TEST_CONFIDENCE));
-        verify(auditService).logRequest(eq(TEST_USER), eq("/api/v1/var/portfolio"), anyLong(), eq(true), isNull());
+        verify(strategy).calculateVaR(portfolioPnL, TEST_CONFIDENCE);
+        verify(vectorCache).put(TEST_USER, portfolioId, request.trades(), portfolioPnL);
+        verify(auditService).logRequest(eq(TEST_USER), eq("/api/v1/var/portfolio"), anyLong(), eq(true), isNull(), eq(request), eq(response));
+    }
+    
+    @Test
+    @DisplayName("Should not audit or shadow sample the warm-up user's requests")
+    void shouldNotRecordWarmupRequests() {
+        // Given
+        when(warmupService.isWarmupUser("warmup")).thenReturn(true);
+        var trade = new TradeVarRequest("WARMUP-trade-7-0", samplePnL, TEST_CONFIDENCE);
+        var portfolio = new PortfolioVarRequest("WARMUP-portfolio-7-0", TEST_CONFIDENCE, List.of(new Trade("T1", samplePnL)));
+        double[] portfolioPnL = {-20.0, -10.0, 0.0, 10.0, 20.0, 30.0, 40.0};
+        when(strategy.aggregatePortfolioPnL(ArgumentMatchers.<List<List<Double>>>any())).thenReturn(portfolioPnL);
+        
+        // When
+        service.calculateTradeVaR(trade, "warmup");
+        service.calculatePortfolioVaR(portfolio, "warmup");
+        
+        // Then
+        verify(vectorCache).put("warmup", portfolio.portfolioId(), portfolio.trades(), portfolioPnL);
+        verifyNoInteractions(auditService, shadowService);
     }
     
     @Test
@@ -121,7 +188,7 @@ class VarCalculationServiceTest {
         PortfolioVarRequest request = new PortfolioVarRequest(portfolioId, TEST_CONFIDENCE, List.of(trade));
         String errorMessage = "Invalid portfolio data";
         
-        when(strategy.calculatePortfolioVaR(ArgumentMatchers.<List<List<Double>>>any(), eq(TEST_CONFIDENCE)))
+        when(strategy.aggregatePortfolioPnL(ArgumentMatchers.<List<List<Double>>>any()))
             .thenThrow(new IllegalArgumentException(errorMessage));
         
         // When/Then
@@ -129,7 +196,7 @@ class VarCalculationServiceTest {
             .isInstanceOf(IllegalArgumentException.class)
             .hasMessage(errorMessage);
         
-        verify(auditService).logRequest(eq(TEST_USER), eq("/api/v1/var/portfolio"), anyLong(), eq(false), eq(errorMessage));
+        verify(auditService).logRequest(eq(TEST_USER), eq("/api/v1/var/portfolio"), anyLong(), eq(false), eq(errorMessage), eq(request), isNull());
     }
     
     @Test
@@ -139,7 +206,7 @@ class VarCalculationServiceTest {
         String portfolioId = "PORT-003";
         PortfolioVarRequest request = new PortfolioVarRequest(portfolioId, TEST_CONFIDENCE, List.of());
         
-        when(strategy.calculatePortfolioVaR(ArgumentMatchers.<List<List<Double>>>any(), eq(TEST_CONFIDENCE)))
+        when(strategy.aggregatePortfolioPnL(ArgumentMatchers.<List<List<Double>>>any()))
             .thenThrow(new IllegalArgumentException("No trades provided"));
         
         // When/Then
@@ -147,6 +214,119 @@ class VarCalculationServiceTest {
             .isInstanceOf(IllegalArgumentException.class);
     }
     
+    @Test
+    @DisplayName("Should apply what-if changes to the cached portfolio vector")
+    void shouldApplyWhatIfChangesToCachedVector() {
+        // Given
+        double[] cached = {-20.0, -10.0, 0.0, 10.0, 20.0, 30.0, 40.0};
+        TradeChange change = new TradeChange("T3", samplePnL, TradeAction.REMOVE, 2.0);
+        WhatIfRequest request = new WhatIfRequest("PORT-004", TEST_CONFIDENCE, List.of(change), null);
+        
+        when(vectorCache.latest(TEST_USER, "PORT-004"))
+            .thenReturn(Optional.of(new PortfolioVectorCache.PortfolioVector("fp", cached, false)));
+        when(strategy.calculateVaR(cached, TEST_CONFIDENCE)).thenReturn(12.0);
+        when(strategy.calculateVaR(argThat(v -> v != cached), eq(TEST_CONFIDENCE))).thenReturn(9.0);
+        
+        // When
+        WhatIfResponse response = service.calculateWhatIfVaR(request, TEST_USER);
+        
+        // Then
+        assertThat(response.baseVar()).isEqualTo(12.0);
+        assertThat(response.var()).isEqualTo(9.0);
+        assertThat(response.varChange()).isEqualTo(-3.0);
+        verify(strategy).addScaled(argThat(v -> v != cached), eq(samplePnL), eq(-2.0));
+        verify(strategy, never()).aggregatePortfolioPnL(ArgumentMatchers.<List<List<Double>>>any());
+    }
+    
+    @Test
+    @DisplayName("Should reject what-if for an uncached portfolio without base trades")
+    void shouldRejectWhatIfForUncachedPortfolio() {
+        // Given
+        TradeChange change = new TradeChange("T3", samplePnL, TradeAction.ADD, null);
+        WhatIfRequest request = new WhatIfRequest("PORT-005", TEST_CONFIDENCE, List.of(change), null);
+        
+        when(vectorCache.latest(TEST_USER, "PORT-005")).thenReturn(Optional.empty());
+        
+        // When/Then
+        assertThatThrownBy(() -> service.calculateWhatIfVaR(request, TEST_USER))
+            .isInstanceOf(ResourceNotFoundException.class);
+    }
+    
+    @Test
+    @DisplayName("Should prefer supplied base trades over a vector cached for other trades")
+    void shouldPreferBaseTradesOverCachedVector() {
+        // Given
+        double[] basePnL = {-20.0, -10.0, 0.0, 10.0, 20.0, 30.0, 40.0};
+        List<Trade> baseTrades = List.of(new Trade("T1", samplePnL));
+        TradeChange change = new TradeChange("T3", samplePnL, TradeAction.ADD, null);
+        WhatIfRequest request = new WhatIfRequest("PORT-007", TEST_CONFIDENCE, List.of(change), baseTrades);
+        
+        when(vectorCache.get(TEST_USER, "PORT-007", baseTrades)).thenReturn(Optional.empty());
+        when(strategy.aggregatePortfolioPnL(ArgumentMatchers.<List<List<Double>>>any())).thenReturn(basePnL);
+        
+        // When
+        service.calculateWhatIfVaR(request, TEST_USER);
+        
+        // Then
+        verify(vectorCache).put(TEST_USER, "PORT-007", baseTrades, basePnL);
+        verify(vectorCache, never()).latest(anyString(), anyString());
+        verify(strategy).calculateVaR(same(basePnL), eq(TEST_CONFIDENCE));
+    }
+    
+    @Test
+    @DisplayName("Should reject what-if against dated or offset portfolios")
+    void shouldRejectWhatIfForAlignedPortfolios() {
+        // Given
+        TradeChange change = new TradeChange("T3", samplePnL, TradeAction.ADD, null);
+        List<Trade> offsetTrades = List.of(new Trade("T1", samplePnL, null, 1));
+        WhatIfRequest withBaseTrades = new WhatIfRequest("PORT-009", TEST_CONFIDENCE, List.of(change), offsetTrades);
+        WhatIfRequest fromCache = new WhatIfRequest("PORT-010", TEST_CONFIDENCE, List.of(change), null);
+        
+        when(vectorCache.latest(TEST_USER, "PORT-010"))
+            .thenReturn(Optional.of(new PortfolioVectorCache.PortfolioVector("fp", new double[] {1.0, 2.0}, true)));
+        
+        // When/Then
+        assertThatThrownBy(() -> service.calculateWhatIfVaR(withBaseTrades, TEST_USER))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("dates or offsets");
+        assertThatThrownBy(() -> service.calculateWhatIfVaR(fromCache, TEST_USER))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("dates or offsets");
+        verify(strategy, never()).calculateVaR(any(double[].class), anyDouble());
+    }
+    
+    @Test
+    @DisplayName("Should report standalone VaRs and correlations without touching the what-if vectors")
+    void shouldCalculateDiversification() {
+        // Given
+        Trade trade1 = new Trade("T1", samplePnL);
+        Trade trade2 = new Trade("T2", samplePnL);
+        DiversificationRequest request = new DiversificationRequest("PORT-006", TEST_CONFIDENCE, List.of(trade1, trade2), null);
+        
+        double[] portfolioPnL = {-20.0, -10.0, 0.0, 10.0, 20.0, 30.0, 40.0};
+        float[] correlations = {1.0f};
+        
+        when(strategy.aggregatePortfolioPnL(any(double[][].class))).thenReturn(portfolioPnL);
+        when(strategy.calculateVaR(portfolioPnL, TEST_CONFIDENCE)).thenReturn(15.0);
+        when(strategy.calculateVaR(argThat(v -> v != portfolioPnL), eq(TEST_CONFIDENCE))).thenReturn(10.0);
+        when(correlationStrategy.correlationMatrix(any(double[][].class))).thenReturn(correlations);
+        
+        // When
+        DiversificationResponse response = service.calculateDiversification(request, TEST_USER);
+        
+        // Then
+        assertThat(response.portfolioVar()).isEqualTo(15.0);
+        assertThat(response.standaloneVars()).extracting(TradeVar::tradeId).containsExactly("T1", "T2");
+        assertThat(response.sumOfStandaloneVars()).isEqualTo(20.0);
+        assertThat(response.diversificationBenefit()).isEqualTo(5.0);
+        assertThat(response.correlationMatrix().get(0)).isEqualTo(1.0f);
+        assertThat(response.correlationMatrix().remaining()).isEqualTo(1);
+        assertThatThrownBy(() -> response.correlationMatrix().put(0, 0.0f)).isInstanceOf(ReadOnlyBufferException.class);
+        assertThat(response.topCorrelations()).isNull();
+        verifyNoInteractions(vectorCache);
+        verify(auditService).logRequest(eq(TEST_USER), eq("/api/v1/var/portfolio/diversification"), anyLong(), eq(true), isNull(), eq(request), eq(response));
+    }
+    
     @Test
     @DisplayName("Should handle null username gracefully")
     void shouldHandleNullUsername() {
@@ -159,7 +339,7 @@ class VarCalculationServiceTest {
         
         // Then
         assertThat(response).isNotNull();
-        verify(auditService).logRequest(isNull(), anyString(), anyLong(), eq(true), isNull());
+        verify(auditService).logRequest(isNull(), anyString(), anyLong(), eq(true), isNull(), eq(request), any(VarResponse.class));
     }
     
     @Test
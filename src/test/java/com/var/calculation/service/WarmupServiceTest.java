@@ -0,0 +1,196 @@
+package com.var.calculation.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.sun.net.httpserver.HttpServer;
+import com.var.calculation.config.CacheConfig;
+import com.var.calculation.config.VarCalculationProperties;
+import com.var.calculation.model.dto.Trade;
+import com.var.calculation.model.enums.WarmupState;
+import com.var.calculation.security.JwtTokenProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.var.calculation.service.Await.await;
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for the startup warm-up against a stub server standing in for this
+ * instance.
+ */
+@DisplayName("WarmupService Tests")
+class WarmupServiceTest {
+    
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final VarCalculationProperties properties = new VarCalculationProperties();
+    private final Map<String, AtomicInteger> posts = new ConcurrentHashMap<>();
+    private final MockEnvironment environment = new MockEnvironment();
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+    private final PortfolioVectorCache vectorCache = new PortfolioVectorCache(cacheManager);
+    private volatile int status = 200;
+    private volatile long delayMillis;
+    private HttpServer server;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/v1/var/", exchange -> {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            var body = objectMapper.readTree(exchange.getRequestBody());
+            assertThat(exchange.getRequestHeaders().getFirst("Authorization")).isEqualTo("Bearer token");
+            posts.computeIfAbsent(exchange.getRequestURI().getPath() + " " + body.path("trades").size(),
+                key -> new AtomicInteger()).incrementAndGet();
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        server.start();
+        environment.setProperty("local.server.port", String.valueOf(server.getAddress().getPort()));
+        
+        var warmup = properties.getWarmup();
+        warmup.setEnabled(true);
+        warmup.setIterations(12);
+        warmup.setDataPoints(List.of(10, 50));
+        warmup.setPortfolioTrades(3);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+    
+    @Test
+    @DisplayName("Should post every shape each round and then report ready")
+    void shouldWarmUpEveryShape() throws Exception {
+        // Given
+        var service = create();
+        assertThat(service.isReady()).isFalse();
+        
+        // When
+        service.start();
+        var status = awaitReady(service);
+        
+        // Then
+        assertThat(status.state()).isEqualTo(WarmupState.COMPLETED);
+        assertThat(status.requests()).isEqualTo(48);
+        assertThat(posts).containsOnlyKeys("/api/v1/var/trade 0", "/api/v1/var/portfolio 3");
+        assertThat(posts.get("/api/v1/var/trade 0")).hasValue(24);
+        assertThat(posts.get("/api/v1/var/portfolio 3")).hasValue(24);
+        assertThat(status.shapes())
+            .extracting(WarmupService.ShapeStatus::endpoint, WarmupService.ShapeStatus::points,
+                WarmupService.ShapeStatus::requests)
+            .containsExactly(
+                tuple("trade", 10, 12L), tuple("portfolio", 10, 12L),
+                tuple("trade", 50, 12L), tuple("portfolio", 50, 12L));
+        assertThat(status.shapes()).allSatisfy(shape -> assertThat(shape.latestMillis()).isPositive());
+    }
+    
+    @Test
+    @DisplayName("Should stop and report ready when the budget runs out")
+    void shouldStopAtBudget() throws Exception {
+        // Given
+        delayMillis = 50;
+        properties.getWarmup().setBudget(Duration.ofMillis(300));
+        var service = create();
+        
+        // When
+        service.start();
+        var status = awaitReady(service);
+        
+        // Then
+        assertThat(status.state()).isEqualTo(WarmupState.BUDGET_EXHAUSTED);
+        assertThat(status.requests()).isBetween(1L, 47L);
+    }
+    
+    @Test
+    @DisplayName("Should report ready with the reason when a request is rejected")
+    void shouldFailOnRejectedRequest() throws Exception {
+        // Given
+        status = 403;
+        var service = create();
+        
+        // When
+        service.start();
+        var result = awaitReady(service);
+        
+        // Then
+        assertThat(result.state()).isEqualTo(WarmupState.FAILED);
+        assertThat(result.error()).isEqualTo("Warm-up request to /api/v1/var/trade returned 403");
+        assertThat(result.requests()).isZero();
+    }
+    
+    @Test
+    @DisplayName("Should evict the warm-up user's cached results and vectors once done")
+    void shouldEvictWarmupResults() throws Exception {
+        // Given: results as the instance would have cached them, and one real entry
+        var trades = cacheManager.getCache(CacheConfig.TRADE_VAR_CACHE);
+        var portfolios = cacheManager.getCache(CacheConfig.PORTFOLIO_VAR_CACHE);
+        trades.put("WARMUP-trade-10-0_0.99_HISTORICAL_SIMULATION", "warm-up");
+        trades.put("T1_0.99_HISTORICAL_SIMULATION", "real");
+        portfolios.put("warmup_WARMUP-portfolio-50-11_0.99_HISTORICAL_SIMULATION", "warm-up");
+        var portfolioTrades = List.of(new Trade("WARMUP-portfolio-50-11-0", List.of(1.0, 2.0)));
+        vectorCache.put("warmup", "WARMUP-portfolio-50-11", portfolioTrades, new double[] {1, 2});
+        var service = create();
+        
+        // When
+        service.start();
+        awaitReady(service);
+        
+        // Then
+        assertThat(trades.get("WARMUP-trade-10-0_0.99_HISTORICAL_SIMULATION")).isNull();
+        assertThat(trades.get("T1_0.99_HISTORICAL_SIMULATION")).isNotNull();
+        assertThat(portfolios.get("warmup_WARMUP-portfolio-50-11_0.99_HISTORICAL_SIMULATION")).isNull();
+        assertThat(vectorCache.latest("warmup", "WARMUP-portfolio-50-11")).isEmpty();
+        assertThat(service.isWarmupUser("warmup")).isTrue();
+        assertThat(service.isWarmupUser("user")).isFalse();
+    }
+    
+    @Test
+    @DisplayName("Should be ready straight away when disabled")
+    void shouldBeReadyWhenDisabled() {
+        properties.getWarmup().setEnabled(false);
+        var service = create();
+        
+        service.start();
+        
+        assertThat(service.isReady()).isTrue();
+        assertThat(service.getStatus().state()).isEqualTo(WarmupState.DISABLED);
+        assertThat(service.isWarmupUser("warmup")).isFalse();
+        assertThat(posts).isEmpty();
+    }
+    
+    private WarmupService create() {
+        var userDetailsService = mock(UserDetailsService.class);
+        when(userDetailsService.loadUserByUsername("warmup"))
+            .thenReturn(User.withUsername("warmup").password("x").roles("USER").build());
+        var tokenProvider = mock(JwtTokenProvider.class);
+        when(tokenProvider.generateToken(any(Authentication.class))).thenReturn("token");
+        return new WarmupService(properties, environment, objectMapper, userDetailsService, tokenProvider,
+            cacheManager, vectorCache);
+    }
+    
+    private static WarmupService.WarmupStatus awaitReady(WarmupService service) throws InterruptedException {
+        await(service::isReady);
+        return service.getStatus();
+    }
+}
@@ -0,0 +1,129 @@
+package com.var.calculation.strategy;
+
+import com.var.calculation.config.VarCalculationProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for rolling VaR backtesting and the sliding window quantile structure.
+ */
+@DisplayName("BacktestStrategy Tests")
+class BacktestStrategyTest {
+
+    private HistoricalSimulationStrategy historicalStrategy;
+    private BacktestStrategy strategy;
+
+    @BeforeEach
+    void setUp() {
+        VarCalculationProperties properties = new VarCalculationProperties();
+        properties.setMinDataPoints(5);
+        historicalStrategy = new HistoricalSimulationStrategy(properties);
+        strategy = new BacktestStrategy(properties);
+    }
+
+    @Test
+    @DisplayName("Should match full-sort VaR for every rolling window")
+    void shouldMatchFullSortVarForEveryWindow() {
+        // Given
+        double[] pnl = generatePnL(400, 42);
+        int window = 50;
+
+        // When
+        BacktestResult result = strategy.backtest(pnl, pnl, window, 0.95);
+
+        // Then
+        assertThat(result.varSeries()).hasSize(pnl.length - window);
+        for (int day = window; day < pnl.length; day++) {
+            var slice = Arrays.stream(pnl, day - window, day).boxed().toList();
+            double expected = historicalStrategy.calculateTradeVaR(slice, 0.95);
+            assertThat(result.varSeries().get(day - window)).isCloseTo(expected, within(1e-9));
+        }
+    }
+
+    @Test
+    @DisplayName("Should flag realized losses beyond VaR as exceptions")
+    void shouldFlagExceptions() {
+        // Given
+        double[] pnl = generatePnL(300, 7);
+        double[] realized = pnl.clone();
+        realized[260] = -1_000.0;
+        realized[261] = -1_000.0;
+
+        // When
+        BacktestResult result = strategy.backtest(pnl, realized, 250, 0.99);
+
+        // Then
+        assertThat(result.exceptionIndices()).contains(260, 261);
+        assertThat(result.christoffersen().likelihoodRatio()).isGreaterThan(0);
+    }
+
+    @Test
+    @DisplayName("Should not reject a correctly calibrated model")
+    void shouldAcceptCalibratedModel() {
+        // Given
+        double[] pnl = generatePnL(3_000, 11);
+
+        // When
+        BacktestResult result = strategy.backtest(pnl, pnl, 250, 0.95);
+
+        // Then
+        assertThat(result.kupiec().pValue()).isGreaterThan(0.01);
+        assertThat(result.kupiec().degreesOfFreedom()).isEqualTo(1);
+        assertThat(result.conditionalCoverage().degreesOfFreedom()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should reject a model with far too many exceptions")
+    void shouldRejectUnderestimatingModel() {
+        // Given
+        double[] pnl = generatePnL(1_000, 3);
+        double[] realized = Arrays.stream(pnl).map(v -> v * 4).toArray();
+
+        // When
+        BacktestResult result = strategy.backtest(pnl, realized, 250, 0.99);
+
+        // Then
+        assertThat(result.kupiec().pValue()).isLessThan(0.001);
+    }
+
+    @Test
+    @DisplayName("Should require more points than the window")
+    void shouldRequireMorePointsThanWindow() {
+        double[] pnl = generatePnL(100, 1);
+
+        assertThatThrownBy(() -> strategy.backtest(pnl, pnl, 100, 0.95))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Need more than 100 data points");
+    }
+
+    @Test
+    @DisplayName("Should select order statistics after removals")
+    void shouldSelectOrderStatisticsAfterRemovals() {
+        // Given
+        double[] values = {5.0, -1.0, 3.0, 3.0, 9.0};
+        var window = new SlidingWindowQuantile(values);
+        Arrays.stream(values).forEach(window::add);
+
+        // When
+        window.remove(3.0);
+        window.remove(-1.0);
+
+        // Then
+        assertThat(window.size()).isEqualTo(3);
+        assertThat(window.select(0)).isEqualTo(3.0);
+        assertThat(window.select(1)).isEqualTo(5.0);
+        assertThat(window.select(2)).isEqualTo(9.0);
+    }
+
+    // Helper methods
+    private double[] generatePnL(int size, long seed) {
+        var random = new Random(seed);
+        return random.doubles(size).map(u -> Math.round((u - 0.5) * 2_000) / 10.0).toArray();
+    }
+}
@@ -0,0 +1,86 @@
+package com.var.calculation.strategy;
+
+import com.var.calculation.exception.DeadlineExceededException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for request deadlines and scoped fan-out.
+ */
+@DisplayName("CalculationScope Tests")
+class CalculationScopeTest {
+    
+    @Test
+    @DisplayName("Should fork subtasks in parallel and return results in order")
+    void shouldForkSubtasksInOrder() {
+        // Given
+        var scope = new CalculationScope(10_000);
+        List<Supplier<Integer>> subtasks = IntStream.range(0, 8)
+            .<Supplier<Integer>>mapToObj(i -> () -> i * i)
+            .toList();
+        
+        // When
+        var pool = new ForkJoinPool(4);
+        var results = pool.submit(() -> scope.call(() -> CalculationScope.fork(subtasks))).join();
+        pool.shutdown();
+        
+        // Then
+        assertThat(results).containsExactly(0, 1, 4, 9, 16, 25, 36, 49);
+    }
+    
+    @Test
+    @DisplayName("Should rethrow the first subtask failure and cancel its siblings")
+    void shouldPropagateFirstFailure() {
+        // Given
+        var scope = new CalculationScope(10_000);
+        var finished = new AtomicInteger();
+        List<Supplier<Integer>> subtasks = List.of(
+            () -> {
+                throw new IllegalArgumentException("All trades must have the same number of data points");
+            },
+            () -> {
+                while (true) {
+                    CalculationScope.checkpoint();
+                }
+            },
+            () -> finished.incrementAndGet()
+        );
+        
+        // When / Then
+        var pool = new ForkJoinPool(2);
+        assertThatThrownBy(() -> pool.submit(() -> scope.call(() -> CalculationScope.fork(subtasks))).get())
+            .hasCauseInstanceOf(IllegalArgumentException.class)
+            .hasRootCauseMessage("All trades must have the same number of data points");
+        pool.shutdown();
+    }
+    
+    @Test
+    @DisplayName("Should stop work that passes its deadline")
+    void shouldStopAtDeadline() {
+        var scope = new CalculationScope(20);
+        
+        assertThatThrownBy(() -> scope.call(() -> {
+            while (true) {
+                CalculationScope.checkpoint();
+            }
+        }))
+            .isInstanceOf(DeadlineExceededException.class)
+            .hasMessageContaining("20 ms");
+    }
+    
+    @Test
+    @DisplayName("Should run subtasks sequentially outside a scope")
+    void shouldRunSequentiallyOutsideScope() {
+        List<Supplier<String>> subtasks = List.of(() -> "a", () -> "b");
+        
+        assertThat(CalculationScope.fork(subtasks)).containsExactly("a", "b");
+    }
+}
@@ -0,0 +1,106 @@
+package com.var.calculation.strategy;
+
+import com.var.calculation.config.VarCalculationProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for single-pass moments and Cornish-Fisher VaR.
+ */
+@DisplayName("CornishFisherStrategy Tests")
+class CornishFisherStrategyTest {
+    
+    private final CornishFisherStrategy strategy = new CornishFisherStrategy(new VarCalculationProperties());
+    
+    @Test
+    @DisplayName("Should match two-pass moments and merge chunks exactly")
+    void shouldMatchTwoPassMoments() {
+        // Given: a large offset that would cancel raw power sums
+        double[] pnl = new Random(3).doubles(300_000).map(u -> 1e6 + Math.exp(3 * u)).toArray();
+        
+        // When
+        var chunked = strategy.moments(pnl);
+        var single = Moments.of(pnl, 0, pnl.length);
+        
+        // Then
+        double mean = 0;
+        for (double value : pnl) {
+            mean += value;
+        }
+        mean /= pnl.length;
+        double m2 = 0, m3 = 0, m4 = 0;
+        for (double value : pnl) {
+            double d = value - mean;
+            m2 += d * d;
+            m3 += d * d * d;
+            m4 += d * d * d * d;
+        }
+        double skewness = Math.sqrt(pnl.length) * m3 / Math.pow(m2, 1.5);
+        double kurtosis = pnl.length * m4 / (m2 * m2) - 3;
+        
+        for (var moments : new Moments[] {chunked, single}) {
+            assertThat(moments.count()).isEqualTo(pnl.length);
+            assertThat(moments.mean()).isCloseTo(mean, within(1e-6));
+            assertThat(moments.standardDeviation()).isCloseTo(Math.sqrt(m2 / (pnl.length - 1)), withinPercentage(1e-6));
+            assertThat(moments.skewness()).isCloseTo(skewness, within(1e-6));
+            assertThat(moments.excessKurtosis()).isCloseTo(kurtosis, within(1e-6));
+        }
+    }
+    
+    @Test
+    @DisplayName("Should reduce to parametric normal VaR for normal P&L")
+    void shouldMatchNormalVarForNormalPnL() {
+        // Given
+        var random = new Random(5);
+        double[] pnl = new double[200_000];
+        for (int i = 0; i < pnl.length; i++) {
+            pnl[i] = random.nextGaussian() * 1000;
+        }
+        
+        // When
+        double var = strategy.calculateVaR(pnl, 0.99);
+        
+        // Then
+        assertThat(var).isCloseTo(2326.3, withinPercentage(1));
+    }
+    
+    @Test
+    @DisplayName("Should widen VaR for negatively skewed, fat-tailed P&L")
+    void shouldAdjustForSkewAndKurtosis() {
+        // Given: lognormal losses, skewness about -1.7 and excess kurtosis about 6
+        var random = new Random(9);
+        double[] pnl = new double[100_000];
+        for (int i = 0; i < pnl.length; i++) {
+            pnl[i] = 1000 - 1000 * Math.exp(0.5 * random.nextGaussian());
+        }
+        var moments = Moments.of(pnl, 0, pnl.length);
+        double normalVar = Math.abs(moments.mean() - 2.3263 * moments.standardDeviation());
+        
+        // When
+        double var = strategy.calculateVaR(pnl, 0.99);
+        
+        // Then
+        assertThat(moments.skewness()).isNegative();
+        assertThat(var).isGreaterThan(normalVar);
+    }
+    
+    @Test
+    @DisplayName("Should invert the normal CDF accurately")
+    void shouldInvertNormalCdf() {
+        assertThat(CornishFisherStrategy.inverseNormal(0.5)).isCloseTo(0, within(1e-12));
+        assertThat(CornishFisherStrategy.inverseNormal(0.01)).isCloseTo(-2.326347874, within(1e-8));
+        assertThat(CornishFisherStrategy.inverseNormal(0.975)).isCloseTo(1.959963985, within(1e-8));
+    }
+    
+    @Test
+    @DisplayName("Should reject too few data points")
+    void shouldRejectShortSeries() {
+        assertThatThrownBy(() -> strategy.calculateVaR(new double[] {1, 2}, 0.99))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("data points");
+    }
+}
@@ -0,0 +1,109 @@
+package com.var.calculation.strategy;
+
+import com.var.calculation.strategy.CorrelationStrategy.CorrelatedPair;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for the blocked trade correlation matrix.
+ */
+@DisplayName("CorrelationStrategy Tests")
+class CorrelationStrategyTest {
+    
+    private final CorrelationStrategy strategy = new CorrelationStrategy();
+    
+    @Test
+    @DisplayName("Should match a naive Pearson correlation across block boundaries")
+    void shouldMatchNaiveCorrelation() {
+        // Given
+        double[][] pnl = randomPnL(CorrelationStrategy.BLOCK * 2 + 9, 120);
+        int n = pnl.length;
+        
+        // When
+        var pool = new ForkJoinPool(4);
+        var scope = new CalculationScope(60_000);
+        float[] packed = pool.submit(() -> scope.call(() -> strategy.correlationMatrix(pnl))).join();
+        pool.shutdown();
+        
+        // Then
+        assertThat(packed).hasSize(n * (n - 1) / 2);
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                assertThat((double) packed[CorrelationStrategy.packedIndex(i, j, n)])
+                    .isCloseTo(pearson(pnl[i], pnl[j]), within(1e-6));
+            }
+        }
+    }
+    
+    @Test
+    @DisplayName("Should return the strongest pairs by absolute correlation")
+    void shouldReturnTopPairs() {
+        // Given
+        double[][] pnl = randomPnL(150, 60);
+        pnl[7] = pnl[3].clone();
+        for (int i = 0; i < pnl[11].length; i++) {
+            pnl[11][i] = -2 * pnl[5][i];
+        }
+        
+        // When
+        var top = strategy.topPairs(pnl, 5);
+        
+        // Then
+        var all = new ArrayList<CorrelatedPair>();
+        for (int i = 0; i < pnl.length; i++) {
+            for (int j = i + 1; j < pnl.length; j++) {
+                all.add(new CorrelatedPair(i, j, pearson(pnl[i], pnl[j])));
+            }
+        }
+        all.sort(Comparator.comparingDouble((CorrelatedPair pair) -> Math.abs(pair.correlation())).reversed());
+        
+        assertThat(top).hasSize(5);
+        assertThat(top.subList(0, 2)).extracting(CorrelatedPair::first, CorrelatedPair::second)
+            .containsExactlyInAnyOrder(tuple(3, 7), tuple(5, 11));
+        for (int k = 0; k < 5; k++) {
+            assertThat(Math.abs(top.get(k).correlation())).isCloseTo(Math.abs(all.get(k).correlation()), within(1e-9));
+        }
+    }
+    
+    @Test
+    @DisplayName("Should report zero correlation for constant P&L")
+    void shouldReportZeroForConstantPnL() {
+        double[][] pnl = {{1, 2, 3, 4, 5}, {7, 7, 7, 7, 7}};
+        
+        assertThat(strategy.correlationMatrix(pnl)).containsExactly(0f);
+    }
+    
+    private static double[][] randomPnL(int trades, int periods) {
+        var random = new Random(17);
+        var pnl = new double[trades][];
+        for (int t = 0; t < trades; t++) {
+            pnl[t] = random.doubles(periods, -100, 100).toArray();
+        }
+        return pnl;
+    }
+    
+    private static double pearson(double[] x, double[] y) {
+        double meanX = 0;
+        double meanY = 0;
+        for (int i = 0; i < x.length; i++) {
+            meanX += x[i] / x.length;
+            meanY += y[i] / y.length;
+        }
+        double covariance = 0;
+        double varianceX = 0;
+        double varianceY = 0;
+        for (int i = 0; i < x.length; i++) {
+            covariance += (x[i] - meanX) * (y[i] - meanY);
+            varianceX += (x[i] - meanX) * (x[i] - meanX);
+            varianceY += (y[i] - meanY) * (y[i] - meanY);
+        }
+        return covariance / Math.sqrt(varianceX * varianceY);
+    }
+}
@@ -0,0 +1,66 @@
+package com.var.calculation.strategy;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for the blocked factor P&L product.
+ */
+@DisplayName("FactorPnLStrategy Tests")
+class FactorPnLStrategyTest {
+    
+    private final FactorPnLStrategy strategy = new FactorPnLStrategy();
+    
+    @Test
+    @DisplayName("Should match a naive product for sizes that do not divide the blocks")
+    void shouldMatchNaiveProduct() {
+        // Given
+        int trades = FactorPnLStrategy.TRADE_BLOCK + 7;
+        int factors = FactorPnLStrategy.FACTOR_BLOCK + 13;
+        int scenarios = FactorPnLStrategy.SCENARIO_BLOCK * 2 + 5;
+        var random = new Random(3);
+        double[] sensitivities = random.doubles(trades * factors, -1_000, 1_000).toArray();
+        double[] returns = random.doubles(scenarios * factors, -0.05, 0.05).toArray();
+        
+        // When
+        var pool = new ForkJoinPool(4);
+        var scope = new CalculationScope(60_000);
+        double[][] pnl = pool.submit(() -> scope.call(() -> 
+            strategy.tradePnL(sensitivities, trades, returns, factors))).join();
+        pool.shutdown();
+        
+        // Then
+        for (int t = 0; t < trades; t++) {
+            for (int s = 0; s < scenarios; s++) {
+                double expected = 0;
+                for (int f = 0; f < factors; f++) {
+                    expected += sensitivities[t * factors + f] * returns[s * factors + f];
+                }
+                assertThat(pnl[t][s]).isCloseTo(expected, within(1e-6));
+            }
+        }
+    }
+    
+    @Test
+    @DisplayName("Should reject sensitivities with the wrong number of factors")
+    void shouldRejectMismatchedFactors() {
+        assertThatThrownBy(() -> strategy.tradePnL(new double[5], 2, new double[6], 3))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("3 factors");
+    }
+    
+    @Test
+    @DisplayName("Should reject matrix sizes that overflow an int instead of wrapping")
+    void shouldRejectOverflowingSizes() {
+        // 65,536 x 65,536 wraps to 0, which an empty sensitivity array would otherwise match
+        assertThatThrownBy(() -> strategy.tradePnL(new double[0], 65_536, new double[65_536], 65_536))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("too large");
+        assertThat(FactorPnLStrategy.matrixSize(1000, 200)).isEqualTo(200_000);
+    }
+}
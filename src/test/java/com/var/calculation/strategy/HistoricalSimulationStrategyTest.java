@@ -160,6 +160,88 @@ class HistoricalSimulationStrategyTest {
             .isInstanceOf(IllegalArgumentException.class);
     }
     
+    @Test
+    @DisplayName("Should match daily VaR for a one-day horizon")
+    void shouldMatchDailyVarForOneDayHorizon() {
+        // Given
+        List<Double> pnl = generatePnL(100);
+        double[] daily = pnl.stream().mapToDouble(Double::doubleValue).toArray();
+        
+        // When
+        double[] vars = strategy.calculateHorizonVaR(daily, new int[] {1}, 0.95);
+        
+        // Then
+        assertThat(vars[0]).isCloseTo(strategy.calculateTradeVaR(pnl, 0.95), within(1e-9));
+    }
+    
+    @Test
+    @DisplayName("Should calculate multi-day VaR from overlapping summed P&L")
+    void shouldCalculateMultiDayVarFromOverlappingSums() {
+        // Given
+        double[] daily = new java.util.Random(17).doubles(250, -100, 100).toArray();
+        int horizon = 10;
+        
+        double[] overlapping = new double[daily.length - horizon + 1];
+        for (int i = 0; i < overlapping.length; i++) {
+            for (int j = 0; j < horizon; j++) {
+                overlapping[i] += daily[i + j];
+            }
+        }
+        
+        // When
+        double[] vars = strategy.calculateHorizonVaR(daily, new int[] {horizon, 1}, 0.99);
+        
+        // Then
+        assertThat(vars[0]).isCloseTo(strategy.calculateVaR(overlapping, 0.99), within(1e-9));
+        assertThat(vars[1]).isCloseTo(strategy.calculateVaR(daily, 0.99), within(1e-9));
+    }
+    
+    @Test
+    @DisplayName("Should throw exception when horizon leaves too few scenarios")
+    void shouldThrowExceptionForTooLongHorizon() {
+        // Given
+        double[] daily = new double[10];
+        
+        // When/Then
+        assertThatThrownBy(() -> strategy.calculateHorizonVaR(daily, new int[] {8}, 0.95))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Need at least 12 data points for a 8-day horizon");
+    }
+    
+    @Test
+    @DisplayName("Should allocate portfolio VaR and expected shortfall to trades exactly")
+    void shouldAllocateContributionsSummingToPortfolio() {
+        // Given: three trades over 250 scenarios
+        var random = new java.util.Random(7);
+        int n = 250;
+        double[][] trades = new double[3][n];
+        double[] portfolio = new double[n];
+        for (int i = 0; i < n; i++) {
+            double market = random.nextGaussian();
+            trades[0][i] = 100 * market + 10 * random.nextGaussian();
+            trades[1][i] = -40 * market + 30 * random.nextGaussian();
+            trades[2][i] = 20 * random.nextGaussian();
+            portfolio[i] = trades[0][i] + trades[1][i] + trades[2][i];
+        }
+        double[] levels = {0.95, 0.99};
+        
+        // When
+        var total = strategy.calculateTailRisk(portfolio, levels);
+        var contributions = strategy.calculateContributions(trades, portfolio, levels);
+        
+        // Then
+        assertThat(contributions).hasSize(3);
+        for (int l = 0; l < levels.length; l++) {
+            int level = l;
+            double var = contributions.stream().mapToDouble(risks -> risks.get(level).var()).sum();
+            double es = contributions.stream().mapToDouble(risks -> risks.get(level).expectedShortfall()).sum();
+            assertThat(var).isCloseTo(total.get(level).var(), within(1e-9));
+            assertThat(es).isCloseTo(total.get(level).expectedShortfall(), within(1e-9));
+        }
+        // The hedge offsets losses of the market-driven trade in the tail
+        assertThat(contributions.get(1).get(1).expectedShortfall()).isNegative();
+    }
+    
     // Helper methods
     private List<Double> generatePnL(int size) {
         return java.util.stream.IntStream.range(0, size)
@@ -0,0 +1,104 @@
+package com.var.calculation.strategy;
+
+import com.var.calculation.model.enums.MissingDataPolicy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for k-way merge alignment of trade P&L series.
+ */
+@DisplayName("PnLAlignmentStrategy Tests")
+class PnLAlignmentStrategyTest {
+    
+    private static final LocalDate MONDAY = LocalDate.of(2026, 1, 5);
+    
+    private final PnLAlignmentStrategy strategy = new PnLAlignmentStrategy();
+    
+    // Trade A trades Mon-Fri, trade B starts Tuesday and skips Thursday
+    private final List<PnLAlignmentStrategy.AlignedSeries> series = List.of(
+        PnLAlignmentStrategy.dated("A", List.of(1.0, 2.0, 3.0, 4.0, 5.0), days(0, 1, 2, 3, 4)),
+        PnLAlignmentStrategy.dated("B", List.of(10.0, 20.0, 40.0), days(1, 2, 4))
+    );
+    
+    @Test
+    @DisplayName("Should keep only common dates when intersecting")
+    void shouldIntersectDates() {
+        assertThat(strategy.aggregate(series, MissingDataPolicy.INTERSECT))
+            .containsExactly(12.0, 23.0, 45.0);
+    }
+    
+    @Test
+    @DisplayName("Should treat missing P&L as zero when zero-filling")
+    void shouldZeroFillDates() {
+        assertThat(strategy.aggregate(series, MissingDataPolicy.ZERO_FILL))
+            .containsExactly(1.0, 12.0, 23.0, 4.0, 45.0);
+    }
+    
+    @Test
+    @DisplayName("Should name the first misaligned date when rejecting")
+    void shouldRejectMissingDates() {
+        assertThatThrownBy(() -> strategy.aggregate(series, MissingDataPolicy.REJECT))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("1 of 2 trades have no P&L on 2026-01-05");
+    }
+    
+    @Test
+    @DisplayName("Should match a padded reference sum for many offset series")
+    void shouldMatchPaddedReference() {
+        // Given
+        var random = new Random(4);
+        var offsets = new ArrayList<PnLAlignmentStrategy.AlignedSeries>();
+        var reference = new double[2_000];
+        for (int t = 0; t < 50; t++) {
+            int offset = random.nextInt(1_000);
+            int length = 1 + random.nextInt(1_000);
+            var pnl = new ArrayList<Double>();
+            for (int i = 0; i < length; i++) {
+                double value = random.nextGaussian();
+                pnl.add(value);
+                reference[offset + i] += value;
+            }
+            offsets.add(PnLAlignmentStrategy.offset("T" + t, pnl, offset));
+        }
+        
+        // When
+        var aligned = strategy.aggregate(offsets, MissingDataPolicy.ZERO_FILL);
+        
+        // Then: every period from the earliest start to the latest end is present
+        int first = offsets.stream().mapToInt(s -> (int) s.period(0)).min().orElseThrow();
+        int last = offsets.stream().mapToInt(s -> (int) s.period(s.size() - 1)).max().orElseThrow();
+        assertThat(aligned).hasSize(last - first + 1);
+        for (int i = 0; i < aligned.length; i++) {
+            assertThat(aligned[i]).isCloseTo(reference[first + i], within(1e-9));
+        }
+    }
+    
+    @Test
+    @DisplayName("Should reject unordered, missing and mismatched dates")
+    void shouldRejectInvalidSeries() {
+        var unordered = List.of(PnLAlignmentStrategy.dated("C", List.of(1.0, 2.0), days(1, 0)));
+        assertThatThrownBy(() -> strategy.aggregate(unordered, MissingDataPolicy.INTERSECT))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("P&L dates of trade C must be strictly increasing");
+        
+        assertThatThrownBy(() -> PnLAlignmentStrategy.dated("D", List.of(1.0), days(0, 1)))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Trade D must have one date per P&L point");
+        
+        assertThatThrownBy(() -> PnLAlignmentStrategy.dated("E", List.of(1.0, 2.0), Arrays.asList(MONDAY, null)))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Trade E has a missing date");
+    }
+    
+    private static List<LocalDate> days(int... offsets) {
+        return Arrays.stream(offsets).mapToObj(MONDAY::plusDays).toList();
+    }
+}
@@ -0,0 +1,88 @@
+package com.var.calculation.strategy;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Accuracy and merge tests for the t-digest quantile sketch.
+ */
+@DisplayName("QuantileSketch Tests")
+class QuantileSketchTest {
+    
+    private static final double CONFIDENCE = 0.99;
+    
+    @Test
+    @DisplayName("Should approximate tail VaR and ES within the reported rank error")
+    void shouldApproximateTailWithinBound() {
+        // Given
+        double[] pnl = new Random(21).doubles(1_000_000).map(u -> 100 * Math.tan(Math.PI * (u - 0.5)) / 50).toArray();
+        var sketch = new QuantileSketch(200);
+        sketch.addAll(pnl, pnl.length);
+        
+        // When
+        double var = sketch.var(CONFIDENCE);
+        double bound = sketch.rankErrorBound(CONFIDENCE);
+        
+        // Then
+        var sorted = pnl.clone();
+        Arrays.sort(sorted);
+        double rank = rankOf(sorted, -var) / (double) sorted.length;
+        assertThat(rank).isCloseTo(1 - CONFIDENCE, within(bound + 1e-4));
+        assertThat(bound).isLessThan(0.002);
+        assertThat(sketch.centroidCount()).isLessThan(500);
+        
+        int tail = (int) ((1 - CONFIDENCE) * sorted.length);
+        double exactShortfall = -Arrays.stream(sorted, 0, tail).average().orElseThrow();
+        assertThat(sketch.expectedShortfall(CONFIDENCE)).isCloseTo(exactShortfall, withinPercentage(1));
+    }
+    
+    @Test
+    @DisplayName("Should give the same answer when a series is ingested in parts and merged")
+    void shouldMergePartitions() {
+        // Given
+        double[] pnl = new Random(8).doubles(200_000, -1_000, 1_000).toArray();
+        var whole = new QuantileSketch(200);
+        whole.addAll(pnl, pnl.length);
+        
+        var first = new QuantileSketch(200);
+        first.addAll(Arrays.copyOfRange(pnl, 0, 100_000), 100_000);
+        var second = QuantileSketch.fromBytes(sketchOf(Arrays.copyOfRange(pnl, 100_000, 200_000)).toBytes(), 200);
+        
+        // When
+        first.merge(second);
+        
+        // Then
+        assertThat(first.count()).isEqualTo(200_000);
+        assertThat(first.var(CONFIDENCE)).isCloseTo(whole.var(CONFIDENCE), withinPercentage(0.5));
+        assertThat(first.var(CONFIDENCE)).isCloseTo(980.0, withinPercentage(0.5));
+    }
+    
+    @Test
+    @DisplayName("Should reject empty sketches, invalid encodings and oversized compressions")
+    void shouldRejectInvalidUse() {
+        assertThatThrownBy(() -> new QuantileSketch(100).var(0.99))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Sketch is empty");
+        assertThatThrownBy(() -> QuantileSketch.fromBytes(new byte[] {1, 2, 3}, 200))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> QuantileSketch.fromBytes(sketchOf(new double[] {1.0}).toBytes(), 100))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("compression");
+    }
+    
+    private static QuantileSketch sketchOf(double[] values) {
+        var sketch = new QuantileSketch(200);
+        sketch.addAll(values, values.length);
+        return sketch;
+    }
+    
+    private static int rankOf(double[] sorted, double value) {
+        int index = Arrays.binarySearch(sorted, value);
+        return index >= 0 ? index : -index - 1;
+    }
+}
@@ -0,0 +1,81 @@
+package com.var.calculation.strategy;
+
+import com.var.calculation.config.VarCalculationProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests that selection-based VaR matches the sorting implementation exactly.
+ */
+@DisplayName("SelectionVarEngine Tests")
+class SelectionVarEngineTest {
+    
+    private final SelectionVarEngine engine = new SelectionVarEngine();
+    private final HistoricalSimulationStrategy baseline = new HistoricalSimulationStrategy(new VarCalculationProperties());
+    
+    @ParameterizedTest
+    @ValueSource(ints = {5, 17, 250, 1001, 100_000})
+    @DisplayName("Should match historical simulation exactly on random P&L")
+    void shouldMatchBaselineOnRandomData(int size) {
+        // Given
+        var random = new Random(size);
+        var pnl = random.doubles(size).map(u -> (u - 0.5) * 1e4).toArray();
+        var original = pnl.clone();
+        
+        // When/Then
+        for (double confidenceLevel : new double[] {0.9, 0.95, 0.975, 0.99, 0.999}) {
+            assertThat(engine.calculateVaR(pnl, confidenceLevel))
+                .as("confidence %s", confidenceLevel)
+                .isEqualTo(baseline.calculateVaR(pnl, confidenceLevel));
+        }
+        assertThat(pnl).isEqualTo(original);
+    }
+    
+    @Test
+    @DisplayName("Should match on sorted, reversed and heavily duplicated input")
+    void shouldMatchBaselineOnAdversarialOrders() {
+        // Given
+        int size = 50_000;
+        var sorted = new double[size];
+        var duplicated = new double[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = i - size / 2.0;
+            duplicated[i] = i % 3 - 1;
+        }
+        var reversed = new double[size];
+        for (int i = 0; i < size; i++) {
+            reversed[i] = sorted[size - 1 - i];
+        }
+        var constant = new double[size];
+        Arrays.fill(constant, -42.5);
+        
+        // When/Then
+        for (var pnl : new double[][] {sorted, reversed, duplicated, constant}) {
+            assertThat(engine.calculateVaR(pnl, 0.99)).isEqualTo(baseline.calculateVaR(pnl, 0.99));
+        }
+    }
+    
+    @Test
+    @DisplayName("Should place the k-th smallest value with smaller values before it")
+    void shouldPartitionAroundSelectedValue() {
+        // Given
+        var values = new Random(1).doubles(1000).toArray();
+        var expected = values.clone();
+        Arrays.sort(expected);
+        
+        // When
+        double selected = SelectionVarEngine.select(values, 123);
+        
+        // Then
+        assertThat(selected).isEqualTo(expected[123]);
+        assertThat(Arrays.stream(values, 0, 123).max().orElseThrow()).isLessThanOrEqualTo(selected);
+        assertThat(Arrays.stream(values, 124, 1000).min().orElseThrow()).isGreaterThanOrEqualTo(selected);
+    }
+}
@@ -0,0 +1,93 @@
+package com.var.calculation.strategy;
+
+import com.var.calculation.config.VarCalculationProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for the stressed VaR window search.
+ */
+@DisplayName("StressedVarStrategy Tests")
+class StressedVarStrategyTest {
+
+    private HistoricalSimulationStrategy historicalStrategy;
+    private StressedVarStrategy strategy;
+
+    @BeforeEach
+    void setUp() {
+        VarCalculationProperties properties = new VarCalculationProperties();
+        properties.setMinDataPoints(5);
+        historicalStrategy = new HistoricalSimulationStrategy(properties);
+        strategy = new StressedVarStrategy(properties);
+    }
+
+    @Test
+    @DisplayName("Should find the same worst window as a brute-force search")
+    void shouldMatchBruteForceSearch() {
+        // Given
+        double[] pnl = new Random(5).doubles(600, -100, 100).toArray();
+        int window = 60;
+
+        // When
+        StressedWindow result = strategy.findStressedWindow(pnl, window, 0.99);
+
+        // Then
+        double worst = 0;
+        for (int start = 0; start + window <= pnl.length; start++) {
+            worst = Math.max(worst, historicalStrategy.calculateVaR(Arrays.copyOfRange(pnl, start, start + window), 0.99));
+        }
+        assertThat(result.var()).isCloseTo(worst, within(1e-9));
+        assertThat(result.end() - result.start()).isEqualTo(window);
+    }
+
+    @Test
+    @DisplayName("Should locate an injected crisis period")
+    void shouldLocateCrisisPeriod() {
+        // Given
+        double[] pnl = new Random(9).doubles(1_000, -10, 10).toArray();
+        for (int i = 500; i < 540; i++) {
+            pnl[i] = -500;
+        }
+
+        // When
+        StressedWindow result = strategy.findStressedWindow(pnl, 100, 0.95);
+
+        // Then
+        assertThat(result.var()).isEqualTo(500.0);
+        assertThat(result.start()).isLessThan(540);
+        assertThat(result.end()).isGreaterThan(500);
+    }
+
+    @Test
+    @DisplayName("Should prefer a loss window over a window of large profits")
+    void shouldIgnoreProfitWindows() {
+        // Given: a window whose 5% quantile is a large profit, then a modest loss
+        double[] pnl = new double[300];
+        Arrays.fill(pnl, 0, 100, 1_000);
+        Arrays.fill(pnl, 100, 200, 0);
+        Arrays.fill(pnl, 200, 300, -50);
+
+        // When
+        StressedWindow result = strategy.findStressedWindow(pnl, 100, 0.95);
+
+        // Then
+        assertThat(result.start()).isGreaterThan(100);
+        assertThat(result.var()).isEqualTo(50.0);
+    }
+
+    @Test
+    @DisplayName("Should throw exception when history is shorter than window")
+    void shouldThrowExceptionForShortHistory() {
+        double[] pnl = new double[50];
+
+        assertThatThrownBy(() -> strategy.findStressedWindow(pnl, 100, 0.99))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Need at least 100 data points");
+    }
+}